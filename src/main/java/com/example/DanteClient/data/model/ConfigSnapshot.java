@@ -0,0 +1,131 @@
+package com.example.DanteClient.data.model;
+
+import java.util.Objects;
+
+/**
+ * Instantánea inmutable de los parámetros de audio/red de la configuración
+ * Se publica con un número de versión cada vez que cambian los parámetros, para que los
+ * threads de canal la lean en el límite de bloque sin volver a consultar la configuración
+ */
+public final class ConfigSnapshot {
+
+    private final long version;
+    private final String server;
+    private final String port;
+    private final String multicastAddress;
+    private final int multicastPort;
+    private final int chunkSize;
+    private final int timeout;
+    private final int channelNumbers;
+    private final int frequency;
+
+    public ConfigSnapshot(long version, String server, String port, String multicastAddress, int multicastPort,
+                          int chunkSize, int timeout, int channelNumbers, int frequency) {
+        this.version = version;
+        this.server = server;
+        this.port = port;
+        this.multicastAddress = multicastAddress;
+        this.multicastPort = multicastPort;
+        this.chunkSize = chunkSize;
+        this.timeout = timeout;
+        this.channelNumbers = channelNumbers;
+        this.frequency = frequency;
+    }
+
+    /**
+     * Crea una instantánea a partir de la configuración
+     * @throws NumberFormatException si algún valor numérico guardado como texto no es válido
+     */
+    public static ConfigSnapshot from(DanteConfig config, long version) {
+        return new ConfigSnapshot(
+                version,
+                config.getServer(),
+                config.getPort(),
+                config.getMulticastAddress(),
+                Integer.parseInt(config.getMulticastPort()),
+                Integer.parseInt(config.getChunkSize()),
+                Integer.parseInt(config.getTimeout()),
+                config.getChannelNumbers(),
+                config.getFrequency()
+        );
+    }
+
+    /**
+     * Verifica si dos instantáneas tienen los mismos parámetros (ignorando la versión)
+     */
+    public boolean sameSettings(ConfigSnapshot other) {
+        return other != null
+                && multicastPort == other.multicastPort
+                && chunkSize == other.chunkSize
+                && timeout == other.timeout
+                && channelNumbers == other.channelNumbers
+                && frequency == other.frequency
+                && Objects.equals(server, other.server)
+                && Objects.equals(port, other.port)
+                && Objects.equals(multicastAddress, other.multicastAddress);
+    }
+
+    /**
+     * Cambiar de grupo/puerto multicast requiere una nueva suscripción
+     */
+    public boolean requiresIngestChange(ConfigSnapshot other) {
+        return multicastPort != other.multicastPort
+                || !Objects.equals(multicastAddress, other.multicastAddress)
+                || !Objects.equals(port, other.port);
+    }
+
+    /**
+     * Cambiar la frecuencia requiere abrir una línea de audio con otro formato
+     */
+    public boolean requiresSinkChange(ConfigSnapshot other) {
+        return frequency != other.frequency;
+    }
+
+    // Getters
+    public long getVersion() {
+        return version;
+    }
+
+    public String getServer() {
+        return server;
+    }
+
+    public String getPort() {
+        return port;
+    }
+
+    public String getMulticastAddress() {
+        return multicastAddress;
+    }
+
+    public int getMulticastPort() {
+        return multicastPort;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getTimeout() {
+        return timeout;
+    }
+
+    public int getChannelNumbers() {
+        return channelNumbers;
+    }
+
+    public int getFrequency() {
+        return frequency;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigSnapshot{" +
+                "version=" + version +
+                ", multicast=" + multicastAddress + ":" + multicastPort +
+                ", chunkSize=" + chunkSize +
+                ", timeout=" + timeout +
+                ", frequency=" + frequency +
+                '}';
+    }
+}
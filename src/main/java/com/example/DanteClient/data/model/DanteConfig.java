@@ -9,6 +9,16 @@ import java.util.ArrayList;
  */
 public class DanteConfig {
     
+    // Valores por defecto (los mismos que trae config_dante.json); única fuente para el cargador y los getters
+    public static final String DEFAULT_SERVER = "192.168.1.100";
+    public static final String DEFAULT_PORT = "8080";
+    public static final String DEFAULT_MULTICAST_ADDRESS = "224.0.0.3";
+    public static final String DEFAULT_MULTICAST_PORT = "5001";
+    public static final String DEFAULT_CHUNK_SIZE = "64";
+    public static final String DEFAULT_TIMEOUT = "5000";
+    public static final int DEFAULT_CHANNEL_NUMBERS = 64;
+    public static final int DEFAULT_FREQUENCY = 44100;
+    
     @JsonProperty("server")
     private String server;
     
@@ -56,6 +66,14 @@ public class DanteConfig {
         this.channels = new ArrayList<>();
     }
     
+    /**
+     * Configuración con los valores por defecto y sin canales
+     */
+    public static DanteConfig defaults() {
+        return new DanteConfig(DEFAULT_SERVER, DEFAULT_PORT, DEFAULT_MULTICAST_ADDRESS, DEFAULT_MULTICAST_PORT,
+                DEFAULT_CHUNK_SIZE, DEFAULT_TIMEOUT, DEFAULT_CHANNEL_NUMBERS, DEFAULT_FREQUENCY);
+    }
+    
     // Getters y Setters
     public String getServer() {
         return server;
@@ -344,16 +344,7 @@ public class DanteConfigService {
      * Crea una configuración por defecto si no existe
      */
     public DanteConfig createDefaultConfig() {
-        DanteConfig defaultConfig = new DanteConfig(
-                "192.168.1.100",
-                "8080", 
-                "224.0.0.1",
-                "5000",
-                "1024",
-                "5000",
-                64,
-                44100
-        );
+        DanteConfig defaultConfig = DanteConfig.defaults();
         
         // Añadir algunos canales por defecto
         defaultConfig.addChannel(new Channel(1, "Channel 1", true));
@@ -1,5 +1,6 @@
 package com.example.DanteClient.data.singleton;
 
+import com.example.DanteClient.data.model.ConfigSnapshot;
 import com.example.DanteClient.data.model.DanteConfig;
 import com.example.DanteClient.data.model.Channel;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -12,6 +13,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Singleton para mantener la configuración de Dante en RAM
@@ -25,6 +27,10 @@ public class ConfigSingleton {
     private final ObjectMapper objectMapper;
     private final Object lock = new Object(); // Para thread safety
     
+    // Instantánea inmutable publicada para los threads de audio (lectura sin lock)
+    private volatile ConfigSnapshot snapshot;
+    private final AtomicLong snapshotVersion = new AtomicLong();
+    
     public ConfigSingleton() {
         this.objectMapper = new ObjectMapper();
         instance = this; // Asignar instancia para acceso estático
@@ -63,6 +69,7 @@ public class ConfigSingleton {
     public void updateConfigInMemory(DanteConfig newConfig) {
         synchronized (lock) {
             this.configInMemory = newConfig;
+            publishSnapshot(newConfig);
             System.out.println("Configuración actualizada en RAM");
         }
     }
@@ -76,6 +83,22 @@ public class ConfigSingleton {
         }
     }
     
+    /**
+     * Obtiene la última instantánea publicada de los parámetros de audio/red
+     */
+    public ConfigSnapshot getSnapshot() {
+        ConfigSnapshot current = snapshot;
+        if (current == null) {
+            synchronized (lock) {
+                if (snapshot == null) {
+                    publishSnapshot(getConfig());
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+    
     // ========== MÉTODOS DE ACCESO RÁPIDO ==========
     
     /**
@@ -83,7 +106,7 @@ public class ConfigSingleton {
      */
     public String getServer() {
         DanteConfig config = getConfig();
-        return config != null ? config.getServer() : "192.168.1.100";
+        return config != null ? config.getServer() : DanteConfig.DEFAULT_SERVER;
     }
     
     /**
@@ -91,7 +114,7 @@ public class ConfigSingleton {
      */
     public String getPort() {
         DanteConfig config = getConfig();
-        return config != null ? config.getPort() : "8080";
+        return config != null ? config.getPort() : DanteConfig.DEFAULT_PORT;
     }
     
     /**
@@ -99,7 +122,7 @@ public class ConfigSingleton {
      */
     public String getMulticastAddress() {
         DanteConfig config = getConfig();
-        return config != null ? config.getMulticastAddress() : "224.0.0.1";
+        return config != null ? config.getMulticastAddress() : DanteConfig.DEFAULT_MULTICAST_ADDRESS;
     }
     
     /**
@@ -107,7 +130,7 @@ public class ConfigSingleton {
      */
     public String getMulticastPort() {
         DanteConfig config = getConfig();
-        return config != null ? config.getMulticastPort() : "5000";
+        return config != null ? config.getMulticastPort() : DanteConfig.DEFAULT_MULTICAST_PORT;
     }
     
     /**
@@ -115,7 +138,7 @@ public class ConfigSingleton {
      */
     public String getChunkSize() {
         DanteConfig config = getConfig();
-        return config != null ? config.getChunkSize() : "1024";
+        return config != null ? config.getChunkSize() : DanteConfig.DEFAULT_CHUNK_SIZE;
     }
     
     /**
@@ -123,7 +146,7 @@ public class ConfigSingleton {
      */
     public String getTimeout() {
         DanteConfig config = getConfig();
-        return config != null ? config.getTimeout() : "5000";
+        return config != null ? config.getTimeout() : DanteConfig.DEFAULT_TIMEOUT;
     }
     
     /**
@@ -131,7 +154,7 @@ public class ConfigSingleton {
      */
     public int getChannelNumbers() {
         DanteConfig config = getConfig();
-        return config != null ? config.getChannelNumbers() : 64;
+        return config != null ? config.getChannelNumbers() : DanteConfig.DEFAULT_CHANNEL_NUMBERS;
     }
     
     /**
@@ -139,7 +162,7 @@ public class ConfigSingleton {
      */
     public int getFrequency() {
         DanteConfig config = getConfig();
-        return config != null ? config.getFrequency() : 44100;
+        return config != null ? config.getFrequency() : DanteConfig.DEFAULT_FREQUENCY;
     }
     
     /**
@@ -220,6 +243,26 @@ public class ConfigSingleton {
     
     // ========== MÉTODOS PRIVADOS ==========
     
+    /**
+     * Publica una nueva instantánea sólo si cambian los parámetros de audio/red
+     * (debe llamarse con el lock tomado)
+     */
+    private void publishSnapshot(DanteConfig config) {
+        if (config == null) {
+            return;
+        }
+        try {
+            ConfigSnapshot candidate = ConfigSnapshot.from(config, snapshotVersion.get() + 1);
+            if (!candidate.sameSettings(snapshot)) {
+                snapshotVersion.incrementAndGet();
+                snapshot = candidate;
+                System.out.println("Nueva instantánea de configuración publicada: " + candidate);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Configuración con valores numéricos inválidos, se mantiene la instantánea anterior: " + e.getMessage());
+        }
+    }
+    
     /**
      * Carga la configuración desde el archivo JSON
      */
@@ -229,14 +272,17 @@ public class ConfigSingleton {
             if (Files.exists(configPath)) {
                 DanteConfig config = objectMapper.readValue(configPath.toFile(), DanteConfig.class);
                 this.configInMemory = config;
+                publishSnapshot(config);
                 System.out.println("Configuración cargada en RAM desde: " + configPath);
             } else {
                 System.out.println("Archivo de configuración no encontrado");
                 this.configInMemory = createDefaultConfig();
+                publishSnapshot(configInMemory);
             }
         } catch (IOException e) {
             System.err.println("Error al cargar configuración en RAM: " + e.getMessage());
             this.configInMemory = createDefaultConfig();
+            publishSnapshot(configInMemory);
         }
     }
     
@@ -262,16 +308,7 @@ public class ConfigSingleton {
      * Crea configuración por defecto
      */
     private DanteConfig createDefaultConfig() {
-        DanteConfig defaultConfig = new DanteConfig(
-                "192.168.1.100",
-                "8080",
-                "224.0.0.1",
-                "5000",
-                "1024",
-                "5000",
-                64,
-                44100
-        );
+        DanteConfig defaultConfig = DanteConfig.defaults();
         
         defaultConfig.addChannel(new Channel(1, "Channel 1", true));
         defaultConfig.addChannel(new Channel(2, "Channel 2", false));
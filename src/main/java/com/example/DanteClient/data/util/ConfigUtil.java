@@ -1,6 +1,7 @@
 package com.example.DanteClient.data.util;
 
 import com.example.DanteClient.data.singleton.ConfigSingleton;
+import com.example.DanteClient.data.model.ConfigSnapshot;
 import com.example.DanteClient.data.model.DanteConfig;
 import com.example.DanteClient.data.model.Channel;
 
@@ -12,6 +13,10 @@ import java.util.List;
  */
 public class ConfigUtil {
     
+    // Instantánea por defecto cuando el singleton aún no está disponible
+    private static final ConfigSnapshot DEFAULT_SNAPSHOT =
+            ConfigSnapshot.from(DanteConfig.defaults(), 0);
+    
     /**
      * Obtiene la configuración completa desde RAM
      */
@@ -20,12 +25,21 @@ public class ConfigUtil {
         return singleton != null ? singleton.getConfig() : null;
     }
     
+    /**
+     * Obtiene la instantánea inmutable de parámetros de audio/red (lectura sin lock, apta para el bucle de audio)
+     */
+    public static ConfigSnapshot getSnapshot() {
+        ConfigSingleton singleton = ConfigSingleton.getInstance();
+        ConfigSnapshot snapshot = singleton != null ? singleton.getSnapshot() : null;
+        return snapshot != null ? snapshot : DEFAULT_SNAPSHOT;
+    }
+    
     /**
      * Obtiene el servidor desde RAM
      */
     public static String getServer() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getServer() : "192.168.1.100";
+        return singleton != null ? singleton.getServer() : DanteConfig.DEFAULT_SERVER;
     }
     
     /**
@@ -33,7 +47,7 @@ public class ConfigUtil {
      */
     public static String getPort() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getPort() : "8080";
+        return singleton != null ? singleton.getPort() : DanteConfig.DEFAULT_PORT;
     }
     
     /**
@@ -41,7 +55,7 @@ public class ConfigUtil {
      */
     public static String getMulticastAddress() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getMulticastAddress() : "224.0.0.1";
+        return singleton != null ? singleton.getMulticastAddress() : DanteConfig.DEFAULT_MULTICAST_ADDRESS;
     }
     
     /**
@@ -49,7 +63,7 @@ public class ConfigUtil {
      */
     public static String getMulticastPort() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getMulticastPort() : "5000";
+        return singleton != null ? singleton.getMulticastPort() : DanteConfig.DEFAULT_MULTICAST_PORT;
     }
     
     /**
@@ -57,7 +71,7 @@ public class ConfigUtil {
      */
     public static String getChunkSize() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getChunkSize() : "1024";
+        return singleton != null ? singleton.getChunkSize() : DanteConfig.DEFAULT_CHUNK_SIZE;
     }
     
     /**
@@ -65,7 +79,7 @@ public class ConfigUtil {
      */
     public static String getTimeout() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getTimeout() : "5000";
+        return singleton != null ? singleton.getTimeout() : DanteConfig.DEFAULT_TIMEOUT;
     }
     
     /**
@@ -73,7 +87,7 @@ public class ConfigUtil {
      */
     public static int getChannelNumbers() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getChannelNumbers() : 64;
+        return singleton != null ? singleton.getChannelNumbers() : DanteConfig.DEFAULT_CHANNEL_NUMBERS;
     }
     
     /**
@@ -81,7 +95,7 @@ public class ConfigUtil {
      */
     public static int getFrequency() {
         ConfigSingleton singleton = ConfigSingleton.getInstance();
-        return singleton != null ? singleton.getFrequency() : 44100;
+        return singleton != null ? singleton.getFrequency() : DanteConfig.DEFAULT_FREQUENCY;
     }
     
     /**
@@ -0,0 +1,321 @@
+package com.example.DanteClient.thread.config;
+
+import com.example.DanteClient.thread.model.EventTopic;
+import com.example.DanteClient.thread.model.MuxStream;
+import com.example.DanteClient.thread.model.StreamSession;
+import com.example.DanteClient.thread.model.ThreadEventListener;
+import com.example.DanteClient.thread.model.WebSocketEvents;
+import com.example.DanteClient.thread.service.ChannelEventBus;
+import com.example.DanteClient.thread.service.WebSocketSendService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Handler de WebSocket multiplexado: una sola conexión con varios flujos lógicos
+ * Endpoint: ws://localhost:8080/ws
+ * Mensajes en ambos sentidos: {"stream":"control|threads|meters","data":{...}}. Los flujos "control"
+ * (lo de /ws/volume) y "threads" (estado y errores de /ws/thread) se abren al conectar; "meters" se abre
+ * con {"stream":"meters","open":true,"credit":16}. Control de flujo por flujo con créditos
+ * ({"stream":"meters","credit":16}) y una sola cola de salida, con su política, por conexión.
+ * Las respuestas del propio multiplexor van en el flujo "mux".
+ */
+@Component
+public class MultiplexWebSocketHandler extends TextWebSocketHandler implements ThreadEventListener {
+
+    private static final String MUX_PREFIX = "{\"stream\":\"mux\",\"data\":";
+
+    @Autowired
+    private VolumeWebSocketHandler volumeHandler;
+
+    @Autowired
+    private ThreadWebSocketHandler threadHandler;
+
+    @Autowired
+    private WebSocketSendService sendService;
+
+    @Autowired
+    private ChannelEventBus eventBus;
+
+    // Mensajes retenidos por flujo sin crédito antes de descartar los más antiguos
+    @Value("${dante.ws.mux.held-capacity:64}")
+    private int heldCapacity;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Flujos abiertos por conexión física
+    private final ConcurrentHashMap<String, Map<MuxStream, StreamSession>> connections = new ConcurrentHashMap<>();
+
+    // Flujos "meters" abiertos (destino de los avisos de plazo de bloque)
+    private final Set<WebSocketSession> meterStreams = ConcurrentHashMap.newKeySet();
+
+    // Un sobre por flujo compartido por todas las conexiones: un broadcast se envuelve una sola vez
+    private final Map<MuxStream, StreamSession.StreamEnvelope> envelopes = new EnumMap<>(MuxStream.class);
+
+    private final AtomicLong streamsOpened = new AtomicLong();
+    private final AtomicLong framesIn = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        for (MuxStream stream : MuxStream.values()) {
+            envelopes.put(stream, new StreamSession.StreamEnvelope(stream));
+        }
+        eventBus.subscribe(this);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        sendService.register(session, "mux");
+        connections.put(session.getId(), new ConcurrentHashMap<>());
+
+        System.out.println("======= NEW MULTIPLEXED WEBSOCKET CONNECTION =======");
+        System.out.println("🔀 Session ID: " + session.getId());
+        System.out.println("📍 Remote Address: " + session.getRemoteAddress());
+        System.out.println("📊 Total conexiones multiplexadas: " + connections.size());
+        System.out.println("====================================================");
+
+        openStream(session, MuxStream.CONTROL, StreamSession.UNLIMITED);
+        openStream(session, MuxStream.THREADS, StreamSession.UNLIMITED);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        Map<MuxStream, StreamSession> streams = connections.remove(session.getId());
+        if (streams != null) {
+            for (StreamSession stream : streams.values()) {
+                stream.markClosed();
+                detach(stream, status);
+            }
+        }
+        sendService.unregister(session);
+
+        System.out.println("====== MULTIPLEXED WEBSOCKET DISCONNECTION ======");
+        System.out.println("❌ Session ID cerrada: " + session.getId());
+        System.out.println("🔍 Close Status: " + status.getCode() + " - " + status.getReason());
+        System.out.println("📊 Conexiones multiplexadas restantes: " + connections.size());
+        System.out.println("=================================================");
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        System.err.println("❌ Error en WebSocket multiplexado " + session.getId() + ": " + exception.getMessage());
+        if (session.isOpen()) {
+            session.close();
+        }
+    }
+
+    @Override
+    public void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        framesIn.incrementAndGet();
+        JsonNode envelope;
+        try {
+            envelope = objectMapper.readTree(message.getPayload());
+        } catch (Exception e) {
+            sendMux(session, error("JSON_PARSE_ERROR", "Error al parsear JSON: " + e.getMessage(), null));
+            return;
+        }
+        MuxStream type = MuxStream.fromString(envelope.path("stream").asText(null));
+        if (type == null) {
+            sendMux(session, error("INVALID_STREAM", "Flujo no reconocido. Flujos disponibles: control, threads, meters", null));
+            return;
+        }
+        Map<MuxStream, StreamSession> streams = connections.get(session.getId());
+        if (streams == null) {
+            return;
+        }
+
+        // Apertura y cierre de flujos
+        if (envelope.has("open")) {
+            if (envelope.get("open").asBoolean()) {
+                if (streams.containsKey(type)) {
+                    sendMux(session, error("STREAM_ALREADY_OPEN", "El flujo ya está abierto", type));
+                } else if (type == MuxStream.PREVIEW) {
+                    sendMux(session, error("STREAM_NOT_AVAILABLE", "La escucha previa todavía no se emite por WebSocket", type));
+                } else {
+                    openStream(session, type, envelope.has("credit") ? envelope.get("credit").asLong() : StreamSession.UNLIMITED);
+                }
+            } else {
+                StreamSession stream = streams.get(type);
+                if (stream != null) {
+                    stream.close();
+                }
+            }
+            return;
+        }
+
+        StreamSession stream = streams.get(type);
+        if (stream == null) {
+            sendMux(session, error("STREAM_NOT_OPEN", "El flujo no está abierto; ábrelo con {\"stream\":\"" + type.id() + "\",\"open\":true}", type));
+            return;
+        }
+        if (envelope.has("credit")) {
+            stream.grant(envelope.get("credit").asLong());
+        }
+        JsonNode data = envelope.get("data");
+        if (data == null || data.isNull()) {
+            return;
+        }
+        switch (type) {
+            case CONTROL -> volumeHandler.handleTextMessage(stream, new TextMessage(data.toString()));
+            case THREADS -> threadHandler.handleTextMessage(stream, new TextMessage(data.toString()));
+            default -> sendMux(session, error("STREAM_READ_ONLY", "El flujo no admite comandos", type));
+        }
+    }
+
+    /**
+     * Abre un flujo y lo conecta al handler que lo alimenta
+     * @param credit mensajes que se pueden enviar sin nueva concesión, o {@link StreamSession#UNLIMITED}
+     */
+    private void openStream(WebSocketSession session, MuxStream type, long credit) throws Exception {
+        Map<MuxStream, StreamSession> streams = connections.get(session.getId());
+        if (streams == null) {
+            return;
+        }
+        StreamSession stream = new StreamSession(session, type, envelopes.get(type), sendService::send,
+                this::onStreamClosed, credit < 0 ? StreamSession.UNLIMITED : credit, heldCapacity);
+        if (streams.putIfAbsent(type, stream) != null) {
+            return;
+        }
+        streamsOpened.incrementAndGet();
+
+        Map<String, Object> opened = new HashMap<>();
+        opened.put("type", "stream_opened");
+        opened.put("stream", type.id());
+        opened.put("credit", credit < 0 ? "unlimited" : credit);
+        opened.put("timestamp", WebSocketEvents.timestamp());
+        sendMux(session, objectMapper.writeValueAsString(opened));
+
+        switch (type) {
+            case CONTROL -> volumeHandler.afterConnectionEstablished(stream);
+            case THREADS -> threadHandler.attachStream(stream, Set.of(EventTopic.STATUS, EventTopic.ERRORS));
+            case METERS -> meterStreams.add(stream);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Un flujo cerrado por el cliente o por su handler: se desconecta y se avisa al cliente
+     */
+    private void onStreamClosed(StreamSession stream) {
+        Map<MuxStream, StreamSession> streams = connections.get(stream.getParent().getId());
+        if (streams == null || !streams.remove(stream.getStream(), stream)) {
+            return;
+        }
+        try {
+            detach(stream, CloseStatus.NORMAL);
+            Map<String, Object> closed = new HashMap<>();
+            closed.put("type", "stream_closed");
+            closed.put("stream", stream.getStream().id());
+            closed.put("timestamp", WebSocketEvents.timestamp());
+            sendMux(stream.getParent(), objectMapper.writeValueAsString(closed));
+        } catch (Exception e) {
+            System.err.println("Error al cerrar flujo " + stream.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private void detach(StreamSession stream, CloseStatus status) throws Exception {
+        switch (stream.getStream()) {
+            case CONTROL -> volumeHandler.afterConnectionClosed(stream, status);
+            case THREADS -> threadHandler.afterConnectionClosed(stream, status);
+            case METERS -> meterStreams.remove(stream);
+            default -> {
+            }
+        }
+    }
+
+    // Eventos de los threads de canal: este handler sólo alimenta el flujo "meters"
+
+    @Override
+    public void onThreadFinished(int channelId, String channelName, String reason) {
+    }
+
+    @Override
+    public void onThreadException(int channelId, String channelName, String exceptionType, String errorMessage) {
+    }
+
+    @Override
+    public void onThreadStatusChanged(int channelId, String channelName, String oldStatus, String newStatus) {
+    }
+
+    @Override
+    public void onDeadlineMiss(int channelId, String channelName, long missesSinceLast, long totalMisses, long worstNanos, long budgetNanos) {
+        if (meterStreams.isEmpty()) {
+            return;
+        }
+        try {
+            TextMessage message = WebSocketEvents.encode(new WebSocketEvents.ChannelDeadlineMiss("300", channelId,
+                    channelName, missesSinceLast, totalMisses, worstNanos / 1000, budgetNanos / 1000,
+                    "Canal " + channelId + " (" + channelName + ") superó el plazo de bloque " + missesSinceLast + " veces",
+                    WebSocketEvents.timestamp()));
+            sendService.broadcast(meterStreams, message, "deadline:" + channelId);
+        } catch (Exception e) {
+            System.err.println("❌ Error creando medida para el flujo meters: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flujos abiertos por conexión con sus créditos, retenidos y descartes
+     */
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> perConnection = new ArrayList<>();
+        int openStreams = 0;
+        for (Map.Entry<String, Map<MuxStream, StreamSession>> entry : connections.entrySet()) {
+            List<Map<String, Object>> streams = new ArrayList<>();
+            for (StreamSession stream : entry.getValue().values()) {
+                streams.add(stream.getStats());
+            }
+            openStreams += streams.size();
+            Map<String, Object> connection = new HashMap<>();
+            connection.put("sessionId", entry.getKey());
+            connection.put("queueDepth", sendService.getQueueDepth(entry.getKey()));
+            connection.put("streams", streams);
+            perConnection.add(connection);
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("endpoint", "/ws");
+        stats.put("connections", connections.size());
+        stats.put("openStreams", openStreams);
+        stats.put("streamsOpened", streamsOpened.get());
+        stats.put("framesIn", framesIn.get());
+        stats.put("heldCapacity", heldCapacity);
+        stats.put("perConnection", perConnection);
+        return stats;
+    }
+
+    private void sendMux(WebSocketSession session, String json) {
+        sendService.send(session, new TextMessage(MUX_PREFIX + json + "}"), null);
+    }
+
+    private String error(String errorCode, String message, MuxStream stream) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("type", "error");
+        errorResponse.put("errorCode", errorCode);
+        errorResponse.put("message", message);
+        if (stream != null) {
+            errorResponse.put("stream", stream.id());
+        }
+        errorResponse.put("timestamp", WebSocketEvents.timestamp());
+        try {
+            return objectMapper.writeValueAsString(errorResponse);
+        } catch (Exception e) {
+            return "{\"type\":\"error\",\"errorCode\":\"" + errorCode + "\"}";
+        }
+    }
+}
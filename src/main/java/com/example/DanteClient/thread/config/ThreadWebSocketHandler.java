@@ -1,42 +1,148 @@
 package com.example.DanteClient.thread.config;
 
+import com.example.DanteClient.thread.service.ChannelEventBus;
 import com.example.DanteClient.thread.service.ChannelThreadService;
+import com.example.DanteClient.thread.service.StateSyncService;
+import com.example.DanteClient.thread.service.WebSocketSendService;
+import com.example.DanteClient.thread.model.BinaryFrames;
+import com.example.DanteClient.thread.model.BulkChannelJob;
+import com.example.DanteClient.thread.exception.ThreadException;
+import com.example.DanteClient.thread.model.ChannelSyncState;
 import com.example.DanteClient.thread.model.ChannelThread;
+import com.example.DanteClient.thread.model.EventBatcher;
+import com.example.DanteClient.thread.model.EventTopic;
+import com.example.DanteClient.thread.model.ThreadEventListener;
+import com.example.DanteClient.thread.model.TopicSubscriptions;
+import com.example.DanteClient.thread.model.TrafficMeter;
+import com.example.DanteClient.thread.model.WebSocketEvents;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
-import java.io.IOException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Handler de WebSocket para notificaciones de threads
  * Endpoint: ws://localhost:8080/thread
  */
 @Component
-public class ThreadWebSocketHandler extends TextWebSocketHandler {
+public class ThreadWebSocketHandler extends AbstractWebSocketHandler implements ThreadEventListener, SubProtocolCapable {
     
     @Autowired
     @Lazy
     private ChannelThreadService threadService;
     
+    @Autowired
+    private WebSocketSendService sendService;
+    
+    @Autowired
+    private ChannelEventBus eventBus;
+    
+    @Autowired
+    private StateSyncService stateSync;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     // Set de sesiones activas para broadcast
     private final CopyOnWriteArraySet<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
     
+    // Sesiones que negociaron el subprotocolo binario (el resto recibe JSON)
+    private final CopyOnWriteArraySet<WebSocketSession> binarySessions = new CopyOnWriteArraySet<>();
+    
+    // Suscripciones por tipo de evento y canal
+    private final TopicSubscriptions subscriptions = new TopicSubscriptions();
+    
+    // Modo agrupado: los broadcasts se acumulan y salen en un frame por sesión y tick
+    @Value("${dante.ws.batch.enabled:false}")
+    private boolean batchEnabled;
+    
+    @Value("${dante.ws.batch.tick-hz:20}")
+    private int batchTickHz;
+    
+    private final EventBatcher batcher = new EventBatcher();
+    private ScheduledExecutorService batchScheduler;
+    
+    // Tráfico saliente (respuestas + broadcasts, contando cada sesión destino)
+    private final TrafficMeter outbound = new TrafficMeter();
+    
+    // Trazas por broadcast con el payload completo: sólo para depurar
+    @Value("${dante.ws.debug-log:false}")
+    private boolean debugLog;
+    
+    @PostConstruct
+    public void subscribeToEvents() {
+        eventBus.subscribe(this);
+        if (batchEnabled) {
+            long periodMicros = 1_000_000L / Math.max(1, batchTickHz);
+            batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ws-batch-thread");
+                thread.setDaemon(true);
+                return thread;
+            });
+            batchScheduler.scheduleAtFixedRate(this::flushBatch, periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+            System.out.println("📦 Notificaciones thread agrupadas a " + batchTickHz + " Hz");
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (batchScheduler != null) {
+            batchScheduler.shutdownNow();
+        }
+    }
+    
+    // Eventos de los threads de canal (llegan desde el hilo despachador del bus, nunca desde el de audio)
+    
+    @Override
+    public void onThreadFinished(int channelId, String channelName, String reason) {
+        notifyThreadFinished(channelId, channelName, reason);
+    }
+    
+    @Override
+    public void onThreadException(int channelId, String channelName, String exceptionType, String errorMessage) {
+        notifyThreadException(channelId, channelName, exceptionType, errorMessage);
+    }
+    
+    @Override
+    public void onThreadStatusChanged(int channelId, String channelName, String oldStatus, String newStatus) {
+        notifyThreadStatusChange(channelId, channelName, oldStatus, newStatus);
+    }
+    
+    @Override
+    public void onDeadlineMiss(int channelId, String channelName, long missesSinceLast, long totalMisses, long worstNanos, long budgetNanos) {
+        notifyChannelDeadlineMiss(channelId, channelName, missesSinceLast, totalMisses, worstNanos, budgetNanos);
+    }
+    
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         sessions.add(session);
+        if (BinaryFrames.SUBPROTOCOL.equals(session.getAcceptedProtocol())) {
+            binarySessions.add(session);
+        }
+        subscriptions.addSession(session);
+        sendService.register(session, "thread");
         
         System.out.println("======= NEW THREAD WEBSOCKET CONNECTION =======");
         System.out.println("🧵 Session ID: " + session.getId());
@@ -46,7 +152,26 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
         System.out.println("⏰ Conectado en: " + java.time.LocalDateTime.now());
         System.out.println("===============================================");
         
+        // Reconexión con ?fromVersion=N&epoch=..: sólo los cambios desde N en lugar de la lista completa
+        Map<String, String> query = session.getUri() != null
+                ? UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().toSingleValueMap()
+                : Map.of();
+        if (query.containsKey("fromVersion")) {
+            Map<String, Object> welcomeMessage = new HashMap<>();
+            welcomeMessage.put("type", "connection");
+            welcomeMessage.put("status", "connected");
+            welcomeMessage.put("sessionId", session.getId());
+            welcomeMessage.put("totalConnections", sessions.size());
+            welcomeMessage.put("stateEpoch", stateSync.getEpoch());
+            welcomeMessage.put("timestamp", java.time.LocalDateTime.now().toString());
+            sendMessage(session, objectMapper.writeValueAsString(welcomeMessage));
+            sendResume(session, query.get("epoch"), parseVersion(query.get("fromVersion")));
+            return;
+        }
+        
         // Enviar mensaje de bienvenida con estado actual de threads
+        // La versión se toma antes de la lista: lo que cambie entre medias se recupera al reanudar
+        long stateVersion = stateSync.getVersion();
         List<ChannelThread> activeThreads = threadService.getAllActiveThreads();
         
         Map<String, Object> welcomeMessage = new HashMap<>();
@@ -54,6 +179,8 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
         welcomeMessage.put("status", "connected");
         welcomeMessage.put("sessionId", session.getId());
         welcomeMessage.put("totalConnections", sessions.size());
+        welcomeMessage.put("stateVersion", stateVersion);
+        welcomeMessage.put("stateEpoch", stateSync.getEpoch());
         welcomeMessage.put("activeThreadsCount", activeThreads.size());
         welcomeMessage.put("activeThreads", activeThreads.stream().map(thread -> {
             Map<String, Object> threadInfo = new HashMap<>();
@@ -69,9 +196,20 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
         sendMessage(session, welcomeJson);
     }
     
+    /**
+     * Conecta un flujo del endpoint multiplexado /ws limitado a algunos temas (recibe la bienvenida normal)
+     */
+    public void attachStream(WebSocketSession stream, Set<EventTopic> topics) throws Exception {
+        afterConnectionEstablished(stream);
+        subscriptions.subscribe(stream, topics, Set.of());
+    }
+
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         sessions.remove(session);
+        binarySessions.remove(session);
+        subscriptions.removeSession(session);
+        sendService.unregister(session);
         
         System.out.println("====== THREAD WEBSOCKET DISCONNECTION ======");
         System.out.println("❌ Session ID cerrada: " + session.getId());
@@ -100,7 +238,7 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
                 processCommand(session, command, jsonNode);
             } else {
                 // Comando no reconocido
-                String errorMessage = createErrorResponse("UNKNOWN_COMMAND", "Comando no reconocido. Comandos disponibles: status, list", session.getId());
+                String errorMessage = createErrorResponse("UNKNOWN_COMMAND", "Comando no reconocido. Comandos disponibles: status, list, subscribe, unsubscribe, resume", session.getId());
                 sendMessage(session, errorMessage);
             }
             
@@ -120,6 +258,26 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
             session.close();
         }
         sessions.remove(session);
+        binarySessions.remove(session);
+        subscriptions.removeSession(session);
+        sendService.unregister(session);
+    }
+    
+    /**
+     * Subprotocolos que se aceptan en el handshake; sin ninguno la sesión usa JSON
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(BinaryFrames.SUBPROTOCOL);
+    }
+    
+    /**
+     * En /ws/thread el subprotocolo binario sólo se usa de servidor a cliente; los comandos van en JSON
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        sendMessage(session, createErrorResponse("BINARY_NOT_SUPPORTED",
+                "Los comandos de /ws/thread se envían como JSON (status, list, subscribe, unsubscribe, resume)", session.getId()));
     }
     
     /**
@@ -134,6 +292,13 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
                 case "list":
                     sendActiveThreadsList(session);
                     break;
+                case "subscribe":
+                case "unsubscribe":
+                    sendSubscriptions(session, command.toLowerCase(), jsonNode);
+                    break;
+                case "resume":
+                    sendResume(session, jsonNode.path("epoch").asText(null), jsonNode.path("fromVersion").asLong(-1));
+                    break;
                 default:
                     String errorMessage = createErrorResponse("INVALID_COMMAND", "Comando '" + command + "' no válido", session.getId());
                     sendMessage(session, errorMessage);
@@ -144,6 +309,79 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
         }
     }
     
+    /**
+     * Envía los cambios de estado desde la versión del cliente (state_delta) o una instantánea (state_snapshot)
+     * {"command":"resume","epoch":"...","fromVersion":1234}
+     */
+    private void sendResume(WebSocketSession session, String epoch, long fromVersion) {
+        try {
+            Map<String, Object> response = stateSync.resume(epoch, fromVersion);
+            if (binarySessions.contains(session)) {
+                sendStateFrame(session, response);
+                return;
+            }
+            response.put("timestamp", WebSocketEvents.timestamp());
+            sendMessage(session, objectMapper.writeValueAsString(response));
+        } catch (Exception e) {
+            sendMessage(session, createErrorResponse("RESUME_ERROR", "Error reanudando estado: " + e.getMessage(), session.getId()));
+        }
+    }
+    
+    /**
+     * Respuesta de resume como STATE_DELTA / STATE_SNAPSHOT binario
+     */
+    @SuppressWarnings("unchecked")
+    private void sendStateFrame(WebSocketSession session, Map<String, Object> response) {
+        boolean snapshot = "state_snapshot".equals(response.get("type"));
+        List<ChannelSyncState> states = (List<ChannelSyncState>) response.get(snapshot ? "channels" : "changes");
+        sendWebSocketMessage(session, BinaryFrames.toStateMessage(snapshot, (long) response.get("version"), states));
+    }
+    
+    private static long parseVersion(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1; // Versión no válida: se responde con instantánea
+        }
+    }
+    
+    /**
+     * Aplica un subscribe/unsubscribe y responde con las suscripciones resultantes
+     * {"command":"subscribe","types":["status","errors"],"channels":[1,2]}
+     */
+    private void sendSubscriptions(WebSocketSession session, String command, JsonNode jsonNode) {
+        try {
+            Map<String, Object> response = new HashMap<>(subscriptions.handleCommand(session, command, jsonNode));
+            response.put("type", "subscriptions");
+            response.put("command", command);
+            response.put("timestamp", WebSocketEvents.timestamp());
+            sendMessage(session, objectMapper.writeValueAsString(response));
+        } catch (ThreadException e) {
+            sendMessage(session, createErrorResponse(e.getErrorType(), e.getMessage(), session.getId()));
+        } catch (Exception e) {
+            sendMessage(session, createErrorResponse("SUBSCRIPTION_ERROR", "Error en la suscripción: " + e.getMessage(), session.getId()));
+        }
+    }
+    
+    /**
+     * Obtiene el índice de suscripciones por tema (métricas de enrutado)
+     */
+    public Map<String, Object> getSubscriptionStats() {
+        return subscriptions.getStats();
+    }
+    
+    /**
+     * Métricas del modo agrupado y del tráfico saliente (frames y bytes por segundo)
+     */
+    public Map<String, Object> getBatchStats() {
+        Map<String, Object> stats = new HashMap<>(batcher.getStats());
+        stats.put("enabled", batchEnabled);
+        stats.put("tickHz", batchTickHz);
+        stats.put("outbound", outbound.getStats());
+        stats.put("binarySessions", binarySessions.size());
+        return stats;
+    }
+    
     /**
      * Envía el estado general de threads
      */
@@ -211,14 +449,9 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
      * Notifica cuando un thread se inicia
      */
     public void notifyThreadStarted(int channelId, String channelName) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("type", "thread_started");
-        notification.put("channelId", channelId);
-        notification.put("channelName", channelName);
-        notification.put("message", "Thread iniciado para canal " + channelId + " (" + channelName + ")");
-        notification.put("timestamp", java.time.LocalDateTime.now().toString());
-        
-        broadcastNotification(notification);
+        broadcastEvent(new WebSocketEvents.ThreadStarted(channelId, channelName,
+                "Thread iniciado para canal " + channelId + " (" + channelName + ")",
+                WebSocketEvents.timestamp()), null, EventTopic.STATUS, channelId);
         System.out.println("🚀 Notificación broadcast: Thread " + channelId + " iniciado");
     }
     
@@ -226,16 +459,9 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
      * Notifica cuando un thread finaliza
      */
     public void notifyThreadFinished(int channelId, String channelName, String reason) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("status", "200");
-        notification.put("type", "thread_finished");
-        notification.put("channelId", channelId);
-        notification.put("channelName", channelName);
-        notification.put("reason", reason);
-        notification.put("message", "Thread finalizado para canal " + channelId + " (" + channelName + ") - Razón: " + reason);
-        notification.put("timestamp", java.time.LocalDateTime.now().toString());
-        
-        broadcastNotification(notification);
+        broadcastEvent(new WebSocketEvents.ThreadFinished("200", channelId, channelName, reason,
+                "Thread finalizado para canal " + channelId + " (" + channelName + ") - Razón: " + reason,
+                WebSocketEvents.timestamp()), null, EventTopic.STATUS, channelId);
         System.out.println("🏁 Notificación broadcast: Thread " + channelId + " finalizado - " + reason);
     }
     
@@ -243,17 +469,9 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
      * Notifica cuando ocurre una excepción en un thread
      */
     public void notifyThreadException(int channelId, String channelName, String exceptionType, String errorMessage) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("status", "500");
-        notification.put("type", "thread_exception");
-        notification.put("channelId", channelId);
-        notification.put("channelName", channelName);
-        notification.put("exceptionType", exceptionType);
-        notification.put("errorMessage", errorMessage);
-        notification.put("message", "Excepción en thread del canal " + channelId + " (" + channelName + "): " + errorMessage);
-        notification.put("timestamp", java.time.LocalDateTime.now().toString());
-        
-        broadcastNotification(notification);
+        broadcastEvent(new WebSocketEvents.ThreadFailed("500", channelId, channelName, exceptionType, errorMessage,
+                "Excepción en thread del canal " + channelId + " (" + channelName + "): " + errorMessage,
+                WebSocketEvents.timestamp()), null, EventTopic.ERRORS, channelId);
         System.out.println("⚠️ Notificación broadcast: Excepción en thread " + channelId + " - " + exceptionType);
     }
     
@@ -261,32 +479,136 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
      * Notifica cambio de estado en un thread
      */
     public void notifyThreadStatusChange(int channelId, String channelName, String oldStatus, String newStatus) {
-        Map<String, Object> notification = new HashMap<>();
-        notification.put("type", "thread_status_change");
-        notification.put("status", "300");
-        notification.put("channelId", channelId);
-        notification.put("channelName", channelName);
-        notification.put("oldStatus", oldStatus);
-        notification.put("newStatus", newStatus);
-        notification.put("message", "Estado del thread " + channelId + " cambió de " + oldStatus + " a " + newStatus);
-        notification.put("timestamp", java.time.LocalDateTime.now().toString());
-        
-        broadcastNotification(notification);
+        broadcastEvent(new WebSocketEvents.ThreadStatusChange("300", channelId, channelName, oldStatus, newStatus,
+                "Estado del thread " + channelId + " cambió de " + oldStatus + " a " + newStatus,
+                WebSocketEvents.timestamp()), "thread_status:" + channelId, EventTopic.STATUS, channelId);
         System.out.println("🔄 Notificación broadcast: Thread " + channelId + " cambió a " + newStatus);
     }
     
     /**
-     * Envía una notificación a todas las conexiones
+     * Notifica el resultado de un canal dentro de un trabajo masivo
+     */
+    public void notifyBulkChannelResult(BulkChannelJob job, int channelId, boolean success, String message, long elapsedMs, int completed) {
+        broadcastEvent(new WebSocketEvents.BulkChannelResult(success ? "200" : "500", job.getJobId(), job.getAction(),
+                channelId, success, message, elapsedMs, completed, job.getTotalChannels(),
+                WebSocketEvents.timestamp()), null, EventTopic.STATUS, channelId);
+    }
+    
+    /**
+     * Notifica que un trabajo masivo ha terminado
+     */
+    public void notifyBulkJobCompleted(BulkChannelJob job) {
+        broadcastEvent(new WebSocketEvents.BulkJobCompleted(job.getFailCount() == 0 ? "200" : "207", job.getJobId(),
+                job.getAction(), job.getTotalChannels(), job.getSuccessCount(), job.getFailCount(), job.getElapsedMs(),
+                "Trabajo " + job.getAction() + " completado: " + job.getSuccessCount() + "/" + job.getTotalChannels() + " canales en " + job.getElapsedMs() + " ms",
+                WebSocketEvents.timestamp()), null);
+        System.out.println("📦 Notificación broadcast: Trabajo masivo " + job.getJobId() + " completado");
+    }
+    
+    /**
+     * Notifica que un canal procesa sus bloques más lento de lo que dura el audio (se está quedando atrás)
+     */
+    public void notifyChannelDeadlineMiss(int channelId, String channelName, long missesSinceLast, long totalMisses, long worstNanos, long budgetNanos) {
+        broadcastEvent(new WebSocketEvents.ChannelDeadlineMiss("300", channelId, channelName, missesSinceLast, totalMisses,
+                worstNanos / 1000, budgetNanos / 1000,
+                "Canal " + channelId + " (" + channelName + ") superó el plazo de bloque " + missesSinceLast + " veces",
+                WebSocketEvents.timestamp()), "deadline:" + channelId, EventTopic.METERS, channelId);
+    }
+    
+    /**
+     * Notifica que el supervisor programó el reinicio de un canal
+     */
+    public void notifyChannelRestartScheduled(int channelId, int attempt, long delayMs, String reason) {
+        broadcastEvent(new WebSocketEvents.ChannelRestartScheduled("300", channelId, attempt, delayMs, reason,
+                "Reinicio del canal " + channelId + " (intento " + attempt + ") en " + delayMs + " ms",
+                WebSocketEvents.timestamp()), null, EventTopic.STATUS, channelId);
+    }
+    
+    /**
+     * Notifica que un canal agotó su presupuesto de reinicios y queda detenido
+     */
+    public void notifyChannelRestartExhausted(int channelId, int restartBudget, long windowMs, String reason) {
+        broadcastEvent(new WebSocketEvents.ChannelRestartExhausted("500", channelId, restartBudget, windowMs, reason,
+                "Canal " + channelId + " superó " + restartBudget + " reinicios en " + windowMs + " ms; reinicio automático detenido",
+                WebSocketEvents.timestamp()), null, EventTopic.ERRORS, channelId);
+        System.out.println("🛑 Notificación broadcast: Canal " + channelId + " sin reinicios disponibles");
+    }
+    
+    /**
+     * Serializa el evento una sola vez y encola el mismo mensaje en todas las conexiones
+     * @param coalesceKey clave de agrupación para colas lentas (null = no se agrupa)
+     */
+    public void broadcastEvent(WebSocketEvents.Event event, String coalesceKey) {
+        if (batchEnabled) {
+            batcher.add(event, coalesceKey, null, TopicSubscriptions.ALL_CHANNELS);
+        }
+        if (!batchEnabled || !binarySessions.isEmpty()) {
+            deliverEvent(event, coalesceKey, sessions, batchEnabled);
+        }
+    }
+    
+    /**
+     * Envía un evento de canal sólo a las sesiones suscritas a su tema (y a las que no filtran)
      */
-    private void broadcastNotification(Map<String, Object> notification) {
+    public void broadcastEvent(WebSocketEvents.Event event, String coalesceKey, EventTopic topic, int channelId) {
+        if (batchEnabled) {
+            batcher.add(event, coalesceKey, topic, channelId);
+        }
+        if (!batchEnabled || !binarySessions.isEmpty()) {
+            deliverEvent(event, coalesceKey, subscriptions.recipients(topic, channelId, sessions.size()), batchEnabled);
+        }
+    }
+    
+    /**
+     * Encola el evento en cada destino con su protocolo: JSON (serializado una vez) o frame binario
+     * (codificado una vez) para las sesiones del subprotocolo que tengan representación binaria
+     * @param binaryOnly sólo las sesiones binarias (en modo agrupado las JSON lo reciben en el tick)
+     */
+    private void deliverEvent(WebSocketEvents.Event event, String coalesceKey, Collection<WebSocketSession> targets,
+                              boolean binaryOnly) {
         try {
-            String notificationJson = objectMapper.writeValueAsString(notification);
-            broadcastMessage(notificationJson);
+            if (binarySessions.isEmpty()) {
+                if (!binaryOnly) {
+                    broadcastTextMessage(WebSocketEvents.encode(event), coalesceKey, targets);
+                }
+                return;
+            }
+            List<WebSocketSession> jsonTargets = new ArrayList<>(targets.size());
+            List<WebSocketSession> binaryTargets = new ArrayList<>(binarySessions.size());
+            for (WebSocketSession session : targets) {
+                (binarySessions.contains(session) ? binaryTargets : jsonTargets).add(session);
+            }
+            if (!binaryOnly && !jsonTargets.isEmpty()) {
+                broadcastTextMessage(WebSocketEvents.encode(event), coalesceKey, jsonTargets);
+            }
+            if (binaryTargets.isEmpty()) {
+                return;
+            }
+            if (BinaryFrames.supports(event)) {
+                WebSocketMessage<?> frame = BinaryFrames.toMessage(event);
+                outbound.record(frame.getPayloadLength(), sendService.broadcast(binaryTargets, frame, coalesceKey));
+            } else {
+                broadcastTextMessage(WebSocketEvents.encode(event), coalesceKey, binaryTargets);
+            }
         } catch (Exception e) {
             System.err.println("❌ Error creando notificación JSON: " + e.getMessage());
         }
     }
     
+    /**
+     * Tick del modo agrupado: un frame "batch" por sesión con todo lo acumulado desde el anterior
+     */
+    private void flushBatch() {
+        try {
+            // Las sesiones binarias no se agrupan: reciben cada evento al momento
+            for (EventBatcher.Frame frame : batcher.flush(sessions, subscriptions, binarySessions)) {
+                broadcastTextMessage(frame.message(), null, frame.sessions());
+            }
+        } catch (Exception e) {
+            System.err.println("❌ Error enviando notificaciones agrupadas: " + e.getMessage());
+        }
+    }
+    
     /**
      * Crea un mensaje de error estructurado
      */
@@ -313,15 +635,19 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
     }
     
     /**
-     * Envía un mensaje a una sesión específica
+     * Envía un mensaje a una sesión específica (se encola; lo envía un hilo ws-sender)
      */
     public void sendMessage(WebSocketSession session, String message) {
-        try {
-            if (session.isOpen()) {
-                session.sendMessage(new TextMessage(message));
-            }
-        } catch (IOException e) {
-            System.err.println("Error al enviar mensaje thread a sesión " + session.getId() + ": " + e.getMessage());
+        sendWebSocketMessage(session, new TextMessage(message));
+    }
+    
+    private void sendWebSocketMessage(WebSocketSession session, WebSocketMessage<?> message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        if (sendService.send(session, message, null)) {
+            outbound.record(message.getPayloadLength(), 1);
+        } else {
             sessions.remove(session);
         }
     }
@@ -330,23 +656,29 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
      * Envía un mensaje a todas las conexiones activas
      */
     public void broadcastMessage(String message) {
-        System.out.println("📡 Broadcasting notificación thread: " + message);
+        broadcastMessage(message, null);
+    }
+    
+    /**
+     * Encola el mensaje en todas las conexiones activas; nunca bloquea al hilo que notifica
+     * @param coalesceKey clave de agrupación para colas lentas (null = no se agrupa)
+     */
+    public void broadcastMessage(String message, String coalesceKey) {
+        broadcastTextMessage(new TextMessage(message), coalesceKey, sessions);
+    }
+    
+    private void broadcastTextMessage(TextMessage message, String coalesceKey, Collection<WebSocketSession> targets) {
+        if (debugLog) {
+            System.out.println("📡 Broadcasting notificación thread: " + message.getPayload());
+        }
         
-        sessions.removeIf(session -> {
-            try {
-                if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(message));
-                    return false; // Mantener sesión
-                } else {
-                    return true; // Remover sesión cerrada
-                }
-            } catch (IOException e) {
-                System.err.println("Error al enviar broadcast thread a sesión " + session.getId() + ": " + e.getMessage());
-                return true; // Remover sesión con error
-            }
-        });
+        sessions.removeIf(session -> !session.isOpen()); // Remover sesiones cerradas
+        int queued = sendService.broadcast(targets, message, coalesceKey);
+        outbound.record(message.getPayloadLength(), queued);
         
-        System.out.println("📊 Notificación thread enviada a " + sessions.size() + " conexiones");
+        if (debugLog) {
+            System.out.println("📊 Notificación thread encolada para " + queued + " conexiones");
+        }
     }
     
     /**
@@ -360,12 +692,7 @@ public class ThreadWebSocketHandler extends TextWebSocketHandler {
      * Envía estadísticas de conexiones thread
      */
     public void broadcastConnectionStats() {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("type", "connection_stats");
-        stats.put("activeConnections", sessions.size());
-        stats.put("activeThreads", threadService.getActiveThreadsCount());
-        stats.put("timestamp", java.time.LocalDateTime.now().toString());
-        
-        broadcastNotification(stats);
+        broadcastEvent(new WebSocketEvents.ConnectionStats(sessions.size(), threadService.getActiveThreadsCount(),
+                WebSocketEvents.timestamp()), null);
     }
 }
\ No newline at end of file
@@ -1,18 +1,48 @@
 package com.example.DanteClient.thread.config;
 
+import com.example.DanteClient.thread.exception.ThreadException;
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.service.AutomationEngine;
 import com.example.DanteClient.thread.service.ChannelThreadService;
+import com.example.DanteClient.thread.service.SceneService;
+import com.example.DanteClient.thread.service.StateSyncService;
+import com.example.DanteClient.thread.service.WebSocketSendService;
+import com.example.DanteClient.thread.model.BinaryFrames;
+import com.example.DanteClient.thread.model.ChannelSyncState;
 import com.example.DanteClient.thread.model.ChannelThread;
+import com.example.DanteClient.thread.model.EventBatcher;
+import com.example.DanteClient.thread.model.EventTopic;
+import com.example.DanteClient.thread.model.TopicSubscriptions;
+import com.example.DanteClient.thread.model.TrafficMeter;
+import com.example.DanteClient.thread.model.VolumeCommandCoalescer;
+import com.example.DanteClient.thread.model.WebSocketEvents;
+import com.example.DanteClient.data.util.ConfigUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
-import java.io.IOException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.Map;
 import java.util.HashMap;
 
@@ -23,7 +53,7 @@ import com.example.DanteClient.thread.service.ChannelVolumeManager;
  * Handler de WebSocket para gestionar conexiones de volumen de canales
  */
 @Component
-public class VolumeWebSocketHandler extends TextWebSocketHandler {
+public class VolumeWebSocketHandler extends AbstractWebSocketHandler implements SubProtocolCapable {
     
     @Autowired
     private ChannelThreadService threadService;
@@ -31,14 +61,106 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
     @Autowired
     private ChannelVolumeManager volumeManager;
     
+    @Autowired
+    private AutomationEngine automationEngine;
+    
+    @Autowired
+    private SceneService sceneService;
+    
+    @Autowired
+    private WebSocketSendService sendService;
+    
+    @Autowired
+    private StateSyncService stateSync;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     // Set de sesiones activas para broadcast
     private final CopyOnWriteArraySet<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
     
+    // Sesiones que negociaron el subprotocolo binario (el resto recibe JSON)
+    private final CopyOnWriteArraySet<WebSocketSession> binarySessions = new CopyOnWriteArraySet<>();
+    
+    // Suscripciones por tipo de evento y canal
+    private final TopicSubscriptions subscriptions = new TopicSubscriptions();
+    
+    // Agrupación de comandos de fader: gana el último por canal y se aplica/difunde una vez por tick
+    @Value("${dante.volume.coalesce.enabled:true}")
+    private boolean coalesceEnabled;
+    
+    @Value("${dante.volume.coalesce.tick-hz:30}")
+    private int coalesceTickHz;
+    
+    @Value("${dante.state.capacity:256}")
+    private int maxChannels;
+    
+    private VolumeCommandCoalescer coalescer;
+    private ScheduledExecutorService tickScheduler;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final AtomicLong ticksWithChanges = new AtomicLong();
+    private final AtomicLong tickCpuNanos = new AtomicLong();
+    
+    // Tráfico saliente (respuestas + broadcasts, contando cada sesión destino)
+    private final TrafficMeter outbound = new TrafficMeter();
+    
+    // Modo agrupado: los broadcasts se acumulan y salen en un frame por sesión y tick
+    @Value("${dante.ws.batch.enabled:false}")
+    private boolean batchEnabled;
+    
+    @Value("${dante.ws.batch.tick-hz:20}")
+    private int batchTickHz;
+    
+    private final EventBatcher batcher = new EventBatcher();
+    
+    // Trazas por mensaje y por broadcast (payload completo): sólo para depurar, con faders en movimiento saturan stdout
+    @Value("${dante.ws.debug-log:false}")
+    private boolean debugLog;
+    private ScheduledExecutorService batchScheduler;
+    
+    @PostConstruct
+    public void init() {
+        coalescer = new VolumeCommandCoalescer(maxChannels);
+        if (batchEnabled) {
+            long batchPeriodMicros = 1_000_000L / Math.max(1, batchTickHz);
+            batchScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ws-batch-volume");
+                thread.setDaemon(true);
+                return thread;
+            });
+            batchScheduler.scheduleAtFixedRate(this::flushBatch, batchPeriodMicros, batchPeriodMicros, TimeUnit.MICROSECONDS);
+            System.out.println("📦 Broadcasts de volumen agrupados a " + batchTickHz + " Hz");
+        }
+        if (!coalesceEnabled) {
+            return;
+        }
+        long periodMicros = 1_000_000L / Math.max(1, coalesceTickHz);
+        tickScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "volume-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tickScheduler.scheduleAtFixedRate(this::flushCoalesced, periodMicros, periodMicros, TimeUnit.MICROSECONDS);
+        System.out.println("🎚️ Agrupación de comandos de volumen a " + coalesceTickHz + " Hz");
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        if (tickScheduler != null) {
+            tickScheduler.shutdownNow();
+        }
+        if (batchScheduler != null) {
+            batchScheduler.shutdownNow();
+        }
+    }
+    
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         sessions.add(session);
+        if (BinaryFrames.SUBPROTOCOL.equals(session.getAcceptedProtocol())) {
+            binarySessions.add(session);
+        }
+        subscriptions.addSession(session);
+        sendService.register(session, "volume");
         
         System.out.println("========= NEW WEBSOCKET CONNECTION =========");
         System.out.println("🔗 Session ID: " + session.getId());
@@ -50,19 +172,17 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
         System.out.println("=============================================");
         
         // Enviar mensaje de bienvenida con más detalles
-        String welcomeMessage = String.format(
-            "{\"type\":\"connection\",\"status\":\"connected\",\"sessionId\":\"%s\",\"totalConnections\":%d,\"timestamp\":\"%s\"}",
-            session.getId(),
-            sessions.size(),
-            java.time.LocalDateTime.now().toString()
-        );
-        
-        sendMessage(session, welcomeMessage);
+        sendTextMessage(session, WebSocketEvents.encode(new WebSocketEvents.Connected(
+            "connected", session.getId(), sessions.size(), stateSync.getVersion(), stateSync.getEpoch(),
+            WebSocketEvents.timestamp())));
     }
     
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         sessions.remove(session);
+        binarySessions.remove(session);
+        subscriptions.removeSession(session);
+        sendService.unregister(session);
         
         System.out.println("======== WEBSOCKET DISCONNECTION ========");
         System.out.println("❌ Session ID cerrada: " + session.getId());
@@ -77,30 +197,58 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
     public void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         String payload = message.getPayload();
         
-        System.out.println("====== WEBSOCKET MESSAGE RECEIVED ======");
-        System.out.println("🔗 Session ID: " + session.getId());
-        System.out.println("📍 Remote Address: " + session.getRemoteAddress());
-        System.out.println("⏰ Timestamp: " + java.time.LocalDateTime.now());
-        System.out.println("📦 Payload Length: " + payload.length() + " characters");
-        System.out.println("📨 Raw Message: " + payload);
+        // Camino rápido para el arrastre de faders: sin logs ni respuesta por mensaje
+        if (coalesceEnabled && offerCoalesced(session, payload)) {
+            return;
+        }
+        
+        if (debugLog) {
+            System.out.println("====== WEBSOCKET MESSAGE RECEIVED ======");
+            System.out.println("🔗 Session ID: " + session.getId());
+            System.out.println("📍 Remote Address: " + session.getRemoteAddress());
+            System.out.println("⏰ Timestamp: " + java.time.LocalDateTime.now());
+            System.out.println("📦 Payload Length: " + payload.length() + " characters");
+            System.out.println("📨 Raw Message: " + payload);
+        }
         
         try {
             // Parsear el mensaje JSON
             JsonNode jsonNode = objectMapper.readTree(payload);
-            System.out.println("📋 Parsed JSON: " + objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(jsonNode));
+            if (debugLog) {
+                System.out.println("📋 Parsed JSON: " + objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(jsonNode));
+            }
             
-            // Verificar si es un comando de volumen
-            if (jsonNode.has("channelId") && jsonNode.has("volume")) {
+            // Escenas: {"action":"saveScene"|"recallScene"|"listScenes",...}
+            // Automatización: {"action":"fade"|"crossfade"|"cancelAutomation"|"listAutomations",...}
+            // Suscripciones: {"command":"subscribe"|"unsubscribe","types":["volume"],"channels":[1,2]}
+            // Reanudación: {"command":"resume","epoch":"...","fromVersion":1234}
+            String action = jsonNode.path("action").asText("");
+            String command = jsonNode.path("command").asText("");
+            if (command.equals("subscribe") || command.equals("unsubscribe")) {
+                processSubscription(session, command, jsonNode);
+            } else if (command.equals("resume")) {
+                processResume(session, jsonNode);
+            } else if (action.endsWith("Scene") || action.equals("listScenes")) {
+                processSceneCommand(session, jsonNode);
+            } else if (jsonNode.has("action")) {
+                processAutomationCommand(session, jsonNode);
+            } else if (jsonNode.has("volumes") && jsonNode.get("volumes").isArray()) {
+                // Lote de volúmenes: {"volumes":[{"channelId":1,"volume":60},...]}
+                processVolumeBatch(session, jsonNode.get("volumes"));
+            } else if (jsonNode.has("channelId") && jsonNode.has("volume")) {
+                // Verificar si es un comando de volumen
                 int channelId = jsonNode.get("channelId").asInt();
                 int volume = jsonNode.get("volume").asInt();
                 
-                System.out.println("🎚️ Procesando comando de volumen - Canal: " + channelId + ", Volumen: " + volume);
+                if (debugLog) {
+                    System.out.println("🎚️ Procesando comando de volumen - Canal: " + channelId + ", Volumen: " + volume);
+                }
                 
                 // Procesar el comando de volumen
                 processVolumeCommand(session, channelId, volume);
             } else {
                 // Mensaje no reconocido
-                String errorMessage = createErrorResponse("INVALID_FORMAT", "Formato de mensaje no válido. Se esperaba: {\"channelId\":1,\"volume\":60}", session.getId());
+                String errorMessage = createErrorResponse("INVALID_FORMAT", "Formato de mensaje no válido. Se esperaba: {\"channelId\":1,\"volume\":60} o {\"volumes\":[...]}", session.getId());
                 sendMessage(session, errorMessage);
             }
             
@@ -112,7 +260,107 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
             sendMessage(session, errorMessage);
         }
         
-        System.out.println("==========================================");
+        if (debugLog) {
+            System.out.println("==========================================");
+        }
+    }
+    
+    /**
+     * Subprotocolos que se aceptan en el handshake; sin ninguno la sesión usa JSON
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(BinaryFrames.SUBPROTOCOL);
+    }
+    
+    /**
+     * Frames VOLUME_SET del subprotocolo binario: mismo tratamiento que los comandos de fader JSON
+     * (agrupados por tick si está activo, si no se aplican como un lote)
+     */
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        try {
+            if (coalesceEnabled) {
+                BinaryFrames.decodeVolumeSet(message.getPayload(), (channelId, volume) -> offerVolume(session, channelId, volume));
+                return;
+            }
+            Map<Integer, Integer> volumes = new LinkedHashMap<>();
+            BinaryFrames.decodeVolumeSet(message.getPayload(), volumes::put);
+            for (Integer channelId : volumes.keySet()) {
+                if (ConfigUtil.getChannelById(channelId) == null) {
+                    sendMessage(session, createErrorResponse("CHANNEL_NOT_FOUND",
+                        "Canal con ID " + channelId + " no encontrado en la configuración", session.getId()));
+                    return;
+                }
+            }
+            applyVolumeBatch(session, volumes);
+        } catch (IllegalArgumentException e) {
+            sendMessage(session, createErrorResponse("INVALID_BINARY_FRAME", "Frame binario no válido: " + e.getMessage(), session.getId()));
+        }
+    }
+    
+    /**
+     * Aplica un subscribe/unsubscribe y responde con las suscripciones resultantes
+     */
+    private void processSubscription(WebSocketSession session, String command, JsonNode jsonNode) {
+        try {
+            Map<String, Object> response = new HashMap<>(subscriptions.handleCommand(session, command, jsonNode));
+            response.put("type", "subscriptions");
+            response.put("command", command);
+            response.put("timestamp", WebSocketEvents.timestamp());
+            sendMessage(session, objectMapper.writeValueAsString(response));
+        } catch (ThreadException e) {
+            sendMessage(session, createErrorResponse(e.getErrorType(), e.getMessage(), session.getId()));
+        } catch (Exception e) {
+            sendMessage(session, createErrorResponse("SUBSCRIPTION_ERROR", "Error en la suscripción: " + e.getMessage(), session.getId()));
+        }
+    }
+    
+    /**
+     * Responde con los cambios desde la versión del cliente (state_delta) o con una instantánea (state_snapshot)
+     */
+    private void processResume(WebSocketSession session, JsonNode jsonNode) {
+        try {
+            Map<String, Object> response = stateSync.resume(jsonNode.path("epoch").asText(null),
+                    jsonNode.path("fromVersion").asLong(-1));
+            if (binarySessions.contains(session)) {
+                sendStateFrame(session, response);
+                return;
+            }
+            response.put("timestamp", WebSocketEvents.timestamp());
+            sendMessage(session, objectMapper.writeValueAsString(response));
+        } catch (Exception e) {
+            sendMessage(session, createErrorResponse("RESUME_ERROR", "Error reanudando estado: " + e.getMessage(), session.getId()));
+        }
+    }
+    
+    /**
+     * Respuesta de resume como STATE_DELTA / STATE_SNAPSHOT binario
+     */
+    @SuppressWarnings("unchecked")
+    private void sendStateFrame(WebSocketSession session, Map<String, Object> response) {
+        boolean snapshot = "state_snapshot".equals(response.get("type"));
+        List<ChannelSyncState> states = (List<ChannelSyncState>) response.get(snapshot ? "channels" : "changes");
+        sendWebSocketMessage(session, BinaryFrames.toStateMessage(snapshot, (long) response.get("version"), states));
+    }
+    
+    /**
+     * Sesiones por protocolo y uso del pool de buffers binarios
+     */
+    public Map<String, Object> getProtocolStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("subprotocol", BinaryFrames.SUBPROTOCOL);
+        stats.put("binarySessions", binarySessions.size());
+        stats.put("jsonSessions", sessions.size() - binarySessions.size());
+        stats.put("bufferPool", BinaryFrames.getPoolStats());
+        return stats;
+    }
+    
+    /**
+     * Obtiene el índice de suscripciones por tema (métricas de enrutado)
+     */
+    public Map<String, Object> getSubscriptionStats() {
+        return subscriptions.getStats();
     }
     
     @Override
@@ -122,6 +370,121 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
             session.close();
         }
         sessions.remove(session);
+        binarySessions.remove(session);
+        subscriptions.removeSession(session);
+        sendService.unregister(session);
+    }
+    
+    /**
+     * Encola un comando {"channelId":..,"volume":..} para el siguiente tick
+     * @return false si el mensaje no es un comando simple de volumen (lo procesa el camino normal)
+     */
+    private boolean offerCoalesced(WebSocketSession session, String payload) {
+        JsonNode jsonNode;
+        try {
+            jsonNode = objectMapper.readTree(payload);
+        } catch (Exception e) {
+            return false;
+        }
+        if (jsonNode == null || !jsonNode.has("channelId") || !jsonNode.has("volume")
+                || jsonNode.has("volumes") || jsonNode.has("action")) {
+            return false;
+        }
+        offerVolume(session, jsonNode.get("channelId").asInt(), jsonNode.get("volume").asInt());
+        return true;
+    }
+    
+    /**
+     * Valida un comando de fader y lo deja para el próximo tick
+     */
+    private void offerVolume(WebSocketSession session, int channelId, int volume) {
+        // Los errores sí se responden al momento
+        if (volume < 0 || volume > 100) {
+            sendMessage(session, createErrorResponse(
+                "INVALID_VOLUME_RANGE",
+                "El volumen debe estar entre 0 y 100. Recibido: " + volume,
+                session.getId()
+            ));
+            return;
+        }
+        if (channelId < 0 || channelId >= maxChannels || !threadService.isThreadActive(channelId)) {
+            sendMessage(session, createErrorResponse(
+                "CHANNEL_NOT_ACTIVE",
+                "El canal " + channelId + " no está activo. Inicia el thread del canal primero.",
+                session.getId()
+            ));
+            return;
+        }
+        
+        coalescer.offer(channelId, volume);
+    }
+    
+    /**
+     * Tick: aplica el último volumen de cada canal en una sola escritura y lo difunde en un solo mensaje
+     */
+    private void flushCoalesced() {
+        try {
+            if (!coalescer.hasPending()) {
+                return;
+            }
+            long cpuStart = threadMXBean.isCurrentThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : 0;
+            
+            Map<Integer, Integer> volumes = new LinkedHashMap<>();
+            if (coalescer.drain(volumes) == 0) {
+                return;
+            }
+            long version = volumeManager.setVolumes(volumes);
+            broadcastVolumeBatch(volumes, version);
+            ticksWithChanges.incrementAndGet();
+            
+            if (cpuStart > 0) {
+                tickCpuNanos.addAndGet(threadMXBean.getCurrentThreadCpuTime() - cpuStart);
+            }
+        } catch (Exception e) {
+            System.err.println("Error aplicando volúmenes agrupados: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Métricas de la agrupación de comandos y del tráfico saliente
+     */
+    public Map<String, Object> getCoalescingStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", coalesceEnabled);
+        stats.put("tickHz", coalesceTickHz);
+        stats.put("commandsReceived", coalescer.getReceived());
+        stats.put("commandsCoalesced", coalescer.getCoalesced());
+        stats.put("updatesApplied", coalescer.getApplied());
+        stats.put("ticksWithChanges", ticksWithChanges.get());
+        stats.put("tickCpuMs", tickCpuNanos.get() / 1_000_000.0);
+        stats.put("outboundMessages", outbound.getFrames());
+        stats.put("outboundBytes", outbound.getBytes());
+        return stats;
+    }
+    
+    /**
+     * Métricas del modo agrupado y del tráfico saliente (frames y bytes por segundo)
+     */
+    public Map<String, Object> getBatchStats() {
+        Map<String, Object> stats = new HashMap<>(batcher.getStats());
+        stats.put("enabled", batchEnabled);
+        stats.put("tickHz", batchTickHz);
+        stats.put("outbound", outbound.getStats());
+        return stats;
+    }
+    
+    /**
+     * Tick del modo agrupado: un frame "batch" por sesión con todo lo acumulado desde el anterior
+     */
+    private void flushBatch() {
+        try {
+            // Las sesiones binarias no se agrupan: reciben cada evento al momento
+            for (EventBatcher.Frame frame : batcher.flush(sessions, subscriptions, binarySessions)) {
+                broadcastTextMessage(frame.message(), null, frame.sessions());
+            }
+        } catch (Exception e) {
+            System.err.println("Error enviando broadcasts agrupados: " + e.getMessage());
+        }
     }
     
     /**
@@ -129,9 +492,11 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
      */
     private void processVolumeCommand(WebSocketSession session, int channelId, int volume) {
         try {
-            System.out.println("🎚️ ======== PROCESSING VOLUME COMMAND ========");
-            System.out.println("🔢 Canal ID: " + channelId);
-            System.out.println("🔊 Volumen solicitado: " + volume);
+            if (debugLog) {
+                System.out.println("🎚️ ======== PROCESSING VOLUME COMMAND ========");
+                System.out.println("🔢 Canal ID: " + channelId);
+                System.out.println("🔊 Volumen solicitado: " + volume);
+            }
             
             // Validar rango de volumen (0-100)
             if (volume < 0 || volume > 100) {
@@ -152,9 +517,11 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
                 ChannelThread channelThread = threadService.getThreadInfo(channelId);
                 
                 if (channelThread != null) {
-                    // Setear el volumen en el thread
-                    channelThread.setVolume(volume);
-                    System.out.println("✅ Volumen " + volume + " aplicado al thread del canal " + channelId);
+                    // El thread lee el volumen de la tabla de estado en el siguiente bloque
+                    volumeManager.setVolume(channelId, volume);
+                    if (debugLog) {
+                        System.out.println("✅ Volumen " + volume + " aplicado al thread del canal " + channelId);
+                    }
                     
                     // Crear respuesta de éxito
                     Map<String, Object> successResponse = new HashMap<>();
@@ -168,7 +535,6 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
                     
                     String successMessage = objectMapper.writeValueAsString(successResponse);
                     sendMessage(session, successMessage);
-                    volumeManager.setVolume(channelId, volume);
                     // Broadcast del cambio de volumen a todas las conexiones
                     broadcastVolumeUpdate(channelId, volume);
                     
@@ -183,7 +549,9 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
                 
             } else {
                 // Thread no activo - enviar mensaje de error
-                System.out.println("⚠️ Canal " + channelId + " no tiene thread activo");
+                if (debugLog) {
+                    System.out.println("⚠️ Canal " + channelId + " no tiene thread activo");
+                }
                 
                 Map<String, Object> errorResponse = new HashMap<>();
                 errorResponse.put("type", "volume_error");
@@ -198,7 +566,9 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
                 sendMessage(session, errorMessage);
             }
             
-            System.out.println("🎚️ ===========================================");
+            if (debugLog) {
+                System.out.println("🎚️ ===========================================");
+            }
             
         } catch (Exception e) {
             System.err.println("❌ Error procesando comando de volumen: " + e.getMessage());
@@ -213,6 +583,194 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
         }
     }
     
+    /**
+     * Procesa un lote de volúmenes: se aplica entero en una sola actualización de la tabla de estado,
+     * con una sola respuesta a la sesión y un solo broadcast
+     */
+    private void processVolumeBatch(WebSocketSession session, JsonNode volumesNode) {
+        try {
+            Map<Integer, Integer> volumes = new LinkedHashMap<>();
+            for (JsonNode entry : volumesNode) {
+                if (!entry.has("channelId") || !entry.has("volume")) {
+                    sendMessage(session, createErrorResponse("INVALID_FORMAT",
+                        "Cada elemento debe ser {\"channelId\":1,\"volume\":60}", session.getId()));
+                    return;
+                }
+                int channelId = entry.get("channelId").asInt();
+                if (ConfigUtil.getChannelById(channelId) == null) {
+                    sendMessage(session, createErrorResponse("CHANNEL_NOT_FOUND",
+                        "Canal con ID " + channelId + " no encontrado en la configuración", session.getId()));
+                    return;
+                }
+                volumes.put(channelId, entry.get("volume").asInt()); // Si un canal se repite gana el último
+            }
+            applyVolumeBatch(session, volumes);
+        } catch (Exception e) {
+            System.err.println("❌ Error procesando lote de volúmenes: " + e.getMessage());
+            sendMessage(session, createErrorResponse(
+                "PROCESSING_ERROR",
+                "Error interno procesando lote de volúmenes: " + e.getMessage(),
+                session.getId()
+            ));
+        }
+    }
+    
+    /**
+     * Aplica un lote ya leído (JSON o VOLUME_SET binario), responde al emisor y lo difunde
+     */
+    private void applyVolumeBatch(WebSocketSession session, Map<Integer, Integer> volumes) {
+        try {
+            if (volumes.isEmpty()) {
+                sendMessage(session, createErrorResponse("EMPTY_BATCH", "El lote no contiene volúmenes", session.getId()));
+                return;
+            }
+            
+            long version;
+            try {
+                version = volumeManager.setVolumes(volumes);
+            } catch (IllegalArgumentException e) {
+                sendMessage(session, createErrorResponse("INVALID_VOLUME_RANGE", e.getMessage(), session.getId()));
+                return;
+            }
+            
+            // Canales sin thread: el volumen queda guardado y se aplica al iniciarlos
+            List<Integer> inactiveChannels = new ArrayList<>();
+            for (Integer channelId : volumes.keySet()) {
+                if (!threadService.isThreadActive(channelId)) {
+                    inactiveChannels.add(channelId);
+                }
+            }
+            
+            Map<String, Object> successResponse = new HashMap<>();
+            successResponse.put("type", "volume_batch_success");
+            successResponse.put("applied", volumes.size());
+            successResponse.put("inactiveChannels", inactiveChannels);
+            successResponse.put("stateVersion", version);
+            successResponse.put("timestamp", java.time.LocalDateTime.now().toString());
+            sendMessage(session, objectMapper.writeValueAsString(successResponse));
+            
+            broadcastVolumeBatch(volumes, version);
+            
+        } catch (Exception e) {
+            System.err.println("❌ Error procesando lote de volúmenes: " + e.getMessage());
+            sendMessage(session, createErrorResponse(
+                "PROCESSING_ERROR",
+                "Error interno procesando lote de volúmenes: " + e.getMessage(),
+                session.getId()
+            ));
+        }
+    }
+    
+    /**
+     * Procesa un comando de automatización (fundidos y crossfades programados en el servidor)
+     */
+    private void processAutomationCommand(WebSocketSession session, JsonNode command) {
+        String action = command.get("action").asText();
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("type", "automation_success");
+            response.put("action", action);
+            switch (action) {
+                case "fade" -> {
+                    requireFields(command, "channelId", "volume", "durationMs");
+                    response.put("automation", automationEngine.scheduleFade(
+                            command.get("channelId").asInt(),
+                            command.get("volume").asInt(),
+                            command.get("durationMs").asLong(),
+                            command.path("delayMs").asLong(0)).toMap());
+                }
+                case "crossfade" -> {
+                    requireFields(command, "fromChannelId", "toChannelId", "durationMs");
+                    response.put("automation", automationEngine.scheduleCrossfade(
+                            command.get("fromChannelId").asInt(),
+                            command.get("toChannelId").asInt(),
+                            command.has("volume") ? command.get("volume").asInt() : null,
+                            command.get("durationMs").asLong(),
+                            command.path("delayMs").asLong(0)).toMap());
+                }
+                case "cancelAutomation" -> {
+                    requireFields(command, "automationId");
+                    response.put("automation", automationEngine.cancel(command.get("automationId").asText()).toMap());
+                }
+                case "listAutomations" -> response.put("automations",
+                        automationEngine.listAutomations(command.path("includeFinished").asBoolean(false)));
+                default -> {
+                    sendMessage(session, createErrorResponse("UNKNOWN_ACTION",
+                        "Acción no reconocida: " + action + " (fade, crossfade, cancelAutomation, listAutomations)",
+                        session.getId()));
+                    return;
+                }
+            }
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            sendMessage(session, objectMapper.writeValueAsString(response));
+        } catch (ThreadException e) {
+            sendMessage(session, createErrorResponse(e.getErrorType(), e.getMessage(), session.getId()));
+        } catch (Exception e) {
+            System.err.println("❌ Error procesando automatización: " + e.getMessage());
+            sendMessage(session, createErrorResponse("PROCESSING_ERROR",
+                "Error interno procesando automatización: " + e.getMessage(), session.getId()));
+        }
+    }
+    
+    /**
+     * Procesa un comando de escena (guardar, recuperar con fundido opcional, listar)
+     */
+    private void processSceneCommand(WebSocketSession session, JsonNode command) {
+        String action = command.get("action").asText();
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("type", "scene_success");
+            response.put("action", action);
+            switch (action) {
+                case "saveScene" -> {
+                    if (!command.has("name")) {
+                        throw new ThreadExceptions.InvalidSceneException("falta el campo 'name'");
+                    }
+                    response.put("scene", sceneService.saveScene(command.get("name").asText(),
+                            command.path("description").asText(null)));
+                }
+                case "recallScene" -> {
+                    if (!command.has("name")) {
+                        throw new ThreadExceptions.InvalidSceneException("falta el campo 'name'");
+                    }
+                    response.put("recall", sceneService.recallScene(command.get("name").asText(),
+                            command.path("fadeMs").asLong(0)));
+                }
+                case "listScenes" -> response.put("scenes", sceneService.listScenes());
+                default -> {
+                    sendMessage(session, createErrorResponse("UNKNOWN_ACTION",
+                        "Acción no reconocida: " + action + " (saveScene, recallScene, listScenes)",
+                        session.getId()));
+                    return;
+                }
+            }
+            response.put("timestamp", java.time.LocalDateTime.now().toString());
+            sendMessage(session, objectMapper.writeValueAsString(response));
+        } catch (ThreadException e) {
+            sendMessage(session, createErrorResponse(e.getErrorType(), e.getMessage(), session.getId()));
+        } catch (Exception e) {
+            System.err.println("❌ Error procesando escena: " + e.getMessage());
+            sendMessage(session, createErrorResponse("PROCESSING_ERROR",
+                "Error interno procesando escena: " + e.getMessage(), session.getId()));
+        }
+    }
+    
+    /**
+     * Notifica a todos los clientes que se recuperó una escena
+     */
+    public void broadcastSceneRecalled(Map<String, Object> recall) {
+        broadcastEvent(new WebSocketEvents.SceneRecalled(recall, WebSocketEvents.timestamp()), null);
+    }
+    
+    private static void requireFields(JsonNode command, String... fields) {
+        for (String field : fields) {
+            if (!command.has(field)) {
+                throw new ThreadExceptions.InvalidAutomationException(
+                        "falta el campo '" + field + "'");
+            }
+        }
+    }
+    
     /**
      * Crea un mensaje de error estructurado
      */
@@ -242,33 +800,63 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
      * Envía un mensaje JSON de volumen a todas las conexiones activas
      */
     public void broadcastVolumeUpdate(int channelId, int volumeLevel) {
-        String message = String.format(
-            "{\"type\":\"volume\",\"channelId\":%d,\"volumeLevel\":%d,\"timestamp\":\"%s\"}",
-            channelId, 
-            volumeLevel, 
-            java.time.LocalDateTime.now().toString()
-        );
+        if (debugLog) {
+            System.out.println("======== BROADCASTING VOLUME UPDATE ========");
+            System.out.println("🎚️ Canal ID: " + channelId);
+            System.out.println("🔊 Nivel de volumen: " + volumeLevel);
+            System.out.println("👥 Enviando a " + sessions.size() + " conexiones");
+            System.out.println("=============================================");
+        }
         
-        System.out.println("======== BROADCASTING VOLUME UPDATE ========");
-        System.out.println("🎚️ Canal ID: " + channelId);
-        System.out.println("🔊 Nivel de volumen: " + volumeLevel);
-        System.out.println("📡 Mensaje JSON: " + message);
-        System.out.println("👥 Enviando a " + sessions.size() + " conexiones");
-        System.out.println("=============================================");
+        broadcastEvent(new WebSocketEvents.VolumeUpdate(channelId, volumeLevel, WebSocketEvents.timestamp()),
+            "volume:" + channelId, EventTopic.VOLUME, channelId);
+    }
+    
+    /**
+     * Envía un único mensaje con todos los volúmenes de un lote a todas las conexiones activas
+     */
+    public void broadcastVolumeBatch(Map<Integer, Integer> volumes, long stateVersion) {
+        List<WebSocketEvents.VolumeLevel> entries = new ArrayList<>(volumes.size());
+        volumes.forEach((channelId, volumeLevel) -> entries.add(new WebSocketEvents.VolumeLevel(channelId, volumeLevel)));
         
-        broadcastMessage(message);
+        if (debugLog) {
+            System.out.println("📡 Broadcast de lote: " + volumes.size() + " canales a " + sessions.size() + " conexiones");
+        }
+        WebSocketEvents.VolumeBatch batch = new WebSocketEvents.VolumeBatch(entries, stateVersion, WebSocketEvents.timestamp());
+        if (batchEnabled) {
+            batcher.add(batch, EventTopic.VOLUME, List.copyOf(volumes.keySet()));
+        }
+        if (!batchEnabled || !binarySessions.isEmpty()) {
+            // Llega a quien siga al menos uno de los canales del lote (el lote va completo)
+            deliverEvent(batch, null, subscriptions.recipients(EventTopic.VOLUME, volumes.keySet(), sessions.size()), batchEnabled);
+        }
+    }
+    
+    /**
+     * Notifica a todas las conexiones un cambio de estado de una automatización
+     */
+    public void broadcastAutomationUpdate(Map<String, Object> automation) {
+        broadcastEvent(new WebSocketEvents.AutomationUpdate(automation, WebSocketEvents.timestamp()), null);
     }
     
     /**
-     * Envía un mensaje a una sesión específica
+     * Envía un mensaje a una sesión específica (se encola; lo envía un hilo ws-sender)
      */
     public void sendMessage(WebSocketSession session, String message) {
-        try {
-            if (session.isOpen()) {
-                session.sendMessage(new TextMessage(message));
-            }
-        } catch (IOException e) {
-            System.err.println("Error al enviar mensaje a sesión " + session.getId() + ": " + e.getMessage());
+        sendTextMessage(session, new TextMessage(message));
+    }
+    
+    private void sendTextMessage(WebSocketSession session, TextMessage textMessage) {
+        sendWebSocketMessage(session, textMessage);
+    }
+    
+    private void sendWebSocketMessage(WebSocketSession session, WebSocketMessage<?> message) {
+        if (!session.isOpen()) {
+            return;
+        }
+        if (sendService.send(session, message, null)) {
+            countOutbound(message, 1);
+        } else {
             sessions.remove(session);
         }
     }
@@ -277,23 +865,95 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
      * Envía un mensaje a todas las conexiones activas
      */
     public void broadcastMessage(String message) {
-        System.out.println("📡 Broadcasting mensaje: " + message);
-        
-        sessions.removeIf(session -> {
-            try {
-                if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(message));
-                    return false; // Mantener sesión
-                } else {
-                    return true; // Remover sesión cerrada
+        broadcastMessage(message, null);
+    }
+    
+    /**
+     * Encola el mensaje en todas las conexiones activas; nunca bloquea al hilo que difunde
+     * @param coalesceKey clave de agrupación para colas lentas (null = no se agrupa)
+     */
+    public void broadcastMessage(String message, String coalesceKey) {
+        broadcastTextMessage(new TextMessage(message), coalesceKey, sessions);
+    }
+    
+    /**
+     * Serializa el evento una sola vez y encola el mismo mensaje en todas las conexiones
+     * @param coalesceKey clave de agrupación para colas lentas (null = no se agrupa)
+     */
+    public void broadcastEvent(WebSocketEvents.Event event, String coalesceKey) {
+        if (batchEnabled) {
+            batcher.add(event, coalesceKey, null, TopicSubscriptions.ALL_CHANNELS);
+        }
+        if (!batchEnabled || !binarySessions.isEmpty()) {
+            deliverEvent(event, coalesceKey, sessions, batchEnabled);
+        }
+    }
+    
+    /**
+     * Envía un evento de canal sólo a las sesiones suscritas a su tema (y a las que no filtran)
+     */
+    public void broadcastEvent(WebSocketEvents.Event event, String coalesceKey, EventTopic topic, int channelId) {
+        if (batchEnabled) {
+            batcher.add(event, coalesceKey, topic, channelId);
+        }
+        if (!batchEnabled || !binarySessions.isEmpty()) {
+            deliverEvent(event, coalesceKey, subscriptions.recipients(topic, channelId, sessions.size()), batchEnabled);
+        }
+    }
+    
+    /**
+     * Encola el evento en cada destino con su protocolo: JSON (serializado una vez) o frame binario
+     * (codificado una vez) para las sesiones del subprotocolo que tengan representación binaria
+     * @param binaryOnly sólo las sesiones binarias (en modo agrupado las JSON lo reciben en el tick)
+     */
+    private void deliverEvent(WebSocketEvents.Event event, String coalesceKey, Collection<WebSocketSession> targets,
+                              boolean binaryOnly) {
+        try {
+            if (binarySessions.isEmpty()) {
+                if (!binaryOnly) {
+                    broadcastTextMessage(WebSocketEvents.encode(event), coalesceKey, targets);
                 }
-            } catch (IOException e) {
-                System.err.println("Error al enviar broadcast a sesión " + session.getId() + ": " + e.getMessage());
-                return true; // Remover sesión con error
+                return;
             }
-        });
+            List<WebSocketSession> jsonTargets = new ArrayList<>(targets.size());
+            List<WebSocketSession> binaryTargets = new ArrayList<>(binarySessions.size());
+            for (WebSocketSession session : targets) {
+                (binarySessions.contains(session) ? binaryTargets : jsonTargets).add(session);
+            }
+            if (!binaryOnly && !jsonTargets.isEmpty()) {
+                broadcastTextMessage(WebSocketEvents.encode(event), coalesceKey, jsonTargets);
+            }
+            if (binaryTargets.isEmpty()) {
+                return;
+            }
+            if (BinaryFrames.supports(event)) {
+                WebSocketMessage<?> frame = BinaryFrames.toMessage(event);
+                countOutbound(frame, sendService.broadcast(binaryTargets, frame, coalesceKey));
+            } else {
+                broadcastTextMessage(WebSocketEvents.encode(event), coalesceKey, binaryTargets);
+            }
+        } catch (Exception e) {
+            System.err.println("Error serializando evento " + event.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+    
+    private void broadcastTextMessage(TextMessage textMessage, String coalesceKey, Collection<WebSocketSession> targets) {
+        if (debugLog) {
+            System.out.println("📡 Broadcasting mensaje: " + textMessage.getPayload());
+        }
+        
+        // Una sola instancia para todas las sesiones
+        sessions.removeIf(session -> !session.isOpen()); // Remover sesiones cerradas
+        int queued = sendService.broadcast(targets, textMessage, coalesceKey);
+        countOutbound(textMessage, queued);
         
-        System.out.println("📊 Mensaje enviado a " + sessions.size() + " conexiones");
+        if (debugLog) {
+            System.out.println("📊 Mensaje encolado para " + queued + " conexiones");
+        }
+    }
+    
+    private void countOutbound(WebSocketMessage<?> message, int sessionsCount) {
+        outbound.record(message.getPayloadLength(), sessionsCount);
     }
     
     /**
@@ -307,12 +967,6 @@ public class VolumeWebSocketHandler extends TextWebSocketHandler {
      * Envía estadísticas de conexiones
      */
     public void broadcastConnectionStats() {
-        String statsMessage = String.format(
-            "{\"type\":\"stats\",\"activeConnections\":%d,\"timestamp\":\"%s\"}",
-            sessions.size(),
-            java.time.LocalDateTime.now().toString()
-        );
-        
-        broadcastMessage(statsMessage);
+        broadcastEvent(new WebSocketEvents.Stats(sessions.size(), WebSocketEvents.timestamp()), null);
     }
 }
\ No newline at end of file
@@ -19,6 +19,9 @@ public class WebSocketConfig implements WebSocketConfigurer {
     @Autowired
     private ThreadWebSocketHandler threadWebSocketHandler;
     
+    @Autowired
+    private MultiplexWebSocketHandler multiplexWebSocketHandler;
+    
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         // Registrar el handler para el endpoint de volumen
@@ -28,5 +31,9 @@ public class WebSocketConfig implements WebSocketConfigurer {
         // Registrar el handler para el endpoint de notificaciones de threads
         registry.addHandler(threadWebSocketHandler, "/ws/thread")
                 .setAllowedOrigins("*"); // Permitir conexiones desde cualquier origen
+        
+        // Endpoint unificado: control, threads y medidas multiplexados en una sola conexión
+        registry.addHandler(multiplexWebSocketHandler, "/ws")
+                .setAllowedOrigins("*"); // Permitir conexiones desde cualquier origen
     }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.example.DanteClient.thread.controller;
+
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.model.Automation;
+import com.example.DanteClient.thread.service.AutomationEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para fundidos y crossfades programados en el servidor
+ */
+@RestController
+@RequestMapping("/api/automation")
+@CrossOrigin(origins = "*")
+public class AutomationController {
+
+    @Autowired
+    private AutomationEngine automationEngine;
+
+    /**
+     * Programa un fundido de un canal
+     * POST /api/automation/fade
+     * Body: {"channelId": 4, "volume": 0, "durationMs": 3000, "delayMs": 0}
+     */
+    @PostMapping("/fade")
+    public ResponseEntity<?> scheduleFade(@RequestBody Map<String, Object> payload) {
+        Automation automation = automationEngine.scheduleFade(
+                requireInt(payload, "channelId"),
+                requireInt(payload, "volume"),
+                requireLong(payload, "durationMs"),
+                optionalLong(payload, "delayMs"));
+        return ResponseEntity.status(HttpStatus.CREATED).body(buildResponse("Fundido programado", automation));
+    }
+
+    /**
+     * Programa un crossfade entre dos canales
+     * POST /api/automation/crossfade
+     * Body: {"fromChannelId": 2, "toChannelId": 5, "durationMs": 500, "volume": 80, "delayMs": 0}
+     */
+    @PostMapping("/crossfade")
+    public ResponseEntity<?> scheduleCrossfade(@RequestBody Map<String, Object> payload) {
+        Automation automation = automationEngine.scheduleCrossfade(
+                requireInt(payload, "fromChannelId"),
+                requireInt(payload, "toChannelId"),
+                payload.containsKey("volume") ? requireInt(payload, "volume") : null,
+                requireLong(payload, "durationMs"),
+                optionalLong(payload, "delayMs"));
+        return ResponseEntity.status(HttpStatus.CREATED).body(buildResponse("Crossfade programado", automation));
+    }
+
+    /**
+     * Lista las automatizaciones
+     * GET /api/automation?includeFinished=true
+     */
+    @GetMapping
+    public ResponseEntity<?> listAutomations(@RequestParam(defaultValue = "false") boolean includeFinished) {
+        List<Map<String, Object>> automations = automationEngine.listAutomations(includeFinished);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("automations", automations);
+        response.put("total", automations.size());
+        response.put("stats", automationEngine.getStats());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Obtiene una automatización
+     * GET /api/automation/{automationId}
+     */
+    @GetMapping("/{automationId}")
+    public ResponseEntity<?> getAutomation(@PathVariable String automationId) {
+        return ResponseEntity.ok(automationEngine.getAutomation(automationId).toMap());
+    }
+
+    /**
+     * Cancela una automatización (si está en curso los canales quedan en el volumen alcanzado)
+     * DELETE /api/automation/{automationId}
+     */
+    @DeleteMapping("/{automationId}")
+    public ResponseEntity<?> cancelAutomation(@PathVariable String automationId) {
+        Automation automation = automationEngine.cancel(automationId);
+        return ResponseEntity.ok(buildResponse("Automatización cancelada", automation));
+    }
+
+    private Map<String, Object> buildResponse(String message, Automation automation) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", message);
+        response.put("automation", automation.toMap());
+        response.put("statusUrl", "/api/automation/" + automation.getAutomationId());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return response;
+    }
+
+    private int requireInt(Map<String, Object> payload, String field) {
+        return (int) requireLong(payload, field);
+    }
+
+    private long requireLong(Map<String, Object> payload, String field) {
+        Object value = payload.get(field);
+        if (value == null) {
+            throw new ThreadExceptions.InvalidAutomationException("el campo '" + field + "' es requerido");
+        }
+        try {
+            return Long.parseLong(value.toString());
+        } catch (NumberFormatException e) {
+            throw new ThreadExceptions.InvalidAutomationException("el campo '" + field + "' debe ser un número entero");
+        }
+    }
+
+    private long optionalLong(Map<String, Object> payload, String field) {
+        return payload.containsKey(field) ? requireLong(payload, field) : 0;
+    }
+}
@@ -1,10 +1,23 @@
 package com.example.DanteClient.thread.controller;
 
+import com.example.DanteClient.thread.service.BulkChannelJobService;
+import com.example.DanteClient.thread.service.ChannelConsumerRegistry;
+import com.example.DanteClient.thread.service.ChannelEventBus;
+import com.example.DanteClient.thread.service.ChannelResourcePool;
+import com.example.DanteClient.thread.service.ChannelSupervisor;
 import com.example.DanteClient.thread.service.ChannelThreadService;
+import com.example.DanteClient.thread.model.BulkChannelJob;
+import com.example.DanteClient.thread.model.AudioBlockQueue;
 import com.example.DanteClient.thread.model.ChannelThread;
+import com.example.DanteClient.thread.model.ChannelTimingStats;
+import com.example.DanteClient.thread.model.PlayoutMonitor;
+import com.example.DanteClient.thread.model.RestartPolicy;
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.config.ThreadWebSocketHandler;
 import com.example.DanteClient.data.util.ConfigUtil;
 import com.example.DanteClient.data.model.Channel;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,6 +36,24 @@ public class ChannelThreadController {
     @Autowired
     private ChannelThreadService threadService;
     
+    @Autowired
+    private BulkChannelJobService bulkJobService;
+    
+    @Autowired
+    private ChannelResourcePool resourcePool;
+    
+    @Autowired
+    private ChannelSupervisor supervisor;
+    
+    @Autowired
+    private ChannelConsumerRegistry consumerRegistry;
+    
+    @Autowired
+    private ChannelEventBus eventBus;
+    
+    @Autowired
+    private ThreadWebSocketHandler threadWebSocketHandler;
+    
     /**
      * Crea un nuevo thread para un canal específico
      * POST /api/threads/channel/{channelId}
@@ -80,6 +111,10 @@ public class ChannelThreadController {
             info.put("currentTask", thread.getCurrentTask());
             info.put("startTime", thread.getStartTime());
             info.put("isRunning", thread.isRunning());
+            info.put("setupMs", thread.getSetupMs());
+            info.put("firstSampleLatencyMs", thread.getFirstSampleLatencyMs());
+            info.put("configVersion", thread.getAppliedConfigVersion());
+            info.put("parked", thread.isParked());
             
             return ResponseEntity.ok(info);
         } else {
@@ -105,6 +140,7 @@ public class ChannelThreadController {
             threadInfo.put("currentTask", thread.getCurrentTask());
             threadInfo.put("startTime", thread.getStartTime());
             threadInfo.put("isRunning", thread.isRunning());
+            threadInfo.put("parked", thread.isParked());
             return threadInfo;
         }).toList());
         
@@ -128,6 +164,26 @@ public class ChannelThreadController {
             response.put("status", thread.getStatus());
             response.put("currentTask", thread.getCurrentTask());
             response.put("startTime", thread.getStartTime());
+            response.put("setupMs", thread.getSetupMs());
+            response.put("firstSampleLatencyMs", thread.getFirstSampleLatencyMs());
+            response.put("parked", thread.isParked());
+            response.put("parkCount", thread.getParkCount());
+            response.put("unparkCount", thread.getUnparkCount());
+            response.put("sinkFailures", thread.getSinkFailures());
+            response.put("consumers", consumerRegistry.getConsumers(channelId));
+            response.put("skippedDecodes", thread.getSkippedDecodes());
+            response.put("deadlineMisses", thread.getTimingStats().getDeadlineMisses());
+            response.put("estimatedNetworkLoss", thread.getTimingStats().getEstimatedLostBlocks());
+            AudioBlockQueue queue = thread.getBlockQueue();
+            response.put("backpressureDrops", queue != null ? queue.getBackpressureDrops() : 0);
+            
+            // Salud de la línea de audio
+            PlayoutMonitor monitor = thread.getPlayoutMonitor();
+            response.put("underruns", monitor.getUnderruns());
+            response.put("overruns", monitor.getOverruns());
+            response.put("fillBlocks", monitor.getFillBlocks());
+            response.put("fillPercent", monitor.getFillPercent());
+            response.put("targetFillBlocks", monitor.getTargetFillBlocks());
         } else {
             response.put("status", "NO_THREAD");
             response.put("currentTask", null);
@@ -137,6 +193,84 @@ public class ChannelThreadController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Obtiene los tiempos por etapa (recepción, decodificación, escritura) y los fallos de plazo de un canal
+     * GET /api/threads/channel/{channelId}/timing
+     */
+    @GetMapping("/channel/{channelId}/timing")
+    public ResponseEntity<?> getThreadTiming(@PathVariable int channelId) {
+        ChannelThread thread = threadService.getThreadInfo(channelId);
+        if (thread == null) {
+            throw new ThreadExceptions.ThreadNotFoundException(channelId);
+        }
+        
+        ChannelTimingStats timing = thread.getTimingStats();
+        Map<String, Object> response = new HashMap<>();
+        response.put("channelId", channelId);
+        response.put("blockBudgetMicros", timing.getBlockBudgetNanos() / 1000);
+        response.put("blocks", timing.getBlocks());
+        response.put("deadlineMisses", timing.getDeadlineMisses());
+        response.put("consecutiveMisses", timing.getConsecutiveMisses());
+        response.put("missRatePercent", timing.getMissRatePercent());
+        response.put("lastProcessMicros", timing.getLastProcessNanos() / 1000);
+        response.put("maxProcessMicros", timing.getMaxProcessNanos() / 1000);
+        
+        Map<String, Object> receive = new HashMap<>();
+        receive.put("lastMicros", timing.getLastReceiveNanos() / 1000);
+        receive.put("avgMicros", timing.getAvgReceiveNanos() / 1000);
+        
+        Map<String, Object> decode = new HashMap<>();
+        decode.put("lastMicros", timing.getLastDecodeNanos() / 1000);
+        decode.put("avgMicros", timing.getAvgDecodeNanos() / 1000);
+        decode.put("maxMicros", timing.getMaxDecodeNanos() / 1000);
+        
+        Map<String, Object> write = new HashMap<>();
+        write.put("lastMicros", timing.getLastWriteNanos() / 1000);
+        write.put("avgMicros", timing.getAvgWriteNanos() / 1000);
+        write.put("maxMicros", timing.getMaxWriteNanos() / 1000);
+        write.put("writes", timing.getWrites());
+        
+        // Pérdida en la red (bloques que no llegaron) vs descartes por contrapresión de la línea
+        Map<String, Object> network = new HashMap<>();
+        network.put("arrivals", timing.getArrivals());
+        network.put("estimatedLostBlocks", timing.getEstimatedLostBlocks());
+        
+        Map<String, Object> playout = new HashMap<>();
+        AudioBlockQueue queue = thread.getBlockQueue();
+        if (queue != null) {
+            playout.put("overflowPolicy", queue.getPolicy().name());
+            playout.put("queueCapacity", queue.getCapacity());
+            playout.put("queuedBlocks", queue.size());
+            playout.put("droppedOldest", queue.getDroppedOldest());
+            playout.put("droppedNewest", queue.getDroppedNewest());
+            playout.put("compressedBlocks", queue.getCompressedBlocks());
+            playout.put("backpressureDrops", queue.getBackpressureDrops());
+        }
+        PlayoutMonitor monitor = thread.getPlayoutMonitor();
+        playout.put("underruns", monitor.getUnderruns());
+        playout.put("overruns", monitor.getOverruns());
+        playout.put("trimmedBlocks", monitor.getTrimmedBlocks());
+        playout.put("correctedBlocks", monitor.getCorrectedBlocks());
+        playout.put("fillBytes", monitor.getFillBytes());
+        playout.put("lineBufferBytes", monitor.getBufferBytes());
+        playout.put("targetFillBlocks", monitor.getTargetFillBlocks());
+        playout.put("minFillBlocks", monitor.getMinFillBlocks());
+        playout.put("maxFillBlocks", monitor.getMaxFillBlocks());
+        playout.put("ceilingFillBlocks", monitor.getCeilingFillBlocks());
+        playout.put("framePosition", monitor.getFramePosition());
+        playout.put("framesWritten", monitor.getFramesWritten());
+        
+        response.put("receive", receive);
+        response.put("decode", decode);
+        response.put("enqueueMicros", timing.getLastEnqueueNanos() / 1000);
+        response.put("write", write);
+        response.put("network", network);
+        response.put("playout", playout);
+        response.put("timestamp", java.time.LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Detiene todos los threads activos
      * DELETE /api/threads/all
@@ -195,6 +329,218 @@ public class ChannelThreadController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Obtiene el estado del pool de líneas de audio y suscripciones multicast
+     * GET /api/threads/pool
+     */
+    @GetMapping("/pool")
+    public ResponseEntity<?> getResourcePoolStats() {
+        Map<String, Object> response = new HashMap<>(resourcePool.getStats());
+        response.put("activeThreads", threadService.getActiveThreadsCount());
+        response.put("threads", threadService.getAllActiveThreads().stream().map(thread -> {
+            Map<String, Object> threadInfo = new HashMap<>();
+            threadInfo.put("channelId", thread.getChannelId());
+            threadInfo.put("setupMs", thread.getSetupMs());
+            threadInfo.put("firstSampleLatencyMs", thread.getFirstSampleLatencyMs());
+            return threadInfo;
+        }).toList());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Obtiene los canales que tienen consumidores (sólo esos se decodifican)
+     * GET /api/threads/consumers
+     */
+    @GetMapping("/consumers")
+    public ResponseEntity<?> getConsumers() {
+        List<Integer> consumedChannels = consumerRegistry.getConsumedChannels();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("consumedChannels", consumedChannels);
+        response.put("decodedChannels", consumedChannels.size());
+        response.put("activeThreads", threadService.getActiveThreadsCount());
+        response.put("channels", consumedChannels.stream().map(channelId -> {
+            Map<String, Object> channelInfo = new HashMap<>();
+            channelInfo.put("channelId", channelId);
+            channelInfo.put("consumers", consumerRegistry.getConsumers(channelId));
+            return channelInfo;
+        }).toList());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Obtiene las métricas del bus de eventos de canal (publicados, descartados, latencia de despacho)
+     * y del enrutado por suscripciones y el envío agrupado de /ws/thread
+     * GET /api/threads/events
+     */
+    @GetMapping("/events")
+    public ResponseEntity<?> getEventBusStats() {
+        Map<String, Object> response = new HashMap<>(eventBus.getStats());
+        response.put("websocketSubscriptions", threadWebSocketHandler.getSubscriptionStats());
+        response.put("websocketBatching", threadWebSocketHandler.getBatchStats());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Obtiene la configuración del supervisor y el estado deseado/real de cada canal supervisado
+     * GET /api/threads/supervisor
+     */
+    @GetMapping("/supervisor")
+    public ResponseEntity<?> getSupervisorStatus() {
+        Map<String, Object> response = new HashMap<>(supervisor.getSettings());
+        response.put("channels", supervisor.getAllChannelInfo());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Obtiene el estado de supervisión de un canal
+     * GET /api/threads/channel/{channelId}/supervision
+     */
+    @GetMapping("/channel/{channelId}/supervision")
+    public ResponseEntity<?> getChannelSupervision(@PathVariable int channelId) {
+        if (ConfigUtil.getChannelById(channelId) == null) {
+            throw new ThreadExceptions.ChannelNotFoundException(channelId);
+        }
+        return ResponseEntity.ok(supervisor.getChannelInfo(channelId));
+    }
+    
+    /**
+     * Cambia la política de reinicio de un canal
+     * PUT /api/threads/channel/{channelId}/restart-policy
+     * Body: {"policy": "NEVER" | "ON_FAILURE" | "ALWAYS"}
+     */
+    @PutMapping("/channel/{channelId}/restart-policy")
+    public ResponseEntity<?> setRestartPolicy(@PathVariable int channelId, @RequestBody Map<String, Object> payload) {
+        if (ConfigUtil.getChannelById(channelId) == null) {
+            throw new ThreadExceptions.ChannelNotFoundException(channelId);
+        }
+        Object rawPolicy = payload.get("policy");
+        RestartPolicy policy = RestartPolicy.fromString(rawPolicy != null ? rawPolicy.toString() : null);
+        if (policy == null) {
+            throw new ThreadExceptions.InvalidRestartPolicyException(String.valueOf(rawPolicy));
+        }
+        
+        supervisor.setPolicy(channelId, policy);
+        
+        Map<String, Object> response = new HashMap<>(supervisor.getChannelInfo(channelId));
+        response.put("success", true);
+        response.put("message", "Política de reinicio del canal " + channelId + " establecida en " + policy);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Restablece el presupuesto de reinicios de un canal (reanuda uno que se rindió)
+     * POST /api/threads/channel/{channelId}/supervision/reset
+     */
+    @PostMapping("/channel/{channelId}/supervision/reset")
+    public ResponseEntity<?> resetChannelSupervision(@PathVariable int channelId) {
+        if (ConfigUtil.getChannelById(channelId) == null) {
+            throw new ThreadExceptions.ChannelNotFoundException(channelId);
+        }
+        supervisor.resetChannel(channelId);
+        
+        Map<String, Object> response = new HashMap<>(supervisor.getChannelInfo(channelId));
+        response.put("success", true);
+        response.put("message", "Presupuesto de reinicios del canal " + channelId + " restablecido");
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Inicia en paralelo los canales indicados y devuelve el ID del trabajo inmediatamente
+     * POST /api/threads/bulk/start
+     * Body: {"channelIds": [1, 2, 3]}
+     */
+    @PostMapping("/bulk/start")
+    public ResponseEntity<?> startChannelsBulk(@RequestBody Map<String, Object> payload) {
+        BulkChannelJob job = bulkJobService.submitStart(extractChannelIds(payload));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(buildJobAccepted(job));
+    }
+    
+    /**
+     * Detiene en paralelo los canales indicados y devuelve el ID del trabajo inmediatamente
+     * POST /api/threads/bulk/stop
+     * Body: {"channelIds": [1, 2, 3]}
+     */
+    @PostMapping("/bulk/stop")
+    public ResponseEntity<?> stopChannelsBulk(@RequestBody Map<String, Object> payload) {
+        BulkChannelJob job = bulkJobService.submitStop(extractChannelIds(payload));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(buildJobAccepted(job));
+    }
+    
+    /**
+     * Obtiene el estado y los resultados de un trabajo masivo
+     * GET /api/threads/bulk/{jobId}
+     */
+    @GetMapping("/bulk/{jobId}")
+    public ResponseEntity<?> getBulkJob(@PathVariable String jobId) {
+        BulkChannelJob job = bulkJobService.getJob(jobId);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("jobId", job.getJobId());
+        response.put("action", job.getAction());
+        response.put("finished", job.isFinished());
+        response.put("totalChannels", job.getTotalChannels());
+        response.put("completed", job.getCompletedCount());
+        response.put("successCount", job.getSuccessCount());
+        response.put("failCount", job.getFailCount());
+        response.put("elapsedMs", job.getElapsedMs());
+        response.put("createdAt", job.getCreatedAt());
+        response.put("results", job.getResults().stream().map(result -> {
+            Map<String, Object> resultInfo = new HashMap<>();
+            resultInfo.put("channelId", result.getChannelId());
+            resultInfo.put("status", result.isSuccess() ? "SUCCESS" : "FAILED");
+            resultInfo.put("message", result.getMessage());
+            resultInfo.put("elapsedMs", result.getElapsedMs());
+            return resultInfo;
+        }).toList());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Extrae y valida la lista de canales del payload
+     */
+    private List<Integer> extractChannelIds(Map<String, Object> payload) {
+        Object idsObj = payload.get("channelIds");
+        if (!(idsObj instanceof List<?> rawIds)) {
+            throw new ThreadExceptions.InvalidBulkRequestException("el campo 'channelIds' es requerido y debe ser una lista");
+        }
+        
+        List<Integer> channelIds = new java.util.ArrayList<>();
+        for (Object rawId : rawIds) {
+            try {
+                channelIds.add(Integer.parseInt(String.valueOf(rawId)));
+            } catch (NumberFormatException e) {
+                throw new ThreadExceptions.InvalidBulkRequestException("ID de canal no válido: " + rawId);
+            }
+        }
+        return channelIds;
+    }
+    
+    /**
+     * Respuesta común al aceptar un trabajo masivo
+     */
+    private Map<String, Object> buildJobAccepted(BulkChannelJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Trabajo " + job.getAction() + " aceptado para " + job.getTotalChannels() + " canales");
+        response.put("jobId", job.getJobId());
+        response.put("action", job.getAction());
+        response.put("channelIds", job.getChannelIds());
+        response.put("statusUrl", "/api/threads/bulk/" + job.getJobId());
+        response.put("websocket", "/ws/thread");
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return response;
+    }
+    
     /**
      * Obtiene estadísticas generales de threads
      * GET /api/threads/stats
@@ -207,6 +553,8 @@ public class ChannelThreadController {
         
         Map<String, Object> stats = new HashMap<>();
         stats.put("activeThreads", activeThreadsCount);
+        stats.put("maxActiveThreads", threadService.getMaxActiveThreads());
+        stats.put("parkedThreads", threadService.getParkedThreadsCount());
         stats.put("totalChannels", totalChannels);
         stats.put("enabledChannels", enabledChannels);
         stats.put("threadsPercentage", enabledChannels > 0 ? (double) activeThreadsCount / enabledChannels * 100 : 0);
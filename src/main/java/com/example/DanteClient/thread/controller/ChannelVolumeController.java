@@ -1,17 +1,27 @@
 package com.example.DanteClient.thread.controller;
 
+import com.example.DanteClient.thread.model.ChannelStateSnapshot;
 import com.example.DanteClient.thread.model.ChannelVolume;
+import com.example.DanteClient.thread.model.EventTopic;
+import com.example.DanteClient.thread.model.WebSocketEvents;
+import com.example.DanteClient.thread.config.MultiplexWebSocketHandler;
 import com.example.DanteClient.thread.config.VolumeWebSocketHandler;
 import com.example.DanteClient.data.util.ConfigUtil;
 import com.example.DanteClient.data.model.Channel;
 import com.example.DanteClient.thread.service.ChannelVolumeManager;
+import com.example.DanteClient.thread.service.CueBus;
+import com.example.DanteClient.thread.service.VolumeStateStore;
+import com.example.DanteClient.thread.service.StateSyncService;
+import com.example.DanteClient.thread.service.WebSocketSendService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.HashMap;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 
 /**
  * Controlador REST para gestionar volumen de canales con WebSocket
@@ -23,12 +33,24 @@ public class ChannelVolumeController {
     
     @Autowired
     private VolumeWebSocketHandler webSocketHandler;
+    
+    @Autowired
+    private MultiplexWebSocketHandler multiplexHandler;
 
     @Autowired
     private ChannelVolumeManager volumeManager;
     
-    // Almacenamiento en memoria de los niveles de volumen actuales
-    private final ConcurrentHashMap<Integer, ChannelVolume> channelVolumes = new ConcurrentHashMap<>();
+    @Autowired
+    private CueBus cueBus;
+    
+    @Autowired
+    private VolumeStateStore stateStore;
+    
+    @Autowired
+    private WebSocketSendService sendService;
+    
+    @Autowired
+    private StateSyncService stateSync;
     
     /**
      * Establece el volumen de un canal específico
@@ -87,6 +109,71 @@ public class ChannelVolumeController {
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * Establece el volumen de varios canales en una sola actualización (todos o ninguno)
+     * POST /api/volume/batch
+     * Body: {"volumes":[{"channelId":1,"volumeLevel":60},...]} ("volume" también se acepta)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> setChannelVolumes(@RequestBody Map<String, Object> payload) {
+        Object volumesObj = payload.get("volumes");
+        if (!(volumesObj instanceof List<?> entries) || entries.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body("El campo 'volumes' es requerido y debe ser una lista no vacía");
+        }
+        
+        // Validar el lote completo antes de aplicar nada
+        Map<Integer, Integer> volumes = new LinkedHashMap<>();
+        for (Object entryObj : entries) {
+            if (!(entryObj instanceof Map<?, ?> entry)) {
+                return ResponseEntity.badRequest()
+                        .body("Cada elemento debe ser {\"channelId\":1,\"volumeLevel\":60}");
+            }
+            Object channelObj = entry.get("channelId");
+            Object volumeObj = entry.containsKey("volumeLevel") ? entry.get("volumeLevel") : entry.get("volume");
+            if (channelObj == null || volumeObj == null) {
+                return ResponseEntity.badRequest()
+                        .body("Cada elemento requiere 'channelId' y 'volumeLevel'");
+            }
+            
+            int channelId;
+            int volumeLevel;
+            try {
+                channelId = Integer.parseInt(channelObj.toString());
+                volumeLevel = Integer.parseInt(volumeObj.toString());
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest()
+                        .body("'channelId' y 'volumeLevel' deben ser números enteros");
+            }
+            
+            if (ConfigUtil.getChannelById(channelId) == null) {
+                return ResponseEntity.badRequest()
+                        .body("Canal con ID " + channelId + " no encontrado en la configuración");
+            }
+            if (volumeLevel < 0 || volumeLevel > 100) {
+                return ResponseEntity.badRequest()
+                        .body("El nivel de volumen debe estar entre 0 y 100 (canal " + channelId + ")");
+            }
+            volumes.put(channelId, volumeLevel); // Si un canal se repite gana el último
+        }
+        
+        long version = volumeManager.setVolumes(volumes);
+        
+        // Un solo mensaje WebSocket para todo el lote
+        webSocketHandler.broadcastVolumeBatch(volumes, version);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Volúmenes establecidos exitosamente");
+        response.put("applied", volumes.size());
+        response.put("volumes", volumes);
+        response.put("stateVersion", version);
+        response.put("timestamp", java.time.LocalDateTime.now());
+        response.put("webSocketClients", webSocketHandler.getActiveConnectionsCount());
+        
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Obtiene el volumen actual de un canal específico
      * GET /api/volume/channel/{channelId}
@@ -109,7 +196,7 @@ public class ChannelVolumeController {
         response.put("volumeLevel", volumeLevel);
         response.put("volumeDescription", getVolumeDescription(volumeLevel));
         response.put("volumePercentage", volumeLevel);
-        response.put("isMuted", volumeLevel == 0);
+        response.put("isMuted", volumeManager.isMuted(channelId) || volumeLevel == 0);
         response.put("timestamp", java.time.LocalDateTime.now());
         
         return ResponseEntity.ok(response);
@@ -125,9 +212,14 @@ public class ChannelVolumeController {
         Map<String, Object> response = new HashMap<>();
         
         Map<Integer, Object> volumes = new HashMap<>();
-        ConcurrentHashMap<Integer, Integer> allVolumes = volumeManager.getAllVolumes();
-        
-        allVolumes.forEach((channelId, volumeLevel) -> {
+        // Una sola copia coherente de la tabla para todos los canales
+        ChannelStateSnapshot snapshot = volumeManager.getSnapshot();
+        
+        for (int channelId = 0; channelId < snapshot.getCapacity(); channelId++) {
+            if (!snapshot.isKnown(channelId)) {
+                continue;
+            }
+            int volumeLevel = snapshot.getVolume(channelId);
             Channel channel = ConfigUtil.getChannelById(channelId);
             
             Map<String, Object> volumeInfo = new HashMap<>();
@@ -135,13 +227,18 @@ public class ChannelVolumeController {
             volumeInfo.put("channelName", channel != null ? channel.getName() : "Unknown");
             volumeInfo.put("volumeLevel", volumeLevel);
             volumeInfo.put("volumeDescription", getVolumeDescription(volumeLevel));
-            volumeInfo.put("isMuted", volumeLevel == 0);
+            volumeInfo.put("isMuted", snapshot.isMuted(channelId) || volumeLevel == 0);
+            volumeInfo.put("effectiveVolume", snapshot.getGain(channelId));
+            volumeInfo.put("solo", snapshot.isSolo(channelId));
+            volumeInfo.put("cue", snapshot.isCue(channelId));
+            volumeInfo.put("priority", snapshot.isPriority(channelId));
             volumeInfo.put("timestamp", java.time.LocalDateTime.now());
             
             volumes.put(channelId, volumeInfo);
-        });
+        }
         
         response.put("volumes", volumes);
+        response.put("stateVersion", snapshot.getVersion());
         response.put("totalChannels", volumes.size());
         response.put("webSocketClients", webSocketHandler.getActiveConnectionsCount());
         response.put("timestamp", java.time.LocalDateTime.now());
@@ -155,7 +252,7 @@ public class ChannelVolumeController {
      */
     @PostMapping("/channel/{channelId}/mute")
     public ResponseEntity<?> muteChannel(@PathVariable int channelId) {
-        return setVolumeLevel(channelId, 0, "Canal silenciado (mute)");
+        return setVolumeLevel(channelId, -1, true, "Canal silenciado (mute)");
     }
     
     /**
@@ -164,7 +261,9 @@ public class ChannelVolumeController {
      */
     @PostMapping("/channel/{channelId}/unmute")
     public ResponseEntity<?> unmuteChannel(@PathVariable int channelId) {
-        return setVolumeLevel(channelId, 50, "Canal desmuteado");
+        // Conserva el volumen que tenía; si estaba a 0 usa el volumen por defecto
+        int volumeLevel = volumeManager.getVolume(channelId) > 0 ? -1 : 50;
+        return setVolumeLevel(channelId, volumeLevel, false, "Canal desmuteado");
     }
     
     /**
@@ -173,31 +272,178 @@ public class ChannelVolumeController {
      */
     @PostMapping("/channel/{channelId}/max")
     public ResponseEntity<?> setMaxVolume(@PathVariable int channelId) {
-        return setVolumeLevel(channelId, 100, "Volumen establecido al máximo");
+        return setVolumeLevel(channelId, 100, volumeManager.isMuted(channelId), "Volumen establecido al máximo");
+    }
+    
+    /**
+     * Solo de un canal (puede haber varios); no modifica ningún volumen
+     * POST /api/volume/channel/{channelId}/solo
+     */
+    @PostMapping("/channel/{channelId}/solo")
+    public ResponseEntity<?> soloChannel(@PathVariable int channelId) {
+        return setMixFlag(channelId, "solo", true, "Canal en solo");
     }
     
     /**
-     * Método helper para establecer nivel de volumen
+     * POST /api/volume/channel/{channelId}/unsolo
      */
-    private ResponseEntity<?> setVolumeLevel(int channelId, int volumeLevel, String action) {
+    @PostMapping("/channel/{channelId}/unsolo")
+    public ResponseEntity<?> unsoloChannel(@PathVariable int channelId) {
+        return setMixFlag(channelId, "solo", false, "Solo retirado");
+    }
+    
+    /**
+     * Envía el canal al bus de cue (escucha previa al fader)
+     * POST /api/volume/channel/{channelId}/cue
+     */
+    @PostMapping("/channel/{channelId}/cue")
+    public ResponseEntity<?> cueChannel(@PathVariable int channelId) {
+        return setMixFlag(channelId, "cue", true, "Canal enviado al cue");
+    }
+    
+    /**
+     * POST /api/volume/channel/{channelId}/uncue
+     */
+    @PostMapping("/channel/{channelId}/uncue")
+    public ResponseEntity<?> uncueChannel(@PathVariable int channelId) {
+        return setMixFlag(channelId, "cue", false, "Canal retirado del cue");
+    }
+    
+    /**
+     * Marca el canal como prioritario: mientras suene, el resto se atenúa (ducking)
+     * POST /api/volume/channel/{channelId}/priority
+     */
+    @PostMapping("/channel/{channelId}/priority")
+    public ResponseEntity<?> setPriority(@PathVariable int channelId) {
+        return setMixFlag(channelId, "priority", true, "Canal con prioridad");
+    }
+    
+    /**
+     * POST /api/volume/channel/{channelId}/unpriority
+     */
+    @PostMapping("/channel/{channelId}/unpriority")
+    public ResponseEntity<?> clearPriority(@PathVariable int channelId) {
+        return setMixFlag(channelId, "priority", false, "Prioridad retirada");
+    }
+    
+    /**
+     * Estado de la mezcla: canales en solo, en cue y con prioridad, ducking y bus de cue
+     * GET /api/volume/mix
+     */
+    @GetMapping("/mix")
+    public ResponseEntity<?> getMixState() {
+        ChannelStateSnapshot snapshot = volumeManager.getSnapshot();
+        List<Integer> soloChannels = new ArrayList<>();
+        List<Integer> cueChannels = new ArrayList<>();
+        List<Integer> priorityChannels = new ArrayList<>();
+        for (int channelId = 0; channelId < snapshot.getCapacity(); channelId++) {
+            if (snapshot.isSolo(channelId)) {
+                soloChannels.add(channelId);
+            }
+            if (snapshot.isCue(channelId)) {
+                cueChannels.add(channelId);
+            }
+            if (snapshot.isPriority(channelId)) {
+                priorityChannels.add(channelId);
+            }
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("soloChannels", soloChannels);
+        response.put("cueChannels", cueChannels);
+        response.put("priorityChannels", priorityChannels);
+        response.put("ducking", volumeManager.isDucking());
+        response.put("cueBus", cueBus.getStats());
+        response.put("stateVersion", snapshot.getVersion());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Estado de la persistencia diferida (escrituras, fallos, cambios pendientes)
+     * GET /api/volume/persistence
+     */
+    @GetMapping("/persistence")
+    public ResponseEntity<?> getPersistenceStats() {
+        return ResponseEntity.ok(stateStore.getStats());
+    }
+    
+    /**
+     * Fuerza la escritura inmediata del estado pendiente
+     * POST /api/volume/persistence/flush
+     */
+    @PostMapping("/persistence/flush")
+    public ResponseEntity<?> flushPersistence() {
+        stateStore.flushAll();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Estado guardado");
+        response.put("persistence", stateStore.getStats());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Método helper para cambiar una bandera de mezcla (solo, cue o prioridad) y notificarlo por WebSocket
+     */
+    private ResponseEntity<?> setMixFlag(int channelId, String flag, boolean enabled, String action) {
         Channel channel = ConfigUtil.getChannelById(channelId);
         if (channel == null) {
             return ResponseEntity.badRequest()
                     .body("Canal con ID " + channelId + " no encontrado");
         }
         
-        ChannelVolume channelVolume = new ChannelVolume(channelId, volumeLevel, channel.getName());
-        channelVolumes.put(channelId, channelVolume);
+        switch (flag) {
+            case "solo" -> volumeManager.setSolo(channelId, enabled);
+            case "cue" -> cueBus.setCue(channelId, enabled);
+            default -> volumeManager.setPriority(channelId, enabled);
+        }
+        
+        webSocketHandler.broadcastEvent(
+            new WebSocketEvents.MixUpdate(channelId, flag, enabled, WebSocketEvents.timestamp()), null,
+            EventTopic.VOLUME, channelId);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", action);
+        response.put("channelId", channelId);
+        response.put("channelName", channel.getName());
+        response.put(flag, enabled);
+        response.put("effectiveVolume", volumeManager.getSnapshot().getGain(channelId));
+        response.put("timestamp", java.time.LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Método helper para establecer nivel de volumen y silencio en la tabla de estado
+     * @param volumeLevel nuevo volumen (-1 conserva el actual)
+     */
+    private ResponseEntity<?> setVolumeLevel(int channelId, int volumeLevel, boolean muted, String action) {
+        Channel channel = ConfigUtil.getChannelById(channelId);
+        if (channel == null) {
+            return ResponseEntity.badRequest()
+                    .body("Canal con ID " + channelId + " no encontrado");
+        }
+        
+        if (volumeLevel >= 0) {
+            volumeManager.setVolume(channelId, volumeLevel);
+        }
+        volumeManager.setMuted(channelId, muted);
+        int effectiveVolume = muted ? 0 : volumeManager.getVolume(channelId);
+        ChannelVolume channelVolume = new ChannelVolume(channelId, effectiveVolume, channel.getName());
         
         // Enviar por WebSocket
-        webSocketHandler.broadcastVolumeUpdate(channelId, volumeLevel);
+        webSocketHandler.broadcastVolumeUpdate(channelId, effectiveVolume);
         
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("message", action);
         response.put("channelId", channelId);
         response.put("channelName", channel.getName());
-        response.put("volumeLevel", volumeLevel);
+        response.put("volumeLevel", effectiveVolume);
+        response.put("muted", muted);
         response.put("volumeDescription", channelVolume.getVolumeDescription());
         response.put("timestamp", channelVolume.getTimestamp());
         
@@ -212,13 +458,32 @@ public class ChannelVolumeController {
     public ResponseEntity<?> getWebSocketStats() {
         Map<String, Object> stats = new HashMap<>();
         stats.put("activeConnections", webSocketHandler.getActiveConnectionsCount());
-        stats.put("totalChannelsWithVolume", channelVolumes.size());
+        stats.put("totalChannelsWithVolume", volumeManager.getAllVolumes().size());
+        stats.put("stateVersion", volumeManager.getStateVersion());
+        stats.put("coalescing", webSocketHandler.getCoalescingStats());
+        stats.put("sendQueues", sendService.getStats());
+        stats.put("subscriptions", webSocketHandler.getSubscriptionStats());
+        stats.put("stateSync", stateSync.getStats());
+        stats.put("batching", webSocketHandler.getBatchStats());
+        stats.put("protocols", webSocketHandler.getProtocolStats());
+        stats.put("multiplex", multiplexHandler.getStats());
         stats.put("websocketEndpoint", "/ws/volume");
         stats.put("timestamp", java.time.LocalDateTime.now());
         
         return ResponseEntity.ok(stats);
     }
     
+    /**
+     * Obtiene las colas de salida de todas las sesiones WebSocket (/ws/volume y /thread)
+     * GET /api/volume/websocket/queues
+     */
+    @GetMapping("/websocket/queues")
+    public ResponseEntity<?> getWebSocketQueues() {
+        Map<String, Object> response = new HashMap<>(sendService.getStats());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Método helper para obtener descripción del volumen
      */
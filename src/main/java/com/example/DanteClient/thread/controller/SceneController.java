@@ -0,0 +1,109 @@
+package com.example.DanteClient.thread.controller;
+
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.model.Scene;
+import com.example.DanteClient.thread.service.SceneService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controlador REST para escenas de mezcla (guardar y recuperar el estado de todos los canales)
+ */
+@RestController
+@RequestMapping("/api/scenes")
+@CrossOrigin(origins = "*")
+public class SceneController {
+
+    @Autowired
+    private SceneService sceneService;
+
+    /**
+     * Lista las escenas guardadas y la latencia de recuperación
+     * GET /api/scenes
+     */
+    @GetMapping
+    public ResponseEntity<?> listScenes() {
+        List<Scene> scenes = sceneService.listScenes();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("scenes", scenes);
+        response.put("total", scenes.size());
+        response.put("stats", sceneService.getRecallStats());
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Obtiene una escena
+     * GET /api/scenes/{name}
+     */
+    @GetMapping("/{name}")
+    public ResponseEntity<?> getScene(@PathVariable String name) {
+        return ResponseEntity.ok(sceneService.getScene(name));
+    }
+
+    /**
+     * Guarda el estado actual de la mezcla como escena (la reemplaza si ya existe)
+     * POST /api/scenes/{name}
+     * Body opcional: {"description": "Apertura"}
+     */
+    @PostMapping("/{name}")
+    public ResponseEntity<?> saveScene(@PathVariable String name,
+                                       @RequestBody(required = false) Map<String, Object> payload) {
+        Object description = payload != null ? payload.get("description") : null;
+        Scene scene = sceneService.saveScene(name, description != null ? description.toString() : null);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Escena guardada");
+        response.put("scene", scene);
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Recupera una escena de forma atómica, con fundido opcional
+     * POST /api/scenes/{name}/recall
+     * Body opcional: {"fadeMs": 500}
+     */
+    @PostMapping("/{name}/recall")
+    public ResponseEntity<?> recallScene(@PathVariable String name,
+                                         @RequestBody(required = false) Map<String, Object> payload) {
+        long fadeMs = 0;
+        if (payload != null && payload.get("fadeMs") != null) {
+            try {
+                fadeMs = Long.parseLong(payload.get("fadeMs").toString());
+            } catch (NumberFormatException e) {
+                throw new ThreadExceptions.InvalidSceneException("el campo 'fadeMs' debe ser un número entero");
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Escena recuperada");
+        response.put("recall", sceneService.recallScene(name, fadeMs));
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Elimina una escena
+     * DELETE /api/scenes/{name}
+     */
+    @DeleteMapping("/{name}")
+    public ResponseEntity<?> deleteScene(@PathVariable String name) {
+        sceneService.deleteScene(name);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Escena eliminada: " + name);
+        response.put("timestamp", java.time.LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+}
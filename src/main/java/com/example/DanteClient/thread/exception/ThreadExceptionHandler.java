@@ -67,6 +67,14 @@ public class ThreadExceptionHandler {
             case 8 -> HttpStatus.CONFLICT;           // Estado inválido
             case 9 -> HttpStatus.BAD_REQUEST;        // Configuración inválida
             case 10 -> HttpStatus.TOO_MANY_REQUESTS; // Límite excedido
+            case 11 -> HttpStatus.BAD_REQUEST;       // Solicitud masiva inválida
+            case 12 -> HttpStatus.NOT_FOUND;         // Trabajo masivo no encontrado
+            case 13 -> HttpStatus.BAD_REQUEST;       // Política de reinicio inválida
+            case 14 -> HttpStatus.NOT_FOUND;         // Automatización no encontrada
+            case 15 -> HttpStatus.BAD_REQUEST;       // Automatización inválida
+            case 16 -> HttpStatus.NOT_FOUND;         // Escena no encontrada
+            case 17 -> HttpStatus.BAD_REQUEST;       // Escena inválida
+            case 18 -> HttpStatus.BAD_REQUEST;       // Suscripción inválida
             default -> HttpStatus.INTERNAL_SERVER_ERROR;
         };
     }
@@ -114,4 +114,84 @@ public class ThreadExceptions {
                   "Se ha excedido el límite máximo de threads activos (" + maxThreads + ")");
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Error 11: Solicitud masiva inválida
+     */
+    public static class InvalidBulkRequestException extends ThreadException {
+        public InvalidBulkRequestException(String reason) {
+            super(11, "INVALID_BULK_REQUEST", 
+                  "Solicitud masiva inválida: " + reason);
+        }
+    }
+    
+    /**
+     * Error 12: Trabajo masivo no encontrado
+     */
+    public static class BulkJobNotFoundException extends ThreadException {
+        public BulkJobNotFoundException(String jobId) {
+            super(12, "BULK_JOB_NOT_FOUND", 
+                  "No existe el trabajo masivo con ID " + jobId);
+        }
+    }
+    
+    /**
+     * Error 13: Política de reinicio inválida
+     */
+    public static class InvalidRestartPolicyException extends ThreadException {
+        public InvalidRestartPolicyException(String policy) {
+            super(13, "INVALID_RESTART_POLICY", 
+                  "Política de reinicio inválida: " + policy + " (valores permitidos: NEVER, ON_FAILURE, ALWAYS)");
+        }
+    }
+    
+    /**
+     * Error 14: Automatización no encontrada
+     */
+    public static class AutomationNotFoundException extends ThreadException {
+        public AutomationNotFoundException(String automationId) {
+            super(14, "AUTOMATION_NOT_FOUND", 
+                  "No existe la automatización con ID " + automationId);
+        }
+    }
+    
+    /**
+     * Error 15: Automatización inválida
+     */
+    public static class InvalidAutomationException extends ThreadException {
+        public InvalidAutomationException(String reason) {
+            super(15, "INVALID_AUTOMATION", 
+                  "Automatización inválida: " + reason);
+        }
+    }
+    
+    /**
+     * Error 16: Escena no encontrada
+     */
+    public static class SceneNotFoundException extends ThreadException {
+        public SceneNotFoundException(String name) {
+            super(16, "SCENE_NOT_FOUND", 
+                  "No existe la escena '" + name + "'");
+        }
+    }
+    
+    /**
+     * Error 17: Escena inválida
+     */
+    public static class InvalidSceneException extends ThreadException {
+        public InvalidSceneException(String reason) {
+            super(17, "INVALID_SCENE", 
+                  "Escena inválida: " + reason);
+        }
+    }
+    
+    /**
+     * Error 18: Suscripción WebSocket inválida
+     */
+    public static class InvalidSubscriptionException extends ThreadException {
+        public InvalidSubscriptionException(String reason) {
+            super(18, "INVALID_SUBSCRIPTION", 
+                  "Suscripción inválida: " + reason);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola acotada de bloques de audio entre la recepción (socket) y la reproducción (línea) de un canal
+ * Los slots se reservan al crearla y los bloques se copian dentro, así que no genera basura por bloque.
+ * Si la línea no da abasto, la cola se llena y se aplica la política de desbordamiento en lugar de
+ * bloquear la recepción (que haría que el kernel descarte datagramas sin que nadie lo note).
+ */
+public class AudioBlockQueue {
+
+    // Bytes por frame de la línea: estéreo de 16 bits
+    private static final int FRAME_SIZE = 4;
+
+    private final byte[][] slots;
+    private final int[] lengths;
+    private final byte[] scratch; // Espacio de trabajo para TIME_COMPRESS
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+
+    private volatile OverflowPolicy policy;
+    private int head; // Siguiente slot a leer
+    private int count;
+    private boolean closed;
+
+    // Contadores de descartes por contrapresión (la línea no consume a tiempo)
+    private long droppedOldest;
+    private long droppedNewest;
+    private long compressedBlocks;
+
+    public AudioBlockQueue(int capacity, int maxBlockBytes, OverflowPolicy policy) {
+        this.slots = new byte[capacity][maxBlockBytes];
+        this.lengths = new int[capacity];
+        this.scratch = new byte[maxBlockBytes];
+        this.policy = policy;
+    }
+
+    /**
+     * Cola que sustituye a {@code previous} con bloques más grandes: misma capacidad y política,
+     * y arrastra sus contadores para que las estadísticas del canal no se reinicien.
+     * Quien la crea debe cerrar {@code previous} para que la reproducción la vacíe antes de pasar a ésta.
+     */
+    public AudioBlockQueue(AudioBlockQueue previous, int maxBlockBytes) {
+        this(previous.getCapacity(), maxBlockBytes, previous.getPolicy());
+        previous.lock.lock();
+        try {
+            this.droppedOldest = previous.droppedOldest;
+            this.droppedNewest = previous.droppedNewest;
+            this.compressedBlocks = previous.compressedBlocks;
+        } finally {
+            previous.lock.unlock();
+        }
+    }
+
+    /**
+     * Encola una copia del bloque; nunca bloquea
+     * @return false si el bloque se descartó (DROP_NEWEST con la cola llena o cola cerrada)
+     */
+    public boolean offer(byte[] data, int length) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            if (count == slots.length) {
+                switch (policy) {
+                    case DROP_NEWEST -> {
+                        droppedNewest++;
+                        return false;
+                    }
+                    case TIME_COMPRESS -> {
+                        if (slots.length > 1) {
+                            compressOldest();
+                        } else {
+                            discardOldest();
+                        }
+                    }
+                    default -> discardOldest();
+                }
+            }
+            int tail = (head + count) % slots.length;
+            int copied = Math.min(length, slots[tail].length);
+            System.arraycopy(data, 0, slots[tail], 0, copied);
+            lengths[tail] = copied;
+            count++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copia el bloque más antiguo en {@code target}, esperando como mucho {@code timeoutMs}
+     * @return bytes copiados, 0 si no llegó nada a tiempo o -1 si la cola está cerrada y vacía
+     */
+    public int poll(byte[] target, long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (count == 0) {
+                if (closed) {
+                    return -1;
+                }
+                if (remaining <= 0) {
+                    return 0;
+                }
+                remaining = notEmpty.awaitNanos(remaining);
+            }
+            int length = Math.min(lengths[head], target.length);
+            System.arraycopy(slots[head], 0, target, 0, length);
+            head = (head + 1) % slots.length;
+            count--;
+            return length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cierra la cola: el consumidor vacía lo pendiente y después recibe -1
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Descarta todo lo encolado (p.ej. al cambiar de formato)
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            head = 0;
+            count = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void discardOldest() {
+        head = (head + 1) % slots.length;
+        count--;
+        droppedOldest++;
+    }
+
+    /**
+     * Fusiona los dos bloques más antiguos en el slot del segundo promediando cada par de frames
+     * adyacentes (mitad de duración sin el aliasing de quedarse con 1 de cada 2),
+     * y libera el slot del primero (llamar con el lock tomado y la cola llena)
+     */
+    private void compressOldest() {
+        int first = head;
+        int second = (head + 1) % slots.length;
+        int framesA = lengths[first] / FRAME_SIZE;
+        int framesB = lengths[second] / FRAME_SIZE;
+        int keptA = (framesA + 1) / 2;
+        int keptB = (framesB + 1) / 2;
+
+        int merged = keptA + keptB;
+        if (merged * FRAME_SIZE > scratch.length) {
+            discardOldest();
+            return;
+        }
+        halve(slots[first], framesA, scratch, 0);
+        halve(slots[second], framesB, scratch, keptA);
+        System.arraycopy(scratch, 0, slots[second], 0, merged * FRAME_SIZE);
+        lengths[second] = merged * FRAME_SIZE;
+        head = second;
+        count--;
+        compressedBlocks++;
+    }
+
+    /**
+     * Escribe en {@code target} desde el frame {@code targetFrame} la media de cada par de frames
+     * (PCM 16 bits con signo little-endian, como los escribe el canal y abre la línea el pool); un frame suelto
+     * al final se copia tal cual
+     */
+    private static void halve(byte[] source, int frames, byte[] target, int targetFrame) {
+        for (int i = 0; i < frames; i += 2) {
+            int out = (targetFrame + i / 2) * FRAME_SIZE;
+            if (i + 1 == frames) {
+                System.arraycopy(source, i * FRAME_SIZE, target, out, FRAME_SIZE);
+                break;
+            }
+            for (int sample = 0; sample < FRAME_SIZE; sample += 2) {
+                int x = i * FRAME_SIZE + sample;
+                int y = x + FRAME_SIZE;
+                int a = (source[x + 1] << 8) | (source[x] & 0xFF);
+                int b = (source[y + 1] << 8) | (source[y] & 0xFF);
+                int mean = (a + b) >> 1;
+                target[out + sample] = (byte) mean;
+                target[out + sample + 1] = (byte) (mean >> 8);
+            }
+        }
+    }
+
+    public void setPolicy(OverflowPolicy policy) {
+        this.policy = policy;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public int getMaxBlockBytes() {
+        return scratch.length;
+    }
+
+    /**
+     * Total de bloques descartados o fusionados porque la línea no consumió a tiempo
+     */
+    public long getBackpressureDrops() {
+        lock.lock();
+        try {
+            return droppedOldest + droppedNewest + compressedBlocks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedOldest() {
+        lock.lock();
+        try {
+            return droppedOldest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getDroppedNewest() {
+        lock.lock();
+        try {
+            return droppedNewest;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCompressedBlocks() {
+        lock.lock();
+        try {
+            return compressedBlocks;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.DanteClient.thread.model;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.DataLine;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.Mixer;
+import javax.sound.sampled.SourceDataLine;
+
+/**
+ * Salida de audio reutilizable (SourceDataLine abierta y arrancada)
+ * Se mantiene "caliente" en el pool para que iniciar un canal no tenga que abrir el dispositivo
+ */
+public class AudioSink {
+
+    private final AudioFormat format;
+    private final SourceDataLine line;
+
+    private AudioSink(AudioFormat format, SourceDataLine line) {
+        this.format = format;
+        this.line = line;
+    }
+
+    /**
+     * Abre y arranca una nueva línea de audio con el formato indicado
+     */
+    public static AudioSink open(AudioFormat format) throws LineUnavailableException {
+        DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
+        SourceDataLine line = (SourceDataLine) AudioSystem.getLine(info);
+        line.open(format);
+        line.start();
+        return new AudioSink(format, line);
+    }
+
+    /**
+     * Abre una línea en el dispositivo cuyo nombre contiene {@code mixerName} (vacío = dispositivo por defecto)
+     */
+    public static AudioSink open(AudioFormat format, String mixerName) throws LineUnavailableException {
+        if (mixerName == null || mixerName.isBlank()) {
+            return open(format);
+        }
+        DataLine.Info info = new DataLine.Info(SourceDataLine.class, format);
+        for (Mixer.Info mixerInfo : AudioSystem.getMixerInfo()) {
+            Mixer mixer = AudioSystem.getMixer(mixerInfo);
+            if (mixerInfo.getName().contains(mixerName) && mixer.isLineSupported(info)) {
+                SourceDataLine line = (SourceDataLine) mixer.getLine(info);
+                line.open(format);
+                line.start();
+                return new AudioSink(format, line);
+            }
+        }
+        throw new LineUnavailableException("No hay un dispositivo de salida que coincida con '" + mixerName + "'");
+    }
+
+    /**
+     * Escribe audio en la línea (bloquea si el buffer del dispositivo está lleno)
+     */
+    public int write(byte[] data, int offset, int length) {
+        return line.write(data, offset, length);
+    }
+
+    /**
+     * Espera a que se reproduzca el audio pendiente en el buffer del dispositivo
+     */
+    public void drain() {
+        line.drain();
+    }
+
+    /**
+     * Descarta el audio pendiente en el buffer del dispositivo
+     */
+    public void flush() {
+        line.flush();
+    }
+
+    /**
+     * Bytes que se pueden escribir sin bloquear
+     */
+    public int available() {
+        return line.available();
+    }
+
+    /**
+     * Tamaño del buffer del dispositivo en bytes
+     */
+    public int getBufferSize() {
+        return line.getBufferSize();
+    }
+
+    /**
+     * Frames reproducidos por el dispositivo desde que se abrió la línea
+     */
+    public long getLongFramePosition() {
+        return line.getLongFramePosition();
+    }
+
+    public boolean isOpen() {
+        return line.isOpen();
+    }
+
+    /**
+     * Verifica si la línea es compatible con el formato solicitado
+     */
+    public boolean matches(AudioFormat requested) {
+        return format.matches(requested);
+    }
+
+    public void close() {
+        try {
+            line.stop();
+            line.close();
+        } catch (Exception e) {
+            System.out.println("Error al cerrar línea de audio: " + e.getMessage());
+        }
+    }
+
+    public AudioFormat getFormat() {
+        return format;
+    }
+
+    public SourceDataLine getLine() {
+        return line;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.DanteClient.thread.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Automatización de volumen: una o varias rampas que arrancan a la vez en un instante programado
+ * (fundido de un canal, crossfade entre dos canales...)
+ */
+public class Automation {
+
+    public static final String TYPE_FADE = "FADE";
+    public static final String TYPE_CROSSFADE = "CROSSFADE";
+
+    public static final String STATUS_SCHEDULED = "SCHEDULED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+    public static final String STATUS_OVERRIDDEN = "OVERRIDDEN"; // Un cambio manual interrumpió la rampa
+
+    private final String automationId;
+    private final String type;
+    private final int[] channelIds;
+    private final int[] targets;
+    private final long durationMs;
+    private final long startAtMs; // Reloj monótono (nanoTime en ms)
+    private final LocalDateTime createdAt;
+    private final LocalDateTime scheduledStart;
+
+    private volatile String status = STATUS_SCHEDULED;
+    private volatile long endNanos;
+    private volatile LocalDateTime finishedAt;
+    private TimerWheel.Entry<Runnable> pendingEntry; // Inicio o fin en la rueda (acceso bajo el lock del motor)
+
+    public Automation(String type, int[] channelIds, int[] targets, long durationMs, long delayMs, long nowMs) {
+        this.automationId = UUID.randomUUID().toString().substring(0, 8);
+        this.type = type;
+        this.channelIds = channelIds.clone();
+        this.targets = targets.clone();
+        this.durationMs = durationMs;
+        this.startAtMs = nowMs + delayMs;
+        this.createdAt = LocalDateTime.now();
+        this.scheduledStart = createdAt.plusNanos(delayMs * 1_000_000L);
+    }
+
+    public String getAutomationId() {
+        return automationId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public int[] getChannelIds() {
+        return channelIds;
+    }
+
+    public int[] getTargets() {
+        return targets;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getStartAtMs() {
+        return startAtMs;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+        if (isFinished()) {
+            this.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    public boolean isFinished() {
+        return !STATUS_SCHEDULED.equals(status) && !STATUS_RUNNING.equals(status);
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public void setEndNanos(long endNanos) {
+        this.endNanos = endNanos;
+    }
+
+    public TimerWheel.Entry<Runnable> getPendingEntry() {
+        return pendingEntry;
+    }
+
+    public void setPendingEntry(TimerWheel.Entry<Runnable> pendingEntry) {
+        this.pendingEntry = pendingEntry;
+    }
+
+    /**
+     * Vista para REST/WebSocket
+     */
+    public Map<String, Object> toMap() {
+        List<Map<String, Object>> ramps = new ArrayList<>();
+        for (int i = 0; i < channelIds.length; i++) {
+            Map<String, Object> ramp = new HashMap<>();
+            ramp.put("channelId", channelIds[i]);
+            ramp.put("targetVolume", targets[i]);
+            ramps.add(ramp);
+        }
+        Map<String, Object> info = new HashMap<>();
+        info.put("automationId", automationId);
+        info.put("type", type);
+        info.put("status", status);
+        info.put("ramps", ramps);
+        info.put("durationMs", durationMs);
+        // Fechas como texto: la vista también se serializa por WebSocket con un ObjectMapper básico
+        info.put("createdAt", createdAt.toString());
+        info.put("scheduledStart", scheduledStart.toString());
+        info.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        return info;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.DanteClient.thread.model;
+
+import org.springframework.web.socket.BinaryMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Subprotocolo binario "dante.bin.v1" para /ws/volume y /ws/thread
+ * Frames little-endian de disposición fija: cabecera de 12 bytes (tipo u8, versión u8, entradas u16,
+ * secuencia u64) seguida de {@code count} entradas del tamaño fijo de cada tipo:
+ * <ul>
+ *   <li>VOLUME_SET (4 bytes): canal u16, volumen u8, reservado u8. La secuencia es la versión de estado.</li>
+ *   <li>STATE_DELTA / STATE_SNAPSHOT (8 bytes): canal u16, campos u8 (bit0 volumen, bit1 mezcla, bit2 estado),
+ *       volumen u8, mezcla u8 (bit0 mute, bit1 solo, bit2 cue, bit3 prioridad), estado u8, reservado u16.</li>
+ *   <li>METER_BLOCK (16 bytes): canal u16, avisos u16, total u32, peor bloque µs u32, presupuesto µs u32.</li>
+ * </ul>
+ * Los demás eventos (excepciones, escenas, respuestas...) siguen yendo como JSON de texto en la misma sesión.
+ * Se codifica sobre buffers del pool sin crear objetos; la única copia es el array del mensaje, que se
+ * comparte entre todas las sesiones destino.
+ */
+public final class BinaryFrames {
+
+    public static final String SUBPROTOCOL = "dante.bin.v1";
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 12;
+
+    public static final int VOLUME_SET = 1;
+    public static final int STATE_DELTA = 2;
+    public static final int STATE_SNAPSHOT = 3;
+    public static final int METER_BLOCK = 4;
+
+    public static final int VOLUME_ENTRY_BYTES = 4;
+    public static final int STATE_ENTRY_BYTES = 8;
+    public static final int METER_ENTRY_BYTES = 16;
+
+    public static final int FIELD_VOLUME = 1;
+    public static final int FIELD_MIX = 2;
+    public static final int FIELD_STATUS = 4;
+
+    // Códigos de estado de thread (0 = desconocido)
+    private static final List<String> STATUSES = List.of("UNKNOWN", "STOPPED", "RUNNING", "PARKED", "STOPPING",
+            "FINISHED", "INTERRUPTED", "ERROR");
+
+    private static final ByteBufferPool POOL = new ByteBufferPool(32, 4096);
+
+    /**
+     * Receptor de las entradas de un VOLUME_SET recibido
+     */
+    @FunctionalInterface
+    public interface VolumeSink {
+        void accept(int channelId, int volume);
+    }
+
+    private BinaryFrames() {
+    }
+
+    /**
+     * Indica si el evento tiene representación binaria
+     */
+    public static boolean supports(WebSocketEvents.Event event) {
+        return event instanceof WebSocketEvents.VolumeUpdate || event instanceof WebSocketEvents.VolumeBatch
+                || event instanceof WebSocketEvents.ThreadStatusChange || event instanceof WebSocketEvents.ThreadStarted
+                || event instanceof WebSocketEvents.ThreadFinished || event instanceof WebSocketEvents.ChannelDeadlineMiss;
+    }
+
+    /**
+     * Bytes que ocupa el frame binario del evento
+     */
+    public static int frameSize(WebSocketEvents.Event event) {
+        if (event instanceof WebSocketEvents.VolumeBatch batch) {
+            return HEADER_BYTES + batch.volumes().size() * VOLUME_ENTRY_BYTES;
+        } else if (event instanceof WebSocketEvents.VolumeUpdate) {
+            return HEADER_BYTES + VOLUME_ENTRY_BYTES;
+        } else if (event instanceof WebSocketEvents.ChannelDeadlineMiss) {
+            return HEADER_BYTES + METER_ENTRY_BYTES;
+        }
+        return HEADER_BYTES + STATE_ENTRY_BYTES;
+    }
+
+    /**
+     * Escribe el frame del evento a partir de la posición actual del buffer (little-endian)
+     * @return bytes escritos
+     * @throws IllegalArgumentException si el evento no tiene representación binaria
+     */
+    public static int encode(WebSocketEvents.Event event, ByteBuffer out) {
+        int start = out.position();
+        if (event instanceof WebSocketEvents.VolumeUpdate update) {
+            header(out, VOLUME_SET, 1, 0);
+            volumeEntry(out, update.channelId(), update.volumeLevel());
+        } else if (event instanceof WebSocketEvents.VolumeBatch batch) {
+            List<WebSocketEvents.VolumeLevel> volumes = batch.volumes();
+            header(out, VOLUME_SET, volumes.size(), batch.stateVersion());
+            for (int i = 0; i < volumes.size(); i++) {
+                volumeEntry(out, volumes.get(i).channelId(), volumes.get(i).volumeLevel());
+            }
+        } else if (event instanceof WebSocketEvents.ThreadStatusChange change) {
+            header(out, STATE_DELTA, 1, 0);
+            stateEntry(out, change.channelId(), FIELD_STATUS, 0, 0, statusCode(change.newStatus()));
+        } else if (event instanceof WebSocketEvents.ThreadStarted started) {
+            header(out, STATE_DELTA, 1, 0);
+            stateEntry(out, started.channelId(), FIELD_STATUS, 0, 0, statusCode("RUNNING"));
+        } else if (event instanceof WebSocketEvents.ThreadFinished finished) {
+            header(out, STATE_DELTA, 1, 0);
+            stateEntry(out, finished.channelId(), FIELD_STATUS, 0, 0, statusCode("STOPPED"));
+        } else if (event instanceof WebSocketEvents.ChannelDeadlineMiss miss) {
+            header(out, METER_BLOCK, 1, 0);
+            out.putShort((short) miss.channelId());
+            out.putShort((short) Math.min(miss.misses(), 0xFFFF));
+            out.putInt((int) Math.min(miss.totalMisses(), 0xFFFFFFFFL));
+            out.putInt((int) Math.min(miss.worstMicros(), 0xFFFFFFFFL));
+            out.putInt((int) Math.min(miss.budgetMicros(), 0xFFFFFFFFL));
+        } else {
+            throw new IllegalArgumentException("Evento sin representación binaria: " + event.getClass().getSimpleName());
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Escribe un STATE_DELTA o STATE_SNAPSHOT completo (volumen, mezcla y estado de cada canal)
+     * @return bytes escritos
+     */
+    public static int encodeStates(boolean snapshot, long version, List<ChannelSyncState> states, ByteBuffer out) {
+        int start = out.position();
+        header(out, snapshot ? STATE_SNAPSHOT : STATE_DELTA, states.size(), version);
+        for (int i = 0; i < states.size(); i++) {
+            ChannelSyncState state = states.get(i);
+            int mix = (state.muted() ? 1 : 0) | (state.solo() ? 2 : 0) | (state.cue() ? 4 : 0) | (state.priority() ? 8 : 0);
+            stateEntry(out, state.channelId(), FIELD_VOLUME | FIELD_MIX | FIELD_STATUS, state.volume(), mix,
+                    statusCode(state.threadStatus()));
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Codifica el evento en un buffer del pool y lo envuelve en un mensaje compartible entre sesiones
+     */
+    public static BinaryMessage toMessage(WebSocketEvents.Event event) {
+        ByteBuffer buffer = POOL.acquire(frameSize(event));
+        try {
+            encode(event, buffer);
+            return copyOf(buffer);
+        } finally {
+            POOL.release(buffer);
+        }
+    }
+
+    /**
+     * Mensaje STATE_DELTA / STATE_SNAPSHOT para la respuesta a un resume
+     */
+    public static BinaryMessage toStateMessage(boolean snapshot, long version, List<ChannelSyncState> states) {
+        ByteBuffer buffer = POOL.acquire(HEADER_BYTES + states.size() * STATE_ENTRY_BYTES);
+        try {
+            encodeStates(snapshot, version, states, buffer);
+            return copyOf(buffer);
+        } finally {
+            POOL.release(buffer);
+        }
+    }
+
+    /**
+     * Lee un VOLUME_SET enviado por el cliente sin crear objetos (lecturas absolutas, no mueve el buffer)
+     * @return número de entradas leídas
+     * @throws IllegalArgumentException si el frame no es un VOLUME_SET v1 bien formado
+     */
+    public static int decodeVolumeSet(ByteBuffer in, VolumeSink sink) {
+        ByteBuffer frame = in.order(ByteOrder.LITTLE_ENDIAN);
+        int base = frame.position();
+        int length = frame.remaining();
+        if (length < HEADER_BYTES) {
+            throw new IllegalArgumentException("frame de " + length + " bytes, la cabecera ocupa " + HEADER_BYTES);
+        }
+        int type = frame.get(base) & 0xFF;
+        int version = frame.get(base + 1) & 0xFF;
+        int count = frame.getShort(base + 2) & 0xFFFF;
+        if (type != VOLUME_SET) {
+            throw new IllegalArgumentException("tipo de frame " + type + " no admitido (sólo VOLUME_SET=" + VOLUME_SET + ")");
+        }
+        if (version != VERSION) {
+            throw new IllegalArgumentException("versión de protocolo " + version + " no admitida");
+        }
+        if (length != HEADER_BYTES + count * VOLUME_ENTRY_BYTES) {
+            throw new IllegalArgumentException("longitud " + length + " no coincide con " + count + " entradas");
+        }
+        for (int i = 0, offset = base + HEADER_BYTES; i < count; i++, offset += VOLUME_ENTRY_BYTES) {
+            sink.accept(frame.getShort(offset) & 0xFFFF, frame.get(offset + 2) & 0xFF);
+        }
+        return count;
+    }
+
+    public static int statusCode(String status) {
+        int code = STATUSES.indexOf(status);
+        return code < 0 ? 0 : code;
+    }
+
+    public static String statusName(int code) {
+        return code >= 0 && code < STATUSES.size() ? STATUSES.get(code) : STATUSES.get(0);
+    }
+
+    public static Map<String, Object> getPoolStats() {
+        return POOL.getStats();
+    }
+
+    private static void header(ByteBuffer out, int type, int count, long sequence) {
+        out.put((byte) type);
+        out.put((byte) VERSION);
+        out.putShort((short) count);
+        out.putLong(sequence);
+    }
+
+    private static void volumeEntry(ByteBuffer out, int channelId, int volume) {
+        out.putShort((short) channelId);
+        out.put((byte) volume);
+        out.put((byte) 0);
+    }
+
+    private static void stateEntry(ByteBuffer out, int channelId, int fields, int volume, int mix, int status) {
+        out.putShort((short) channelId);
+        out.put((byte) fields);
+        out.put((byte) volume);
+        out.put((byte) mix);
+        out.put((byte) status);
+        out.putShort((short) 0);
+    }
+
+    private static BinaryMessage copyOf(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.get(0, bytes);
+        return new BinaryMessage(bytes);
+    }
+}
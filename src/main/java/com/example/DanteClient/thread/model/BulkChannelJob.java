@@ -0,0 +1,162 @@
+package com.example.DanteClient.thread.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Modelo que representa un trabajo masivo (inicio/parada) sobre una lista de canales.
+ * Los canales se procesan en paralelo y cada resultado se registra conforme termina.
+ */
+public class BulkChannelJob {
+
+    public static final String ACTION_START = "START";
+    public static final String ACTION_STOP = "STOP";
+
+    private final String jobId;
+    private final String action;
+    private final List<Integer> channelIds;
+    private final LocalDateTime createdAt;
+    private final long startNanos;
+    private final ConcurrentHashMap<Integer, ChannelResult> results;
+    private final AtomicInteger successCount;
+    private final AtomicInteger failCount;
+    private volatile boolean finished;
+    private volatile long elapsedMs;
+
+    public BulkChannelJob(String action, List<Integer> channelIds) {
+        this.jobId = UUID.randomUUID().toString();
+        this.action = action;
+        this.channelIds = List.copyOf(channelIds);
+        this.createdAt = LocalDateTime.now();
+        this.startNanos = System.nanoTime();
+        this.results = new ConcurrentHashMap<>();
+        this.successCount = new AtomicInteger();
+        this.failCount = new AtomicInteger();
+    }
+
+    /**
+     * Registra el resultado de un canal y devuelve el número de canales completados
+     */
+    public int recordResult(int channelId, boolean success, String message, long elapsedMs) {
+        results.put(channelId, new ChannelResult(channelId, success, message, elapsedMs));
+        if (success) {
+            successCount.incrementAndGet();
+        } else {
+            failCount.incrementAndGet();
+        }
+        return results.size();
+    }
+
+    /**
+     * Marca el trabajo como terminado y fija el tiempo total transcurrido
+     */
+    public void finish() {
+        this.elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        this.finished = true;
+    }
+
+    // Getters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public List<Integer> getChannelIds() {
+        return channelIds;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getTotalChannels() {
+        return channelIds.size();
+    }
+
+    public int getCompletedCount() {
+        return results.size();
+    }
+
+    public int getSuccessCount() {
+        return successCount.get();
+    }
+
+    public int getFailCount() {
+        return failCount.get();
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Tiempo total del trabajo; mientras sigue en curso devuelve el tiempo transcurrido hasta ahora
+     */
+    public long getElapsedMs() {
+        return finished ? elapsedMs : (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public List<ChannelResult> getResults() {
+        List<ChannelResult> ordered = new ArrayList<>();
+        for (Integer channelId : channelIds) {
+            ChannelResult result = results.get(channelId);
+            if (result != null) {
+                ordered.add(result);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Resultado individual de un canal dentro del trabajo
+     */
+    public static class ChannelResult {
+        private final int channelId;
+        private final boolean success;
+        private final String message;
+        private final long elapsedMs;
+
+        public ChannelResult(int channelId, boolean success, String message, long elapsedMs) {
+            this.channelId = channelId;
+            this.success = success;
+            this.message = message;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public int getChannelId() {
+            return channelId;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BulkChannelJob{" +
+                "jobId='" + jobId + '\'' +
+                ", action='" + action + '\'' +
+                ", channels=" + channelIds.size() +
+                ", completed=" + results.size() +
+                ", success=" + successCount.get() +
+                ", failed=" + failCount.get() +
+                ", elapsedMs=" + getElapsedMs() +
+                '}';
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.DanteClient.thread.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de buffers de tamaño fijo (little-endian) para codificar frames binarios
+ * Si el pool está vacío o el frame no cabe se crea un buffer nuevo; al devolverlo sólo se guarda
+ * si es del tamaño del pool y hay sitio. Un buffer que no se devuelve simplemente lo recoge el GC.
+ */
+public class ByteBufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<ByteBuffer> free;
+
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+
+    public ByteBufferPool(int buffers, int bufferSize) {
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, buffers));
+    }
+
+    /**
+     * Buffer vacío con al menos {@code minBytes} de capacidad
+     */
+    public ByteBuffer acquire(int minBytes) {
+        acquired.incrementAndGet();
+        ByteBuffer buffer = minBytes <= bufferSize ? free.poll() : null;
+        if (buffer == null) {
+            allocated.incrementAndGet();
+            buffer = ByteBuffer.allocate(Math.max(minBytes, bufferSize)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() == bufferSize) {
+            buffer.clear();
+            free.offer(buffer);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("bufferSize", bufferSize);
+        stats.put("free", free.size());
+        stats.put("acquired", acquired.get());
+        stats.put("allocated", allocated.get());
+        return stats;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Anillo acotado de eventos de canal: varios productores (hilos de audio), un único consumidor
+ * Las ranuras se crean al principio y se reutilizan, así publicar no reserva memoria ni toma locks:
+ * un CAS para reservar la ranura y una escritura con orden de liberación para publicarla.
+ * Si el anillo está lleno, {@link #publish} devuelve false enseguida en vez de esperar.
+ */
+public class ChannelEventRing {
+
+    public static final int FINISHED = 1;
+    public static final int EXCEPTION = 2;
+    public static final int STATUS_CHANGED = 3;
+    public static final int DEADLINE_MISS = 4;
+
+    /**
+     * Ranura reutilizable; los campos de texto/números se interpretan según {@code kind}
+     */
+    public static final class Slot {
+        public int kind;
+        public int channelId;
+        public String channelName;
+        public String text1;  // razón, tipo de excepción o estado anterior
+        public String text2;  // mensaje de error o estado nuevo
+        public long value1;   // fallos desde el último aviso
+        public long value2;   // fallos totales
+        public long value3;   // peor tiempo (ns)
+        public long value4;   // presupuesto (ns)
+        public long publishedNanos;
+
+        void clear() {
+            channelName = null;
+            text1 = null;
+            text2 = null;
+        }
+    }
+
+    private final Slot[] slots;
+    private final AtomicLongArray sequences; // Secuencia de cada ranura: libre para la posición p cuando vale p
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // Sólo lo toca el consumidor
+
+    public ChannelEventRing(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new Slot[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Publica un evento sin bloquear
+     * @return false si el anillo está lleno (el evento no se publica)
+     */
+    public boolean publish(int kind, int channelId, String channelName, String text1, String text2,
+                           long value1, long value2, long value3, long value4) {
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) (position & mask);
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (available < 0) {
+                return false; // El consumidor todavía no liberó esta ranura
+            }
+            // available > 0: otro productor tomó la posición, reintentar con la siguiente
+        }
+        Slot slot = slots[index];
+        slot.kind = kind;
+        slot.channelId = channelId;
+        slot.channelName = channelName;
+        slot.text1 = text1;
+        slot.text2 = text2;
+        slot.value1 = value1;
+        slot.value2 = value2;
+        slot.value3 = value3;
+        slot.value4 = value4;
+        slot.publishedNanos = System.nanoTime();
+        sequences.lazySet(index, position + 1); // Publica la ranura al consumidor
+        return true;
+    }
+
+    /**
+     * Siguiente evento publicado, o null si no hay ninguno (sólo el hilo consumidor)
+     * La ranura devuelta sigue siendo válida hasta llamar a {@link #release}.
+     */
+    public Slot peek() {
+        int index = (int) (head & mask);
+        return sequences.get(index) == head + 1 ? slots[index] : null;
+    }
+
+    /**
+     * Libera la ranura obtenida con {@link #peek} para que los productores la reutilicen
+     */
+    public void release() {
+        int index = (int) (head & mask);
+        slots[index].clear();
+        sequences.lazySet(index, head + slots.length);
+        head++;
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Eventos pendientes (aproximado si hay productores activos)
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Copia coherente del estado de todos los canales en una versión concreta de la tabla
+ * Los arreglos están indexados por ID de canal y no se modifican después de crearse
+ */
+public class ChannelStateSnapshot {
+
+    private final long version;
+    private final int[] known;
+    private final int[] volume;
+    private final int[] muted;
+    private final int[] solo;
+    private final int[] cue;
+    private final int[] priority;
+    private final int[] active;
+    private final int[] gain;
+
+    public ChannelStateSnapshot(long version, int[] known, int[] volume, int[] muted, int[] solo,
+                                int[] cue, int[] priority, int[] active, int[] gain) {
+        this.version = version;
+        this.known = known;
+        this.volume = volume;
+        this.muted = muted;
+        this.solo = solo;
+        this.cue = cue;
+        this.priority = priority;
+        this.active = active;
+        this.gain = gain;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getCapacity() {
+        return volume.length;
+    }
+
+    public boolean isKnown(int channelId) {
+        return inRange(channelId) && known[channelId] != 0;
+    }
+
+    public int getVolume(int channelId) {
+        return inRange(channelId) ? volume[channelId] : 0;
+    }
+
+    public boolean isMuted(int channelId) {
+        return inRange(channelId) && muted[channelId] != 0;
+    }
+
+    public boolean isSolo(int channelId) {
+        return inRange(channelId) && solo[channelId] != 0;
+    }
+
+    public boolean isActive(int channelId) {
+        return inRange(channelId) && active[channelId] != 0;
+    }
+
+    public boolean isCue(int channelId) {
+        return inRange(channelId) && cue[channelId] != 0;
+    }
+
+    public boolean isPriority(int channelId) {
+        return inRange(channelId) && priority[channelId] != 0;
+    }
+
+    /**
+     * Volumen que realmente suena (0 si está muteado o hay solo en otro canal; atenuado por ducking)
+     */
+    public int getGain(int channelId) {
+        return inRange(channelId) ? gain[channelId] : 0;
+    }
+
+    private boolean inRange(int channelId) {
+        return channelId >= 0 && channelId < volume.length;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.DanteClient.thread.model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Estado de supervisión de un canal: estado deseado vs real, política y presupuesto de reinicios
+ * Todos los accesos se hacen sincronizados sobre la propia instancia
+ */
+public class ChannelSupervisionState {
+
+    public static final String DESIRED_RUNNING = "RUNNING";
+    public static final String DESIRED_STOPPED = "STOPPED";
+
+    public static final String ACTUAL_RUNNING = "RUNNING";
+    public static final String ACTUAL_STOPPED = "STOPPED";
+    public static final String ACTUAL_FAILED = "FAILED";
+    public static final String ACTUAL_BACKOFF = "BACKOFF";
+    public static final String ACTUAL_GAVE_UP = "GAVE_UP";
+
+    private final int channelId;
+    private RestartPolicy policy;
+    private String desiredState;
+    private String actualState;
+    private int totalRestarts;
+    private int consecutiveFailures;
+    private final Deque<Long> restartTimesMs; // Reinicios dentro de la ventana del presupuesto
+    private long lastStartMs;
+    private String lastExitReason;
+    private LocalDateTime lastExitTime;
+    private LocalDateTime nextRestartTime;
+    private ScheduledFuture<?> pendingRestart;
+
+    public ChannelSupervisionState(int channelId, RestartPolicy policy) {
+        this.channelId = channelId;
+        this.policy = policy;
+        this.desiredState = DESIRED_STOPPED;
+        this.actualState = ACTUAL_STOPPED;
+        this.restartTimesMs = new ArrayDeque<>();
+    }
+
+    /**
+     * Descarta los reinicios que quedaron fuera de la ventana y devuelve cuántos quedan
+     */
+    public int restartsInWindow(long nowMs, long windowMs) {
+        while (!restartTimesMs.isEmpty() && nowMs - restartTimesMs.peekFirst() > windowMs) {
+            restartTimesMs.pollFirst();
+        }
+        return restartTimesMs.size();
+    }
+
+    public void recordRestart(long nowMs) {
+        restartTimesMs.addLast(nowMs);
+        totalRestarts++;
+    }
+
+    /**
+     * Cancela el reinicio programado (si existe)
+     */
+    public void cancelPendingRestart() {
+        if (pendingRestart != null) {
+            pendingRestart.cancel(false);
+            pendingRestart = null;
+        }
+        nextRestartTime = null;
+    }
+
+    public boolean hasPendingRestart() {
+        return pendingRestart != null;
+    }
+
+    public void resetBudget() {
+        restartTimesMs.clear();
+        consecutiveFailures = 0;
+    }
+
+    // Getters y Setters
+    public int getChannelId() {
+        return channelId;
+    }
+
+    public RestartPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(RestartPolicy policy) {
+        this.policy = policy;
+    }
+
+    public String getDesiredState() {
+        return desiredState;
+    }
+
+    public void setDesiredState(String desiredState) {
+        this.desiredState = desiredState;
+    }
+
+    public String getActualState() {
+        return actualState;
+    }
+
+    public void setActualState(String actualState) {
+        this.actualState = actualState;
+    }
+
+    public int getTotalRestarts() {
+        return totalRestarts;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public void setConsecutiveFailures(int consecutiveFailures) {
+        this.consecutiveFailures = consecutiveFailures;
+    }
+
+    public long getLastStartMs() {
+        return lastStartMs;
+    }
+
+    public void setLastStartMs(long lastStartMs) {
+        this.lastStartMs = lastStartMs;
+    }
+
+    public String getLastExitReason() {
+        return lastExitReason;
+    }
+
+    public LocalDateTime getLastExitTime() {
+        return lastExitTime;
+    }
+
+    public void recordExit(String reason) {
+        this.lastExitReason = reason;
+        this.lastExitTime = LocalDateTime.now();
+    }
+
+    public LocalDateTime getNextRestartTime() {
+        return nextRestartTime;
+    }
+
+    public void setPendingRestart(ScheduledFuture<?> pendingRestart, LocalDateTime nextRestartTime) {
+        this.pendingRestart = pendingRestart;
+        this.nextRestartTime = nextRestartTime;
+    }
+
+    public void clearPendingRestart() {
+        this.pendingRestart = null;
+        this.nextRestartTime = null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Estado de un canal tal como lo sincronizan los clientes WebSocket (mezcla + estado del thread)
+ */
+public record ChannelSyncState(int channelId, int volume, boolean muted, boolean solo, boolean cue,
+                               boolean priority, String threadStatus) {
+}
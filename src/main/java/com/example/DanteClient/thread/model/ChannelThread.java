@@ -2,24 +2,20 @@ package com.example.DanteClient.thread.model;
 
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
-import java.net.MulticastSocket;
-import java.net.NetworkInterface;
-import java.nio.ByteBuffer;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.sound.sampled.AudioFormat;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.DataLine;
-import javax.sound.sampled.FloatControl;
-import javax.sound.sampled.LineUnavailableException;
-import javax.sound.sampled.SourceDataLine;
 
+import com.example.DanteClient.data.model.ConfigSnapshot;
 import com.example.DanteClient.data.util.ConfigUtil;
+import com.example.DanteClient.thread.service.ChannelConsumerRegistry;
+import com.example.DanteClient.thread.service.ChannelResourcePool;
+import com.example.DanteClient.thread.service.ChannelStateTable;
+import com.example.DanteClient.thread.service.CueBus;
 
 /**
  * Modelo que representa un thread de procesamiento de canal
@@ -33,7 +29,12 @@ public class ChannelThread {
     private CompletableFuture<Void> future; // No final para poder asignar después
     private volatile String status;
     private volatile String currentTask;
-    private volatile int volume; // Volumen del canal (0-100)
+    private ChannelStateTable stateTable; // Volumen/mute/solo compartidos, indexados por ID de canal
+    private int blockGain; // Ganancia efectiva (0-100) leída una vez por bloque
+    private boolean blockCue; // Cue (PFL) activo en este bloque
+    private CueBus cueBus;
+    private int gainRampMs = 5; // Duración de la rampa ante un cambio de volumen
+    private GainRamp gainRamp;
     private ThreadEventListener eventListener; // Listener para notificaciones
 
 
@@ -46,16 +47,17 @@ public class ChannelThread {
     private int timeout;
     private int channelNumbers;
     private int frequency;
-    private String Network="default";
+    private String Network=IngestSubscription.NETWORK_DEFAULT;
     //audio data
+    private final ChannelResourcePool resourcePool;
+    private final AtomicBoolean resourcesReleased = new AtomicBoolean(false);
     private AudioFormat format;
-    private InetAddress grupo;
-    private MulticastSocket socket;
+    private volatile IngestSubscription ingest;
     private byte[] buffer;
     private byte[] sonido;
     private DatagramSocket Sock;
     private DatagramPacket PaqueteCliente;
-    private SourceDataLine sourceline;
+    private volatile AudioSink sink;
     byte b1,b2;
     short y;
     short contador = 0,s3;
@@ -63,43 +65,81 @@ public class ChannelThread {
     int canal=0;
     private int packetCount = 0; // Contador de paquetes recibidos
 
-    public ChannelThread(int channelId, String channelName, CompletableFuture<Void> future) {
+    // Reconfiguración en caliente: instantánea aplicada y recursos en preparación (make-before-break)
+    private volatile ConfigSnapshot appliedConfig;
+    private CompletableFuture<IngestSubscription> pendingIngest;
+    private CompletableFuture<AudioSink> pendingSink;
+
+    // Latencias de arranque
+    private final long createdNanos;
+    private final long setupMs; // Tiempo en obtener la suscripción (la línea llega en segundo plano)
+    private volatile long firstSampleLatencyMs = -1; // Inicio -> primer sample escrito en la línea
+
+    // Tiempos por etapa y fallos de plazo (procesamiento más largo que la duración del bloque)
+    private ChannelTimingStats timing;
+    private volatile long deadlineEventIntervalNanos = 1_000_000_000L;
+
+    // Reproducción desacoplada: la recepción encola bloques y otro thread los escribe en la línea
+    private static final long PLAYOUT_POLL_MS = 100;
+    private static final long PLAYOUT_STOP_WAIT_MS = 1000;
+    private volatile AudioBlockQueue blockQueue;
+    private int queueBlocks = 8;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_OLDEST;
+    private Executor playoutExecutor;
+    private CompletableFuture<Void> playoutFuture;
+
+    // Llenado de la línea: underruns/overruns y objetivo adaptativo
+    private volatile PlayoutMonitor playoutMonitor = new PlayoutMonitor(2, 16, 2000);
+    private byte[] prebufferSilence = new byte[0]; // Sólo lo usa el thread de reproducción
+
+    // Aparcado: tras un rato a volumen 0 no se decodifica y la línea vuelve al pool (la recepción sigue)
+    private final Object sinkLock = new Object(); // Traspaso de la línea entre recepción y reproducción
+    private volatile boolean parked;
+    private long parkIdleNanos; // 0 = aparcado deshabilitado
+    private int fadeInMs = 10;
+    private long idleSinceNanos;
+    private volatile long parkCount;
+    private volatile long unparkCount;
+
+    // Línea sin conseguir (dispositivo ocupado o ausente): se reintenta en segundo plano y el canal queda en ERROR
+    private static final long SINK_RETRY_MS = 1000;
+    private long sinkRetryAtNanos;
+    private boolean sinkMissing;
+    private volatile long sinkFailures;
+
+    // Decodificación bajo demanda: sólo si el canal tiene algún consumidor (altavoz, medidores...)
+    private ChannelConsumerRegistry consumerRegistry;
+    private boolean speakerRegistered;
+    private volatile long skippedDecodes;
+
+    /**
+     * Crea el thread tomando la suscripción multicast del pool y pidiendo la línea de audio en segundo plano
+     * (el future se asigna después con setFuture)
+     */
+    public ChannelThread(int channelId, String channelName, ChannelResourcePool resourcePool) {
+        this.createdNanos = System.nanoTime();
         this.channelId = channelId;
         this.channelName = channelName;
+        this.resourcePool = resourcePool;
         this.startTime = LocalDateTime.now();
         this.running = new AtomicBoolean(true);
-        this.future = future;
         this.status = "RUNNING";
         this.currentTask = "Inicializando...";
-        this.volume = 0; // Volumen inicial por defecto
         StartNetworkingMulticast(); // Inicializar configuración de red
         initMulticastHandShake(); // Inicializar handshake multicast
-    }
-    
-    /**
-     * Constructor alternativo sin future (se puede asignar después)
-     */
-    public ChannelThread(int channelId, String channelName) {
-        this(channelId, channelName, null);
+        this.setupMs = (System.nanoTime() - createdNanos) / 1_000_000;
     }
     
     /**
      * Detiene el thread de forma segura e inmediata
+     * La línea y la suscripción no se cierran: el bucle ve la parada en el siguiente intervalo de
+     * sondeo de la recepción (IngestSubscription.RECEIVE_POLL_MS) y las devuelve al pool al salir
      */
     public void stop() {
         running.set(false);
         status = "STOPPING";
         currentTask = "Deteniendo thread...";
         
-        // Cerrar el socket inmediatamente para interrumpir socket.receive()
-        try {
-            if (socket != null && !socket.isClosed()) {
-                socket.close();
-            }
-        } catch (Exception e) {
-            System.out.println("Error al cerrar socket en stop(): " + e.getMessage());
-        }
-        
         if (future != null && !future.isDone()) {
             future.cancel(true);
         }
@@ -112,7 +152,7 @@ public class ChannelThread {
      * Verifica si el thread está ejecutándose
      */
     public boolean isRunning() {
-        return running.get() && !future.isDone();
+        return running.get() && future != null && !future.isDone();
     }
     
     /**
@@ -143,25 +183,75 @@ public class ChannelThread {
     }
     
     /**
-     * Establece el volumen del canal
+     * Tabla de estado de la que el bucle de audio lee la ganancia (llamar antes de run)
      */
-    public void setVolume(int volume) {
-        if (volume < 0 || volume > 100) {
-            throw new IllegalArgumentException("El volumen debe estar entre 0 y 100");
-        }
-        
-        int oldVolume = this.volume;
-        this.volume = volume;
-        
-        System.out.println("🔊 Canal " + channelId + " - Volumen cambiado de " + oldVolume + " a " + volume);
-        updateCurrentTask("Volumen ajustado a " + volume + "%");
+    public void setStateTable(ChannelStateTable stateTable) {
+        this.stateTable = stateTable;
+    }
+    
+    /**
+     * Bus de cue al que se envía la señal previa al fader cuando el canal tiene cue activado
+     */
+    public void setCueBus(CueBus cueBus) {
+        this.cueBus = cueBus;
     }
     
     /**
      * Obtiene el volumen actual del canal
      */
     public int getVolume() {
-        return volume;
+        return stateTable != null ? stateTable.getVolume(channelId) : 0;
+    }
+    
+    /**
+     * Intervalo mínimo entre eventos de fallo de plazo de este canal
+     */
+    public void setDeadlineEventIntervalMs(long intervalMs) {
+        this.deadlineEventIntervalNanos = intervalMs * 1_000_000L;
+    }
+    
+    /**
+     * Configura la reproducción desacoplada (llamar antes de run)
+     * @param executor donde corre el bucle de reproducción del canal
+     * @param queueBlocks bloques que caben entre recepción y reproducción
+     * @param policy qué hacer cuando la cola se llena
+     */
+    public void configurePlayout(Executor executor, int queueBlocks, OverflowPolicy policy) {
+        this.playoutExecutor = executor;
+        this.queueBlocks = Math.max(1, queueBlocks);
+        this.overflowPolicy = policy;
+    }
+    
+    /**
+     * Límites del llenado objetivo de la línea (llamar antes de run)
+     * @param stableBlocks bloques sin underrun tras los que el objetivo baja un bloque
+     */
+    public void configureLineFill(int minBlocks, int maxBlocks, long stableBlocks) {
+        this.playoutMonitor = new PlayoutMonitor(minBlocks, maxBlocks, stableBlocks);
+    }
+    
+    /**
+     * Aparcado por inactividad (llamar antes de run)
+     * @param idleMs tiempo a volumen 0 antes de aparcar (0 lo deshabilita)
+     * @param fadeInMs duración del fundido de entrada al desaparcar
+     */
+    public void configureParking(long idleMs, int fadeInMs) {
+        this.parkIdleNanos = Math.max(0, idleMs) * 1_000_000L;
+        this.fadeInMs = Math.max(0, fadeInMs);
+    }
+    
+    /**
+     * Duración de la rampa de ganancia ante cambios de volumen (llamar antes de run)
+     */
+    public void configureGainRamp(int rampMs) {
+        this.gainRampMs = Math.max(0, rampMs);
+    }
+    
+    /**
+     * Registro de consumidores que decide si el canal se decodifica (llamar antes de run)
+     */
+    public void setConsumerRegistry(ChannelConsumerRegistry consumerRegistry) {
+        this.consumerRegistry = consumerRegistry;
     }
     
     /**
@@ -173,14 +263,17 @@ public class ChannelThread {
     
 
     private void StartNetworkingMulticast(){
-        this.serverAddress = ConfigUtil.getServer();
-        this.serverPort = ConfigUtil.getPort();
-        this.multicastAddress = ConfigUtil.getMulticastAddress();
-        this.multicastPort = ConfigUtil.getMulticastPort();
-        this.chunkSize = Integer.parseInt(ConfigUtil.getChunkSize());
-        this.timeout = Integer.parseInt(ConfigUtil.getTimeout());
-        this.channelNumbers = ConfigUtil.getChannelNumbers();
-        this.frequency = ConfigUtil.getFrequency();
+        // Una sola instantánea para que todos los parámetros sean coherentes entre sí
+        ConfigSnapshot config = ConfigUtil.getSnapshot();
+        this.appliedConfig = config;
+        this.serverAddress = config.getServer();
+        this.serverPort = config.getPort();
+        this.multicastAddress = config.getMulticastAddress();
+        this.multicastPort = String.valueOf(config.getMulticastPort());
+        this.chunkSize = config.getChunkSize();
+        this.timeout = config.getTimeout();
+        this.channelNumbers = config.getChannelNumbers();
+        this.frequency = config.getFrequency();
 
         System.out.println("serverAddress: " + serverAddress);
         System.out.println("serverPort: " + serverPort);
@@ -192,33 +285,15 @@ public class ChannelThread {
         System.out.println("frequency: " + frequency);
 
         // init audio
-        format = new AudioFormat(frequency, 16, 2, true, true);
+        format = ChannelResourcePool.formatFor(config);
+        timing = new ChannelTimingStats(chunkSize, frequency);
         sonido=new byte[chunkSize*2];
         buffer=new byte[chunkSize*chunkSize*2];
         //buffer=new byte[256];
-        DataLine.Info info=new DataLine.Info(SourceDataLine.class,format);
-
-
-        try {
-             sourceline = (SourceDataLine)AudioSystem.getLine(info);
-             sourceline.open(format);
-             FloatControl control = (FloatControl)sourceline.getControl(FloatControl.Type.MASTER_GAIN);
-          
-             sourceline.start();
-             
-         } catch (LineUnavailableException ex) {
-            try {
-                System.out.println("Error de audio: " + ex.getMessage());
-                
-                //error de audio
-                
-                
-            } catch (Exception ex1) {
-                System.out.println("Error de interrupción de audio: " + ex1.getMessage());
-             
-            }
 
-         }
+        // La línea se pide al pool en segundo plano (abrir el dispositivo puede tardar): el canal recibe
+        // desde el primer paquete y empieza a sonar cuando llegue; si no hay línea, swapSink reintenta
+        pendingSink = resourcePool.prepareSinkAsync(format);
 
     }
 
@@ -231,80 +306,27 @@ public class ChannelThread {
 
 
     private void initMulticastHandShake(){
-        try{
-            if(Network.equals("default")){
-            socket=new MulticastSocket(Integer.parseInt(multicastPort));
-            grupo=InetAddress.getByName(multicastAddress);
-            
-            NetworkInterface nif = NetworkInterface.getByInetAddress(InetAddress.getByName(multicastAddress));
-            //socket.joinGroup(new InetSocketAddress(grupo, Integer.parseInt(multicastPort)), nif);
-            socket.joinGroup(grupo);
-            socket.setSoTimeout(5000);
-            
-            
-            socket.setSoTimeout(5000);
-            }
-            else{
-            // Intentar obtener la interfaz cableada primero (eth0), si no, buscar otra activa
-            NetworkInterface nif = null;
-            try {
-                // En Windows, las interfaces de red no suelen llamarse "eth0"
-                // Puedes intentar con "Ethernet", "Wi-Fi", o dejarlo nulo para buscar automáticamente
-                // Ejemplo: nif = NetworkInterface.getByName("Ethernet");
-                // Pero normalmente es mejor dejarlo nulo y que el código busque una interfaz activa
-                nif = null;
-                if (nif == null || !nif.isUp()) {
-                    // Si eth0 no está disponible, buscar una interfaz activa (preferir wifi)
-                    for (NetworkInterface ni : java.util.Collections.list(NetworkInterface.getNetworkInterfaces())) {
-                        if (ni.isUp() && !ni.isLoopback() && !ni.isVirtual()) {
-                            // Preferir wifi si existe
-                            if (ni.getName().startsWith("wlan") || ni.getName().startsWith("wifi")) {
-                                nif = ni;
-                                break;
-                            }
-                            // Si no hay wifi, tomar la primera activa
-                            if (nif == null) {
-                                nif = ni;
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                System.out.println("No se pudo obtener la interfaz de red preferida: " + e.getMessage());
-                updateStatus("ERROR");
-                updateCurrentTask("Error: " + e.getMessage());
-            }
-            if (nif == null) {
-                throw new RuntimeException("No se encontró una interfaz de red activa para multicast");
-            }
-            socket = new MulticastSocket(Integer.parseInt(serverPort));
-            socket.setSoTimeout(5000);
-            socket.joinGroup(new InetSocketAddress(multicastAddress,Integer.parseInt(serverPort)), nif);
-            
-            }
-            }catch(Exception ex){
-                System.err.println("Error de socket en canal " + channelId + ": " + ex.getMessage());
-                ex.printStackTrace();
-                updateStatus("ERROR");
-                updateCurrentTask("Error de conexión multicast: " + ex.getMessage());
-                
-                // Información adicional de diagnóstico
-                System.err.println("Intentando conectar a: " + multicastAddress + ":" + multicastPort);
-                System.err.println("Tipo de error: " + ex.getClass().getSimpleName());
-                
-                // No continuar si hay error de socket
-                return;
-            }
+        int port = ingestPort(appliedConfig);
+
+        // Suscripción caliente del pool (el joinGroup ya está hecho)
+        ingest = resourcePool.acquireIngest(Network, multicastAddress, port, timeout);
+        if (ingest == null) {
+            updateStatus("ERROR");
+            updateCurrentTask("Error de conexión multicast: " + multicastAddress + ":" + port);
+            System.err.println("Error de socket en canal " + channelId + ": no se pudo unir a " + multicastAddress + ":" + port);
+            // No continuar si hay error de socket
+            return;
+        }
             
             
        
-            PaqueteCliente = new DatagramPacket(buffer,0,buffer.length,grupo,Integer.parseInt(multicastPort));
+            PaqueteCliente = new DatagramPacket(buffer,0,buffer.length,ingest.getGroup(),port);
             
             canal=selectorAudio(channelId);
             sonido=new byte[chunkSize*2];
             //cliclo while de recepcion de audio
            
-            System.out.println("asignado el puerto  "+Integer.parseInt(serverPort));
+            System.out.println("asignado el puerto  "+port);
             System.out.println("Iniciando audio por canal  " + channelId);
           
             System.out.println(chunkSize);
@@ -315,9 +337,184 @@ public class ChannelThread {
     }
 
 
+    /**
+     * En modo "default" se usa el puerto multicast; en otro modo el puerto del servidor
+     */
+    private int ingestPort(ConfigSnapshot config) {
+        return Network.equals(IngestSubscription.NETWORK_DEFAULT)
+                ? config.getMulticastPort()
+                : Integer.parseInt(config.getPort());
+    }
+
+    /**
+     * Límite de bloque: aplica una nueva instantánea de configuración si se publicó
+     * y sustituye los recursos que ya terminaron de prepararse en segundo plano
+     */
+    private void checkConfigUpdate() {
+        ConfigSnapshot latest = ConfigUtil.getSnapshot();
+        if (latest.getVersion() != appliedConfig.getVersion()) {
+            applyConfig(latest);
+        }
+        if (pendingIngest != null && pendingIngest.isDone()) {
+            swapIngest();
+        }
+        if (pendingSink != null && pendingSink.isDone()) {
+            swapSink();
+        }
+        requestSinkIfMissing();
+    }
+
+    /**
+     * Pide una línea en segundo plano si el canal debería sonar y no tiene ninguna:
+     * abrir el dispositivo puede tardar cientos de ms y no debe hacerse en el thread de recepción
+     */
+    private void requestSinkIfMissing() {
+        if (parked || sink != null || pendingSink != null || (sinkMissing && System.nanoTime() - sinkRetryAtNanos < 0)) {
+            return;
+        }
+        pendingSink = resourcePool.prepareSinkAsync(format);
+    }
+
+    /**
+     * Aplica una instantánea: lo que no requiere reabrir recursos se cambia ya;
+     * el cambio de grupo multicast o de formato se prepara en paralelo y se conmuta después
+     */
+    private void applyConfig(ConfigSnapshot latest) {
+        ConfigSnapshot previous = appliedConfig;
+        appliedConfig = latest;
+        System.out.println("🔧 Canal " + channelId + " - aplicando " + latest);
+
+        this.serverAddress = latest.getServer();
+        this.serverPort = latest.getPort();
+        this.channelNumbers = latest.getChannelNumbers();
+
+        if (latest.getChunkSize() != chunkSize) {
+            chunkSize = latest.getChunkSize();
+            sonido = new byte[chunkSize*2];
+            buffer = new byte[chunkSize*chunkSize*2];
+            PaqueteCliente = new DatagramPacket(buffer, 0, buffer.length, ingest.getGroup(), ingest.getPort());
+            canal = selectorAudio(channelId);
+            if (blockQueue != null && blockQueue.getMaxBlockBytes() < blockBytes()) {
+                // Bloques más grandes: cola nueva; la vieja se cierra para que la reproducción
+                // escriba lo que tenía pendiente antes de pasar a la nueva
+                AudioBlockQueue previousQueue = blockQueue;
+                blockQueue = new AudioBlockQueue(previousQueue, blockBytes());
+                previousQueue.close();
+            }
+        }
+        timing.updateBudget(latest.getChunkSize(), latest.getFrequency());
+
+        if (latest.getTimeout() != timeout) {
+            timeout = latest.getTimeout();
+            try {
+                ingest.setTimeoutMs(timeout);
+            } catch (Exception e) {
+                System.out.println("Error al aplicar timeout en canal " + channelId + ": " + e.getMessage());
+            }
+        }
+
+        if (latest.requiresIngestChange(previous)) {
+            // Si había otra preparación en curso, su resultado ya no sirve
+            if (pendingIngest != null) {
+                pendingIngest.thenAccept(resourcePool::releaseIngest);
+            }
+            this.multicastAddress = latest.getMulticastAddress();
+            this.multicastPort = String.valueOf(latest.getMulticastPort());
+            pendingIngest = resourcePool.prepareIngestAsync(Network, multicastAddress, ingestPort(latest), timeout);
+            updateCurrentTask("Uniéndose a " + multicastAddress + ":" + ingestPort(latest));
+        }
+
+        if (latest.requiresSinkChange(previous)) {
+            if (pendingSink != null) {
+                pendingSink.thenAccept(resourcePool::releaseSink);
+            }
+            this.frequency = latest.getFrequency();
+            pendingSink = resourcePool.prepareSinkAsync(ChannelResourcePool.formatFor(latest));
+            updateCurrentTask("Abriendo línea a " + frequency + " Hz");
+        }
+    }
+
+    /**
+     * Conmuta a la nueva suscripción ya unida al grupo y libera la anterior
+     */
+    private void swapIngest() {
+        IngestSubscription prepared = pendingIngest.getNow(null);
+        pendingIngest = null;
+        if (prepared == null) {
+            updateCurrentTask("Error al unirse a " + multicastAddress + ", se mantiene la suscripción anterior");
+            return;
+        }
+        IngestSubscription old = ingest;
+        ingest = prepared;
+        PaqueteCliente = new DatagramPacket(buffer, 0, buffer.length, prepared.getGroup(), prepared.getPort());
+        resourcePool.releaseIngest(old);
+        updateCurrentTask("Recibiendo de " + prepared.getMulticastAddress() + ":" + prepared.getPort());
+        System.out.println("🔀 Canal " + channelId + " - suscripción conmutada a " + prepared.getMulticastAddress() + ":" + prepared.getPort());
+    }
+
+    /**
+     * Conmuta a la nueva línea ya abierta; la anterior termina de sonar su buffer antes de cerrarse
+     */
+    private void swapSink() {
+        AudioSink prepared = pendingSink.getNow(null);
+        pendingSink = null;
+        if (prepared == null) {
+            if (sink == null && !parked) {
+                // Sin línea anterior el canal no suena: se informa y se reintenta más tarde
+                sinkFailures++;
+                sinkRetryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SINK_RETRY_MS);
+                if (!sinkMissing) {
+                    sinkMissing = true;
+                    System.err.println("Error de audio en canal " + channelId + ": sin línea disponible, reintentando cada " + SINK_RETRY_MS + " ms");
+                }
+                updateStatus("ERROR");
+                updateCurrentTask("Sin línea de audio (intento " + sinkFailures + "), reintentando");
+                return;
+            }
+            updateCurrentTask("Error al abrir línea a " + frequency + " Hz, se mantiene la anterior");
+            return;
+        }
+        synchronized (sinkLock) {
+            format = prepared.getFormat();
+            if (parked) {
+                // Aparcado no se necesita línea: queda caliente en el pool con el formato nuevo
+                resourcePool.releaseSink(prepared);
+                return;
+            }
+            AudioSink old = sink;
+            sink = prepared;
+            resourcePool.retireSink(old);
+        }
+        if (sinkMissing) {
+            sinkMissing = false;
+            updateStatus("RUNNING");
+            System.out.println("🔊 Canal " + channelId + " - línea de audio recuperada tras " + sinkFailures + " intentos");
+        }
+        updateCurrentTask("Reproduciendo a " + (int) format.getSampleRate() + " Hz");
+        System.out.println("🔀 Canal " + channelId + " - línea conmutada a " + format);
+    }
+
     private void ProcessAudio() throws Exception {
         try {
-            socket.receive(PaqueteCliente);
+            checkConfigUpdate();
+            long receiveStart = System.nanoTime();
+            if (!ingest.receive(PaqueteCliente, running)) {
+                return; // Detenido mientras se esperaba un paquete
+            }
+            long decodeStart = System.nanoTime();
+            timing.recordArrival(decodeStart);
+            // Una sola lectura de la tabla por bloque: ganancia efectiva y cue en la misma palabra
+            int blockState = stateTable != null ? stateTable.getBlockState(channelId, decodeStart) : 0;
+            blockGain = ChannelStateTable.gainOf(blockState);
+            blockCue = cueBus != null && ChannelStateTable.cueOf(blockState);
+            
+            // Sin consumidores (p.ej. aparcado y sin medidores): sólo se mantienen las estadísticas de recepción
+            boolean parkedNow = updateParking(decodeStart);
+            if (!hasConsumers()) {
+                skippedDecodes++;
+                timing.record(decodeStart - receiveStart, 0, 0);
+                return;
+            }
             //packetCount++; // Incrementar contador de paquetes
             byte[] rawData = PaqueteCliente.getData();
             
@@ -327,7 +524,18 @@ public class ChannelThread {
            // }
             
             // Procesar formato PLANAR (128 samples = 64 por canal)
-            processAudioPlanar(rawData);
+            byte[] audioMono = processAudioPlanar(rawData);
+            long enqueueStart = System.nanoTime();
+            
+            // Entregar a la reproducción sin bloquear (si la cola está llena decide la política)
+            if (audioMono != null && !parkedNow) {
+                blockQueue.offer(audioMono, audioMono.length);
+            }
+            long end = System.nanoTime();
+            
+            if (timing.record(decodeStart - receiveStart, enqueueStart - decodeStart, end - enqueueStart)) {
+                reportDeadlineMiss(end);
+            }
             
         } catch (Exception e) {
             System.err.println("Error procesando audio en canal " + canal + ": " + e.getMessage());
@@ -339,10 +547,10 @@ public class ChannelThread {
      * Procesa audio en formato PLANAR: Canal1[64 samples] + Canal2[64 samples]
      * Cada canal se maneja como MONO independiente
      */
-    private void processAudioPlanar(byte[] rawData) {
+    private byte[] processAudioPlanar(byte[] rawData) {
         if (rawData.length < 10) {
             System.err.println("Datos insuficientes: " + rawData.length + " bytes (esperados 256)");
-            return;
+            return null;
         }
         
         // Convertir bytes a samples de 16 bits
@@ -373,14 +581,189 @@ public class ChannelThread {
         //short[] canalSeleccionado = seleccionarCanal(canal1, canal2);
         
         // Convertir el canal MONO a bytes para reproducción
-        byte[] audioMono = convertirMonoABytes(canal1);
-
-        // Reproducir audio
-        if (sourceline != null && sourceline.isOpen()) {
-            sourceline.write(audioMono, 0, audioMono.length);
+        return convertirMonoABytes(canal1);
+    }
+    
+    /**
+     * Decide en el límite de bloque si el canal debe aparcar o desaparcar según su ganancia efectiva
+     * @return true si el canal está aparcado (no hay que decodificar el bloque)
+     */
+    private boolean updateParking(long nowNanos) {
+        if (blockGain > 0) {
+            idleSinceNanos = 0;
+            if (parked) {
+                unpark();
+            }
+            return false;
+        }
+        if (parked) {
+            return true;
+        }
+        if (idleSinceNanos == 0) {
+            idleSinceNanos = nowNanos;
+        } else if (parkIdleNanos > 0 && nowNanos - idleSinceNanos >= parkIdleNanos) {
+            park();
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Aparca el canal: la reproducción devuelve la línea al pool en cuanto vacía la cola
+     */
+    private void park() {
+        parked = true;
+        releaseSpeaker();
+        parkCount++;
+        updateStatus("PARKED");
+        updateCurrentTask("Aparcado (volumen 0), línea liberada");
+        System.out.println("🅿️ Canal " + channelId + " aparcado tras " + parkIdleNanos / 1_000_000 + " ms a volumen 0");
+    }
+    
+    /**
+     * Desaparca el canal y arranca con un fundido de entrada; si la reproducción ya devolvió la línea,
+     * se pide otra al pool en segundo plano (el audio empieza a sonar cuando llegue)
+     */
+    private void unpark() {
+        synchronized (sinkLock) {
+            parked = false;
+        }
+        sinkRetryAtNanos = System.nanoTime();
+        requestSinkIfMissing();
+        registerSpeaker();
+        unparkCount++;
+        // Fundido de entrada: la rampa arranca desde silencio
+        gainRamp.reset(0);
+        gainRamp.setTarget(GainTable.gainQ15(blockGain), msToSamples(fadeInMs));
+        updateStatus("RUNNING");
+        updateCurrentTask("Procesando audio - Vol: " + blockGain + "%");
+        System.out.println("▶️ Canal " + channelId + " desaparcado");
+    }
+    
+    /**
+     * Indica si alguien necesita las muestras decodificadas del canal
+     */
+    private boolean hasConsumers() {
+        return consumerRegistry != null ? consumerRegistry.hasConsumers(channelId) : !parked;
+    }
+    
+    /**
+     * La salida local (altavoz) consume el canal mientras no esté aparcado
+     */
+    private void registerSpeaker() {
+        if (consumerRegistry != null && !speakerRegistered) {
+            consumerRegistry.acquire(channelId, ChannelConsumerRegistry.CONSUMER_SPEAKER);
+            speakerRegistered = true;
+        }
+    }
+    
+    private void releaseSpeaker() {
+        if (consumerRegistry != null && speakerRegistered) {
+            consumerRegistry.release(channelId, ChannelConsumerRegistry.CONSUMER_SPEAKER);
+            speakerRegistered = false;
+        }
+    }
+    
+    /**
+     * Reproducción: si el canal está aparcado y la cola quedó vacía, devuelve la línea al pool
+     */
+    private void releaseSinkIfParked() {
+        synchronized (sinkLock) {
+            if (parked && sink != null) {
+                AudioSink old = sink;
+                sink = null;
+                resourcePool.retireSink(old);
+            }
+        }
+    }
+    
+    private int msToSamples(int ms) {
+        return (int) (format.getSampleRate() * ms / 1000);
+    }
+    
+    /**
+     * Bytes de un bloque tal como se escribe en la línea (estéreo de 16 bits)
+     */
+    private int blockBytes() {
+        return chunkSize * 4;
+    }
+    
+    /**
+     * Bucle de reproducción: toma bloques de la cola y los escribe en la línea
+     * Si la línea se bloquea sólo se retrasa este bucle; la recepción sigue leyendo el socket
+     */
+    private void playoutLoop() {
+        byte[] block = new byte[blockQueue.getMaxBlockBytes()];
+        try {
+            while (true) {
+                AudioBlockQueue queue = blockQueue;
+                if (block.length < queue.getMaxBlockBytes()) {
+                    block = new byte[queue.getMaxBlockBytes()];
+                }
+                int length = queue.poll(block, PLAYOUT_POLL_MS);
+                if (length < 0) {
+                    if (queue != blockQueue) {
+                        continue; // Cola sustituida por applyConfig y ya vaciada: seguir con la nueva
+                    }
+                    break; // Cola cerrada y vacía
+                }
+                if (length == 0) {
+                    if (!running.get()) {
+                        break;
+                    }
+                    releaseSinkIfParked();
+                    continue;
+                }
+                long writeStart = System.nanoTime();
+                writeAudio(block, length);
+                timing.recordWrite(System.nanoTime() - writeStart);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error en reproducción del canal " + channelId + ": " + e.getMessage());
         }
     }
     
+    /**
+     * Escribe un bloque en la línea de audio
+     */
+    private void writeAudio(byte[] audio, int length) {
+        AudioSink currentSink = sink;
+        if (currentSink != null && currentSink.isOpen()) {
+            int toWrite = playoutMonitor.beforeWrite(currentSink, audio, length);
+            if (toWrite <= 0) {
+                return; // La línea supera el máximo: se descarta el bloque
+            }
+            int silence = playoutMonitor.getPrebufferBytes();
+            if (silence > 0) {
+                // Arranque o underrun: colchón de silencio hasta el llenado objetivo
+                if (prebufferSilence.length < silence) {
+                    prebufferSilence = new byte[silence];
+                }
+                currentSink.write(prebufferSilence, 0, silence);
+            }
+            currentSink.write(audio, 0, toWrite);
+            playoutMonitor.afterWrite(toWrite / currentSink.getFormat().getFrameSize());
+            if (firstSampleLatencyMs < 0) {
+                firstSampleLatencyMs = (System.nanoTime() - createdNanos) / 1_000_000;
+                System.out.println("⏱️ Canal " + channelId + " - primer sample a los " + firstSampleLatencyMs + " ms del inicio");
+            }
+        }
+    }
+    
+    /**
+     * Notifica que el canal se está quedando atrás, como máximo una vez por intervalo
+     */
+    private void reportDeadlineMiss(long nowNanos) {
+        if (eventListener == null || !timing.shouldReport(nowNanos, deadlineEventIntervalNanos)) {
+            return;
+        }
+        eventListener.onDeadlineMiss(channelId, channelName, timing.getMissesSinceEvent(), timing.getDeadlineMisses(),
+                timing.getWorstSinceEventNanos(), timing.getBlockBudgetNanos());
+        timing.markEventSent(nowNanos);
+    }
+    
     /**
      * Selecciona qué canal usar basado en el ID del canal
      * Canal impar (1,3,5...) = Canal 1, Canal par (2,4,6...) = Canal 2
@@ -404,9 +787,17 @@ public class ChannelThread {
         // o configurar la línea de audio como MONO
         byte[] monoBuffer = new byte[samples.length * 4]; // *4 porque duplicamos para estéreo
         
+        // Cue: la señal sale hacia el bus antes del fader
+        if (blockCue) {
+            cueBus.feed(channelId, samples, samples.length);
+        }
+        
+        // Aplicar volumen: ganancia Q15 de la tabla con rampa hacia el objetivo (sin saltos audibles)
+        gainRamp.setTarget(GainTable.gainQ15(blockGain));
+        gainRamp.apply(samples, 0, samples.length);
+        
         for (int i = 0; i < samples.length; i++) {
-            // Aplicar volumen
-            short sample = (short)(samples[i] * volume / 100.0);
+            short sample = samples[i];
             
             // Escribir sample en ambos canales (L y R iguales para compatibilidad)
             int byteIndex = i * 4;
@@ -432,12 +823,12 @@ public class ChannelThread {
         
         for (int i = 0; i < 64; i++) {
             // Sample canal L
-            short sampleL = (short)(canalL[i] * volume / 100.0); // Aplicar volumen
+            short sampleL = (short)((canalL[i] * GainTable.gainQ15(blockGain)) >> 15); // Aplicar volumen
             stereoBuffer[i * 4] = (byte)(sampleL & 0xFF);        // L low byte
             stereoBuffer[i * 4 + 1] = (byte)((sampleL >> 8) & 0xFF); // L high byte
             
             // Sample canal R  
-            short sampleR = (short)(canalR[i] * volume / 100.0); // Aplicar volumen
+            short sampleR = (short)((canalR[i] * GainTable.gainQ15(blockGain)) >> 15); // Aplicar volumen
             stereoBuffer[i * 4 + 2] = (byte)(sampleR & 0xFF);        // R low byte
             stereoBuffer[i * 4 + 3] = (byte)((sampleR >> 8) & 0xFF); // R high byte
         }
@@ -445,44 +836,73 @@ public class ChannelThread {
         return stereoBuffer;
     }
 
-    private void FinishAudio(){
-        try {
-            if (socket != null && !socket.isClosed()) {
-            socket.disconnect();
-            socket.close();
-            }
-        } catch (Exception e) {
-            System.out.println("Error al finalizar el socket: " + e.getMessage());
+    /**
+     * Devuelve la línea y la suscripción al pool (una sola vez)
+     */
+    private void releaseResources(){
+        if (!resourcesReleased.compareAndSet(false, true)) {
+            return;
+        }
+        // La línea no se devuelve hasta que la reproducción deja de escribir en ella
+        stopPlayout();
+        releaseSpeaker();
+        resourcePool.releaseSink(sink);
+        resourcePool.releaseIngest(ingest);
+        sink = null;
+        ingest = null;
+        // Recursos que estaban en preparación por una reconfiguración
+        if (pendingIngest != null) {
+            pendingIngest.thenAccept(resourcePool::releaseIngest);
+        }
+        if (pendingSink != null) {
+            pendingSink.thenAccept(resourcePool::releaseSink);
         }
     }
 
-    private void StopAudio(){
-        try {
-            if (sourceline != null) {
-            sourceline.flush();
-            }
-        } catch (Exception e) {
-            System.out.println("Error al limpiar el buffer de audio: " + e.getMessage());
+
+    /**
+     * Cierra la cola y espera a que el bucle de reproducción termine lo pendiente
+     */
+    private void stopPlayout() {
+        AudioBlockQueue queue = blockQueue;
+        if (queue != null) {
+            queue.close();
         }
-        try {
-            if (socket != null && !socket.isClosed()) {
-            socket.close();
+        if (playoutFuture != null) {
+            try {
+                playoutFuture.get(PLAYOUT_STOP_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                System.out.println("Reproducción del canal " + channelId + " no terminó a tiempo: " + e.getMessage());
             }
-        } catch (Exception e) {
-            System.out.println("Error al cerrar el socket: " + e.getMessage());
         }
     }
 
-
     /**
      * Método run que ejecuta el bucle principal del thread
      */
     public void run() {
+        // El aviso de salida se publica después de liberar los recursos: quien reinicie el canal
+        // al recibirlo encuentra la línea y la suscripción ya devueltas al pool
+        String finishReason = null;
+        Exception failure = null;
         try {
             System.out.println("🚀 Iniciando thread para canal " + channelId + " (" + channelName + ")");
             updateStatus("RUNNING");
             updateCurrentTask("Ejecutando bucle principal");
             
+            if (ingest == null) {
+                throw new IllegalStateException("Canal " + channelId + " sin suscripción multicast");
+            }
+            
+            gainRamp = new GainRamp(msToSamples(gainRampMs));
+            
+            // Arrancar la reproducción desacoplada de la recepción
+            registerSpeaker();
+            blockQueue = new AudioBlockQueue(queueBlocks, blockBytes(), overflowPolicy);
+            playoutFuture = playoutExecutor != null
+                    ? CompletableFuture.runAsync(this::playoutLoop, playoutExecutor)
+                    : CompletableFuture.runAsync(this::playoutLoop);
+            
             while (running.get()) {
                 // if (volume > 0) {
                 //     updateCurrentTask("Procesando audio - Vol: " + volume + "%");
@@ -506,32 +926,42 @@ public class ChannelThread {
             updateCurrentTask("Bucle terminado");
             System.out.println("✅ Thread terminado para canal " + channelId + " (" + channelName + ")");
             
-            // Notificar finalización normal
-            if (eventListener != null) {
-                eventListener.onThreadFinished(channelId, channelName, "Normal completion");
-            }
-
-            FinishAudio();
-            StopAudio();
+            finishReason = "Normal completion";
             
         } catch (InterruptedException e) {
+            running.set(false); // El bucle ya no se ejecuta (el listener puede liberar el canal)
             updateStatus("INTERRUPTED");
             updateCurrentTask("Thread interrumpido");
             System.out.println("⚠️ Thread interrumpido para canal " + channelId + " (" + channelName + ")");
             
-            // Notificar interrupción
-            if (eventListener != null) {
-                eventListener.onThreadFinished(channelId, channelName, "Thread interrupted");
-            }
+            finishReason = "Thread interrupted";
             
         } catch (Exception e) {
+            if (!running.get()) {
+                // Detención solicitada mientras se esperaba un paquete (timeout del socket)
+                updateStatus("FINISHED");
+                updateCurrentTask("Bucle terminado");
+                finishReason = "Normal completion";
+                return;
+            }
+            
+            running.set(false); // El bucle ya no se ejecuta (el listener puede liberar o reiniciar el canal)
             updateStatus("ERROR");
             updateCurrentTask("Error: " + e.getMessage());
             System.err.println("❌ Error en thread canal " + channelId + ": " + e.getMessage());
             
-            // Notificar excepción
-            if (eventListener != null) {
-                eventListener.onThreadException(channelId, channelName, e.getClass().getSimpleName(), e.getMessage());
+            failure = e;
+        } finally {
+            try {
+                // Los recursos vuelven calientes al pool para el siguiente inicio
+                releaseResources();
+            } finally {
+                // Notificar finalización o excepción
+                if (eventListener != null && failure != null) {
+                    eventListener.onThreadException(channelId, channelName, failure.getClass().getSimpleName(), failure.getMessage());
+                } else if (eventListener != null && finishReason != null) {
+                    eventListener.onThreadFinished(channelId, channelName, finishReason);
+                }
             }
         }
     }
@@ -565,6 +995,77 @@ public class ChannelThread {
         return currentTask;
     }
     
+    /**
+     * Tiempo (ms) empleado en obtener la suscripción al crear el thread (la línea se pide en segundo plano)
+     */
+    public long getSetupMs() {
+        return setupMs;
+    }
+    
+    /**
+     * Versión de la instantánea de configuración que está aplicando el thread
+     */
+    public long getAppliedConfigVersion() {
+        return appliedConfig.getVersion();
+    }
+    
+    /**
+     * Latencia (ms) desde el inicio hasta el primer sample escrito; -1 si aún no hay audio
+     */
+    public long getFirstSampleLatencyMs() {
+        return firstSampleLatencyMs;
+    }
+    
+    /**
+     * Tiempos por etapa y fallos de plazo del bucle de audio
+     */
+    public ChannelTimingStats getTimingStats() {
+        return timing;
+    }
+    
+    /**
+     * Underruns, overruns y llenado de la línea de audio
+     */
+    public PlayoutMonitor getPlayoutMonitor() {
+        return playoutMonitor;
+    }
+    
+    /**
+     * Indica si el canal está aparcado (sin decodificar ni línea de audio)
+     */
+    public boolean isParked() {
+        return parked;
+    }
+    
+    /**
+     * Bloques recibidos que no se decodificaron por no tener consumidores
+     */
+    public long getSkippedDecodes() {
+        return skippedDecodes;
+    }
+    
+    public long getParkCount() {
+        return parkCount;
+    }
+    
+    /**
+     * Intentos fallidos de conseguir una línea de audio para el canal
+     */
+    public long getSinkFailures() {
+        return sinkFailures;
+    }
+
+    public long getUnparkCount() {
+        return unparkCount;
+    }
+    
+    /**
+     * Cola entre recepción y reproducción (null antes de arrancar)
+     */
+    public AudioBlockQueue getBlockQueue() {
+        return blockQueue;
+    }
+    
     /**
      * Obtiene información resumida del thread
      */
@@ -582,7 +1083,7 @@ public class ChannelThread {
                 ", channelName='" + channelName + '\'' +
                 ", status='" + status + '\'' +
                 ", currentTask='" + currentTask + '\'' +
-                ", volume=" + volume +
+                ", volume=" + getVolume() +
                 ", startTime=" + startTime +
                 ", running=" + running.get() +
                 '}';
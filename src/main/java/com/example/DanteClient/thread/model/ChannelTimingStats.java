@@ -0,0 +1,234 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Tiempos por etapa del audio de un canal (recepción, decodificación, encolado y escritura)
+ * Contadores preasignados: cada campo tiene un único escritor (el thread de recepción o el de
+ * reproducción) y el resto sólo lee, así que no se crean objetos ni se toman locks en el camino caliente
+ */
+public class ChannelTimingStats {
+
+    // Presupuesto de un bloque: duración del audio que contiene (chunkSize / frecuencia)
+    private volatile long blockBudgetNanos;
+
+    private volatile long blocks;
+    private volatile long deadlineMisses;
+    private volatile long consecutiveMisses;
+
+    // Última medición de cada etapa y del procesamiento completo (decodificación + encolado)
+    private volatile long lastReceiveNanos;
+    private volatile long lastDecodeNanos;
+    private volatile long lastEnqueueNanos;
+    private volatile long lastProcessNanos;
+
+    // Acumulados para los promedios
+    private volatile long totalReceiveNanos;
+    private volatile long totalDecodeNanos;
+
+    private volatile long maxDecodeNanos;
+    private volatile long maxProcessNanos;
+
+    // Escritura en la línea (thread de reproducción)
+    private volatile long writes;
+    private volatile long lastWriteNanos;
+    private volatile long totalWriteNanos;
+    private volatile long maxWriteNanos;
+
+    // Llegadas: bloques esperados según el reloj vs recibidos (estimación de pérdida en la red)
+    private volatile long firstArrivalNanos;
+    private volatile long lastArrivalNanos;
+    private volatile long arrivals;
+
+    // Limitador de eventos: fallos pendientes de notificar y momento del último evento
+    private long missesSinceEvent;
+    private long worstSinceEventNanos;
+    private long lastEventNanos;
+
+    public ChannelTimingStats(int chunkSize, int frequency) {
+        updateBudget(chunkSize, frequency);
+    }
+
+    /**
+     * Recalcula el presupuesto por bloque (cambio de chunkSize o frecuencia)
+     */
+    public void updateBudget(int chunkSize, int frequency) {
+        long budget = frequency > 0 ? chunkSize * 1_000_000_000L / frequency : 0;
+        if (budget != blockBudgetNanos) {
+            // Con otro ritmo de bloques la estimación de pérdida empieza de nuevo
+            firstArrivalNanos = 0;
+            arrivals = 0;
+        }
+        this.blockBudgetNanos = budget;
+    }
+
+    /**
+     * Registra la llegada de un datagrama (thread de recepción)
+     */
+    public void recordArrival(long nowNanos) {
+        if (firstArrivalNanos == 0) {
+            firstArrivalNanos = nowNanos;
+        }
+        lastArrivalNanos = nowNanos;
+        arrivals++;
+    }
+
+    /**
+     * Registra un bloque recibido, decodificado y entregado a la cola de reproducción
+     * @return true si el procesamiento superó el presupuesto del bloque
+     */
+    public boolean record(long receiveNanos, long decodeNanos, long enqueueNanos) {
+        long processNanos = decodeNanos + enqueueNanos;
+
+        lastReceiveNanos = receiveNanos;
+        lastDecodeNanos = decodeNanos;
+        lastEnqueueNanos = enqueueNanos;
+        lastProcessNanos = processNanos;
+        totalReceiveNanos += receiveNanos;
+        totalDecodeNanos += decodeNanos;
+        if (decodeNanos > maxDecodeNanos) {
+            maxDecodeNanos = decodeNanos;
+        }
+        if (processNanos > maxProcessNanos) {
+            maxProcessNanos = processNanos;
+        }
+        blocks++;
+
+        if (blockBudgetNanos > 0 && processNanos > blockBudgetNanos) {
+            deadlineMisses++;
+            consecutiveMisses++;
+            missesSinceEvent++;
+            if (processNanos > worstSinceEventNanos) {
+                worstSinceEventNanos = processNanos;
+            }
+            return true;
+        }
+        consecutiveMisses = 0;
+        return false;
+    }
+
+    /**
+     * Registra una escritura en la línea de audio (thread de reproducción)
+     */
+    public void recordWrite(long writeNanos) {
+        lastWriteNanos = writeNanos;
+        totalWriteNanos += writeNanos;
+        if (writeNanos > maxWriteNanos) {
+            maxWriteNanos = writeNanos;
+        }
+        writes++;
+    }
+
+    /**
+     * Bloques que deberían haber llegado según el tiempo transcurrido y no llegaron
+     * (pérdida en la red, independiente de los descartes por contrapresión de la línea)
+     */
+    public long getEstimatedLostBlocks() {
+        long budget = blockBudgetNanos;
+        long count = arrivals;
+        if (budget <= 0 || count == 0) {
+            return 0;
+        }
+        long expected = (lastArrivalNanos - firstArrivalNanos) / budget + 1;
+        return Math.max(0, expected - count);
+    }
+
+    /**
+     * Indica si corresponde emitir un evento (hay fallos pendientes y pasó el intervalo mínimo)
+     * Si devuelve true, el llamador debe leer los pendientes y llamar a {@link #markEventSent}
+     */
+    public boolean shouldReport(long nowNanos, long intervalNanos) {
+        return missesSinceEvent > 0 && (lastEventNanos == 0 || nowNanos - lastEventNanos >= intervalNanos);
+    }
+
+    public void markEventSent(long nowNanos) {
+        lastEventNanos = nowNanos;
+        missesSinceEvent = 0;
+        worstSinceEventNanos = 0;
+    }
+
+    public long getMissesSinceEvent() {
+        return missesSinceEvent;
+    }
+
+    public long getWorstSinceEventNanos() {
+        return worstSinceEventNanos;
+    }
+
+    public long getBlockBudgetNanos() {
+        return blockBudgetNanos;
+    }
+
+    public long getBlocks() {
+        return blocks;
+    }
+
+    public long getDeadlineMisses() {
+        return deadlineMisses;
+    }
+
+    public long getConsecutiveMisses() {
+        return consecutiveMisses;
+    }
+
+    public long getLastReceiveNanos() {
+        return lastReceiveNanos;
+    }
+
+    public long getLastDecodeNanos() {
+        return lastDecodeNanos;
+    }
+
+    public long getLastEnqueueNanos() {
+        return lastEnqueueNanos;
+    }
+
+    public long getWrites() {
+        return writes;
+    }
+
+    public long getArrivals() {
+        return arrivals;
+    }
+
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    public long getLastProcessNanos() {
+        return lastProcessNanos;
+    }
+
+    public long getMaxDecodeNanos() {
+        return maxDecodeNanos;
+    }
+
+    public long getMaxWriteNanos() {
+        return maxWriteNanos;
+    }
+
+    public long getMaxProcessNanos() {
+        return maxProcessNanos;
+    }
+
+    public long getAvgReceiveNanos() {
+        long count = blocks;
+        return count > 0 ? totalReceiveNanos / count : 0;
+    }
+
+    public long getAvgDecodeNanos() {
+        long count = blocks;
+        return count > 0 ? totalDecodeNanos / count : 0;
+    }
+
+    public long getAvgWriteNanos() {
+        long count = writes;
+        return count > 0 ? totalWriteNanos / count : 0;
+    }
+
+    /**
+     * Porcentaje de bloques que superaron el presupuesto
+     */
+    public double getMissRatePercent() {
+        long count = blocks;
+        return count > 0 ? deadlineMisses * 100.0 / count : 0;
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.DanteClient.thread.model;
+
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Acumulador de eventos para el modo de envío agrupado por tick
+ * Los broadcasts se guardan en lugar de enviarse; en cada tick {@link #flush} arma un único frame
+ * {"type":"batch","events":[...]} por sesión con todo lo que le corresponde según sus suscripciones.
+ * Las sesiones que reciben exactamente los mismos eventos comparten el frame (se serializa una vez).
+ * Un evento con clave de agrupación (volumen, estado de thread, aviso de plazo) sustituye al pendiente
+ * del mismo canal: dentro de un tick sólo cuenta el último valor.
+ */
+public class EventBatcher {
+
+    private record Pending(WebSocketEvents.Event event, EventTopic topic, int channelId, Collection<Integer> channelIds) {
+    }
+
+    /**
+     * Frame de un tick y sesiones que lo reciben
+     */
+    public record Frame(TextMessage message, List<WebSocketSession> sessions) {
+    }
+
+    // Orden de llegada; las claves de agrupación reemplazan y pasan al final, el resto usa una clave única
+    private LinkedHashMap<Object, Pending> pending = new LinkedHashMap<>();
+    private long sequence;
+
+    private final AtomicLong eventsQueued = new AtomicLong();
+    private final AtomicLong eventsCoalesced = new AtomicLong();
+    private final AtomicLong ticksWithEvents = new AtomicLong();
+    private final AtomicLong framesBuilt = new AtomicLong();
+
+    /**
+     * Guarda un evento hasta el próximo tick
+     * @param coalesceKey clave de agrupación (null = se conservan todos)
+     * @param topic tema para el enrutado por suscripción (null = todas las sesiones)
+     */
+    public synchronized void add(WebSocketEvents.Event event, String coalesceKey, EventTopic topic, int channelId) {
+        Object key = coalesceKey != null ? coalesceKey : ++sequence;
+        if (pending.remove(key) != null) {
+            eventsCoalesced.incrementAndGet();
+        }
+        pending.put(key, new Pending(event, topic, channelId, null));
+        eventsQueued.incrementAndGet();
+    }
+
+    /**
+     * Guarda un evento que afecta a varios canales (p.ej. lote de volúmenes); no se agrupa
+     */
+    public synchronized void add(WebSocketEvents.Event event, EventTopic topic, Collection<Integer> channelIds) {
+        pending.put(++sequence, new Pending(event, topic, TopicSubscriptions.ALL_CHANNELS, channelIds));
+        eventsQueued.incrementAndGet();
+    }
+
+    /**
+     * Vacía lo acumulado y lo reparte en frames por grupo de sesiones con los mismos eventos
+     * @return frames a encolar (vacío si no hubo eventos en este tick)
+     */
+    public List<Frame> flush(Collection<WebSocketSession> sessions, TopicSubscriptions subscriptions) throws Exception {
+        return flush(sessions, subscriptions, Set.of());
+    }
+
+    /**
+     * Igual que {@link #flush(Collection, TopicSubscriptions)} dejando fuera algunas sesiones
+     * @param excluded sesiones que no reciben frames agrupados (p.ej. las del subprotocolo binario)
+     */
+    public List<Frame> flush(Collection<WebSocketSession> sessions, TopicSubscriptions subscriptions,
+                             Set<WebSocketSession> excluded) throws Exception {
+        List<Pending> events;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return List.of();
+            }
+            events = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+        ticksWithEvents.incrementAndGet();
+        String timestamp = WebSocketEvents.timestamp();
+
+        // Sin sesiones filtradas todas reciben lo mismo: un único frame sin repartir por sesión
+        if (!subscriptions.hasFilteredSessions()) {
+            List<WebSocketEvents.Event> all = new ArrayList<>(events.size());
+            for (Pending item : events) {
+                all.add(item.event());
+            }
+            List<WebSocketSession> targets = new ArrayList<>(sessions.size());
+            for (WebSocketSession session : sessions) {
+                if (!excluded.contains(session)) {
+                    targets.add(session);
+                }
+            }
+            if (targets.isEmpty()) {
+                return List.of();
+            }
+            framesBuilt.incrementAndGet();
+            return List.of(new Frame(WebSocketEvents.encode(new WebSocketEvents.Batch(all, timestamp)), targets));
+        }
+
+        // Cada sesión acumula las posiciones de sus eventos; se agrupa por posiciones (no por contenido)
+        Map<WebSocketSession, List<Integer>> bySession = new IdentityHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            Pending item = events.get(i);
+            Collection<WebSocketSession> targets;
+            if (item.topic() == null) {
+                targets = sessions;
+            } else if (item.channelIds() != null) {
+                targets = subscriptions.recipients(item.topic(), item.channelIds(), sessions.size());
+            } else {
+                targets = subscriptions.recipients(item.topic(), item.channelId(), sessions.size());
+            }
+            for (WebSocketSession session : targets) {
+                if (!excluded.contains(session)) {
+                    bySession.computeIfAbsent(session, s -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        Map<List<Integer>, List<WebSocketSession>> groups = new HashMap<>();
+        bySession.forEach((session, positions) ->
+                groups.computeIfAbsent(positions, p -> new ArrayList<>()).add(session));
+
+        List<Frame> frames = new ArrayList<>(groups.size());
+        for (Map.Entry<List<Integer>, List<WebSocketSession>> group : groups.entrySet()) {
+            List<WebSocketEvents.Event> frameEvents = new ArrayList<>(group.getKey().size());
+            for (int position : group.getKey()) {
+                frameEvents.add(events.get(position).event());
+            }
+            TextMessage message = WebSocketEvents.encode(new WebSocketEvents.Batch(frameEvents, timestamp));
+            frames.add(new Frame(message, group.getValue()));
+        }
+        framesBuilt.addAndGet(frames.size());
+        return frames;
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("eventsQueued", eventsQueued.get());
+        stats.put("eventsCoalesced", eventsCoalesced.get());
+        stats.put("ticksWithEvents", ticksWithEvents.get());
+        stats.put("framesBuilt", framesBuilt.get());
+        stats.put("pending", getPendingCount());
+        return stats;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Tipos de evento a los que un cliente WebSocket puede suscribirse por canal
+ */
+public enum EventTopic {
+
+    /** Inicio, fin, cambios de estado y reinicios programados de threads */
+    STATUS,
+
+    /** Volúmenes (individuales y lotes) y cambios de solo/cue/prioridad */
+    VOLUME,
+
+    /** Medidas de procesamiento del canal (avisos de plazo de bloque superado) */
+    METERS,
+
+    /** Excepciones de threads y canales sin reinicios disponibles */
+    ERRORS;
+
+    /**
+     * Convierte un texto (sin distinguir mayúsculas) en tipo
+     * @return el tipo o null si el texto no es válido
+     */
+    public static EventTopic fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return EventTopic.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.Arrays;
+
+/**
+ * Aplica una ganancia Q15 a bloques de samples con una rampa lineal hacia el objetivo
+ * Los cambios de volumen se reparten en rampSamples samples en vez de saltar de golpe (sin "zipper noise").
+ * La ganancia en curso se guarda en Q15 con 16 bits extra de fracción para que la rampa no acumule error.
+ * Sólo la usa el thread de recepción del canal.
+ */
+public class GainRamp {
+
+    private static final int FRACTION_BITS = 16;
+
+    private final int rampSamples;
+    private long current; // Ganancia actual (Q15 << FRACTION_BITS)
+    private int target;   // Ganancia objetivo (Q15)
+    private long increment;
+    private int remaining;
+
+    public GainRamp(int rampSamples) {
+        this.rampSamples = Math.max(1, rampSamples);
+    }
+
+    /**
+     * Fija el objetivo con la duración de rampa por defecto (no hace nada si ya es el objetivo)
+     */
+    public void setTarget(int targetQ15) {
+        if (targetQ15 != target) {
+            setTarget(targetQ15, rampSamples);
+        }
+    }
+
+    /**
+     * Fija el objetivo y la rampa desde la ganancia actual
+     */
+    public void setTarget(int targetQ15, int samples) {
+        target = targetQ15;
+        remaining = Math.max(1, samples);
+        increment = (((long) targetQ15 << FRACTION_BITS) - current) / remaining;
+    }
+
+    /**
+     * Salta a una ganancia sin rampa (p.ej. 0 antes de un fundido de entrada)
+     */
+    public void reset(int gainQ15) {
+        current = (long) gainQ15 << FRACTION_BITS;
+        target = gainQ15;
+        increment = 0;
+        remaining = 0;
+    }
+
+    /**
+     * Aplica la ganancia a los samples (in situ) avanzando la rampa
+     */
+    public void apply(short[] samples, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        // Tramo de rampa
+        while (remaining > 0 && i < end) {
+            current += increment;
+            samples[i] = (short) ((samples[i] * (int) (current >> FRACTION_BITS)) >> 15);
+            remaining--;
+            i++;
+        }
+        if (remaining == 0) {
+            current = (long) target << FRACTION_BITS; // Sin error residual al llegar
+        }
+        if (i == end) {
+            return;
+        }
+
+        // Tramo constante
+        int gain = target;
+        if (gain == GainTable.UNITY_Q15) {
+            return;
+        }
+        if (gain == 0) {
+            Arrays.fill(samples, i, end, (short) 0);
+            return;
+        }
+        for (; i < end; i++) {
+            samples[i] = (short) ((samples[i] * gain) >> 15);
+        }
+    }
+
+    public int getCurrentQ15() {
+        return (int) (current >> FRACTION_BITS);
+    }
+
+    public int getTargetQ15() {
+        return target;
+    }
+
+    public boolean isRamping() {
+        return remaining > 0;
+    }
+
+    public int getRampSamples() {
+        return rampSamples;
+    }
+}
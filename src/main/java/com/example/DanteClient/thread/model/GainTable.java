@@ -0,0 +1,42 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Tabla precalculada de ganancias en coma fija Q15 (32768 = 0 dB) para los volúmenes 0-100
+ * Curva perceptual en dB: 100 = 0 dB, 1 = casi -60 dB, 0 = silencio
+ */
+public final class GainTable {
+
+    public static final int UNITY_Q15 = 1 << 15;
+    public static final double RANGE_DB = 60.0;
+
+    private static final int[] GAINS_Q15 = new int[101];
+
+    static {
+        GAINS_Q15[0] = 0;
+        for (int volume = 1; volume <= 100; volume++) {
+            double db = RANGE_DB * (volume - 100) / 100.0;
+            GAINS_Q15[volume] = (int) Math.round(Math.pow(10.0, db / 20.0) * UNITY_Q15);
+        }
+    }
+
+    private GainTable() {
+    }
+
+    /**
+     * Ganancia Q15 para un volumen 0-100 (fuera de rango se recorta)
+     */
+    public static int gainQ15(int volume) {
+        if (volume <= 0) {
+            return 0;
+        }
+        return volume >= 100 ? UNITY_Q15 : GAINS_Q15[volume];
+    }
+
+    /**
+     * Ganancia de un volumen en dB (para mostrar; -Infinity en 0)
+     */
+    public static double gainDb(int volume) {
+        int gain = gainQ15(volume);
+        return gain == 0 ? Double.NEGATIVE_INFINITY : 20.0 * Math.log10((double) gain / UNITY_Q15);
+    }
+}
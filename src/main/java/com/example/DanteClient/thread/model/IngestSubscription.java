@@ -0,0 +1,235 @@
+package com.example.DanteClient.thread.model;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Suscripción multicast reutilizable (socket abierto y unido al grupo)
+ * Se mantiene en el pool para que iniciar un canal no tenga que hacer joinGroup.
+ * La recepción espera en intervalos cortos para que detener el canal no dependa del timeout configurado,
+ * y mientras está en el pool el buffer de recepción se reduce para no acumular el flujo multicast.
+ */
+public class IngestSubscription {
+
+    public static final String NETWORK_DEFAULT = "default";
+
+    // Máximo de datagramas antiguos que se descartan al reutilizar la suscripción
+    private static final int MAX_DRAIN_PACKETS = 4096;
+
+    // Espera máxima de cada intento de recepción (cada cuánto se comprueba si el canal se detuvo)
+    public static final int RECEIVE_POLL_MS = 50;
+
+    // Buffer de recepción mientras la suscripción espera en el pool
+    private static final int IDLE_RECEIVE_BUFFER_BYTES = 4096;
+
+    private final String key;
+    private final String network;
+    private final String multicastAddress;
+    private final int port;
+    private final InetAddress group;
+    private final MulticastSocket socket;
+    private volatile int timeoutMs;
+    private final int activeReceiveBuffer; // Buffer de recepción con el canal activo (el del sistema)
+
+    private IngestSubscription(String key, String network, String multicastAddress, int port, InetAddress group,
+                               MulticastSocket socket, int timeoutMs) throws IOException {
+        this.key = key;
+        this.network = network;
+        this.multicastAddress = multicastAddress;
+        this.port = port;
+        this.group = group;
+        this.socket = socket;
+        this.timeoutMs = timeoutMs;
+        this.activeReceiveBuffer = socket.getReceiveBufferSize();
+    }
+
+    /**
+     * Clave que identifica suscripciones intercambiables entre canales
+     */
+    public static String keyOf(String network, String multicastAddress, int port) {
+        return network + "|" + multicastAddress + ":" + port;
+    }
+
+    /**
+     * Abre el socket multicast y se une al grupo
+     * En modo "default" usa la interfaz del sistema; en otro modo busca una interfaz activa (prefiere wifi)
+     */
+    public static IngestSubscription open(String network, String multicastAddress, int port, int timeoutMs) throws IOException {
+        MulticastSocket socket;
+        InetAddress group = InetAddress.getByName(multicastAddress);
+
+        if (NETWORK_DEFAULT.equals(network)) {
+            socket = new MulticastSocket(port);
+            socket.joinGroup(group);
+        } else {
+            NetworkInterface nif = findPreferredInterface();
+            if (nif == null) {
+                throw new IOException("No se encontró una interfaz de red activa para multicast");
+            }
+            socket = new MulticastSocket(port);
+            socket.joinGroup(new InetSocketAddress(multicastAddress, port), nif);
+        }
+        socket.setSoTimeout(pollTimeout(timeoutMs));
+
+        return new IngestSubscription(keyOf(network, multicastAddress, port), network, multicastAddress, port, group, socket, timeoutMs);
+    }
+
+    /**
+     * Busca una interfaz activa (prefiere wifi, si no la primera activa)
+     */
+    private static NetworkInterface findPreferredInterface() {
+        NetworkInterface nif = null;
+        try {
+            for (NetworkInterface ni : java.util.Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (ni.isUp() && !ni.isLoopback() && !ni.isVirtual()) {
+                    // Preferir wifi si existe
+                    if (ni.getName().startsWith("wlan") || ni.getName().startsWith("wifi")) {
+                        return ni;
+                    }
+                    // Si no hay wifi, tomar la primera activa
+                    if (nif == null) {
+                        nif = ni;
+                    }
+                }
+            }
+        } catch (Exception e) {
+            System.out.println("No se pudo obtener la interfaz de red preferida: " + e.getMessage());
+        }
+        return nif;
+    }
+
+    /**
+     * Recibe el siguiente datagrama mientras {@code running} siga activo
+     * @return false si el canal se detuvo antes de llegar un datagrama
+     * @throws SocketTimeoutException si no llega nada en el timeout configurado
+     */
+    public boolean receive(DatagramPacket packet, AtomicBoolean running) throws IOException {
+        long waitedMs = 0;
+        while (running.get()) {
+            try {
+                socket.receive(packet);
+                return true;
+            } catch (SocketTimeoutException e) {
+                waitedMs += RECEIVE_POLL_MS;
+                if (timeoutMs > 0 && waitedMs >= timeoutMs) {
+                    throw e;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Al volver al pool: buffer de recepción mínimo, así el socket no acumula el flujo mientras espera
+     * (con otros canales activos el sistema le sigue entregando los datagramas del grupo)
+     */
+    public void idle() {
+        try {
+            socket.setReceiveBufferSize(IDLE_RECEIVE_BUFFER_BYTES);
+        } catch (IOException e) {
+            System.out.println("Error al reducir buffer de suscripción multicast: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Al salir del pool: descarta lo acumulado y restaura el buffer y el timeout
+     * @return datagramas descartados
+     */
+    public int activate(byte[] scratch, int timeoutMs) {
+        int drained = drain(scratch);
+        try {
+            socket.setReceiveBufferSize(activeReceiveBuffer);
+            setTimeoutMs(timeoutMs);
+        } catch (IOException e) {
+            System.out.println("Error al reactivar suscripción multicast: " + e.getMessage());
+        }
+        return drained;
+    }
+
+    /**
+     * Descarta los datagramas acumulados mientras la suscripción estaba en el pool
+     * para no reproducir audio atrasado al reutilizarla
+     */
+    public int drain(byte[] scratch) {
+        int drained = 0;
+        try {
+            socket.setSoTimeout(1);
+            DatagramPacket packet = new DatagramPacket(scratch, scratch.length);
+            while (drained < MAX_DRAIN_PACKETS) {
+                socket.receive(packet);
+                drained++;
+            }
+        } catch (SocketTimeoutException e) {
+            // No quedan datagramas pendientes
+        } catch (IOException e) {
+            System.out.println("Error al vaciar suscripción multicast: " + e.getMessage());
+        } finally {
+            try {
+                socket.setSoTimeout(pollTimeout(timeoutMs));
+            } catch (IOException e) {
+                System.out.println("Error al restaurar timeout del socket: " + e.getMessage());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Cambia el timeout de recepción sin reabrir el socket
+     */
+    public void setTimeoutMs(int timeoutMs) throws IOException {
+        this.timeoutMs = timeoutMs;
+        socket.setSoTimeout(pollTimeout(timeoutMs));
+    }
+
+    /**
+     * Timeout de cada intento de recepción: el intervalo de sondeo, o menos si el configurado es menor
+     */
+    private static int pollTimeout(int timeoutMs) {
+        return timeoutMs > 0 ? Math.min(timeoutMs, RECEIVE_POLL_MS) : RECEIVE_POLL_MS;
+    }
+
+    public boolean isOpen() {
+        return !socket.isClosed();
+    }
+
+    public void close() {
+        try {
+            if (!socket.isClosed()) {
+                socket.leaveGroup(group);
+            }
+        } catch (Exception e) {
+            // El socket puede haberse cerrado o no estar unido al grupo
+        }
+        socket.close();
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getNetwork() {
+        return network;
+    }
+
+    public String getMulticastAddress() {
+        return multicastAddress;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public InetAddress getGroup() {
+        return group;
+    }
+
+    public MulticastSocket getSocket() {
+        return socket;
+    }
+}
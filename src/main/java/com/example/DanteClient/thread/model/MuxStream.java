@@ -0,0 +1,41 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Flujos lógicos del endpoint multiplexado /ws
+ */
+public enum MuxStream {
+
+    /** Comandos y eventos de volumen, mezcla, escenas y automatización (lo que antes iba por /ws/volume) */
+    CONTROL,
+
+    /** Inicio, fin, estado y errores de threads (lo que antes iba por /ws/thread) */
+    THREADS,
+
+    /** Medidas de procesamiento por canal (avisos de plazo de bloque) */
+    METERS,
+
+    /** Escucha previa de audio: reservado, el bus de cue todavía no emite audio por WebSocket */
+    PREVIEW;
+
+    /**
+     * Nombre del flujo en el sobre {"stream":"...","data":...}
+     */
+    public String id() {
+        return name().toLowerCase();
+    }
+
+    /**
+     * Convierte un texto (sin distinguir mayúsculas) en flujo
+     * @return el flujo o null si el texto no es válido
+     */
+    public static MuxStream fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return MuxStream.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Qué hacer cuando la cola entre recepción y reproducción de un canal está llena
+ */
+public enum OverflowPolicy {
+
+    /** Descartar el bloque más antiguo de la cola (prioriza latencia baja) */
+    DROP_OLDEST,
+
+    /** Descartar el bloque recién recibido (conserva la continuidad de lo ya encolado) */
+    DROP_NEWEST,
+
+    /** Fusionar los dos bloques más antiguos en uno (1 de cada 2 frames): acelera en vez de cortar */
+    TIME_COMPRESS;
+
+    /**
+     * Convierte un texto (sin distinguir mayúsculas, admite guiones) en política
+     * @return la política o null si el texto no es válido
+     */
+    public static OverflowPolicy fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return OverflowPolicy.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.DanteClient.thread.model;
+
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Vigila el llenado de la línea de audio en cada bloque de la reproducción de un canal
+ * Cuenta underruns (la línea se quedó sin audio) y overruns (la línea está llena y la escritura
+ * bloquearía) y ajusta el llenado objetivo entre un mínimo y un máximo de bloques:
+ * sube tras un underrun y baja tras un periodo estable. El objetivo decide cuánto silencio se
+ * prebufferiza al empezar una línea o tras un underrun y la latencia que se informa; por encima de él
+ * la latencia se corrige poco a poco acortando bloques, y sólo se descartan bloques enteros cuando la
+ * línea supera el máximo (acotado por el tamaño de su buffer). Sólo escribe el thread de reproducción.
+ */
+public class PlayoutMonitor {
+
+    // Cada cuántos frames se fusiona un par al corregir latencia (~3% más rápido, inaudible)
+    private static final int CORRECTION_STRIDE = 32;
+
+    private final int minFillBlocks;
+    private final int maxFillBlocks;
+    private final long stableBlocksToShrink;
+
+    private volatile int targetFillBlocks;
+    private volatile int ceilingFillBlocks; // Máximo efectivo: max-fill-blocks o lo que quepa en el buffer de la línea
+    private volatile long underruns;
+    private volatile long overruns;
+    private volatile long trimmedBlocks; // Bloques descartados por superar el máximo
+    private volatile long correctedBlocks; // Bloques acortados para bajar hacia el objetivo
+    private volatile int fillBytes;
+    private volatile int bufferBytes;
+    private volatile int blockBytes;
+    private volatile long framePosition;
+    private volatile long framesWritten;
+
+    private AudioSink lastSink;
+    private boolean primed; // Ya se escribió audio en la línea actual
+    private boolean prebuffer = true; // Rellenar con silencio hasta el objetivo antes del siguiente bloque
+    private int prebufferBytes;
+    private long blocksSinceUnderrun;
+
+    public PlayoutMonitor(int minFillBlocks, int maxFillBlocks, long stableBlocksToShrink) {
+        this.minFillBlocks = Math.max(1, minFillBlocks);
+        this.maxFillBlocks = Math.max(this.minFillBlocks, maxFillBlocks);
+        this.stableBlocksToShrink = stableBlocksToShrink;
+        this.targetFillBlocks = this.minFillBlocks;
+        this.ceilingFillBlocks = this.maxFillBlocks;
+    }
+
+    /**
+     * Muestrea la línea antes de escribir un bloque y, si va sobrada, lo acorta en el sitio
+     * @return bytes de {@code audio} a escribir (0 si el bloque debe descartarse porque la línea supera el máximo)
+     */
+    public int beforeWrite(AudioSink sink, byte[] audio, int length) {
+        if (sink != lastSink) {
+            // Línea nueva (inicio o conmutación): empieza vacía sin que sea un underrun
+            lastSink = sink;
+            primed = false;
+            prebuffer = true;
+            framesWritten = 0;
+        }
+
+        int available = sink.available();
+        int buffer = sink.getBufferSize();
+        int fill = buffer - available;
+        bufferBytes = buffer;
+        blockBytes = length;
+        fillBytes = fill;
+        framePosition = sink.getLongFramePosition();
+        prebufferBytes = 0;
+        if (length <= 0) {
+            return length;
+        }
+
+        // El máximo nunca pasa de lo que cabe en el buffer de la línea dejando sitio para un bloque
+        int ceiling = Math.max(1, Math.min(maxFillBlocks, buffer / length - 1));
+        ceilingFillBlocks = ceiling;
+        if (targetFillBlocks > ceiling) {
+            targetFillBlocks = Math.max(1, ceiling);
+        }
+
+        if (primed && fill <= 0) {
+            underruns++;
+            blocksSinceUnderrun = 0;
+            prebuffer = true;
+            if (targetFillBlocks < ceiling) {
+                targetFillBlocks++;
+            }
+        } else if (++blocksSinceUnderrun >= stableBlocksToShrink && targetFillBlocks > minFillBlocks) {
+            blocksSinceUnderrun = 0;
+            targetFillBlocks--;
+        }
+
+        if (available < length) {
+            overruns++;
+        }
+
+        if (prebuffer) {
+            // Silencio para que el bloque quede en el objetivo: absorbe el jitter sin otro underrun
+            prebuffer = false;
+            int frameSize = sink.getFormat().getFrameSize();
+            int silence = Math.min((targetFillBlocks - 1) * length - fill, available - length);
+            prebufferBytes = Math.max(0, silence - silence % frameSize);
+            return length;
+        }
+
+        // Por encima del máximo el audio sólo acumula latencia que el acortado no alcanza: se descarta el bloque
+        if (primed && fill > (long) ceiling * length) {
+            trimmedBlocks++;
+            return 0;
+        }
+        // Entre el objetivo (con un bloque de margen) y el máximo se corrige gradualmente
+        if (primed && fill > (long) (targetFillBlocks + 1) * length) {
+            int shortened = shorten(sink.getFormat(), audio, length);
+            if (shortened < length) {
+                correctedBlocks++;
+            }
+            return shortened;
+        }
+        return length;
+    }
+
+    /**
+     * Bytes de silencio a escribir antes del bloque aceptado por el último {@link #beforeWrite}
+     */
+    public int getPrebufferBytes() {
+        return prebufferBytes;
+    }
+
+    /**
+     * Fusiona en su media un par de frames adyacentes cada {@link #CORRECTION_STRIDE} frames
+     * (sólo PCM de 16 bits; otros formatos se escriben tal cual)
+     * @return nueva longitud del bloque en bytes
+     */
+    private static int shorten(AudioFormat format, byte[] audio, int length) {
+        int frameSize = format.getFrameSize();
+        if (format.getSampleSizeInBits() != 16 || frameSize <= 0) {
+            return length;
+        }
+        boolean bigEndian = format.isBigEndian();
+        int frames = length / frameSize;
+        int out = 0;
+        for (int frame = 0; frame < frames; frame++) {
+            int from = frame * frameSize;
+            if (frame % CORRECTION_STRIDE == CORRECTION_STRIDE - 2 && frame + 1 < frames) {
+                for (int sample = 0; sample < frameSize; sample += 2) {
+                    int mean = (readSample(audio, from + sample, bigEndian)
+                            + readSample(audio, from + frameSize + sample, bigEndian)) >> 1;
+                    writeSample(audio, out + sample, mean, bigEndian);
+                }
+                frame++;
+            } else if (out != from) {
+                System.arraycopy(audio, from, audio, out, frameSize);
+            }
+            out += frameSize;
+        }
+        return out;
+    }
+
+    private static int readSample(byte[] audio, int offset, boolean bigEndian) {
+        return bigEndian
+                ? (audio[offset] << 8) | (audio[offset + 1] & 0xFF)
+                : (audio[offset + 1] << 8) | (audio[offset] & 0xFF);
+    }
+
+    private static void writeSample(byte[] audio, int offset, int value, boolean bigEndian) {
+        audio[offset + (bigEndian ? 0 : 1)] = (byte) (value >> 8);
+        audio[offset + (bigEndian ? 1 : 0)] = (byte) value;
+    }
+
+    /**
+     * Registra que el bloque se escribió en la línea
+     */
+    public void afterWrite(int frames) {
+        primed = true;
+        framesWritten += frames;
+    }
+
+    /**
+     * Llenado actual de la línea en bloques (aproximado)
+     */
+    public double getFillBlocks() {
+        int block = blockBytes;
+        return block > 0 ? (double) fillBytes / block : 0;
+    }
+
+    public double getFillPercent() {
+        int buffer = bufferBytes;
+        return buffer > 0 ? fillBytes * 100.0 / buffer : 0;
+    }
+
+    public int getTargetFillBlocks() {
+        return targetFillBlocks;
+    }
+
+    public int getMinFillBlocks() {
+        return minFillBlocks;
+    }
+
+    public int getMaxFillBlocks() {
+        return maxFillBlocks;
+    }
+
+    /**
+     * Máximo efectivo en bloques tras acotarlo al buffer de la línea
+     */
+    public int getCeilingFillBlocks() {
+        return ceilingFillBlocks;
+    }
+
+    public long getUnderruns() {
+        return underruns;
+    }
+
+    public long getOverruns() {
+        return overruns;
+    }
+
+    public long getTrimmedBlocks() {
+        return trimmedBlocks;
+    }
+
+    public long getCorrectedBlocks() {
+        return correctedBlocks;
+    }
+
+    public int getFillBytes() {
+        return fillBytes;
+    }
+
+    public int getBufferBytes() {
+        return bufferBytes;
+    }
+
+    public long getFramePosition() {
+        return framePosition;
+    }
+
+    public long getFramesWritten() {
+        return framesWritten;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Política de reinicio automático de un canal supervisado
+ */
+public enum RestartPolicy {
+
+    /** Nunca reiniciar: el canal queda detenido tras terminar o fallar */
+    NEVER,
+
+    /** Reiniciar sólo si el thread terminó con una excepción */
+    ON_FAILURE,
+
+    /** Reiniciar siempre que el thread termine mientras el estado deseado sea RUNNING */
+    ALWAYS;
+
+    /**
+     * Convierte un texto (sin distinguir mayúsculas, admite guiones) en política
+     * @return la política o null si el texto no es válido
+     */
+    public static RestartPolicy fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return RestartPolicy.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escena: estado de mezcla de todos los canales (volumen, mute, solo) guardado con un nombre
+ * Se persiste en un archivo propio, separado de config_dante.json
+ */
+public class Scene {
+
+    private String name;
+    private String description;
+    private String createdAt;
+    private String updatedAt;
+    private List<ChannelState> channels = new ArrayList<>();
+
+    public Scene() {
+    }
+
+    public Scene(String name, String description) {
+        this.name = name;
+        this.description = description;
+        this.createdAt = java.time.LocalDateTime.now().toString();
+        this.updatedAt = createdAt;
+    }
+
+    /**
+     * Estado de un canal dentro de la escena
+     */
+    public static class ChannelState {
+        private int channelId;
+        private int volume;
+        private boolean muted;
+        private boolean solo;
+
+        public ChannelState() {
+        }
+
+        public ChannelState(int channelId, int volume, boolean muted, boolean solo) {
+            this.channelId = channelId;
+            this.volume = volume;
+            this.muted = muted;
+            this.solo = solo;
+        }
+
+        public int getChannelId() {
+            return channelId;
+        }
+
+        public void setChannelId(int channelId) {
+            this.channelId = channelId;
+        }
+
+        public int getVolume() {
+            return volume;
+        }
+
+        public void setVolume(int volume) {
+            this.volume = volume;
+        }
+
+        public boolean isMuted() {
+            return muted;
+        }
+
+        public void setMuted(boolean muted) {
+            this.muted = muted;
+        }
+
+        public boolean isSolo() {
+            return solo;
+        }
+
+        public void setSolo(boolean solo) {
+            this.solo = solo;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(String updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public List<ChannelState> getChannels() {
+        return channels;
+    }
+
+    public void setChannels(List<ChannelState> channels) {
+        this.channels = channels;
+    }
+}
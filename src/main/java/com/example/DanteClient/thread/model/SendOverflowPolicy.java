@@ -0,0 +1,31 @@
+package com.example.DanteClient.thread.model;
+
+/**
+ * Qué hacer cuando la cola de salida de una sesión WebSocket está llena (cliente lento)
+ */
+public enum SendOverflowPolicy {
+
+    /** Descartar el mensaje más antiguo de la cola */
+    DROP_OLDEST,
+
+    /** Un mensaje con clave reemplaza al pendiente con la misma clave; si no hay ninguno, se descarta el más antiguo */
+    COALESCE,
+
+    /** Cerrar la sesión: el cliente tendrá que reconectar y pedir el estado completo */
+    DISCONNECT;
+
+    /**
+     * Convierte un texto (sin distinguir mayúsculas, admite guiones) en política
+     * @return la política o null si el texto no es válido
+     */
+    public static SendOverflowPolicy fromString(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return SendOverflowPolicy.valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
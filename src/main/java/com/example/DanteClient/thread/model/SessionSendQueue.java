@@ -0,0 +1,189 @@
+package com.example.DanteClient.thread.model;
+
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cola de salida acotada de una sesión WebSocket
+ * Quien difunde sólo encola (nunca escribe en el socket); un único drenaje a la vez envía los mensajes
+ * en orden, así una pestaña lenta retrasa su propia cola y no al hilo que generó el mensaje.
+ * Con COALESCE, un mensaje con clave (p.ej. "volume:3") sustituye en su sitio al pendiente con la misma clave.
+ */
+public class SessionSendQueue {
+
+    /**
+     * Resultado de encolar un mensaje
+     */
+    public enum OfferResult {
+        QUEUED,
+        COALESCED,
+        DROPPED_OLDEST,
+        OVERFLOW, // Cola llena con política DISCONNECT
+        CLOSED
+    }
+
+    private static final class Entry {
+        final String key;
+        WebSocketMessage<?> message;
+
+        Entry(String key, WebSocketMessage<?> message) {
+            this.key = key;
+            this.message = message;
+        }
+    }
+
+    private final WebSocketSession session;
+    private final String endpoint;
+    private final int capacity;
+    private final SendOverflowPolicy policy;
+    private final ArrayDeque<Entry> queue;
+    private final Map<String, Entry> pendingByKey = new HashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    private boolean closed;
+
+    // Métricas (bajo el lock de la cola)
+    private long enqueued;
+    private long sent;
+    private long coalesced;
+    private long dropped;
+    private long sentBytes;
+    private int maxDepth;
+    private long lastSendMicros;
+
+    public SessionSendQueue(WebSocketSession session, String endpoint, int capacity, SendOverflowPolicy policy) {
+        this.session = session;
+        this.endpoint = endpoint;
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        this.queue = new ArrayDeque<>(this.capacity);
+    }
+
+    /**
+     * Encola un mensaje; nunca bloquea ni hace E/S
+     * @param key clave de agrupación (null = no se agrupa)
+     */
+    public synchronized OfferResult offer(WebSocketMessage<?> message, String key) {
+        if (closed) {
+            return OfferResult.CLOSED;
+        }
+        enqueued++;
+        if (key != null && policy == SendOverflowPolicy.COALESCE) {
+            Entry pending = pendingByKey.get(key);
+            if (pending != null) {
+                pending.message = message; // El último gana y conserva el turno del anterior
+                coalesced++;
+                return OfferResult.COALESCED;
+            }
+        }
+        OfferResult result = OfferResult.QUEUED;
+        if (queue.size() >= capacity) {
+            if (policy == SendOverflowPolicy.DISCONNECT) {
+                dropped++;
+                return OfferResult.OVERFLOW;
+            }
+            removeHead();
+            dropped++;
+            result = OfferResult.DROPPED_OLDEST;
+        }
+        Entry entry = new Entry(key, message);
+        queue.addLast(entry);
+        if (key != null) {
+            pendingByKey.put(key, entry);
+        }
+        maxDepth = Math.max(maxDepth, queue.size());
+        return result;
+    }
+
+    /**
+     * Siguiente mensaje a enviar (null si la cola está vacía)
+     */
+    public synchronized WebSocketMessage<?> poll() {
+        Entry entry = removeHead();
+        return entry != null ? entry.message : null;
+    }
+
+    /**
+     * Intenta tomar el drenaje de la cola (sólo un hilo envía a la vez por sesión)
+     */
+    public boolean tryStartDrain() {
+        return draining.compareAndSet(false, true);
+    }
+
+    /**
+     * Suelta el drenaje; si llegó algo mientras tanto lo vuelve a tomar para no perder el aviso
+     * @return true si el llamador debe seguir drenando
+     */
+    public boolean finishDrain() {
+        draining.set(false);
+        return !isEmpty() && draining.compareAndSet(false, true);
+    }
+
+    public synchronized void recordSent(int bytes, long micros) {
+        sent++;
+        sentBytes += bytes;
+        lastSendMicros = micros;
+    }
+
+    /**
+     * Cierra la cola y descarta lo pendiente
+     */
+    public synchronized void close() {
+        closed = true;
+        queue.clear();
+        pendingByKey.clear();
+    }
+
+    public synchronized boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    public synchronized int depth() {
+        return queue.size();
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized long getCoalesced() {
+        return coalesced;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessionId", session.getId());
+        stats.put("endpoint", endpoint);
+        stats.put("policy", policy.name());
+        stats.put("capacity", capacity);
+        stats.put("depth", queue.size());
+        stats.put("maxDepth", maxDepth);
+        stats.put("enqueued", enqueued);
+        stats.put("sent", sent);
+        stats.put("sentBytes", sentBytes);
+        stats.put("coalesced", coalesced);
+        stats.put("dropped", dropped);
+        stats.put("lastSendMicros", lastSendMicros);
+        return stats;
+    }
+
+    private Entry removeHead() {
+        Entry entry = queue.pollFirst();
+        if (entry != null && entry.key != null && pendingByKey.get(entry.key) == entry) {
+            pendingByKey.remove(entry.key);
+        }
+        return entry;
+    }
+}
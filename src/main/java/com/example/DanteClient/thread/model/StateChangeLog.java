@@ -0,0 +1,67 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro acotado de cambios de estado con versión monótona
+ * Cada cambio recibe la versión siguiente; se guardan los últimos {@code capacity} y los más antiguos se
+ * sobrescriben. Un cliente que conoce la versión N pide {@link #since(long)} y recibe sólo lo posterior,
+ * salvo que N ya haya salido del registro (entonces necesita una instantánea completa).
+ */
+public class StateChangeLog {
+
+    public record Change(long version, ChannelSyncState state) {
+    }
+
+    private final Change[] ring;
+    private long version;
+    private int count;
+
+    public StateChangeLog(int capacity) {
+        this.ring = new Change[Math.max(1, capacity)];
+    }
+
+    /**
+     * Añade un cambio
+     * @return versión asignada
+     */
+    public synchronized long append(ChannelSyncState state) {
+        version++;
+        ring[(int) (version % ring.length)] = new Change(version, state);
+        if (count < ring.length) {
+            count++;
+        }
+        return version;
+    }
+
+    /**
+     * Cambios posteriores a {@code fromVersion}, en orden
+     * @return null si el registro ya no contiene todos esos cambios (o la versión es del futuro)
+     */
+    public synchronized List<Change> since(long fromVersion) {
+        if (fromVersion > version || fromVersion < version - count) {
+            return null;
+        }
+        List<Change> changes = new ArrayList<>((int) (version - fromVersion));
+        for (long v = fromVersion + 1; v <= version; v++) {
+            changes.add(ring[(int) (v % ring.length)]);
+        }
+        return changes;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Versión más antigua desde la que todavía se puede reanudar
+     */
+    public synchronized long getOldestResumableVersion() {
+        return version - count;
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+}
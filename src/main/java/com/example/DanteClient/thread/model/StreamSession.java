@@ -0,0 +1,272 @@
+package com.example.DanteClient.thread.model;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Sesión lógica de un flujo del endpoint multiplexado /ws sobre la conexión física del cliente
+ * Los handlers de /ws/volume y /ws/thread la tratan como una sesión más. Lo que envían se envuelve en
+ * {"stream":"...","data":...} y pasa a la única cola de salida de la conexión física, así el cliente
+ * tiene una sola política de contrapresión para todos sus flujos.
+ * Control de flujo por créditos: con crédito limitado cada mensaje consume uno; sin crédito los mensajes
+ * esperan aquí (acotado, agrupando por clave como la cola de salida) hasta que el cliente concede más.
+ */
+public class StreamSession implements WebSocketSession {
+
+    public static final int UNLIMITED = -1;
+
+    /**
+     * Destino de los mensajes ya envueltos (la cola de salida de la conexión física)
+     */
+    @FunctionalInterface
+    public interface Sink {
+        boolean send(WebSocketSession session, WebSocketMessage<?> message, String key);
+    }
+
+    private record Held(WebSocketMessage<?> message, String key) {
+    }
+
+    private final WebSocketSession parent;
+    private final MuxStream stream;
+    private final String id;
+    private final StreamEnvelope envelope;
+    private final Sink sink;
+    private final Consumer<StreamSession> onClose;
+    private final int heldCapacity;
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private volatile boolean open = true;
+    private long credits;
+    private final ArrayDeque<Held> held = new ArrayDeque<>();
+
+    // Métricas (bajo el lock de la sesión)
+    private long sent;
+    private long heldTotal;
+    private long coalesced;
+    private long dropped;
+
+    public StreamSession(WebSocketSession parent, MuxStream stream, StreamEnvelope envelope, Sink sink,
+                         Consumer<StreamSession> onClose, long credits, int heldCapacity) {
+        this.parent = parent;
+        this.stream = stream;
+        this.id = parent.getId() + "/" + stream.id();
+        this.envelope = envelope;
+        this.sink = sink;
+        this.onClose = onClose;
+        this.credits = credits;
+        this.heldCapacity = Math.max(1, heldCapacity);
+    }
+
+    /**
+     * Envía (si hay crédito) o retiene un mensaje del flujo; nunca bloquea
+     * @param key clave de agrupación (null = no se agrupa)
+     * @return false si el flujo o la conexión están cerrados
+     */
+    public synchronized boolean offer(WebSocketMessage<?> message, String key) {
+        if (!isOpen()) {
+            return false;
+        }
+        if (credits != 0 && held.isEmpty()) {
+            return forward(message, key);
+        }
+        if (key != null && held.removeIf(pending -> key.equals(pending.key()))) {
+            coalesced++; // Sólo importa el último valor de la clave
+        } else if (held.size() >= heldCapacity) {
+            held.pollFirst();
+            dropped++;
+        }
+        held.addLast(new Held(message, key));
+        heldTotal++;
+        return true;
+    }
+
+    /**
+     * Concede crédito al flujo y envía lo retenido que quepa
+     * @param amount mensajes adicionales, o {@link #UNLIMITED} para quitar el límite
+     */
+    public synchronized void grant(long amount) {
+        credits = amount == UNLIMITED || credits == UNLIMITED ? UNLIMITED : credits + Math.max(0, amount);
+        while (credits != 0 && !held.isEmpty()) {
+            Held next = held.pollFirst();
+            if (!forward(next.message(), next.key())) {
+                held.clear();
+                return;
+            }
+        }
+    }
+
+    private boolean forward(WebSocketMessage<?> message, String key) {
+        if (!sink.send(parent, envelope.wrap(message), key != null ? stream.id() + ":" + key : null)) {
+            return false;
+        }
+        if (credits > 0) {
+            credits--;
+        }
+        sent++;
+        return true;
+    }
+
+    public MuxStream getStream() {
+        return stream;
+    }
+
+    public WebSocketSession getParent() {
+        return parent;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("stream", stream.id());
+        stats.put("credits", credits == UNLIMITED ? "unlimited" : credits);
+        stats.put("held", held.size());
+        stats.put("sent", sent);
+        stats.put("heldTotal", heldTotal);
+        stats.put("coalesced", coalesced);
+        stats.put("dropped", dropped);
+        return stats;
+    }
+
+    /**
+     * Marca el flujo como cerrado sin avisar (lo usa el endpoint al cerrar la conexión física)
+     */
+    public synchronized void markClosed() {
+        open = false;
+        held.clear();
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public URI getUri() {
+        return parent.getUri();
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders() {
+        return parent.getHandshakeHeaders();
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal() {
+        return parent.getPrincipal();
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress() {
+        return parent.getLocalAddress();
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress() {
+        return parent.getRemoteAddress();
+    }
+
+    /**
+     * Los flujos multiplexados son siempre JSON
+     */
+    @Override
+    public String getAcceptedProtocol() {
+        return null;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit() {
+        return parent.getTextMessageSizeLimit();
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit) {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit() {
+        return parent.getBinaryMessageSizeLimit();
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions() {
+        return parent.getExtensions();
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        offer(message, null);
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open && parent.isOpen();
+    }
+
+    @Override
+    public void close() {
+        close(CloseStatus.NORMAL);
+    }
+
+    /**
+     * Cierra sólo este flujo; la conexión física y los demás flujos siguen abiertos
+     */
+    @Override
+    public void close(CloseStatus status) {
+        if (open) {
+            markClosed();
+            onClose.accept(this);
+        }
+    }
+
+    /**
+     * Sobre {"stream":"...","data":...} de un flujo, compartido por todas las conexiones
+     * Un broadcast entrega el mismo mensaje a muchas sesiones seguidas: se recuerda el último
+     * mensaje envuelto y sólo se vuelve a construir el texto cuando cambia.
+     */
+    public static class StreamEnvelope {
+
+        private record Cached(WebSocketMessage<?> source, WebSocketMessage<?> wrapped) {
+        }
+
+        private final String prefix;
+        private volatile Cached last = new Cached(null, null);
+
+        public StreamEnvelope(MuxStream stream) {
+            this.prefix = "{\"stream\":\"" + stream.id() + "\",\"data\":";
+        }
+
+        public WebSocketMessage<?> wrap(WebSocketMessage<?> message) {
+            Cached cached = last;
+            if (cached.source() == message) {
+                return cached.wrapped();
+            }
+            WebSocketMessage<?> wrapped = message instanceof TextMessage text
+                    ? new TextMessage(prefix + text.getPayload() + "}")
+                    : message; // Sin subprotocolo binario en /ws: no debería llegar aquí
+            last = new Cached(message, wrapped);
+            return wrapped;
+        }
+    }
+}
@@ -19,4 +19,12 @@ public interface ThreadEventListener {
      * Se llama cuando cambia el estado del thread
      */
     void onThreadStatusChanged(int channelId, String channelName, String oldStatus, String newStatus);
+    
+    /**
+     * Se llama (con límite de frecuencia) cuando el procesamiento de bloques supera su duración
+     * @param missesSinceLast fallos desde el último aviso
+     * @param worstNanos peor tiempo de procesamiento desde el último aviso
+     * @param budgetNanos duración de un bloque de audio
+     */
+    void onDeadlineMiss(int channelId, String channelName, long missesSinceLast, long totalMisses, long worstNanos, long budgetNanos);
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Rueda de temporización (hashed timer wheel) para miles de eventos pendientes
+ * Cada ranura cubre tickMs; un evento a más de una vuelta espera en su ranura hasta que llega su tick.
+ * Programar y cancelar es O(1) y cada avance sólo recorre las ranuras vencidas.
+ * No es thread-safe: quien la usa debe serializar el acceso.
+ */
+public class TimerWheel<T> {
+
+    /**
+     * Evento programado (sirve también para cancelarlo)
+     */
+    public static final class Entry<T> {
+        private final T task;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Entry(T task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getTask() {
+            return task;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMs;
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    public TimerWheel(int slotCount, long tickMs, long nowMs) {
+        this.tickMs = Math.max(1, tickMs);
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMs / this.tickMs;
+    }
+
+    /**
+     * Programa un evento para el instante indicado (si ya pasó, vence en el siguiente tick)
+     */
+    public Entry<T> schedule(T task, long deadlineMs) {
+        long tick = Math.max((deadlineMs + tickMs - 1) / tickMs, currentTick + 1);
+        Entry<T> entry = new Entry<>(task, tick);
+        slots.get((int) (tick % slots.size())).add(entry);
+        size++;
+        return entry;
+    }
+
+    /**
+     * Cancela un evento pendiente (se retira de su ranura cuando ésta vence)
+     * @return false si ya se había disparado o cancelado
+     */
+    public boolean cancel(Entry<T> entry) {
+        if (entry == null || entry.cancelled || entry.deadlineTick <= currentTick) {
+            return false;
+        }
+        entry.cancelled = true;
+        size--;
+        return true;
+    }
+
+    /**
+     * Avanza hasta nowMs disparando los eventos vencidos
+     * @return eventos disparados
+     */
+    public int advance(long nowMs, Consumer<T> fire) {
+        long targetTick = nowMs / tickMs;
+        if (targetTick <= currentTick) {
+            return 0;
+        }
+        // Tras un parón largo basta una vuelta completa: cada ranura se revisa contra el tick destino
+        long steps = Math.min(targetTick - currentTick, slots.size());
+        long firstTick = targetTick - steps + 1;
+        List<Entry<T>> due = new ArrayList<>();
+        for (long tick = firstTick; tick <= targetTick; tick++) {
+            Iterator<Entry<T>> iterator = slots.get((int) (tick % slots.size())).iterator();
+            while (iterator.hasNext()) {
+                Entry<T> entry = iterator.next();
+                if (entry.cancelled) {
+                    iterator.remove();
+                } else if (entry.deadlineTick <= targetTick) {
+                    iterator.remove();
+                    due.add(entry);
+                }
+            }
+        }
+        currentTick = targetTick;
+        size -= due.size();
+        // Se disparan al final para que un evento pueda programar otros sin tocar las ranuras en recorrido
+        due.sort((a, b) -> Long.compare(a.deadlineTick, b.deadlineTick));
+        for (Entry<T> entry : due) {
+            fire.accept(entry.task);
+        }
+        return due.size();
+    }
+
+    /**
+     * Eventos pendientes (sin contar los cancelados)
+     */
+    public int size() {
+        return size;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.DanteClient.thread.model;
+
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice de suscripciones por tema (tipo de evento + canal) de un endpoint WebSocket
+ * Una sesión que nunca envió "subscribe" recibe todo (compatibilidad con los clientes actuales); en cuanto
+ * se suscribe, sólo recibe los temas pedidos. Para cada evento se recorren únicamente los suscriptores de
+ * su tema, así el coste de difundir depende del interés real y no del número de conexiones.
+ * Los mensajes sin canal (estadísticas, trabajos masivos, escenas...) siguen llegando a todas las sesiones.
+ * Los cambios se hacen con el lock sobre el índice y al terminar se publica una copia inmutable de las rutas:
+ * quien difunde lee una sola referencia, así nunca ve una sesión a medio pasar de "sin filtro" a sus temas
+ * (ni la pierde ni la recibe dos veces).
+ */
+public class TopicSubscriptions {
+
+    public static final int ALL_CHANNELS = -1;
+
+    private record Subscription(EventTopic topic, int channelId) {
+    }
+
+    // Copia inmutable para difundir: sesiones sin filtro y tema -> canal (o ALL_CHANNELS) -> sesiones
+    private record Routes(List<WebSocketSession> unfiltered, Map<EventTopic, Map<Integer, List<WebSocketSession>>> byTopic) {
+    }
+
+    // Estado de referencia (sólo se modifica con el lock)
+    // Sesiones sin filtro (reciben todos los temas)
+    private final Set<WebSocketSession> unfiltered = new LinkedHashSet<>();
+    // tema -> canal (o ALL_CHANNELS) -> sesiones; una sesión con comodín no aparece además en canales concretos
+    private final Map<EventTopic, Map<Integer, Set<WebSocketSession>>> index = new EnumMap<>(EventTopic.class);
+    private final ConcurrentHashMap<String, Set<Subscription>> bySession = new ConcurrentHashMap<>();
+    private volatile Routes routes;
+
+    private final AtomicLong routedEvents = new AtomicLong();
+    private final AtomicLong deliveries = new AtomicLong();
+    private final AtomicLong deliveriesSkipped = new AtomicLong();
+
+    public TopicSubscriptions() {
+        for (EventTopic topic : EventTopic.values()) {
+            index.put(topic, new HashMap<>());
+        }
+        publishRoutes();
+    }
+
+    public synchronized void addSession(WebSocketSession session) {
+        unfiltered.add(session);
+        publishRoutes();
+    }
+
+    public synchronized void removeSession(WebSocketSession session) {
+        unfiltered.remove(session);
+        Set<Subscription> subscriptions = bySession.remove(session.getId());
+        if (subscriptions != null) {
+            for (Subscription subscription : subscriptions) {
+                removeFromIndex(session, subscription);
+            }
+        }
+        publishRoutes();
+    }
+
+    /**
+     * Procesa {"command":"subscribe"|"unsubscribe","types":[...],"channels":[...]}
+     * Sin "types" se aplica a todos los tipos; sin "channels" (o con "*") a todos los canales.
+     * @return estado de las suscripciones de la sesión tras el comando
+     */
+    public Map<String, Object> handleCommand(WebSocketSession session, String command, JsonNode json) {
+        Set<EventTopic> topics = parseTopics(json.path("types"));
+        Set<Integer> channels = parseChannels(json.path("channels"));
+        if ("subscribe".equals(command)) {
+            subscribe(session, topics, channels);
+        } else {
+            unsubscribe(session, topics, channels);
+        }
+        return describe(session);
+    }
+
+    /**
+     * Añade temas a la sesión (deja de recibir el resto)
+     * @param channels canales concretos o vacío para todos
+     */
+    public synchronized void subscribe(WebSocketSession session, Set<EventTopic> topics, Set<Integer> channels) {
+        Set<Subscription> current = bySession.computeIfAbsent(session.getId(), id -> new HashSet<>());
+        for (EventTopic topic : topics) {
+            Subscription wildcard = new Subscription(topic, ALL_CHANNELS);
+            if (current.contains(wildcard)) {
+                continue; // Ya recibe todos los canales de este tipo
+            }
+            if (channels.isEmpty()) {
+                // El comodín sustituye a las suscripciones por canal del mismo tipo
+                current.removeIf(subscription -> {
+                    if (subscription.topic() == topic) {
+                        removeFromIndex(session, subscription);
+                        return true;
+                    }
+                    return false;
+                });
+                addToIndex(session, wildcard);
+                current.add(wildcard);
+            } else {
+                for (int channelId : channels) {
+                    Subscription subscription = new Subscription(topic, channelId);
+                    if (current.add(subscription)) {
+                        addToIndex(session, subscription);
+                    }
+                }
+            }
+        }
+        unfiltered.remove(session);
+        publishRoutes();
+    }
+
+    /**
+     * Quita temas de la sesión; una sesión sin filtro pasa a estar suscrita a todo antes de quitarlos
+     * Un comodín (todos los canales) sólo se quita sin "channels".
+     */
+    public synchronized void unsubscribe(WebSocketSession session, Set<EventTopic> topics, Set<Integer> channels) {
+        if (unfiltered.contains(session)) {
+            subscribe(session, EnumSet.allOf(EventTopic.class), Set.of());
+        }
+        Set<Subscription> current = bySession.computeIfAbsent(session.getId(), id -> new HashSet<>());
+        current.removeIf(subscription -> {
+            boolean matches = topics.contains(subscription.topic())
+                    && (channels.isEmpty() || channels.contains(subscription.channelId()));
+            if (matches) {
+                removeFromIndex(session, subscription);
+            }
+            return matches;
+        });
+        publishRoutes();
+    }
+
+    /**
+     * Indica si alguna sesión filtra (si no, todas reciben todos los eventos)
+     */
+    public boolean hasFilteredSessions() {
+        return !bySession.isEmpty();
+    }
+
+    /**
+     * Sesiones interesadas en un evento de un canal
+     */
+    public Collection<WebSocketSession> recipients(EventTopic topic, int channelId, int totalSessions) {
+        Routes current = routes;
+        Map<Integer, List<WebSocketSession>> byChannel = current.byTopic().get(topic);
+        List<WebSocketSession> forChannel = byChannel.get(channelId);
+        List<WebSocketSession> forAll = byChannel.get(ALL_CHANNELS);
+        List<WebSocketSession> recipients = new ArrayList<>(current.unfiltered().size()
+                + (forChannel != null ? forChannel.size() : 0) + (forAll != null ? forAll.size() : 0));
+        recipients.addAll(current.unfiltered());
+        // En una misma copia las listas son disjuntas (sin filtro, comodín y canal concreto nunca coinciden)
+        if (forChannel != null) {
+            recipients.addAll(forChannel);
+        }
+        if (forAll != null) {
+            recipients.addAll(forAll);
+        }
+        count(recipients.size(), totalSessions);
+        return recipients;
+    }
+
+    /**
+     * Sesiones interesadas en un evento que afecta a varios canales (p.ej. lote de volúmenes)
+     */
+    public Collection<WebSocketSession> recipients(EventTopic topic, Collection<Integer> channelIds, int totalSessions) {
+        Routes current = routes;
+        Map<Integer, List<WebSocketSession>> byChannel = current.byTopic().get(topic);
+        Set<WebSocketSession> recipients = new LinkedHashSet<>(current.unfiltered());
+        List<WebSocketSession> forAll = byChannel.get(ALL_CHANNELS);
+        if (forAll != null) {
+            recipients.addAll(forAll);
+        }
+        for (Integer channelId : channelIds) {
+            List<WebSocketSession> forChannel = byChannel.get(channelId);
+            if (forChannel != null) {
+                recipients.addAll(forChannel);
+            }
+        }
+        count(recipients.size(), totalSessions);
+        return recipients;
+    }
+
+    /**
+     * Suscripciones de una sesión: {"filtered":..,"subscriptions":{"status":[1,2],"volume":"*"}}
+     */
+    public synchronized Map<String, Object> describe(WebSocketSession session) {
+        Map<String, Object> description = new HashMap<>();
+        boolean filtered = !unfiltered.contains(session);
+        description.put("filtered", filtered);
+        Map<String, Object> byTopic = new HashMap<>();
+        Set<Subscription> current = bySession.get(session.getId());
+        if (!filtered) {
+            for (EventTopic topic : EventTopic.values()) {
+                byTopic.put(topic.name().toLowerCase(), "*");
+            }
+        } else if (current != null) {
+            for (Subscription subscription : current) {
+                String key = subscription.topic().name().toLowerCase();
+                if (subscription.channelId() == ALL_CHANNELS) {
+                    byTopic.put(key, "*");
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Set<Integer> ids = (Set<Integer>) byTopic.computeIfAbsent(key, k -> new TreeSet<Integer>());
+                    ids.add(subscription.channelId());
+                }
+            }
+        }
+        description.put("subscriptions", byTopic);
+        return description;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        int topics = 0;
+        for (Map<Integer, Set<WebSocketSession>> byChannel : index.values()) {
+            topics += byChannel.size();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("unfilteredSessions", unfiltered.size());
+        stats.put("filteredSessions", bySession.size());
+        stats.put("activeTopics", topics);
+        stats.put("routedEvents", routedEvents.get());
+        stats.put("deliveries", deliveries.get());
+        stats.put("deliveriesSkipped", deliveriesSkipped.get());
+        return stats;
+    }
+
+    private void count(int recipients, int totalSessions) {
+        routedEvents.incrementAndGet();
+        deliveries.addAndGet(recipients);
+        deliveriesSkipped.addAndGet(Math.max(0, totalSessions - recipients));
+    }
+
+    /**
+     * Publica la copia inmutable de las rutas (con el lock tomado, al final de cada cambio)
+     */
+    private void publishRoutes() {
+        Map<EventTopic, Map<Integer, List<WebSocketSession>>> byTopic = new EnumMap<>(EventTopic.class);
+        for (Map.Entry<EventTopic, Map<Integer, Set<WebSocketSession>>> entry : index.entrySet()) {
+            Map<Integer, List<WebSocketSession>> byChannel = new HashMap<>();
+            entry.getValue().forEach((channelId, sessions) -> byChannel.put(channelId, List.copyOf(sessions)));
+            byTopic.put(entry.getKey(), byChannel);
+        }
+        routes = new Routes(List.copyOf(unfiltered), byTopic);
+    }
+
+    private void addToIndex(WebSocketSession session, Subscription subscription) {
+        index.get(subscription.topic())
+                .computeIfAbsent(subscription.channelId(), id -> new LinkedHashSet<>())
+                .add(session);
+    }
+
+    private void removeFromIndex(WebSocketSession session, Subscription subscription) {
+        index.get(subscription.topic()).computeIfPresent(subscription.channelId(), (id, sessions) -> {
+            sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+    }
+
+    private static Set<EventTopic> parseTopics(JsonNode types) {
+        if (types.isMissingNode() || types.isNull() || "*".equals(types.asText())) {
+            return EnumSet.allOf(EventTopic.class);
+        }
+        Set<EventTopic> topics = EnumSet.noneOf(EventTopic.class);
+        for (JsonNode type : types.isArray() ? types : List.of(types)) {
+            EventTopic topic = EventTopic.fromString(type.asText());
+            if (topic == null) {
+                throw new ThreadExceptions.InvalidSubscriptionException(
+                        "tipo '" + type.asText() + "' desconocido (status, volume, meters, errors)");
+            }
+            topics.add(topic);
+        }
+        if (topics.isEmpty()) {
+            throw new ThreadExceptions.InvalidSubscriptionException("la lista de tipos está vacía");
+        }
+        return topics;
+    }
+
+    private static Set<Integer> parseChannels(JsonNode channels) {
+        if (channels.isMissingNode() || channels.isNull() || "*".equals(channels.asText())) {
+            return Set.of();
+        }
+        Set<Integer> ids = new HashSet<>();
+        for (JsonNode channel : channels.isArray() ? channels : List.of(channels)) {
+            if (!channel.canConvertToInt() || channel.asInt() < 0) {
+                throw new ThreadExceptions.InvalidSubscriptionException("canal '" + channel.asText() + "' no válido");
+            }
+            ids.add(channel.asInt());
+        }
+        if (ids.isEmpty()) {
+            throw new ThreadExceptions.InvalidSubscriptionException("la lista de canales está vacía");
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contador de tráfico saliente de un endpoint WebSocket (frames y bytes, contando cada sesión destino)
+ * Además de los totales guarda la tasa del último segundo completo, para comparar el envío inmediato
+ * con el agrupado por tick sobre la misma carga.
+ */
+public class TrafficMeter {
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private long frames;
+    private long bytes;
+    private long windowStart = System.nanoTime();
+    private long windowFrames;
+    private long windowBytes;
+    private double framesPerSecond;
+    private double bytesPerSecond;
+
+    /**
+     * Registra un mensaje encolado en varias sesiones
+     */
+    public synchronized void record(int payloadBytes, int sessions) {
+        roll(System.nanoTime());
+        frames += sessions;
+        bytes += (long) payloadBytes * sessions;
+        windowFrames += sessions;
+        windowBytes += (long) payloadBytes * sessions;
+    }
+
+    public synchronized long getFrames() {
+        return frames;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        roll(System.nanoTime());
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("frames", frames);
+        stats.put("bytes", bytes);
+        stats.put("framesPerSecond", framesPerSecond);
+        stats.put("bytesPerSecond", bytesPerSecond);
+        return stats;
+    }
+
+    // Cierra la ventana si ya pasó un segundo; sin tráfico en una ventana entera la tasa es 0
+    private void roll(long now) {
+        long elapsed = now - windowStart;
+        if (elapsed < WINDOW_NANOS) {
+            return;
+        }
+        if (elapsed < 2 * WINDOW_NANOS) {
+            framesPerSecond = windowFrames * 1e9 / elapsed;
+            bytesPerSecond = windowBytes * 1e9 / elapsed;
+        } else {
+            framesPerSecond = 0;
+            bytesPerSecond = 0;
+        }
+        windowStart = now;
+        windowFrames = 0;
+        windowBytes = 0;
+    }
+}
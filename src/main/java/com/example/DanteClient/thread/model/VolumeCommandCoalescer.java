@@ -0,0 +1,94 @@
+package com.example.DanteClient.thread.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Agrupa los comandos de volumen por canal hasta el siguiente tick: sólo se conserva el último valor
+ * de cada canal (gana el último). Cualquier thread puede ofrecer; un único thread drena en cada tick.
+ */
+public class VolumeCommandCoalescer {
+
+    private static final int EMPTY = -1;
+
+    private final AtomicIntegerArray pending;
+    // Canales con valor pendiente (cada canal aparece una sola vez entre ticks)
+    private final ConcurrentLinkedQueue<Integer> dirty = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+
+    public VolumeCommandCoalescer(int maxChannels) {
+        this.pending = new AtomicIntegerArray(maxChannels);
+        for (int i = 0; i < maxChannels; i++) {
+            pending.set(i, EMPTY);
+        }
+    }
+
+    /**
+     * Guarda el volumen pendiente del canal
+     * @return true si reemplazó un valor que aún no se había aplicado
+     */
+    public boolean offer(int channelId, int volume) {
+        if (channelId < 0 || channelId >= pending.length()) {
+            throw new IllegalArgumentException("Canal " + channelId + " fuera de rango (0-" + (pending.length() - 1) + ")");
+        }
+        if (volume < 0 || volume > 100) {
+            throw new IllegalArgumentException("El volumen debe estar entre 0 y 100");
+        }
+        received.incrementAndGet();
+        int previous = pending.getAndSet(channelId, volume);
+        if (previous == EMPTY) {
+            dirty.add(channelId);
+            return false;
+        }
+        coalesced.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Mueve a {@code out} el último volumen de cada canal pendiente
+     * @return número de canales drenados
+     */
+    public int drain(Map<Integer, Integer> out) {
+        int count = 0;
+        Integer channelId;
+        while ((channelId = dirty.poll()) != null) {
+            int volume = pending.getAndSet(channelId, EMPTY);
+            if (volume != EMPTY) {
+                out.put(channelId, volume);
+                count++;
+            }
+        }
+        applied.addAndGet(count);
+        return count;
+    }
+
+    public boolean hasPending() {
+        return !dirty.isEmpty();
+    }
+
+    /**
+     * Comandos recibidos
+     */
+    public long getReceived() {
+        return received.get();
+    }
+
+    /**
+     * Comandos reemplazados por otro más reciente del mismo canal antes de aplicarse
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Cambios de volumen aplicados (uno por canal y tick)
+     */
+    public long getApplied() {
+        return applied.get();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.DanteClient.thread.model;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eventos que se difunden por WebSocket, como records inmutables
+ * Cada broadcast se serializa una sola vez con un {@link ObjectWriter} preconstruido y el mismo
+ * {@link TextMessage} se comparte entre todas las sesiones. El campo "type" del JSON sale de
+ * {@link JsonTypeName}, así el formato que reciben los clientes no cambia.
+ */
+public final class WebSocketEvents {
+
+    private static final ObjectWriter WRITER = new ObjectMapper().writerFor(Event.class);
+
+    // Texto de la marca de tiempo, reutilizado por todos los eventos del mismo milisegundo
+    private static volatile CachedTimestamp cachedTimestamp = new CachedTimestamp(0, "");
+
+    private WebSocketEvents() {
+    }
+
+    /**
+     * Evento difundible; el nombre de tipo de cada record se escribe como "type"
+     */
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+    public interface Event {
+    }
+
+    /**
+     * Serializa el evento una vez y lo envuelve en un mensaje listo para compartir entre sesiones
+     * Se construye desde los bytes UTF-8 para que el mensaje los conserve: la longitud que se consulta
+     * por sesión (métricas de envío) no vuelve a codificar el texto.
+     */
+    public static TextMessage encode(Event event) throws JsonProcessingException {
+        return new TextMessage(WRITER.writeValueAsBytes(event));
+    }
+
+    /**
+     * Marca de tiempo con el formato de LocalDateTime.toString(), formateada como mucho una vez por milisegundo
+     */
+    public static String timestamp() {
+        long now = System.currentTimeMillis();
+        CachedTimestamp cached = cachedTimestamp;
+        if (cached.millis() != now) {
+            cached = new CachedTimestamp(now, LocalDateTime.now().toString());
+            cachedTimestamp = cached;
+        }
+        return cached.text();
+    }
+
+    private record CachedTimestamp(long millis, String text) {
+    }
+
+    // ===== /thread =====
+
+    @JsonTypeName("thread_started")
+    public record ThreadStarted(int channelId, String channelName, String message, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("thread_finished")
+    public record ThreadFinished(String status, int channelId, String channelName, String reason,
+                                 String message, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("thread_exception")
+    public record ThreadFailed(String status, int channelId, String channelName, String exceptionType,
+                               String errorMessage, String message, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("thread_status_change")
+    public record ThreadStatusChange(String status, int channelId, String channelName, String oldStatus,
+                                     String newStatus, String message, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("bulk_channel_result")
+    public record BulkChannelResult(String status, String jobId, String action, int channelId, boolean success,
+                                    String message, long elapsedMs, int completed, int total,
+                                    String timestamp) implements Event {
+    }
+
+    @JsonTypeName("bulk_job_completed")
+    public record BulkJobCompleted(String status, String jobId, String action, int total, int successCount,
+                                   int failCount, long elapsedMs, String message, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("channel_deadline_miss")
+    public record ChannelDeadlineMiss(String status, int channelId, String channelName, long misses, long totalMisses,
+                                      long worstMicros, long budgetMicros, String message,
+                                      String timestamp) implements Event {
+    }
+
+    @JsonTypeName("channel_restart_scheduled")
+    public record ChannelRestartScheduled(String status, int channelId, int attempt, long delayMs, String reason,
+                                          String message, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("channel_restart_exhausted")
+    public record ChannelRestartExhausted(String status, int channelId, int restartBudget, long windowMs,
+                                          String reason, String message, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("connection_stats")
+    public record ConnectionStats(int activeConnections, int activeThreads, String timestamp) implements Event {
+    }
+
+    // ===== /ws/volume =====
+
+    @JsonTypeName("connection")
+    public record Connected(String status, String sessionId, int totalConnections, long stateVersion, String stateEpoch,
+                            String timestamp) implements Event {
+    }
+
+    @JsonTypeName("volume")
+    public record VolumeUpdate(int channelId, int volumeLevel, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("volume_batch")
+    public record VolumeBatch(List<VolumeLevel> volumes, long stateVersion, String timestamp) implements Event {
+    }
+
+    public record VolumeLevel(int channelId, int volumeLevel) {
+    }
+
+    @JsonTypeName("mix_update")
+    public record MixUpdate(int channelId, String flag, boolean enabled, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("automation")
+    public record AutomationUpdate(Map<String, Object> automation, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("scene_recalled")
+    public record SceneRecalled(Map<String, Object> recall, String timestamp) implements Event {
+    }
+
+    @JsonTypeName("stats")
+    public record Stats(int activeConnections, String timestamp) implements Event {
+    }
+
+    /**
+     * Eventos de un tick del modo de envío agrupado, en el orden en que ocurrieron
+     */
+    @JsonTypeName("batch")
+    public record Batch(List<Event> events, String timestamp) implements Event {
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.DanteClient.thread.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Archivo JSON con escritura diferida: los cambios sólo lo marcan como sucio y se escribe cuando lleva
+ * {@code debounceMs} sin cambios (o como mucho {@code maxDelayMs} después del primero), así una ráfaga
+ * de cambios termina en una sola escritura. Se escribe en un temporal que se lleva a disco (fsync) antes
+ * de renombrarlo de forma atómica, y después se sincroniza el directorio: el archivo nunca queda a medias
+ * ni vacío aunque el proceso muera o se corte la alimentación justo después del renombrado.
+ */
+public class WriteBehindFile {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Supplier<Object> content;
+    private final long debounceNanos;
+    private final long maxDelayNanos;
+
+    private final AtomicLong dirtySince = new AtomicLong(); // nanoTime del primer cambio sin escribir (0 = limpio)
+    private final AtomicLong lastChange = new AtomicLong();
+    private final AtomicLong changes = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastWriteMicros;
+    private volatile String lastError;
+
+    public WriteBehindFile(Path path, ObjectMapper objectMapper, Supplier<Object> content,
+                           long debounceMs, long maxDelayMs) {
+        this.path = path.toAbsolutePath();
+        this.objectMapper = objectMapper;
+        this.content = content;
+        this.debounceNanos = debounceMs * 1_000_000L;
+        this.maxDelayNanos = Math.max(debounceMs, maxDelayMs) * 1_000_000L;
+    }
+
+    /**
+     * Registra un cambio; no hace E/S
+     */
+    public void markDirty() {
+        long now = System.nanoTime();
+        changes.incrementAndGet();
+        lastChange.set(now);
+        dirtySince.compareAndSet(0, now);
+    }
+
+    public boolean isDirty() {
+        return dirtySince.get() != 0;
+    }
+
+    /**
+     * Escribe si el archivo está sucio y ya pasó el intervalo de espera
+     * @return true si se escribió
+     */
+    public boolean flushIfDue(long nowNanos) {
+        long since = dirtySince.get();
+        if (since == 0) {
+            return false;
+        }
+        boolean quiet = nowNanos - lastChange.get() >= debounceNanos;
+        boolean overdue = nowNanos - since >= maxDelayNanos;
+        return (quiet || overdue) && flush();
+    }
+
+    /**
+     * Escribe ya si hay cambios pendientes (p.ej. al apagar)
+     * @return true si se escribió
+     */
+    public synchronized boolean flush() {
+        if (dirtySince.getAndSet(0) == 0) {
+            return false;
+        }
+        // Los cambios que lleguen mientras se escribe vuelven a marcarlo como sucio
+        long start = System.nanoTime();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            byte[] data = objectMapper.writeValueAsBytes(content.get());
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true); // Los datos en disco antes de que el renombrado los haga visibles
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(path.getParent());
+            writes.incrementAndGet();
+            lastWriteMicros = (System.nanoTime() - start) / 1_000;
+            lastError = null;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            lastError = e.getMessage();
+            dirtySince.compareAndSet(0, start); // Se reintenta en el siguiente ciclo
+            System.err.println("❌ Error al escribir " + path + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Lleva a disco la entrada del directorio para que el renombrado sobreviva a un corte de alimentación
+     * (en sistemas que no permiten abrir un directorio, como Windows, se omite)
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Sin soporte para sincronizar directorios: el renombrado sigue siendo atómico
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("file", path.toString());
+        stats.put("dirty", isDirty());
+        stats.put("changes", changes.get());
+        stats.put("writes", writes.get());
+        stats.put("failures", failures.get());
+        stats.put("lastWriteMicros", lastWriteMicros);
+        stats.put("lastError", lastError);
+        return stats;
+    }
+}
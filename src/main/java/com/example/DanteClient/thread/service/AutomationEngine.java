@@ -0,0 +1,306 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.data.util.ConfigUtil;
+import com.example.DanteClient.thread.config.VolumeWebSocketHandler;
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.model.Automation;
+import com.example.DanteClient.thread.model.TimerWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Motor de automatización de volumen: fundidos y crossfades programados en el servidor
+ * Los inicios y finales pendientes viven en una rueda de temporización; al arrancar, las rampas se
+ * escriben en {@link ChannelStateTable} y el bucle de audio las evalúa en cada límite de bloque.
+ */
+@Component
+public class AutomationEngine {
+
+    @Autowired
+    private ChannelStateTable stateTable;
+
+    @Autowired
+    @Lazy
+    private VolumeWebSocketHandler volumeWebSocketHandler;
+
+    // Resolución de la rueda (sólo afecta al instante de inicio; la rampa se evalúa por bloque)
+    @Value("${dante.automation.tick-ms:10}")
+    private long tickMs;
+
+    @Value("${dante.automation.wheel-slots:512}")
+    private int wheelSlots;
+
+    // Máximo de automatizaciones programadas o en curso
+    @Value("${dante.automation.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${dante.automation.max-duration-ms:600000}")
+    private long maxDurationMs;
+
+    // Automatizaciones terminadas que se conservan para consulta
+    @Value("${dante.automation.history:256}")
+    private int historySize;
+
+    private final Object lock = new Object();
+    private final ConcurrentHashMap<String, Automation> automations = new ConcurrentHashMap<>();
+    private final ArrayDeque<String> finishedOrder = new ArrayDeque<>();
+    private final List<Automation> pendingNotifications = new ArrayList<>();
+    private TimerWheel<Runnable> wheel;
+    private int activeCount;
+    private long totalCreated;
+    private long totalCompleted;
+    private long totalCancelled;
+    private long totalOverridden;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "volume-automation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimerWheel<>(wheelSlots, tickMs, nowMs());
+        scheduler.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        System.out.println("AutomationEngine iniciado (tick " + tickMs + " ms, " + wheelSlots + " ranuras)");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Fundido de un canal hasta un volumen
+     */
+    public Automation scheduleFade(int channelId, int targetVolume, long durationMs, long delayMs) {
+        return schedule(new Automation(Automation.TYPE_FADE, new int[]{channelId}, new int[]{targetVolume},
+                durationMs, delayMs, nowMs()));
+    }
+
+    /**
+     * Crossfade: el canal origen baja a 0 mientras el destino sube al volumen indicado
+     * @param targetVolume volumen final del destino (null = el volumen actual del origen, o 100 si está a 0)
+     */
+    public Automation scheduleCrossfade(int fromChannelId, int toChannelId, Integer targetVolume, long durationMs, long delayMs) {
+        if (fromChannelId == toChannelId) {
+            throw new ThreadExceptions.InvalidAutomationException("el canal origen y destino deben ser distintos");
+        }
+        int target = targetVolume != null ? targetVolume : stateTable.getVolume(fromChannelId);
+        if (target == 0 && targetVolume == null) {
+            target = 100;
+        }
+        return schedule(new Automation(Automation.TYPE_CROSSFADE, new int[]{fromChannelId, toChannelId},
+                new int[]{0, target}, durationMs, delayMs, nowMs()));
+    }
+
+    /**
+     * Cancela una automatización: si aún no empezó no se aplica; si está en curso los canales quedan donde estén
+     */
+    public Automation cancel(String automationId) {
+        Automation automation = getAutomation(automationId);
+        synchronized (lock) {
+            if (automation.isFinished()) {
+                throw new ThreadExceptions.InvalidAutomationException(
+                        "la automatización " + automationId + " ya terminó (" + automation.getStatus() + ")");
+            }
+            wheel.cancel(automation.getPendingEntry());
+            if (Automation.STATUS_RUNNING.equals(automation.getStatus())) {
+                long now = System.nanoTime();
+                for (int channelId : automation.getChannelIds()) {
+                    // Sólo si la rampa del canal sigue siendo la de esta automatización
+                    if (stateTable.getRampEnd(channelId) == automation.getEndNanos()) {
+                        stateTable.holdRamp(channelId, now);
+                    }
+                }
+            }
+            totalCancelled++;
+            retire(automation, Automation.STATUS_CANCELLED);
+        }
+        notifyChanges();
+        return automation;
+    }
+
+    public Automation getAutomation(String automationId) {
+        Automation automation = automations.get(automationId);
+        if (automation == null) {
+            throw new ThreadExceptions.AutomationNotFoundException(automationId);
+        }
+        return automation;
+    }
+
+    /**
+     * Automatizaciones conocidas (activas primero, por instante de inicio)
+     */
+    public List<Map<String, Object>> listAutomations(boolean includeFinished) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        automations.values().stream()
+                .filter(automation -> includeFinished || !automation.isFinished())
+                .sorted(Comparator.comparing(Automation::isFinished).thenComparingLong(Automation::getStartAtMs))
+                .forEach(automation -> list.add(automation.toMap()));
+        return list;
+    }
+
+    public Map<String, Object> getStats() {
+        synchronized (lock) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("active", activeCount);
+            stats.put("wheelPendingEvents", wheel.size());
+            stats.put("maxPending", maxPending);
+            stats.put("tickMs", tickMs);
+            stats.put("wheelSlots", wheelSlots);
+            stats.put("totalCreated", totalCreated);
+            stats.put("totalCompleted", totalCompleted);
+            stats.put("totalCancelled", totalCancelled);
+            stats.put("totalOverridden", totalOverridden);
+            return stats;
+        }
+    }
+
+    private Automation schedule(Automation automation) {
+        validate(automation);
+        synchronized (lock) {
+            if (activeCount >= maxPending) {
+                throw new ThreadExceptions.InvalidAutomationException(
+                        "hay demasiadas automatizaciones pendientes (máximo " + maxPending + ")");
+            }
+            automations.put(automation.getAutomationId(), automation);
+            activeCount++;
+            totalCreated++;
+            if (automation.getStartAtMs() <= nowMs()) {
+                start(automation);
+            } else {
+                automation.setPendingEntry(wheel.schedule(() -> start(automation), automation.getStartAtMs()));
+            }
+        }
+        notifyChanges();
+        System.out.println("🎛️ Automatización " + automation.getAutomationId() + " (" + automation.getType()
+                + ") programada: canales " + Arrays.toString(automation.getChannelIds())
+                + " en " + automation.getDurationMs() + " ms");
+        return automation;
+    }
+
+    private void validate(Automation automation) {
+        if (automation.getDurationMs() < 0 || automation.getDurationMs() > maxDurationMs) {
+            throw new ThreadExceptions.InvalidAutomationException(
+                    "la duración debe estar entre 0 y " + maxDurationMs + " ms");
+        }
+        if (automation.getStartAtMs() < nowMs() - tickMs) {
+            throw new ThreadExceptions.InvalidAutomationException("el retardo no puede ser negativo");
+        }
+        int[] channelIds = automation.getChannelIds();
+        int[] targets = automation.getTargets();
+        for (int i = 0; i < channelIds.length; i++) {
+            if (ConfigUtil.getChannelById(channelIds[i]) == null || channelIds[i] >= stateTable.getCapacity()) {
+                throw new ThreadExceptions.InvalidAutomationException("canal " + channelIds[i] + " no encontrado en la configuración");
+            }
+            if (targets[i] < 0 || targets[i] > 100) {
+                throw new ThreadExceptions.InvalidAutomationException("el volumen debe estar entre 0 y 100");
+            }
+        }
+    }
+
+    /**
+     * Arranca las rampas de la automatización (con el lock tomado)
+     */
+    private void start(Automation automation) {
+        if (!Automation.STATUS_SCHEDULED.equals(automation.getStatus())) {
+            return;
+        }
+        long endNanos = stateTable.startRamps(automation.getChannelIds(), automation.getTargets(),
+                System.nanoTime(), automation.getDurationMs() * 1_000_000L);
+        automation.setEndNanos(endNanos);
+        automation.setStatus(Automation.STATUS_RUNNING);
+        automation.setPendingEntry(wheel.schedule(() -> finish(automation), nowMs() + automation.getDurationMs()));
+        pendingNotifications.add(automation);
+    }
+
+    /**
+     * Cierra la automatización al terminar sus rampas (con el lock tomado)
+     */
+    private void finish(Automation automation) {
+        if (!Automation.STATUS_RUNNING.equals(automation.getStatus())) {
+            return;
+        }
+        boolean overridden = false;
+        for (int channelId : automation.getChannelIds()) {
+            if (stateTable.getRampEnd(channelId) != automation.getEndNanos()) {
+                overridden = true;
+            }
+        }
+        if (overridden) {
+            totalOverridden++;
+        } else {
+            totalCompleted++;
+        }
+        retire(automation, overridden ? Automation.STATUS_OVERRIDDEN : Automation.STATUS_COMPLETED);
+    }
+
+    private void retire(Automation automation, String status) {
+        automation.setStatus(status);
+        automation.setPendingEntry(null);
+        activeCount--;
+        pendingNotifications.add(automation);
+        finishedOrder.addLast(automation.getAutomationId());
+        while (finishedOrder.size() > historySize) {
+            automations.remove(finishedOrder.pollFirst());
+        }
+    }
+
+    private void tick() {
+        try {
+            synchronized (lock) {
+                wheel.advance(nowMs(), Runnable::run);
+            }
+            notifyChanges();
+        } catch (Exception e) {
+            System.err.println("Error en el motor de automatización: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Notifica por WebSocket los cambios de estado acumulados (fuera del lock)
+     */
+    private void notifyChanges() {
+        List<Automation> changed;
+        synchronized (lock) {
+            if (pendingNotifications.isEmpty()) {
+                return;
+            }
+            changed = new ArrayList<>(pendingNotifications);
+            pendingNotifications.clear();
+        }
+        for (Automation automation : changed) {
+            volumeWebSocketHandler.broadcastAutomationUpdate(automation.toMap());
+            if (Automation.STATUS_COMPLETED.equals(automation.getStatus())) {
+                // Los faders de la interfaz quedan en el volumen final
+                Map<Integer, Integer> volumes = new LinkedHashMap<>();
+                for (int i = 0; i < automation.getChannelIds().length; i++) {
+                    volumes.put(automation.getChannelIds()[i], automation.getTargets()[i]);
+                }
+                volumeWebSocketHandler.broadcastVolumeBatch(volumes, stateTable.getVersion());
+            }
+        }
+    }
+
+    private static long nowMs() {
+        return System.nanoTime() / 1_000_000;
+    }
+}
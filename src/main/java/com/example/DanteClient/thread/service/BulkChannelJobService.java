@@ -0,0 +1,179 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.config.ThreadWebSocketHandler;
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.model.BulkChannelJob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio para iniciar/detener listas de canales en paralelo sin bloquear el thread HTTP.
+ * Cada trabajo devuelve un ID inmediatamente y los resultados por canal se emiten por /ws/thread.
+ */
+@Service
+public class BulkChannelJobService {
+
+    // Trabajos terminados que se conservan para consulta
+    private static final int MAX_RETAINED_JOBS = 50;
+
+    @Autowired
+    private ChannelThreadService threadService;
+
+    @Autowired
+    private ThreadWebSocketHandler threadWebSocketHandler;
+
+    // Número de canales que se preparan en paralelo
+    @Value("${dante.threads.bulk-parallelism:8}")
+    private int parallelism;
+
+    private final ConcurrentHashMap<String, BulkChannelJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<String> jobOrder = new ConcurrentLinkedQueue<>();
+    private ExecutorService setupExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        this.setupExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-setup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.println("BulkChannelJobService inicializado con paralelismo " + parallelism);
+    }
+
+    /**
+     * Lanza el inicio en paralelo de los canales indicados
+     */
+    public BulkChannelJob submitStart(List<Integer> channelIds) {
+        return submit(BulkChannelJob.ACTION_START, channelIds);
+    }
+
+    /**
+     * Lanza la parada en paralelo de los canales indicados
+     */
+    public BulkChannelJob submitStop(List<Integer> channelIds) {
+        return submit(BulkChannelJob.ACTION_STOP, channelIds);
+    }
+
+    /**
+     * Obtiene un trabajo por su ID
+     */
+    public BulkChannelJob getJob(String jobId) {
+        BulkChannelJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new ThreadExceptions.BulkJobNotFoundException(jobId);
+        }
+        return job;
+    }
+
+    /**
+     * Obtiene los trabajos recientes (en orden de creación)
+     */
+    public List<BulkChannelJob> getRecentJobs() {
+        List<BulkChannelJob> recent = new ArrayList<>();
+        for (String jobId : jobOrder) {
+            BulkChannelJob job = jobs.get(jobId);
+            if (job != null) {
+                recent.add(job);
+            }
+        }
+        return recent;
+    }
+
+    private BulkChannelJob submit(String action, List<Integer> channelIds) {
+        if (channelIds == null || channelIds.isEmpty()) {
+            throw new ThreadExceptions.InvalidBulkRequestException("la lista 'channelIds' no puede estar vacía");
+        }
+
+        // Eliminar duplicados manteniendo el orden recibido
+        List<Integer> uniqueIds = new ArrayList<>(new LinkedHashSet<>(channelIds));
+        BulkChannelJob job = new BulkChannelJob(action, uniqueIds);
+        registerJob(job);
+
+        System.out.println("📦 Trabajo masivo " + job.getJobId() + " - " + action + " de " + uniqueIds.size() + " canales");
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(uniqueIds.size());
+        for (Integer channelId : uniqueIds) {
+            tasks.add(CompletableFuture.runAsync(() -> processChannel(job, channelId), setupExecutor));
+        }
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).whenComplete((ignored, error) -> {
+            job.finish();
+            System.out.println("📦 Trabajo masivo " + job.getJobId() + " completado: " + job.getSuccessCount() + "/"
+                    + job.getTotalChannels() + " canales en " + job.getElapsedMs() + " ms");
+            threadWebSocketHandler.notifyBulkJobCompleted(job);
+        });
+
+        return job;
+    }
+
+    /**
+     * Procesa un canal individual y emite su resultado en cuanto termina
+     */
+    private void processChannel(BulkChannelJob job, int channelId) {
+        long start = System.nanoTime();
+        boolean success;
+        String message;
+        try {
+            if (BulkChannelJob.ACTION_START.equals(job.getAction())) {
+                threadService.startChannelThread(channelId);
+                message = "Thread creado exitosamente";
+            } else {
+                threadService.stopChannelThread(channelId);
+                message = "Thread detenido exitosamente";
+            }
+            success = true;
+        } catch (Exception e) {
+            success = false;
+            message = e.getMessage();
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        int completed = job.recordResult(channelId, success, message, elapsedMs);
+        threadWebSocketHandler.notifyBulkChannelResult(job, channelId, success, message, elapsedMs, completed);
+    }
+
+    private void registerJob(BulkChannelJob job) {
+        jobs.put(job.getJobId(), job);
+        jobOrder.add(job.getJobId());
+
+        // Descartar los trabajos terminados más antiguos
+        while (jobOrder.size() > MAX_RETAINED_JOBS) {
+            String oldest = jobOrder.peek();
+            BulkChannelJob oldestJob = oldest != null ? jobs.get(oldest) : null;
+            if (oldestJob != null && !oldestJob.isFinished()) {
+                break;
+            }
+            jobOrder.poll();
+            if (oldest != null) {
+                jobs.remove(oldest);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        setupExecutor.shutdown();
+        try {
+            if (!setupExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                setupExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            setupExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.DanteClient.thread.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Registro de consumidores por canal (altavoz, grabador, medidores, streams...) con conteo de referencias
+ * El bucle de audio sólo decodifica los canales con al menos un consumidor activo: la consulta
+ * es una única lectura de un AtomicIntegerArray indexado por ID de canal.
+ */
+@Component
+public class ChannelConsumerRegistry {
+
+    public static final String CONSUMER_SPEAKER = "speaker";
+
+    // IDs de canal admitidos (0..maxChannels-1)
+    @Value("${dante.consumers.max-channels:256}")
+    private int maxChannels;
+
+    private AtomicIntegerArray totals;
+    private final ConcurrentHashMap<String, AtomicIntegerArray> byConsumer = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        totals = new AtomicIntegerArray(maxChannels);
+        System.out.println("ChannelConsumerRegistry inicializado para " + maxChannels + " canales");
+    }
+
+    /**
+     * Registra un consumidor del canal
+     * @return número de consumidores del canal tras registrarlo
+     */
+    public int acquire(int channelId, String consumer) {
+        if (!inRange(channelId)) {
+            return 0;
+        }
+        byConsumer.computeIfAbsent(consumer, key -> new AtomicIntegerArray(maxChannels)).incrementAndGet(channelId);
+        return totals.incrementAndGet(channelId);
+    }
+
+    /**
+     * Libera un consumidor del canal (sin bajar de 0)
+     * @return número de consumidores del canal tras liberarlo
+     */
+    public int release(int channelId, String consumer) {
+        if (!inRange(channelId)) {
+            return 0;
+        }
+        AtomicIntegerArray counts = byConsumer.get(consumer);
+        if (counts == null || !decrementIfPositive(counts, channelId)) {
+            return totals.get(channelId);
+        }
+        decrementIfPositive(totals, channelId);
+        return totals.get(channelId);
+    }
+
+    /**
+     * Indica si alguien consume el canal (los IDs fuera de rango se decodifican siempre)
+     */
+    public boolean hasConsumers(int channelId) {
+        return !inRange(channelId) || totals.get(channelId) > 0;
+    }
+
+    public int getConsumerCount(int channelId) {
+        return inRange(channelId) ? totals.get(channelId) : 0;
+    }
+
+    /**
+     * Consumidores del canal por tipo
+     */
+    public Map<String, Integer> getConsumers(int channelId) {
+        Map<String, Integer> consumers = new HashMap<>();
+        if (!inRange(channelId)) {
+            return consumers;
+        }
+        byConsumer.forEach((consumer, counts) -> {
+            int count = counts.get(channelId);
+            if (count > 0) {
+                consumers.put(consumer, count);
+            }
+        });
+        return consumers;
+    }
+
+    /**
+     * Canales con al menos un consumidor
+     */
+    public List<Integer> getConsumedChannels() {
+        List<Integer> channels = new ArrayList<>();
+        for (int i = 0; i < totals.length(); i++) {
+            if (totals.get(i) > 0) {
+                channels.add(i);
+            }
+        }
+        return channels;
+    }
+
+    public int getMaxChannels() {
+        return maxChannels;
+    }
+
+    private boolean inRange(int channelId) {
+        return channelId >= 0 && channelId < totals.length();
+    }
+
+    private static boolean decrementIfPositive(AtomicIntegerArray counts, int index) {
+        while (true) {
+            int current = counts.get(index);
+            if (current <= 0) {
+                return false;
+            }
+            if (counts.compareAndSet(index, current, current - 1)) {
+                return true;
+            }
+        }
+    }
+}
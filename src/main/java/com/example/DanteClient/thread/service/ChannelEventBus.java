@@ -0,0 +1,189 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.model.ChannelEventRing;
+import com.example.DanteClient.thread.model.ThreadEventListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus interno de eventos de canal
+ * Los threads de canal lo usan como {@link ThreadEventListener}: cada aviso se copia a una ranura del
+ * {@link ChannelEventRing} y el hilo de audio sigue. El hilo "channel-events" reparte los eventos a los
+ * suscriptores (ciclo de vida y logs en ChannelThreadService, WebSocket en ThreadWebSocketHandler), así
+ * el JSON y la red nunca corren en un hilo de audio.
+ */
+@Component
+public class ChannelEventBus implements ThreadEventListener {
+
+    private static final String[] KIND_NAMES = {"", "finished", "exception", "statusChanged", "deadlineMiss"};
+
+    @Value("${dante.events.ring-capacity:1024}")
+    private int ringCapacity;
+
+    // Espera máxima del despachador sin eventos (también se le despierta al publicar)
+    @Value("${dante.events.idle-park-ms:50}")
+    private long idleParkMs;
+
+    private final List<ThreadEventListener> subscribers = new CopyOnWriteArrayList<>();
+    private ChannelEventRing ring;
+    private Thread dispatcher;
+    private volatile boolean running;
+    private volatile boolean dispatcherIdle;
+
+    // Métricas por tipo de evento
+    private final AtomicLongArray published = new AtomicLongArray(KIND_NAMES.length);
+    private final AtomicLongArray dropped = new AtomicLongArray(KIND_NAMES.length);
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong subscriberErrors = new AtomicLong();
+    private volatile long maxLatencyNanos;
+    private volatile long maxDispatchNanos;
+
+    @PostConstruct
+    public void init() {
+        ring = new ChannelEventRing(ringCapacity);
+        running = true;
+        dispatcher = new Thread(this::dispatchLoop, "channel-events");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        System.out.println("ChannelEventBus iniciado (anillo de " + ring.getCapacity() + " eventos)");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(dispatcher);
+    }
+
+    /**
+     * Registra un suscriptor; se le llama siempre desde el hilo despachador, en orden de publicación
+     */
+    public void subscribe(ThreadEventListener subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    // Publicación (hilos de canal)
+
+    @Override
+    public void onThreadFinished(int channelId, String channelName, String reason) {
+        // Fin del thread: no es el camino de audio y el supervisor depende del aviso, se espera hueco
+        publishLifecycle(ChannelEventRing.FINISHED, channelId, channelName, reason, null);
+    }
+
+    @Override
+    public void onThreadException(int channelId, String channelName, String exceptionType, String errorMessage) {
+        publishLifecycle(ChannelEventRing.EXCEPTION, channelId, channelName, exceptionType, errorMessage);
+    }
+
+    @Override
+    public void onThreadStatusChanged(int channelId, String channelName, String oldStatus, String newStatus) {
+        publish(ChannelEventRing.STATUS_CHANGED, channelId, channelName, oldStatus, newStatus, 0, 0, 0, 0);
+    }
+
+    @Override
+    public void onDeadlineMiss(int channelId, String channelName, long missesSinceLast, long totalMisses, long worstNanos, long budgetNanos) {
+        publish(ChannelEventRing.DEADLINE_MISS, channelId, channelName, null, null,
+                missesSinceLast, totalMisses, worstNanos, budgetNanos);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> publishedByKind = new HashMap<>();
+        Map<String, Object> droppedByKind = new HashMap<>();
+        for (int kind = 1; kind < KIND_NAMES.length; kind++) {
+            publishedByKind.put(KIND_NAMES[kind], published.get(kind));
+            droppedByKind.put(KIND_NAMES[kind], dropped.get(kind));
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ringCapacity", ring.getCapacity());
+        stats.put("pending", ring.size());
+        stats.put("subscribers", subscribers.size());
+        stats.put("published", publishedByKind);
+        stats.put("dropped", droppedByKind);
+        stats.put("dispatched", dispatched.get());
+        stats.put("subscriberErrors", subscriberErrors.get());
+        stats.put("maxLatencyMicros", maxLatencyNanos / 1000);
+        stats.put("maxDispatchMicros", maxDispatchNanos / 1000);
+        return stats;
+    }
+
+    private boolean publish(int kind, int channelId, String channelName, String text1, String text2,
+                            long value1, long value2, long value3, long value4) {
+        if (!ring.publish(kind, channelId, channelName, text1, text2, value1, value2, value3, value4)) {
+            dropped.incrementAndGet(kind);
+            return false;
+        }
+        published.incrementAndGet(kind);
+        if (dispatcherIdle) {
+            LockSupport.unpark(dispatcher);
+        }
+        return true;
+    }
+
+    private void publishLifecycle(int kind, int channelId, String channelName, String text1, String text2) {
+        while (!ring.publish(kind, channelId, channelName, text1, text2, 0, 0, 0, 0)) {
+            if (!running) {
+                dropped.incrementAndGet(kind);
+                return;
+            }
+            LockSupport.unpark(dispatcher);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        published.incrementAndGet(kind);
+        LockSupport.unpark(dispatcher);
+    }
+
+    // Despacho (hilo channel-events)
+
+    private void dispatchLoop() {
+        long idleParkNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, idleParkMs));
+        while (running) {
+            ChannelEventRing.Slot slot = ring.peek();
+            if (slot == null) {
+                dispatcherIdle = true;
+                if (ring.peek() == null) { // Revisar tras anunciar la espera para no perder un aviso
+                    LockSupport.parkNanos(idleParkNanos);
+                }
+                dispatcherIdle = false;
+                continue;
+            }
+            long start = System.nanoTime();
+            maxLatencyNanos = Math.max(maxLatencyNanos, start - slot.publishedNanos);
+            for (ThreadEventListener subscriber : subscribers) {
+                deliver(subscriber, slot);
+            }
+            ring.release();
+            dispatched.incrementAndGet();
+            maxDispatchNanos = Math.max(maxDispatchNanos, System.nanoTime() - start);
+        }
+    }
+
+    private void deliver(ThreadEventListener subscriber, ChannelEventRing.Slot slot) {
+        try {
+            switch (slot.kind) {
+                case ChannelEventRing.FINISHED ->
+                        subscriber.onThreadFinished(slot.channelId, slot.channelName, slot.text1);
+                case ChannelEventRing.EXCEPTION ->
+                        subscriber.onThreadException(slot.channelId, slot.channelName, slot.text1, slot.text2);
+                case ChannelEventRing.STATUS_CHANGED ->
+                        subscriber.onThreadStatusChanged(slot.channelId, slot.channelName, slot.text1, slot.text2);
+                case ChannelEventRing.DEADLINE_MISS ->
+                        subscriber.onDeadlineMiss(slot.channelId, slot.channelName, slot.value1, slot.value2, slot.value3, slot.value4);
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            subscriberErrors.incrementAndGet();
+            System.err.println("❌ Error en suscriptor de eventos " + subscriber.getClass().getSimpleName() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.data.model.ConfigSnapshot;
+import com.example.DanteClient.data.util.ConfigUtil;
+import com.example.DanteClient.thread.model.AudioSink;
+import com.example.DanteClient.thread.model.IngestSubscription;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import javax.sound.sampled.AudioFormat;
+import java.util.Map;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool de recursos de audio y red pre-abiertos para los canales
+ * Todos los canales comparten formato y grupo multicast (cada canal sólo cambia el offset dentro del paquete),
+ * así que cualquier línea o suscripción caliente sirve para cualquier canal.
+ * Iniciar/detener un canal sólo toma/devuelve recursos del pool en lugar de abrir/cerrar dispositivos.
+ */
+@Component
+public class ChannelResourcePool {
+
+    // Tamaño máximo de un datagrama UDP (buffer para vaciar suscripciones reutilizadas)
+    private static final int MAX_DATAGRAM_SIZE = 65536;
+
+    // Pre-abrir recursos para los canales habilitados al arrancar la aplicación
+    @Value("${dante.pool.prewarm:true}")
+    private boolean prewarmEnabled;
+
+    // Máximo de recursos calientes (sin usar) de cada tipo que se conservan
+    @Value("${dante.pool.max-warm:64}")
+    private int maxWarm;
+
+    private final ConcurrentLinkedDeque<AudioSink> warmSinks = new ConcurrentLinkedDeque<>();
+    private final ConcurrentHashMap<String, ConcurrentLinkedDeque<IngestSubscription>> warmIngest = new ConcurrentHashMap<>();
+
+    private final AtomicLong sinkHits = new AtomicLong();
+    private final AtomicLong sinkMisses = new AtomicLong();
+    private final AtomicLong ingestHits = new AtomicLong();
+    private final AtomicLong ingestMisses = new AtomicLong();
+
+    // Preparación asíncrona de recursos (reconfiguración en caliente sin bloquear el audio)
+    private final ExecutorService preparationExecutor;
+
+    private volatile boolean closed;
+
+    public ChannelResourcePool() {
+        AtomicInteger counter = new AtomicInteger();
+        this.preparationExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "resource-pool-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Pre-calienta el pool en segundo plano cuando la aplicación está lista
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!prewarmEnabled) {
+            System.out.println("ChannelResourcePool: pre-calentamiento deshabilitado");
+            return;
+        }
+
+        Thread prewarmThread = new Thread(() -> prewarm(ConfigUtil.getEnabledChannelsCount()), "resource-pool-prewarm");
+        prewarmThread.setDaemon(true);
+        prewarmThread.start();
+    }
+
+    /**
+     * Abre recursos hasta tener {@code count} líneas y suscripciones calientes
+     */
+    public void prewarm(int count) {
+        int target = Math.min(count, maxWarm);
+        long start = System.nanoTime();
+
+        ConfigSnapshot config = ConfigUtil.getSnapshot();
+        AudioFormat format = formatFor(config);
+        String network = IngestSubscription.NETWORK_DEFAULT;
+        String address = config.getMulticastAddress();
+        int port = config.getMulticastPort();
+        int timeout = config.getTimeout();
+        ConcurrentLinkedDeque<IngestSubscription> ingestQueue = ingestQueue(IngestSubscription.keyOf(network, address, port));
+
+        int sinksOpened = 0;
+        int ingestOpened = 0;
+        while (!closed && warmSinks.size() < target) {
+            AudioSink sink = openSink(format);
+            if (sink == null) {
+                break;
+            }
+            warmSinks.add(sink);
+            sinksOpened++;
+        }
+        while (!closed && ingestQueue.size() < target) {
+            IngestSubscription ingest = openIngest(network, address, port, timeout);
+            if (ingest == null) {
+                break;
+            }
+            ingest.idle();
+            ingestQueue.add(ingest);
+            ingestOpened++;
+        }
+
+        System.out.println("ChannelResourcePool pre-calentado: " + sinksOpened + " líneas y " + ingestOpened
+                + " suscripciones en " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Formato de audio derivado de una instantánea de configuración: PCM 16 bits little-endian,
+     * el mismo orden en que ChannelThread escribe los samples (byte bajo primero)
+     */
+    public static AudioFormat formatFor(ConfigSnapshot config) {
+        return new AudioFormat(config.getFrequency(), 16, 2, true, false);
+    }
+
+    /**
+     * Toma una línea caliente compatible o abre una nueva; devuelve null si no hay dispositivo disponible
+     */
+    public AudioSink acquireSink(AudioFormat format) {
+        AudioSink sink;
+        while ((sink = warmSinks.poll()) != null) {
+            if (sink.isOpen() && sink.matches(format)) {
+                sinkHits.incrementAndGet();
+                return sink;
+            }
+            // Formato distinto (p.ej. cambió la frecuencia) o línea cerrada
+            sink.close();
+        }
+        sinkMisses.incrementAndGet();
+        return openSink(format);
+    }
+
+    /**
+     * Devuelve una línea al pool (o la cierra si el pool ya está lleno)
+     */
+    public void releaseSink(AudioSink sink) {
+        if (sink == null) {
+            return;
+        }
+        // Una línea con un formato que ya no es el configurado no se conserva
+        boolean current = sink.matches(formatFor(ConfigUtil.getSnapshot()));
+        if (closed || !current || !sink.isOpen() || warmSinks.size() >= maxWarm) {
+            sink.close();
+            return;
+        }
+        sink.flush();
+        warmSinks.add(sink);
+    }
+
+    /**
+     * Retira una línea sustituida: deja que termine de sonar su buffer (make-before-break)
+     * en segundo plano y después la devuelve al pool o la cierra
+     */
+    public void retireSink(AudioSink sink) {
+        if (sink == null) {
+            return;
+        }
+        preparationExecutor.execute(() -> {
+            try {
+                sink.drain();
+            } catch (Exception e) {
+                System.out.println("Error al vaciar línea retirada: " + e.getMessage());
+            }
+            releaseSink(sink);
+        });
+    }
+
+    /**
+     * Prepara en segundo plano una línea para el formato indicado
+     */
+    public CompletableFuture<AudioSink> prepareSinkAsync(AudioFormat format) {
+        return CompletableFuture.supplyAsync(() -> acquireSink(format), preparationExecutor);
+    }
+
+    /**
+     * Prepara en segundo plano una suscripción (socket abierto y unido al grupo)
+     */
+    public CompletableFuture<IngestSubscription> prepareIngestAsync(String network, String address, int port, int timeoutMs) {
+        return CompletableFuture.supplyAsync(() -> acquireIngest(network, address, port, timeoutMs), preparationExecutor);
+    }
+
+    /**
+     * Toma una suscripción caliente para el grupo indicado o abre una nueva; devuelve null si falla
+     */
+    public IngestSubscription acquireIngest(String network, String address, int port, int timeoutMs) {
+        ConcurrentLinkedDeque<IngestSubscription> queue = ingestQueue(IngestSubscription.keyOf(network, address, port));
+        IngestSubscription ingest;
+        while ((ingest = queue.poll()) != null) {
+            if (ingest.isOpen()) {
+                ingestHits.incrementAndGet();
+                ingest.activate(new byte[MAX_DATAGRAM_SIZE], timeoutMs);
+                return ingest;
+            }
+        }
+        ingestMisses.incrementAndGet();
+        return openIngest(network, address, port, timeoutMs);
+    }
+
+    /**
+     * Devuelve una suscripción al pool (o la cierra si el pool ya está lleno)
+     */
+    public void releaseIngest(IngestSubscription ingest) {
+        if (ingest == null) {
+            return;
+        }
+        ConcurrentLinkedDeque<IngestSubscription> queue = ingestQueue(ingest.getKey());
+        if (closed || !isCurrent(ingest) || !ingest.isOpen() || queue.size() >= maxWarm) {
+            ingest.close();
+            return;
+        }
+        ingest.idle();
+        queue.add(ingest);
+    }
+
+    /**
+     * Verifica si la suscripción corresponde al grupo/puerto configurados actualmente
+     */
+    private boolean isCurrent(IngestSubscription ingest) {
+        ConfigSnapshot config = ConfigUtil.getSnapshot();
+        int expectedPort;
+        try {
+            expectedPort = IngestSubscription.NETWORK_DEFAULT.equals(ingest.getNetwork())
+                    ? config.getMulticastPort()
+                    : Integer.parseInt(config.getPort());
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        return ingest.getPort() == expectedPort && ingest.getMulticastAddress().equals(config.getMulticastAddress());
+    }
+
+    private AudioSink openSink(AudioFormat format) {
+        try {
+            return AudioSink.open(format);
+        } catch (Exception e) {
+            System.out.println("Error de audio al abrir línea: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private IngestSubscription openIngest(String network, String address, int port, int timeoutMs) {
+        try {
+            return IngestSubscription.open(network, address, port, timeoutMs);
+        } catch (Exception e) {
+            System.err.println("Error al abrir suscripción multicast " + address + ":" + port + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ConcurrentLinkedDeque<IngestSubscription> ingestQueue(String key) {
+        return warmIngest.computeIfAbsent(key, k -> new ConcurrentLinkedDeque<>());
+    }
+
+    /**
+     * Estadísticas del pool
+     */
+    public Map<String, Object> getStats() {
+        int warmIngestCount = warmIngest.values().stream().mapToInt(ConcurrentLinkedDeque::size).sum();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("prewarmEnabled", prewarmEnabled);
+        stats.put("maxWarm", maxWarm);
+        stats.put("warmSinks", warmSinks.size());
+        stats.put("warmIngest", warmIngestCount);
+        stats.put("sinkHits", sinkHits.get());
+        stats.put("sinkMisses", sinkMisses.get());
+        stats.put("ingestHits", ingestHits.get());
+        stats.put("ingestMisses", ingestMisses.get());
+        return stats;
+    }
+
+    /**
+     * Cierra todos los recursos calientes
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        preparationExecutor.shutdownNow();
+        AudioSink sink;
+        while ((sink = warmSinks.poll()) != null) {
+            sink.close();
+        }
+        for (ConcurrentLinkedDeque<IngestSubscription> queue : warmIngest.values()) {
+            IngestSubscription ingest;
+            while ((ingest = queue.poll()) != null) {
+                ingest.close();
+            }
+        }
+        System.out.println("ChannelResourcePool cerrado");
+    }
+}
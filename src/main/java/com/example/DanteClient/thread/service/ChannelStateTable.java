@@ -0,0 +1,759 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.model.ChannelStateSnapshot;
+import com.example.DanteClient.thread.model.GainTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tabla única del estado de los canales (volumen, mute, solo, cue, prioridad, activo)
+ * Estructura de arreglos indexada por ID de canal: el bucle de audio lee su estado con una sola
+ * lectura volátil ({@link #getBlockState}) y las lecturas REST/WS toman una copia coherente ({@link #snapshot}).
+ * Esa palabra por canal la calcula y publica el escritor al terminar cada escritura: ganancia efectiva (con
+ * mute, solo y ducking ya aplicados) más las banderas de mute, solo y cue. Lo que depende del instante
+ * (una rampa en curso o el fundido de salida de un canal con prioridad) no cabe en ella: la palabra lo marca
+ * y sólo entonces el bloque calcula la ganancia leyendo la rampa; al terminar, el propio lector quita la
+ * marca con un CAS que falla si entretanto se publicó otra palabra (lleva la versión de la escritura).
+ * Las escrituras se serializan y marcan la versión como impar mientras duran (tipo seqlock), así un
+ * lector nunca ve a medias un cambio de varios canales como la recuperación de una escena.
+ * Las rampas de automatización (fundidos programados) también viven aquí: el bucle de audio las
+ * evalúa en cada límite de bloque con {@link #getGain(int, long)}.
+ * Solo y ducking se aplican al leer la ganancia a partir de banderas por canal y de un estado global
+ * de mezcla, así activar o quitar un solo es un cambio O(1) que no toca el volumen de ningún canal.
+ * Un canal con prioridad atenúa al resto mientras realmente suena: no muteado, con volumen, fuera de un
+ * solo ajeno y, en un fundido de salida, hasta que termina la rampa (no cuando se fija el destino 0).
+ */
+@Component
+public class ChannelStateTable {
+
+    // IDs de canal admitidos (0..capacity-1)
+    @Value("${dante.state.capacity:256}")
+    private int capacity;
+
+    // Atenuación de los canales sin prioridad mientras suena un canal con prioridad
+    @Value("${dante.mix.duck-depth-db:15}")
+    private double duckDepthDb;
+
+    // Palabra por canal publicada por el escritor: bits bajos = estado, bits altos = versión de la escritura
+    private static final int STATE_GAIN = 0x7F; // Ganancia efectiva 0-100
+    public static final int STATE_CUE = 1 << 7;
+    public static final int STATE_MUTED = 1 << 8;
+    public static final int STATE_SOLO = 1 << 9;
+    private static final int STATE_TIMED = 1 << 10; // Rampa o fundido con prioridad en curso: se calcula al leer
+
+    // Bits de mixFlags
+    private static final int SOLO_ACTIVE = 1; // Hay al menos un canal en solo
+    private static final int DUCK_ACTIVE = 2; // Suena al menos un canal con prioridad
+    private static final int DUCK_HOLD = 4;   // Un canal con prioridad se está desvaneciendo: atenúa hasta duckHoldUntil
+    private static final int SOLO_EXCLUSIVE = 8; // El solo actual lo fijó soloExclusive (canal en exclusiveChannel)
+    
+    // Intentos de leer una rampa sin coincidir con una escritura antes de usar el valor fijado
+    private static final int RAMP_READ_ATTEMPTS = 64;
+
+    private AtomicIntegerArray known;
+    private AtomicIntegerArray volume;
+    private AtomicIntegerArray muted;
+    private AtomicIntegerArray solo;
+    private AtomicIntegerArray cue;      // Escucha previa al fader (PFL) en el bus de cue
+    private AtomicIntegerArray priority; // Al sonar atenúa (ducking) al resto de canales
+    private AtomicIntegerArray active; // Thread del canal vivo (no lo toca el solo)
+    // Derivado: volumen del canal con su mute aplicado (solo y ducking se aplican al leer)
+    private AtomicIntegerArray gain;
+    // Derivado: palabra de estado de cada canal para el bucle de audio (ver STATE_*)
+    private AtomicLongArray blockState;
+    
+    // Rampas: el volumen pasa de rampFrom a rampTo (= volume) entre rampStart y rampEnd (nanoTime; 0 = sin rampa)
+    private AtomicIntegerArray rampFrom;
+    private AtomicLongArray rampStart;
+    private AtomicLongArray rampEnd;
+
+    private final AtomicLong version = new AtomicLong();
+    private final Object writeLock = new Object();
+    private int soloCount;
+    private final BitSet soloed = new BitSet(); // Canales en solo: soloExclusive y clearSolos no recorren la tabla
+    private volatile int exclusiveChannel = -1; // Canal de soloExclusive (válido con SOLO_EXCLUSIVE en mixFlags)
+    private int cueCount;
+    private int priorityCount;
+    private int duckSources; // Canales con prioridad que están sonando
+    private volatile long duckHoldUntil; // Fin del último fundido de salida de un canal con prioridad (nanoTime; 0 = ninguno)
+    private volatile int mixFlags;
+    private int duckUnits; // Profundidad del ducking en pasos de volumen (la tabla de ganancias es lineal en dB)
+    // Canales tocados por la escritura en curso (su palabra se vuelve a publicar en endWrite)
+    private int dirtyFrom = Integer.MAX_VALUE;
+    private int dirtyTo = -1;
+
+    @PostConstruct
+    public void init() {
+        known = new AtomicIntegerArray(capacity);
+        volume = new AtomicIntegerArray(capacity);
+        muted = new AtomicIntegerArray(capacity);
+        solo = new AtomicIntegerArray(capacity);
+        cue = new AtomicIntegerArray(capacity);
+        priority = new AtomicIntegerArray(capacity);
+        active = new AtomicIntegerArray(capacity);
+        gain = new AtomicIntegerArray(capacity);
+        blockState = new AtomicLongArray(capacity);
+        rampFrom = new AtomicIntegerArray(capacity);
+        rampStart = new AtomicLongArray(capacity);
+        rampEnd = new AtomicLongArray(capacity);
+        duckUnits = (int) Math.round(Math.max(0, duckDepthDb) * 100 / GainTable.RANGE_DB);
+        System.out.println("ChannelStateTable inicializada para " + capacity + " canales");
+    }
+
+    // ===== Camino caliente =====
+
+    /**
+     * Estado del canal para un bloque: ganancia efectiva ({@link #gainOf}), cue ({@link #cueOf}) y banderas STATE_*
+     * Sin rampa ni fundido con prioridad en curso es una sola lectura volátil; si no, la rampa se lee
+     * validada con la versión y, si no se consigue una lectura coherente, se usa la ganancia fijada
+     */
+    public int getBlockState(int channelId, long nowNanos) {
+        if (channelId < 0 || channelId >= capacity) {
+            return 0;
+        }
+        long word = blockState.get(channelId);
+        int state = (int) word;
+        if ((state & STATE_TIMED) == 0) {
+            return state;
+        }
+        int level;
+        long end = rampEnd.get(channelId);
+        if (end != 0 && nowNanos - end < 0) {
+            level = readRamp(channelId, nowNanos, true);
+            level = mix(flagsAt(nowNanos), solo.get(channelId), priority.get(channelId), level >= 0 ? level : gain.get(channelId));
+        } else if (priority.get(channelId) == 0 && (mixFlags & DUCK_HOLD) != 0 && nowNanos - duckHoldUntil < 0) {
+            level = mix(flagsAt(nowNanos), solo.get(channelId), 0, gain.get(channelId));
+        } else {
+            // Terminado: la ganancia publicada ya es la final y se quita la marca (si nadie publicó otra)
+            blockState.compareAndSet(channelId, word, word & ~(long) STATE_TIMED);
+            return state & ~STATE_TIMED;
+        }
+        return (state & ~(STATE_GAIN | STATE_TIMED)) | level;
+    }
+
+    public static int gainOf(int blockState) {
+        return blockState & STATE_GAIN;
+    }
+
+    public static boolean cueOf(int blockState) {
+        return (blockState & STATE_CUE) != 0;
+    }
+
+    /**
+     * Ganancia efectiva del canal (0-100) en este instante
+     */
+    public int getGain(int channelId) {
+        return gainOf(getBlockState(channelId, System.nanoTime()));
+    }
+    
+    /**
+     * Ganancia efectiva en un instante, evaluando la rampa de automatización si hay una en curso
+     */
+    public int getGain(int channelId, long nowNanos) {
+        return gainOf(getBlockState(channelId, nowNanos));
+    }
+
+    // ===== Lecturas =====
+
+    public int getVolume(int channelId) {
+        return inRange(channelId) ? volume.get(channelId) : 0;
+    }
+    
+    /**
+     * Volumen en un instante (el de la rampa si hay una en curso; si no, el volumen fijado)
+     */
+    public int getVolumeAt(int channelId, long nowNanos) {
+        if (!inRange(channelId)) {
+            return 0;
+        }
+        long end = rampEnd.get(channelId);
+        if (end == 0 || nowNanos - end >= 0) {
+            return volume.get(channelId);
+        }
+        int level = readRamp(channelId, nowNanos, false);
+        return level >= 0 ? level : volume.get(channelId);
+    }
+    
+    /**
+     * Fin de la rampa en curso del canal (nanoTime; 0 si no hay)
+     */
+    public long getRampEnd(int channelId) {
+        return inRange(channelId) ? rampEnd.get(channelId) : 0;
+    }
+
+    public boolean isMuted(int channelId) {
+        return inRange(channelId) && muted.get(channelId) != 0;
+    }
+
+    public boolean isSolo(int channelId) {
+        return inRange(channelId) && solo.get(channelId) != 0;
+    }
+
+    public boolean isCue(int channelId) {
+        return inRange(channelId) && cue.get(channelId) != 0;
+    }
+
+    public boolean isPriority(int channelId) {
+        return inRange(channelId) && priority.get(channelId) != 0;
+    }
+
+    public boolean isActive(int channelId) {
+        return inRange(channelId) && active.get(channelId) != 0;
+    }
+
+    /**
+     * Indica si el canal es el que dejó sonando {@link #soloExclusive} (hasta que se quiten los solos)
+     */
+    public boolean isSoloExclusive(int channelId) {
+        return (mixFlags & SOLO_EXCLUSIVE) != 0 && exclusiveChannel == channelId;
+    }
+
+    /**
+     * Indica si algún canal tiene el cue activado
+     */
+    public boolean hasCue() {
+        synchronized (writeLock) {
+            return cueCount > 0;
+        }
+    }
+
+    /**
+     * Indica si el ducking está atenuando ahora a los canales sin prioridad
+     */
+    public boolean isDucking() {
+        return (flagsAt(System.nanoTime()) & DUCK_ACTIVE) != 0;
+    }
+
+    public int getDuckUnits() {
+        return duckUnits;
+    }
+
+    public boolean isKnown(int channelId) {
+        return inRange(channelId) && known.get(channelId) != 0;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Copia coherente de toda la tabla (reintenta si coincide con una escritura)
+     */
+    public ChannelStateSnapshot snapshot() {
+        while (true) {
+            long before = version.get();
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int[] knownCopy = copy(known);
+            int[] volumeCopy = copy(volume);
+            int[] mutedCopy = copy(muted);
+            int[] soloCopy = copy(solo);
+            int[] cueCopy = copy(cue);
+            int[] priorityCopy = copy(priority);
+            int[] activeCopy = copy(active);
+            int[] gainCopy = copy(gain);
+            int flags = flagsAt(System.nanoTime());
+            if (version.get() == before) {
+                // La copia guarda la ganancia que realmente suena (con solo y ducking aplicados)
+                for (int i = 0; i < gainCopy.length; i++) {
+                    gainCopy[i] = mix(flags, soloCopy[i], priorityCopy[i], gainCopy[i]);
+                }
+                return new ChannelStateSnapshot(before, knownCopy, volumeCopy, mutedCopy, soloCopy,
+                        cueCopy, priorityCopy, activeCopy, gainCopy);
+            }
+        }
+    }
+
+    // ===== Escrituras =====
+
+    /**
+     * Registra un canal (p.ej. al cargar la configuración); no cambia su estado si ya existía
+     */
+    public void registerChannel(int channelId) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            known.set(channelId, 1);
+            endWrite();
+        }
+    }
+
+    /**
+     * Elimina un canal y limpia su estado
+     */
+    public void removeChannel(int channelId) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            known.set(channelId, 0);
+            rampEnd.set(channelId, 0);
+            volume.set(channelId, 0);
+            muted.set(channelId, 0);
+            writeSolo(channelId, false);
+            writeCue(channelId, false);
+            recomputeGain(channelId);
+            writePriority(channelId, false);
+            active.set(channelId, 0);
+            endWrite();
+        }
+    }
+
+    public void setVolume(int channelId, int level) {
+        checkRange(channelId);
+        if (level < 0 || level > 100) {
+            throw new IllegalArgumentException("El volumen debe estar entre 0 y 100");
+        }
+        synchronized (writeLock) {
+            beginWrite();
+            known.set(channelId, 1);
+            rampEnd.set(channelId, 0); // Un cambio manual anula la rampa en curso
+            volume.set(channelId, level);
+            recomputeGain(channelId);
+            endWrite();
+        }
+    }
+
+    /**
+     * Aplica varios volúmenes en una sola versión (se validan todos antes de escribir)
+     * @return versión resultante
+     */
+    public long setVolumes(int[] channelIds, int[] levels) {
+        if (channelIds.length != levels.length) {
+            throw new IllegalArgumentException("Se esperaba un volumen por canal");
+        }
+        for (int i = 0; i < channelIds.length; i++) {
+            checkRange(channelIds[i]);
+            if (levels[i] < 0 || levels[i] > 100) {
+                throw new IllegalArgumentException("El volumen debe estar entre 0 y 100 (canal " + channelIds[i] + ")");
+            }
+        }
+        synchronized (writeLock) {
+            beginWrite();
+            for (int i = 0; i < channelIds.length; i++) {
+                known.set(channelIds[i], 1);
+                rampEnd.set(channelIds[i], 0);
+                volume.set(channelIds[i], levels[i]);
+                recomputeGain(channelIds[i]);
+            }
+            endWrite();
+            return version.get();
+        }
+    }
+
+    /**
+     * Inicia rampas de volumen en varios canales a la vez (una sola versión)
+     * Cada rampa parte del volumen que el canal tiene en startNanos, así una rampa interrumpida continúa sin saltos.
+     * El volumen fijado pasa a ser el destino; el audio lo alcanza al terminar la rampa.
+     * @return fin de las rampas (nanoTime)
+     */
+    public long startRamps(int[] channelIds, int[] targets, long startNanos, long durationNanos) {
+        if (channelIds.length != targets.length) {
+            throw new IllegalArgumentException("Se esperaba un volumen destino por canal");
+        }
+        for (int i = 0; i < channelIds.length; i++) {
+            checkRange(channelIds[i]);
+            if (targets[i] < 0 || targets[i] > 100) {
+                throw new IllegalArgumentException("El volumen debe estar entre 0 y 100 (canal " + channelIds[i] + ")");
+            }
+        }
+        long end = startNanos + Math.max(1, durationNanos);
+        if (end == 0) {
+            end = 1; // 0 está reservado para "sin rampa"
+        }
+        synchronized (writeLock) {
+            beginWrite();
+            for (int i = 0; i < channelIds.length; i++) {
+                int id = channelIds[i];
+                int from = currentVolume(id, startNanos);
+                known.set(id, 1);
+                // El fin se publica el último: quien lo lee ve ya el origen y el inicio
+                rampEnd.set(id, 0);
+                rampFrom.set(id, from);
+                rampStart.set(id, startNanos);
+                volume.set(id, targets[i]);
+                recomputeGain(id);
+                rampEnd.set(id, end);
+            }
+            endWrite();
+        }
+        return end;
+    }
+    
+    /**
+     * Aplica una escena completa (volumen, mute y solo de cada canal) en una sola versión
+     * Con fundido, todas las rampas comparten inicio y fin; sin fundido el cambio es inmediato.
+     * @return versión resultante
+     */
+    public long applyScene(int[] channelIds, int[] volumes, boolean[] mutedFlags, boolean[] soloFlags,
+                           long startNanos, long fadeNanos) {
+        for (int i = 0; i < channelIds.length; i++) {
+            checkRange(channelIds[i]);
+            if (volumes[i] < 0 || volumes[i] > 100) {
+                throw new IllegalArgumentException("El volumen debe estar entre 0 y 100 (canal " + channelIds[i] + ")");
+            }
+        }
+        long end = startNanos + fadeNanos;
+        if (end == 0) {
+            end = 1;
+        }
+        synchronized (writeLock) {
+            beginWrite();
+            for (int i = 0; i < channelIds.length; i++) {
+                int id = channelIds[i];
+                int from = currentVolume(id, startNanos);
+                known.set(id, 1);
+                rampEnd.set(id, 0);
+                muted.set(id, mutedFlags[i] ? 1 : 0);
+                writeSolo(id, soloFlags[i]);
+                volume.set(id, volumes[i]);
+                recomputeGain(id);
+                if (fadeNanos > 0 && from != volumes[i]) {
+                    rampFrom.set(id, from);
+                    rampStart.set(id, startNanos);
+                    rampEnd.set(id, end);
+                }
+            }
+            endWrite();
+            return version.get();
+        }
+    }
+    
+    /**
+     * Detiene la rampa del canal dejando el volumen donde esté en ese instante
+     * @return volumen en el que queda el canal
+     */
+    public int holdRamp(int channelId, long nowNanos) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            int current = currentVolume(channelId, nowNanos);
+            rampEnd.set(channelId, 0);
+            volume.set(channelId, current);
+            recomputeGain(channelId);
+            endWrite();
+            return current;
+        }
+    }
+
+    public void setMuted(int channelId, boolean value) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            known.set(channelId, 1);
+            muted.set(channelId, value ? 1 : 0);
+            recomputeGain(channelId);
+            endWrite();
+        }
+    }
+
+    /**
+     * Activa o quita el solo de un canal (admite varios canales en solo a la vez)
+     * Sólo cambia su bandera y el contador global: el bucle de audio lo aplica en el siguiente bloque
+     */
+    public void setSolo(int channelId, boolean value) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            known.set(channelId, 1);
+            writeSolo(channelId, value);
+            endWrite();
+        }
+    }
+
+    /**
+     * Deja en solo únicamente el canal indicado, en una sola versión
+     */
+    public void soloExclusive(int channelId) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            for (int i = soloed.nextSetBit(0); i >= 0; i = soloed.nextSetBit(i + 1)) {
+                if (i != channelId) {
+                    writeSolo(i, false);
+                }
+            }
+            known.set(channelId, 1);
+            writeSolo(channelId, true);
+            exclusiveChannel = channelId;
+            endWrite();
+        }
+    }
+
+    /**
+     * Quita todos los solos (y la marca de soloExclusive) en una sola versión
+     * @return número de canales que estaban en solo
+     */
+    public int clearSolos() {
+        synchronized (writeLock) {
+            beginWrite();
+            int cleared = soloCount;
+            for (int i = soloed.nextSetBit(0); i >= 0; i = soloed.nextSetBit(i + 1)) {
+                writeSolo(i, false);
+            }
+            endWrite();
+            return cleared;
+        }
+    }
+
+    /**
+     * Envía o retira el canal del bus de cue (escucha previa al fader)
+     */
+    public void setCue(int channelId, boolean value) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            known.set(channelId, 1);
+            writeCue(channelId, value);
+            endWrite();
+        }
+    }
+
+    /**
+     * Marca el canal como prioritario: mientras suene, el resto de canales se atenúa
+     */
+    public void setPriority(int channelId, boolean value) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            known.set(channelId, 1);
+            writePriority(channelId, value);
+            endWrite();
+        }
+    }
+
+    public void setActive(int channelId, boolean value) {
+        checkRange(channelId);
+        synchronized (writeLock) {
+            beginWrite();
+            active.set(channelId, value ? 1 : 0);
+            endWrite();
+        }
+    }
+
+    /**
+     * Pone a 0 el volumen de todos los canales
+     */
+    public void resetAllVolumes() {
+        synchronized (writeLock) {
+            beginWrite();
+            for (int i = 0; i < capacity; i++) {
+                rampEnd.set(i, 0);
+                volume.set(i, 0);
+            }
+            recomputeAllGains();
+            endWrite();
+        }
+    }
+
+    // ===== Internos (llamar con writeLock) =====
+
+    private void beginWrite() {
+        version.incrementAndGet(); // Impar: escritura en curso
+    }
+
+    private void endWrite() {
+        // El estado global de mezcla se publica una vez por escritura
+        int previousFlags = mixFlags;
+        long previousHold = duckHoldUntil;
+        recountDuckSources(System.nanoTime());
+        mixFlags = (soloCount > 0 ? SOLO_ACTIVE : 0) | (duckSources > 0 ? DUCK_ACTIVE : 0)
+                | (duckHoldUntil != 0 ? DUCK_HOLD : 0) | (exclusiveChannel >= 0 ? SOLO_EXCLUSIVE : 0);
+        // Si cambió el estado global cambia la ganancia de todos; si no, sólo la de los canales tocados
+        if (mixFlags != previousFlags || duckHoldUntil != previousHold) {
+            dirtyFrom = 0;
+            dirtyTo = capacity - 1;
+        }
+        for (int i = dirtyFrom; i <= dirtyTo; i++) {
+            publishState(i);
+        }
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = -1;
+        version.incrementAndGet(); // Par: estado coherente
+    }
+
+    /**
+     * Calcula y publica la palabra de estado del canal; la versión (impar, única por escritura)
+     * en los bits altos hace que el CAS de un lector sobre una palabra anterior falle
+     */
+    private void publishState(int channelId) {
+        int flags = mixFlags;
+        int priorityFlag = priority.get(channelId);
+        int state = mix(flags, solo.get(channelId), priorityFlag, gain.get(channelId))
+                | (cue.get(channelId) != 0 ? STATE_CUE : 0)
+                | (muted.get(channelId) != 0 ? STATE_MUTED : 0)
+                | (solo.get(channelId) != 0 ? STATE_SOLO : 0);
+        if (rampEnd.get(channelId) != 0 || ((flags & DUCK_HOLD) != 0 && priorityFlag == 0)) {
+            state |= STATE_TIMED;
+        }
+        blockState.set(channelId, (version.get() << 32) | (state & 0xFFFFFFFFL));
+    }
+
+    private void markDirty(int channelId) {
+        dirtyFrom = Math.min(dirtyFrom, channelId);
+        dirtyTo = Math.max(dirtyTo, channelId);
+    }
+
+    private void recomputeGain(int channelId) {
+        gain.set(channelId, muted.get(channelId) != 0 ? 0 : volume.get(channelId));
+        markDirty(channelId);
+    }
+
+    /**
+     * Cuenta los canales con prioridad que suenan de verdad (solo aplicado) y el fin del fundido de salida
+     * más tardío; sólo recorre la tabla si hay algún canal con prioridad
+     */
+    private void recountDuckSources(long nowNanos) {
+        int sources = 0;
+        long holdUntil = 0;
+        if (priorityCount > 0) {
+            for (int i = 0; i < capacity; i++) {
+                if (priority.get(i) == 0 || (soloCount > 0 && solo.get(i) == 0)) {
+                    continue;
+                }
+                if (gain.get(i) > 0) {
+                    sources++;
+                    continue;
+                }
+                // Destino 0 fijado al iniciar el fundido: sigue sonando hasta el final de la rampa
+                long end = rampEnd.get(i);
+                if (end != 0 && nowNanos - end < 0 && muted.get(i) == 0 && rampFrom.get(i) > 0
+                        && (holdUntil == 0 || end - holdUntil > 0)) {
+                    holdUntil = end;
+                }
+            }
+        }
+        duckSources = sources;
+        duckHoldUntil = holdUntil;
+    }
+
+    private void writePriority(int channelId, boolean value) {
+        markDirty(channelId);
+        priorityCount += (value ? 1 : 0) - priority.getAndSet(channelId, value ? 1 : 0);
+    }
+
+    private void writeSolo(int channelId, boolean value) {
+        markDirty(channelId);
+        soloed.set(channelId, value);
+        if (!value && channelId == exclusiveChannel) {
+            exclusiveChannel = -1;
+        }
+        soloCount += (value ? 1 : 0) - solo.getAndSet(channelId, value ? 1 : 0);
+    }
+
+    private void writeCue(int channelId, boolean value) {
+        markDirty(channelId);
+        cueCount += (value ? 1 : 0) - cue.getAndSet(channelId, value ? 1 : 0);
+    }
+
+    /**
+     * Estado de mezcla en un instante: un fundido de salida con prioridad sigue atenuando hasta que acaba
+     */
+    private int flagsAt(long nowNanos) {
+        int flags = mixFlags;
+        if ((flags & DUCK_HOLD) != 0) {
+            long hold = duckHoldUntil;
+            if (hold != 0 && nowNanos - hold < 0) {
+                flags |= DUCK_ACTIVE;
+            }
+        }
+        return flags;
+    }
+
+    private int mix(int flags, int soloFlag, int priorityFlag, int level) {
+        if (level == 0) {
+            return 0;
+        }
+        if ((flags & SOLO_ACTIVE) != 0 && soloFlag == 0) {
+            return 0;
+        }
+        if ((flags & DUCK_ACTIVE) != 0 && priorityFlag == 0) {
+            return Math.max(1, level - duckUnits); // Atenuado, pero sin llegar a silencio
+        }
+        return level;
+    }
+    
+    /**
+     * Volumen (con el mute aplicado si se pide) en un instante leyendo origen, inicio, fin y destino
+     * de la rampa con la versión, como {@link #snapshot}: los escritores los cambian juntos
+     * @return el volumen, o -1 si todas las lecturas coincidieron con una escritura
+     */
+    private int readRamp(int channelId, long nowNanos, boolean applyMute) {
+        for (int attempt = 0; attempt < RAMP_READ_ATTEMPTS; attempt++) {
+            long before = version.get();
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+            int level;
+            long end = rampEnd.get(channelId);
+            if (applyMute && muted.get(channelId) != 0) {
+                level = 0;
+            } else if (end == 0 || nowNanos - end >= 0) {
+                level = volume.get(channelId);
+            } else {
+                level = interpolate(channelId, nowNanos, end);
+            }
+            if (version.get() == before) {
+                return level;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Volumen en un instante sin validar la versión (sólo escritores, con writeLock)
+     */
+    private int currentVolume(int channelId, long nowNanos) {
+        long end = rampEnd.get(channelId);
+        if (end == 0 || nowNanos - end >= 0) {
+            return volume.get(channelId);
+        }
+        return interpolate(channelId, nowNanos, end);
+    }
+    
+    private int interpolate(int channelId, long nowNanos, long end) {
+        long start = rampStart.get(channelId);
+        int from = rampFrom.get(channelId);
+        if (nowNanos - start <= 0) {
+            return from;
+        }
+        int to = volume.get(channelId);
+        return from + (int) ((to - from) * (nowNanos - start) / (end - start));
+    }
+
+    private void recomputeAllGains() {
+        for (int i = 0; i < capacity; i++) {
+            recomputeGain(i);
+        }
+    }
+
+    private boolean inRange(int channelId) {
+        return channelId >= 0 && channelId < capacity;
+    }
+
+    private void checkRange(int channelId) {
+        if (!inRange(channelId)) {
+            throw new IllegalArgumentException("Canal " + channelId + " fuera de la tabla de estado (0-" + (capacity - 1) + ")");
+        }
+    }
+
+    private static int[] copy(AtomicIntegerArray source) {
+        int[] result = new int[source.length()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = source.get(i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.config.ThreadWebSocketHandler;
+import com.example.DanteClient.thread.model.ChannelSupervisionState;
+import com.example.DanteClient.thread.model.RestartPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Supervisor de canales: mantiene el estado deseado vs real de cada canal y reinicia
+ * automáticamente los threads que terminan según su política, con backoff exponencial
+ * y un presupuesto máximo de reinicios por ventana de tiempo
+ */
+@Component
+public class ChannelSupervisor {
+
+    @Autowired
+    @Lazy
+    private ChannelThreadService threadService;
+
+    @Autowired
+    private ThreadWebSocketHandler threadWebSocketHandler;
+
+    @Value("${dante.supervisor.default-policy:ON_FAILURE}")
+    private String defaultPolicyName;
+
+    @Value("${dante.supervisor.initial-backoff-ms:500}")
+    private long initialBackoffMs;
+
+    @Value("${dante.supervisor.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    // Reinicios permitidos dentro de la ventana antes de rendirse
+    @Value("${dante.supervisor.restart-budget:5}")
+    private int restartBudget;
+
+    @Value("${dante.supervisor.budget-window-ms:60000}")
+    private long budgetWindowMs;
+
+    // Si el canal funcionó al menos este tiempo, el backoff vuelve al valor inicial
+    @Value("${dante.supervisor.stable-after-ms:30000}")
+    private long stableAfterMs;
+
+    private final ConcurrentHashMap<Integer, ChannelSupervisionState> states = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "channel-supervisor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * El canal se inició correctamente (manualmente o por un reinicio)
+     */
+    public void onChannelStarted(int channelId) {
+        ChannelSupervisionState state = stateOf(channelId);
+        synchronized (state) {
+            state.cancelPendingRestart();
+            state.setDesiredState(ChannelSupervisionState.DESIRED_RUNNING);
+            state.setActualState(ChannelSupervisionState.ACTUAL_RUNNING);
+            state.setLastStartMs(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Se solicitó detener el canal: ya no debe reiniciarse (aunque su thread ya no exista)
+     * @return true si había un reinicio programado que se canceló
+     */
+    public boolean onChannelStopRequested(int channelId) {
+        ChannelSupervisionState state = stateOf(channelId);
+        synchronized (state) {
+            boolean pending = state.hasPendingRestart();
+            state.cancelPendingRestart();
+            state.setDesiredState(ChannelSupervisionState.DESIRED_STOPPED);
+            state.setActualState(ChannelSupervisionState.ACTUAL_STOPPED);
+            return pending;
+        }
+    }
+
+    /**
+     * Se solicitó detener todo: ningún canal supervisado debe volver a arrancar
+     * @return canales que debían estar en marcha (con o sin thread vivo)
+     */
+    public List<Integer> onAllStopRequested() {
+        List<Integer> stopped = new ArrayList<>();
+        for (ChannelSupervisionState state : states.values()) {
+            synchronized (state) {
+                if (ChannelSupervisionState.DESIRED_RUNNING.equals(state.getDesiredState())) {
+                    stopped.add(state.getChannelId());
+                }
+                state.cancelPendingRestart();
+                state.setDesiredState(ChannelSupervisionState.DESIRED_STOPPED);
+                state.setActualState(ChannelSupervisionState.ACTUAL_STOPPED);
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * El thread del canal terminó; decide si debe reiniciarse
+     * @param failed true si terminó con una excepción
+     */
+    public void onChannelExit(int channelId, boolean failed, String reason) {
+        ChannelSupervisionState state = stateOf(channelId);
+        synchronized (state) {
+            state.recordExit(reason);
+
+            if (!ChannelSupervisionState.DESIRED_RUNNING.equals(state.getDesiredState())) {
+                state.setActualState(ChannelSupervisionState.ACTUAL_STOPPED);
+                return;
+            }
+
+            state.setActualState(failed ? ChannelSupervisionState.ACTUAL_FAILED : ChannelSupervisionState.ACTUAL_STOPPED);
+            boolean restart = state.getPolicy() == RestartPolicy.ALWAYS
+                    || (state.getPolicy() == RestartPolicy.ON_FAILURE && failed);
+            if (restart) {
+                scheduleRestart(state);
+            }
+        }
+    }
+
+    /**
+     * Programa un reinicio con backoff exponencial si queda presupuesto (llamar con el lock del estado)
+     */
+    private void scheduleRestart(ChannelSupervisionState state) {
+        int channelId = state.getChannelId();
+        long now = System.currentTimeMillis();
+
+        if (state.restartsInWindow(now, budgetWindowMs) >= restartBudget) {
+            state.setActualState(ChannelSupervisionState.ACTUAL_GAVE_UP);
+            System.err.println("🛑 Supervisor: canal " + channelId + " agotó su presupuesto de " + restartBudget + " reinicios");
+            threadWebSocketHandler.notifyChannelRestartExhausted(channelId, restartBudget, budgetWindowMs, state.getLastExitReason());
+            return;
+        }
+
+        // Un canal que funcionó el tiempo suficiente vuelve a empezar el backoff
+        if (state.getLastStartMs() > 0 && now - state.getLastStartMs() >= stableAfterMs) {
+            state.setConsecutiveFailures(0);
+        }
+
+        int attempt = state.getConsecutiveFailures() + 1;
+        state.setConsecutiveFailures(attempt);
+        long delayMs = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        state.recordRestart(now);
+
+        ScheduledFuture<?> future = scheduler.schedule(() -> attemptRestart(channelId), delayMs, TimeUnit.MILLISECONDS);
+        state.setPendingRestart(future, LocalDateTime.now().plusNanos(delayMs * 1_000_000));
+        state.setActualState(ChannelSupervisionState.ACTUAL_BACKOFF);
+
+        System.out.println("♻️ Supervisor: reinicio del canal " + channelId + " (intento " + attempt + ") en " + delayMs + " ms");
+        threadWebSocketHandler.notifyChannelRestartScheduled(channelId, attempt, delayMs, state.getLastExitReason());
+    }
+
+    /**
+     * Ejecuta un reinicio programado
+     */
+    private void attemptRestart(int channelId) {
+        ChannelSupervisionState state = stateOf(channelId);
+        synchronized (state) {
+            state.clearPendingRestart();
+            if (!ChannelSupervisionState.DESIRED_RUNNING.equals(state.getDesiredState())
+                    || threadService.isThreadActive(channelId)) {
+                return;
+            }
+        }
+
+        try {
+            threadService.startChannelThread(channelId);
+            System.out.println("✅ Supervisor: canal " + channelId + " reiniciado");
+        } catch (Exception e) {
+            // El propio intento fallido cuenta como otra salida con error
+            System.err.println("❌ Supervisor: fallo al reiniciar canal " + channelId + ": " + e.getMessage());
+            onChannelExit(channelId, true, e.getMessage());
+        }
+    }
+
+    /**
+     * Cambia la política de reinicio de un canal
+     */
+    public void setPolicy(int channelId, RestartPolicy policy) {
+        ChannelSupervisionState state = stateOf(channelId);
+        synchronized (state) {
+            state.setPolicy(policy);
+            if (policy == RestartPolicy.NEVER) {
+                state.cancelPendingRestart();
+            }
+        }
+        System.out.println("Supervisor: canal " + channelId + " con política " + policy);
+    }
+
+    /**
+     * Reinicia el presupuesto de un canal que se rindió y, si debe estar en marcha, lo vuelve a intentar
+     */
+    public void resetChannel(int channelId) {
+        ChannelSupervisionState state = stateOf(channelId);
+        synchronized (state) {
+            state.resetBudget();
+            if (ChannelSupervisionState.ACTUAL_GAVE_UP.equals(state.getActualState())) {
+                scheduleRestart(state);
+            }
+        }
+    }
+
+    /**
+     * Información de supervisión de un canal
+     */
+    public Map<String, Object> getChannelInfo(int channelId) {
+        ChannelSupervisionState state = stateOf(channelId);
+        synchronized (state) {
+            Map<String, Object> info = new HashMap<>();
+            info.put("channelId", channelId);
+            info.put("policy", state.getPolicy().name());
+            info.put("desiredState", state.getDesiredState());
+            info.put("actualState", threadService.isThreadActive(channelId)
+                    ? ChannelSupervisionState.ACTUAL_RUNNING : state.getActualState());
+            info.put("totalRestarts", state.getTotalRestarts());
+            info.put("consecutiveFailures", state.getConsecutiveFailures());
+            info.put("restartsInWindow", state.restartsInWindow(System.currentTimeMillis(), budgetWindowMs));
+            info.put("restartBudget", restartBudget);
+            info.put("lastExitReason", state.getLastExitReason());
+            info.put("lastExitTime", state.getLastExitTime());
+            info.put("nextRestartTime", state.getNextRestartTime());
+            return info;
+        }
+    }
+
+    /**
+     * Información de supervisión de todos los canales conocidos
+     */
+    public List<Map<String, Object>> getAllChannelInfo() {
+        List<Map<String, Object>> all = new ArrayList<>();
+        states.keySet().stream().sorted().forEach(channelId -> all.add(getChannelInfo(channelId)));
+        return all;
+    }
+
+    /**
+     * Configuración global del supervisor
+     */
+    public Map<String, Object> getSettings() {
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("defaultPolicy", defaultPolicy().name());
+        settings.put("initialBackoffMs", initialBackoffMs);
+        settings.put("maxBackoffMs", maxBackoffMs);
+        settings.put("restartBudget", restartBudget);
+        settings.put("budgetWindowMs", budgetWindowMs);
+        settings.put("stableAfterMs", stableAfterMs);
+        return settings;
+    }
+
+    private ChannelSupervisionState stateOf(int channelId) {
+        return states.computeIfAbsent(channelId, id -> new ChannelSupervisionState(id, defaultPolicy()));
+    }
+
+    private RestartPolicy defaultPolicy() {
+        RestartPolicy policy = RestartPolicy.fromString(defaultPolicyName);
+        return policy != null ? policy : RestartPolicy.ON_FAILURE;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.DanteClient.thread.service;
 
 import com.example.DanteClient.thread.model.ChannelThread;
+import com.example.DanteClient.thread.model.OverflowPolicy;
 import com.example.DanteClient.thread.model.ThreadEventListener;
 import com.example.DanteClient.data.util.ConfigUtil;
 import com.example.DanteClient.data.model.Channel;
@@ -8,15 +9,20 @@ import com.example.DanteClient.thread.exception.ThreadException;
 import com.example.DanteClient.thread.exception.ThreadExceptions;
 import com.example.DanteClient.thread.config.ThreadWebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Set;
+import java.util.HashSet;
 
 /**
  * Servicio para gestionar threads de canales de audio
@@ -27,20 +33,83 @@ public class ChannelThreadService implements ThreadEventListener {
     @Autowired
     private ThreadWebSocketHandler threadWebSocketHandler;
     
+    @Autowired
+    private ChannelResourcePool resourcePool;
+    
+    @Autowired
+    @Lazy
+    private ChannelSupervisor supervisor;
+    
+    @Autowired
+    private ChannelConsumerRegistry consumerRegistry;
+    
+    @Autowired
+    private ChannelStateTable stateTable;
+    
+    @Autowired
+    private CueBus cueBus;
+    
+    @Autowired
+    private ChannelEventBus eventBus;
+    
+    // Máximo de threads de canal simultáneos
+    @Value("${dante.threads.max-active:64}")
+    private int maxActiveThreads;
+    
+    // Intervalo mínimo entre avisos de fallo de plazo de un mismo canal
+    @Value("${dante.threads.deadline-event-interval-ms:1000}")
+    private long deadlineEventIntervalMs;
+    
+    // Bloques que caben entre la recepción y la reproducción de cada canal
+    @Value("${dante.playout.queue-blocks:8}")
+    private int playoutQueueBlocks;
+    
+    // Política cuando esa cola se llena: DROP_OLDEST, DROP_NEWEST o TIME_COMPRESS
+    @Value("${dante.playout.overflow-policy:DROP_OLDEST}")
+    private String playoutOverflowPolicy;
+    
+    // Llenado objetivo de la línea de audio (en bloques): se adapta entre estos límites; por encima del máximo se descarta
+    @Value("${dante.playout.min-fill-blocks:2}")
+    private int minFillBlocks;
+    
+    @Value("${dante.playout.max-fill-blocks:16}")
+    private int maxFillBlocks;
+    
+    // Bloques sin underrun tras los que el objetivo baja un bloque
+    @Value("${dante.playout.stable-blocks:2000}")
+    private long stableFillBlocks;
+    
+    // Tiempo a volumen 0 tras el que un canal aparca y libera su línea (0 = nunca)
+    @Value("${dante.parking.idle-ms:5000}")
+    private long parkingIdleMs;
+    
+    // Fundido de entrada al desaparcar
+    @Value("${dante.parking.fade-in-ms:10}")
+    private int parkingFadeInMs;
+    
+    // Rampa de ganancia ante cambios de volumen (evita clicks)
+    @Value("${dante.gain.ramp-ms:5}")
+    private int gainRampMs;
+    
     private final ConcurrentHashMap<Integer, ChannelThread> activeThreads;
-    private final ScheduledExecutorService executorService;
+    // Canales cuyo inicio está en curso (reserva para arranques en paralelo)
+    private final Set<Integer> startingChannels;
+    // Cada canal ocupa un thread durante toda su vida, por eso el pool crece bajo demanda
+    private final ExecutorService executorService;
     
     public ChannelThreadService() {
         this.activeThreads = new ConcurrentHashMap<>();
-        this.executorService = Executors.newScheduledThreadPool(10);
+        this.startingChannels = ConcurrentHashMap.newKeySet();
+        this.executorService = Executors.newCachedThreadPool();
         
-        System.out.println("ChannelThreadService inicializado con pool de 10 threads");
+        System.out.println("ChannelThreadService inicializado con pool de threads bajo demanda");
     }
     
     /**
      * Crea y ejecuta un nuevo thread para un canal específico
      */
     public boolean startChannelThread(int channelId) {
+        boolean reserved = false;
         try {
             // Verificar si el canal existe en la configuración
             Channel channel = ConfigUtil.getChannelById(channelId);
@@ -48,7 +117,12 @@ public class ChannelThreadService implements ThreadEventListener {
                 throw new ThreadExceptions.ChannelNotFoundException(channelId);
             }
             
-            // Verificar si ya existe un thread para este canal
+            // Reservar primero y comprobar después: un inicio en paralelo del mismo canal o bien no puede
+            // reservar, o bien ya ve el thread que el otro guardó antes de soltar su reserva
+            if (!startingChannels.add(channelId)) {
+                throw new ThreadExceptions.ThreadAlreadyExistsException(channelId);
+            }
+            reserved = true;
             if (activeThreads.containsKey(channelId)) {
                 throw new ThreadExceptions.ThreadAlreadyExistsException(channelId);
             }
@@ -58,16 +132,24 @@ public class ChannelThreadService implements ThreadEventListener {
                 throw new ThreadExceptions.ChannelDisabledException(channelId);
             }
             
-            // Verificar límite de threads (máximo 20 threads simultáneos)
-            if (activeThreads.size() >= 20) {
-                throw new ThreadExceptions.ThreadLimitExceededException(20);
+            // Verificar límite de threads (incluye los inicios en curso)
+            if (activeThreads.size() + startingChannels.size() > maxActiveThreads) {
+                throw new ThreadExceptions.ThreadLimitExceededException(maxActiveThreads);
             }
             
-            // Crear objeto ChannelThread primero
-            ChannelThread channelThread = new ChannelThread(channelId, channel.getName());
+            // Crear objeto ChannelThread primero (toma línea y suscripción calientes del pool)
+            ChannelThread channelThread = new ChannelThread(channelId, channel.getName(), resourcePool);
             
-            // Configurar el listener para recibir notificaciones del thread
-            channelThread.setEventListener(this);
+            // Los avisos del thread pasan por el bus de eventos (nunca se procesan en el hilo de audio)
+            channelThread.setEventListener(eventBus);
+            channelThread.setDeadlineEventIntervalMs(deadlineEventIntervalMs);
+            channelThread.configurePlayout(executorService, playoutQueueBlocks, getOverflowPolicy());
+            channelThread.configureLineFill(minFillBlocks, maxFillBlocks, stableFillBlocks);
+            channelThread.configureParking(parkingIdleMs, parkingFadeInMs);
+            channelThread.configureGainRamp(gainRampMs);
+            channelThread.setConsumerRegistry(consumerRegistry);
+            channelThread.setStateTable(stateTable);
+            channelThread.setCueBus(cueBus);
             
             // Crear y ejecutar el thread usando el método run del ChannelThread
             CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
@@ -77,15 +159,18 @@ public class ChannelThreadService implements ThreadEventListener {
             // Asignar el future al ChannelThread
             channelThread.setFuture(future);
             
-            // Almacenar el ChannelThread
+            // Almacenar el ChannelThread (la reserva sigue tomada, nadie más puede guardar este canal)
             activeThreads.put(channelId, channelThread);
             
+            // El estado deseado del canal pasa a RUNNING
+            supervisor.onChannelStarted(channelId);
+            
             // Notificar via WebSocket que el thread se inició
             if (threadWebSocketHandler != null) {
                 threadWebSocketHandler.notifyThreadStarted(channelId, channel.getName());
             }
             
-            System.out.println("Thread iniciado para canal " + channelId + " (" + channel.getName() + ")");
+            System.out.println("Thread iniciado para canal " + channelId + " (" + channel.getName() + ") - preparación: " + channelThread.getSetupMs() + " ms");
             return true;
             
         } catch (ThreadException ex) {
@@ -106,6 +191,10 @@ public class ChannelThreadService implements ThreadEventListener {
             }
             // Convertir cualquier otra excepción en ThreadCreationException
             throw new ThreadExceptions.ThreadCreationException(channelId, ex);
+        } finally {
+            if (reserved) {
+                startingChannels.remove(channelId);
+            }
         }
     }
     
@@ -114,14 +203,26 @@ public class ChannelThreadService implements ThreadEventListener {
      */
     public boolean stopChannelThread(int channelId) {
         try {
+            // Antes que nada el supervisor deja de querer el canal: si su thread murió y espera
+            // un reinicio (backoff), la parada lo cancela en lugar de devolver un error y dejarlo arrancar
+            boolean restartCancelled = supervisor.onChannelStopRequested(channelId);
             ChannelThread channelThread = activeThreads.get(channelId);
             
             if (channelThread == null) {
+                if (restartCancelled) {
+                    System.out.println("Reinicio pendiente del canal " + channelId + " cancelado");
+                    return true;
+                }
                 throw new ThreadExceptions.ThreadNotFoundException(channelId);
             }
             
             // Verificar estado del thread
             if (!channelThread.isRunning()) {
+                if (restartCancelled) {
+                    activeThreads.remove(channelId, channelThread);
+                    System.out.println("Reinicio pendiente del canal " + channelId + " cancelado");
+                    return true;
+                }
                 throw new ThreadExceptions.InvalidThreadStateException(channelId, channelThread.getStatus());
             }
             
@@ -164,12 +265,15 @@ public class ChannelThreadService implements ThreadEventListener {
      * Detiene todos los threads activos
      */
     public int stopAllThreads() {
-        int stoppedCount = 0;
+        // También los canales supervisados sin thread vivo (en backoff): no deben volver a arrancar
+        Set<Integer> stopped = new HashSet<>(supervisor.onAllStopRequested());
         
         for (ChannelThread channelThread : activeThreads.values()) {
+            supervisor.onChannelStopRequested(channelThread.getChannelId());
             channelThread.stop();
-            stoppedCount++;
+            stopped.add(channelThread.getChannelId());
         }
+        int stoppedCount = stopped.size();
         
         activeThreads.clear();
         System.out.println("Detenidos " + stoppedCount + " threads activos");
@@ -212,6 +316,28 @@ public class ChannelThreadService implements ThreadEventListener {
         return activeThreads.size();
     }
     
+    /**
+     * Política de desbordamiento configurada (DROP_OLDEST si el valor no es válido)
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        OverflowPolicy policy = OverflowPolicy.fromString(playoutOverflowPolicy);
+        return policy != null ? policy : OverflowPolicy.DROP_OLDEST;
+    }
+    
+    /**
+     * Número de canales aparcados (a volumen 0 sin línea de audio)
+     */
+    public int getParkedThreadsCount() {
+        return (int) activeThreads.values().stream().filter(ChannelThread::isParked).count();
+    }
+    
+    /**
+     * Obtiene el máximo de threads simultáneos permitidos
+     */
+    public int getMaxActiveThreads() {
+        return maxActiveThreads;
+    }
+    
 
     
     /**
@@ -233,18 +359,31 @@ public class ChannelThreadService implements ThreadEventListener {
         System.out.println("ChannelThreadService cerrado");
     }
     
-    // Implementación de ThreadEventListener
+    /**
+     * Quita el canal de los activos sólo si su thread registrado ya no se ejecuta
+     * (un stop + start rápido puede haber registrado un thread nuevo para el mismo canal)
+     */
+    private void removeIfNotRunning(int channelId) {
+        activeThreads.computeIfPresent(channelId, (id, thread) -> thread.isRunning() ? thread : null);
+    }
+    
+    @PostConstruct
+    public void subscribeToEvents() {
+        eventBus.subscribe(this);
+    }
+    
+    // Implementación de ThreadEventListener (llamada desde el hilo despachador del bus de eventos)
     
     @Override
     public void onThreadFinished(int channelId, String channelName, String reason) {
         System.out.println("🏁 Thread finalizado - Canal: " + channelId + ", Razón: " + reason);
         
-        // Remover thread de la lista activa
-        activeThreads.remove(channelId);
+        // Remover thread de la lista activa (sin tocar un thread nuevo del mismo canal)
+        removeIfNotRunning(channelId);
         
-        // Notificar via WebSocket
-        if (threadWebSocketHandler != null) {
-            threadWebSocketHandler.notifyThreadFinished(channelId, channelName, reason);
+        // El supervisor decide si el canal debe reiniciarse (salvo que ya corra un thread nuevo)
+        if (!isThreadActive(channelId)) {
+            supervisor.onChannelExit(channelId, false, reason);
         }
     }
     
@@ -254,22 +393,23 @@ public class ChannelThreadService implements ThreadEventListener {
         
         // Remover thread de la lista activa si hay error crítico
         if (exceptionType.contains("Error") || exceptionType.contains("Exception")) {
-            activeThreads.remove(channelId);
+            removeIfNotRunning(channelId);
         }
         
-        // Notificar via WebSocket
-        if (threadWebSocketHandler != null) {
-            threadWebSocketHandler.notifyThreadException(channelId, channelName, exceptionType, errorMessage);
+        // El supervisor decide si el canal debe reiniciarse (salvo que ya corra un thread nuevo)
+        if (!isThreadActive(channelId)) {
+            supervisor.onChannelExit(channelId, true, exceptionType + ": " + errorMessage);
         }
     }
     
     @Override
     public void onThreadStatusChanged(int channelId, String channelName, String oldStatus, String newStatus) {
         System.out.println("🔄 Cambio de estado - Canal: " + channelId + ", " + oldStatus + " -> " + newStatus);
-        
-        // Notificar via WebSocket
-        if (threadWebSocketHandler != null) {
-            threadWebSocketHandler.notifyThreadStatusChange(channelId, channelName, oldStatus, newStatus);
-        }
+    }
+    
+    @Override
+    public void onDeadlineMiss(int channelId, String channelName, long missesSinceLast, long totalMisses, long worstNanos, long budgetNanos) {
+        System.err.println("⏱️ Canal " + channelId + " se está quedando atrás: " + missesSinceLast + " bloques fuera de plazo (peor "
+                + worstNanos / 1000 + " µs, presupuesto " + budgetNanos / 1000 + " µs)");
     }
 }
\ No newline at end of file
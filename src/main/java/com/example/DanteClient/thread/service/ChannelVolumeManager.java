@@ -6,30 +6,34 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 
+import java.util.ArrayList;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.List;
-import com.example.DanteClient.thread.model.ChannelThread;
+import java.util.Map;
+import com.example.DanteClient.thread.model.ChannelStateSnapshot;
 
 /**
- * Singleton que maneja los volúmenes de los canales en memoria
+ * Singleton que maneja los volúmenes de los canales
+ * El estado vive en {@link ChannelStateTable}; este gestor mantiene la API usada por controladores y WebSocket
  */
 @Component
 public class ChannelVolumeManager {
     
     private static volatile ChannelVolumeManager instance;
-    private final ConcurrentHashMap<Integer, Integer> channelVolumes;
-    private final ConcurrentHashMap<Integer, Integer> previousVolumes;
-    private final ConcurrentHashMap<Integer, Boolean> threadActiveStates; // true = activo y no muteado
     
     @Autowired
     private DanteConfigService configService;
 
-   
+    @Autowired
+    private ChannelStateTable stateTable;
+
+    @Autowired
+    private CueBus cueBus;
+
+    @Autowired
+    private VolumeStateStore stateStore;
     
     private ChannelVolumeManager() {
-        this.channelVolumes = new ConcurrentHashMap<>();
-        this.previousVolumes = new ConcurrentHashMap<>();
-        this.threadActiveStates = new ConcurrentHashMap<>();
     }
     
     /**
@@ -54,13 +58,13 @@ public class ChannelVolumeManager {
         // Obtener los canales de la configuración
         List<Channel> channels = configService.getOrCreateConfig().getChannels();
         
-        // Inicializar los volúmenes y estados para cada canal
-        channels.forEach(channel -> {
-            channelVolumes.put(channel.getId(), 0);
-            threadActiveStates.put(channel.getId(), false); // Inicialmente todos inactivos
-        });
+        // Registrar cada canal en la tabla (volumen 0, inactivo)
+        channels.forEach(channel -> stateTable.registerChannel(channel.getId()));
+        
+        // Recuperar volumen, mute, solo y prioridad guardados antes del último apagado
+        int restored = stateStore.restore();
         
-        System.out.println("ChannelVolumeManager inicializado con " + channels.size() + " canales");
+        System.out.println("ChannelVolumeManager inicializado con " + channels.size() + " canales (" + restored + " restaurados)");
         
         // Establecer esta instancia como la instancia singleton
         instance = this;
@@ -74,36 +78,67 @@ public class ChannelVolumeManager {
             throw new IllegalArgumentException("El volumen debe estar entre 0 y 100");
         }
         
-        channelVolumes.put(channelId, volume);
+        stateTable.setVolume(channelId, volume);
         System.out.println("Canal " + channelId + " - Volumen establecido a " + volume);
     }
     
+    /**
+     * Establecer varios volúmenes de forma atómica (todos o ninguno)
+     * @param volumes volumen por ID de canal
+     * @return versión del estado tras aplicar el lote
+     */
+    public long setVolumes(Map<Integer, Integer> volumes) {
+        int[] ids = new int[volumes.size()];
+        int[] levels = new int[volumes.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : volumes.entrySet()) {
+            ids[i] = entry.getKey();
+            levels[i] = entry.getValue();
+            i++;
+        }
+        long version = stateTable.setVolumes(ids, levels);
+        System.out.println("Lote de " + ids.length + " volúmenes aplicado (versión " + version + ")");
+        return version;
+    }
+    
     /**
      * Obtener el volumen actual de un canal
      */
     public int getVolume(int channelId) {
-        return channelVolumes.getOrDefault(channelId, 0);
+        return stateTable.getVolume(channelId);
     }
 
     /**
-     * Obtener el volumen actual de un canal
+     * Obtener si el canal es el que quedó sonando en muteAllExcept (solo exclusivo)
      */
     public boolean getMutedThreadStatus(int channelId) {
-        return threadActiveStates.getOrDefault(channelId, false);
+        return stateTable.isSoloExclusive(channelId);
+    }
+    
+    /**
+     * Silenciar o quitar el silencio de un canal sin perder su volumen
+     */
+    public void setMuted(int channelId, boolean muted) {
+        stateTable.setMuted(channelId, muted);
+        System.out.println("Canal " + channelId + (muted ? " silenciado" : " sin silencio"));
+    }
+    
+    public boolean isMuted(int channelId) {
+        return stateTable.isMuted(channelId);
     }
     
     /**
      * Verificar si existe un canal
      */
     public boolean hasChannel(int channelId) {
-        return channelVolumes.containsKey(channelId);
+        return stateTable.isKnown(channelId);
     }
     
     /**
      * Reiniciar el volumen de un canal a 0
      */
     public void resetVolume(int channelId) {
-        channelVolumes.put(channelId, 0);
+        stateTable.setVolume(channelId, 0);
         System.out.println("Canal " + channelId + " - Volumen reiniciado a 0");
     }
     
@@ -111,7 +146,7 @@ public class ChannelVolumeManager {
      * Reiniciar todos los volúmenes a 0
      */
     public void resetAllVolumes() {
-        channelVolumes.replaceAll((k, v) -> 0);
+        stateTable.resetAllVolumes();
         System.out.println("Todos los volúmenes reiniciados a 0");
     }
     
@@ -119,134 +154,136 @@ public class ChannelVolumeManager {
      * Obtener todos los volúmenes actuales
      */
     public ConcurrentHashMap<Integer, Integer> getAllVolumes() {
-        return new ConcurrentHashMap<>(channelVolumes);
+        ChannelStateSnapshot snapshot = stateTable.snapshot();
+        ConcurrentHashMap<Integer, Integer> volumes = new ConcurrentHashMap<>();
+        for (int id : knownChannels(snapshot)) {
+            volumes.put(id, snapshot.getVolume(id));
+        }
+        return volumes;
+    }
+    
+    /**
+     * Copia coherente del estado de todos los canales
+     */
+    public ChannelStateSnapshot getSnapshot() {
+        return stateTable.snapshot();
+    }
+    
+    /**
+     * Versión actual del estado (cambia con cada modificación)
+     */
+    public long getStateVersion() {
+        return stateTable.getVersion();
     }
     
     /**
      * Agregar un nuevo canal (si no existe)
      */
     public void addChannel(int channelId) {
-        channelVolumes.putIfAbsent(channelId, 0);
-        System.out.println("Nuevo canal " + channelId + " agregado con volumen 0");
+        stateTable.registerChannel(channelId);
+        System.out.println("Nuevo canal " + channelId + " agregado con volumen " + stateTable.getVolume(channelId));
     }
     
     /**
      * Eliminar un canal
      */
     public void removeChannel(int channelId) {
-        channelVolumes.remove(channelId);
+        if (stateTable.isCue(channelId)) {
+            cueBus.setCue(channelId, false);
+        }
+        stateTable.removeChannel(channelId);
         System.out.println("Canal " + channelId + " eliminado del gestor de volúmenes");
     }
 
-    @Autowired
-    private ChannelThreadService threadService;
-
     /**
-     * Silencia todos los canales activos excepto el especificado, estableciendo su volumen a 0.
-     * Solo silencia los canales que tienen threads activos.
+     * Deja sonar sólo el canal especificado: es un solo exclusivo, no se toca el volumen de ningún canal
+     * y el bucle de audio lo aplica en el siguiente bloque.
      * @param channelId El ID del canal que no será silenciado.
-     * @return true si al menos un canal activo fue silenciado, false en caso contrario.
+     * @return true si el canal especificado existe, false en caso contrario.
      */
     public boolean muteAllExcept(int channelId) {
-        boolean muted = false;
-        previousVolumes.clear(); // Limpiar volúmenes anteriores
-        
-        // Obtener todos los threads activos
-        for (Integer id : channelVolumes.keySet()) {
-            // Solo procesar si es diferente al canal especificado
-            if (id != channelId) {
-                // Verificar si el thread está activo usando ChannelThreadService
-                if (threadService.isThreadActive(id)) {
-                    // Solo silenciar si el volumen no es 0
-                    int currentVolume = channelVolumes.get(id);
-                    //if (currentVolume != 0) {
-                        previousVolumes.put(id, currentVolume); // Guardar volumen anterior
-                        setVolume(id, 0); // Usar el método setVolume para mantener consistencia
-                        ChannelThread channelThread = threadService.getThreadInfo(id);
-                        if (channelThread != null) {
-                            channelThread.setVolume(0);
-                        }
-                        threadActiveStates.put(id, false); // Marcar como muteado
-                        System.out.println("Canal " + id + " (activo) ha sido silenciado. Volumen anterior: " + currentVolume);
-                    //}
-                } else {
-                    threadActiveStates.put(id, false); // Marcar como inactivo
-                    System.out.println("Canal " + id + " está inactivo, no se silencia.");
-                }
-            } else {
-                threadActiveStates.put(id, true); // Marcar el canal no muteado como activo
-                muted = true; // Asegurar que al menos uno está activo
-            }
-        }
-        
-        if (muted) {
-            System.out.println("Se han silenciado todos los canales activos excepto " + channelId);
+        boolean known = stateTable.isKnown(channelId);
+        if (known) {
+            stateTable.soloExclusive(channelId);
+            System.out.println("Se han silenciado todos los canales excepto " + channelId + " (solo exclusivo)");
         } else {
-            System.out.println("No se encontraron otros canales activos para silenciar.");
+            System.out.println("Canal " + channelId + " no registrado, no se aplica el solo.");
         }
-        
-        return muted;
+        return known;
     }
-
+    
+    /**
+     * Activa o quita el solo de un canal (puede haber varios canales en solo)
+     */
+    public void setSolo(int channelId, boolean solo) {
+        stateTable.setSolo(channelId, solo);
+        System.out.println("Canal " + channelId + (solo ? " en solo" : " sin solo"));
+    }
+    
+    public boolean isSolo(int channelId) {
+        return stateTable.isSolo(channelId);
+    }
+    
     /**
-     * Restaura los volúmenes de los canales que fueron silenciados previamente.
-     * @return true si al menos un canal fue restaurado, false si no hay canales para restaurar.
+     * Indica si algún canal con prioridad está atenuando al resto
      */
+    public boolean isDucking() {
+        return stateTable.isDucking();
+    }
+    
+    /**
+     * Marca o desmarca un canal como prioritario (atenúa al resto mientras suena)
+     */
+    public void setPriority(int channelId, boolean priority) {
+        stateTable.setPriority(channelId, priority);
+        System.out.println("Canal " + channelId + (priority ? " con prioridad (ducking)" : " sin prioridad"));
+    }
+
     /**
      * Obtiene el estado de actividad de un thread específico
      * @param channelId ID del canal
-     * @return true si el thread está activo y no muteado, false en caso contrario
+     * @return true si es el canal que quedó sonando en muteAllExcept (solo exclusivo), false en caso contrario
      */
     public boolean isThreadActive(int channelId) {
-        return threadActiveStates.getOrDefault(channelId, false);
+        return stateTable.isSoloExclusive(channelId);
     }
 
     /**
      * Obtiene un mapa con todos los estados de los threads
-     * @return Mapa con los estados de los threads
+     * @return Mapa con los estados de los threads (true sólo para el canal del solo exclusivo)
      */
     public ConcurrentHashMap<Integer, Boolean> getThreadStates() {
-        return new ConcurrentHashMap<>(threadActiveStates);
+        ChannelStateSnapshot snapshot = stateTable.snapshot();
+        ConcurrentHashMap<Integer, Boolean> states = new ConcurrentHashMap<>();
+        for (int id : knownChannels(snapshot)) {
+            states.put(id, stateTable.isSoloExclusive(id));
+        }
+        return states;
     }
 
+    /**
+     * Quita todos los solos; como los volúmenes nunca se modificaron, cada canal vuelve a sonar como estaba.
+     * @return true si había algún canal en solo, false si no había nada que restaurar.
+     */
     public boolean unmuteChannels() {
-        boolean restored = false;
-        
-        for (Integer id : previousVolumes.keySet()) {
-            // Solo restaurar si el thread sigue activo
-            if (threadService.isThreadActive(id)) {
-                int previousVolume = previousVolumes.get(id);
-                setVolume(id, previousVolume); // Usar el método setVolume para mantener consistencia
-                ChannelThread channelThread = threadService.getThreadInfo(id);
-                if (channelThread != null) {
-                    channelThread.setVolume(previousVolume);
-                }
-                threadActiveStates.put(id, false); 
-               
-                System.out.println(threadActiveStates.get(id).toString());
-                System.out.println(previousVolumes.toString());
-                restored = true;
-                System.out.println("Canal " + id + " restaurado a volumen: " + previousVolume);
-            } else {
-                threadActiveStates.put(id, false); // Mantener como inactivo
-                System.out.println("Canal " + id + " ya no está activo, no se restaura.");
-            }
-        }
-        
-        // Asegurar que todos los estados estén en false
-        for (Integer channelId : threadActiveStates.keySet()) {
-            threadActiveStates.put(channelId, false);
-        }
+        boolean restored = stateTable.clearSolos() > 0;
 
         if (restored) {
-            System.out.println("Se han restaurado los volúmenes de los canales previamente silenciados.");
+            System.out.println("Se han quitado los solos: los canales vuelven a sonar con su volumen");
         } else {
             System.out.println("No hay canales para restaurar.");
         }
         
-        previousVolumes.clear(); // Limpiar el mapa después de restaurar
         return restored;
     }
 
-
-}
\ No newline at end of file
+    private static List<Integer> knownChannels(ChannelStateSnapshot snapshot) {
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 0; id < snapshot.getCapacity(); id++) {
+            if (snapshot.isKnown(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+}
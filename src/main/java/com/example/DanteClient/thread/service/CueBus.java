@@ -0,0 +1,262 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.data.util.ConfigUtil;
+import com.example.DanteClient.thread.model.AudioBlockQueue;
+import com.example.DanteClient.thread.model.AudioSink;
+import com.example.DanteClient.thread.model.OverflowPolicy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.sound.sampled.AudioFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bus de cue (PFL): mezcla la señal previa al fader de los canales con cue activado en una salida propia
+ * Cada canal deja sus bloques (antes de aplicar volumen, mute, solo y ducking) en una cola acotada y
+ * el hilo "cue-bus" los suma y los escribe en su línea; la línea marca el ritmo de la mezcla.
+ */
+@Component
+public class CueBus {
+
+    public static final String CONSUMER_CUE = "cue";
+
+    // Espera máxima por el primer canal antes de mezclar lo que haya
+    private static final long POLL_MS = 20;
+    // Sin canales en cue durante este tiempo se devuelve la línea
+    private static final long IDLE_RELEASE_MS = 2000;
+    // Bytes por frame de la línea: estéreo de 16 bits
+    private static final int FRAME_SIZE = 4;
+
+    @Autowired
+    private ChannelStateTable stateTable;
+
+    @Autowired
+    private ChannelConsumerRegistry consumerRegistry;
+
+    // Dispositivo de salida del cue (vacío = el dispositivo por defecto)
+    @Value("${dante.cue.mixer:}")
+    private String mixerName;
+
+    @Value("${dante.cue.queue-blocks:8}")
+    private int queueBlocks;
+
+    private final ConcurrentHashMap<Integer, CueFeed> feeds = new ConcurrentHashMap<>();
+    private final Object wakeup = new Object();
+    private volatile boolean running = true;
+    private volatile AudioSink sink;
+    private Thread mixerThread;
+
+    private final AtomicLong blocksMixed = new AtomicLong();
+    private final AtomicLong missingBlocks = new AtomicLong();
+    private final AtomicLong openFailures = new AtomicLong();
+
+    /**
+     * Cola de un canal hacia el bus (el canal es el único productor, así que su espacio de trabajo es suyo)
+     */
+    private static final class CueFeed {
+        final AudioBlockQueue queue;
+        final byte[] scratch;
+
+        CueFeed(int capacity, int maxBlockBytes) {
+            this.queue = new AudioBlockQueue(capacity, maxBlockBytes, OverflowPolicy.DROP_OLDEST);
+            this.scratch = new byte[maxBlockBytes];
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        mixerThread = new Thread(this::mixLoop, "cue-bus");
+        mixerThread.setDaemon(true);
+        mixerThread.start();
+        System.out.println("CueBus iniciado (salida: " + (mixerName.isBlank() ? "dispositivo por defecto" : mixerName) + ")");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        mixerThread.interrupt();
+        feeds.values().forEach(feed -> feed.queue.close());
+        releaseSink();
+    }
+
+    /**
+     * Envía o retira un canal del bus; mientras esté en cue el canal se sigue decodificando aunque esté a volumen 0
+     */
+    public void setCue(int channelId, boolean enabled) {
+        stateTable.setCue(channelId, enabled);
+        if (enabled) {
+            if (feeds.putIfAbsent(channelId, new CueFeed(queueBlocks, maxBlockBytes())) == null) {
+                consumerRegistry.acquire(channelId, CONSUMER_CUE);
+                synchronized (wakeup) {
+                    wakeup.notifyAll();
+                }
+            }
+        } else {
+            CueFeed feed = feeds.remove(channelId);
+            if (feed != null) {
+                feed.queue.close();
+                consumerRegistry.release(channelId, CONSUMER_CUE);
+            }
+        }
+        System.out.println("Canal " + channelId + (enabled ? " enviado al cue" : " retirado del cue"));
+    }
+
+    public boolean isCue(int channelId) {
+        return stateTable.isCue(channelId);
+    }
+
+    /**
+     * Entrega un bloque previo al fader (lo llama el hilo del canal una vez por bloque); nunca bloquea
+     */
+    public void feed(int channelId, short[] samples, int count) {
+        CueFeed feed = feeds.get(channelId);
+        if (feed == null) {
+            return;
+        }
+        int frames = Math.min(count, feed.scratch.length / FRAME_SIZE);
+        byte[] buffer = feed.scratch;
+        for (int i = 0; i < frames; i++) {
+            // Little-endian como la salida de los canales y la línea de formatFor (L y R iguales)
+            int byteIndex = i * FRAME_SIZE;
+            buffer[byteIndex] = (byte) (samples[i] & 0xFF);
+            buffer[byteIndex + 1] = (byte) ((samples[i] >> 8) & 0xFF);
+            buffer[byteIndex + 2] = buffer[byteIndex];
+            buffer[byteIndex + 3] = buffer[byteIndex + 1];
+        }
+        feed.queue.offer(buffer, frames * FRAME_SIZE);
+    }
+
+    public Map<String, Object> getStats() {
+        List<Integer> channels = new ArrayList<>(feeds.keySet());
+        channels.sort(Integer::compareTo);
+        long dropped = 0;
+        for (CueFeed feed : feeds.values()) {
+            dropped += feed.queue.getBackpressureDrops();
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("channels", channels);
+        stats.put("mixer", mixerName.isBlank() ? "default" : mixerName);
+        stats.put("lineOpen", sink != null);
+        stats.put("blocksMixed", blocksMixed.get());
+        stats.put("missingBlocks", missingBlocks.get());
+        stats.put("droppedBlocks", dropped);
+        stats.put("openFailures", openFailures.get());
+        return stats;
+    }
+
+    /**
+     * Bucle de mezcla: espera un bloque del primer canal, suma lo que tengan los demás y lo escribe en la línea
+     */
+    private void mixLoop() {
+        int maxBytes = maxBlockBytes();
+        byte[] block = new byte[maxBytes];
+        byte[] output = new byte[maxBytes];
+        int[] accumulator = new int[maxBytes / FRAME_SIZE];
+        long idleSince = System.nanoTime();
+
+        while (running) {
+            try {
+                if (feeds.isEmpty()) {
+                    if (sink != null && System.nanoTime() - idleSince > IDLE_RELEASE_MS * 1_000_000L) {
+                        releaseSink();
+                    }
+                    synchronized (wakeup) {
+                        wakeup.wait(POLL_MS * 5);
+                    }
+                    continue;
+                }
+                idleSince = System.nanoTime();
+                AudioSink currentSink = ensureSink();
+                if (currentSink == null) {
+                    Thread.sleep(POLL_MS * 50); // Sin dispositivo: se reintenta más tarde
+                    continue;
+                }
+
+                int mixedFrames = 0;
+                boolean first = true;
+                for (CueFeed feed : feeds.values()) {
+                    if (feed.queue.getMaxBlockBytes() > block.length) {
+                        // Cambió el tamaño de bloque en la configuración
+                        block = new byte[feed.queue.getMaxBlockBytes()];
+                        output = new byte[block.length];
+                        accumulator = Arrays.copyOf(accumulator, block.length / FRAME_SIZE);
+                    }
+                    int length = feed.queue.poll(block, first ? POLL_MS : 0);
+                    first = false;
+                    if (length <= 0) {
+                        missingBlocks.incrementAndGet();
+                        continue;
+                    }
+                    int frames = length / FRAME_SIZE;
+                    for (int i = 0; i < frames; i++) {
+                        // Canal L en little-endian (el mismo orden con que se abre la línea del bus)
+                        short sample = (short) ((block[i * FRAME_SIZE] & 0xFF) | (block[i * FRAME_SIZE + 1] << 8));
+                        accumulator[i] += sample;
+                    }
+                    mixedFrames = Math.max(mixedFrames, frames);
+                }
+                if (mixedFrames == 0) {
+                    continue;
+                }
+
+                for (int i = 0; i < mixedFrames; i++) {
+                    int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, accumulator[i]));
+                    accumulator[i] = 0;
+                    int byteIndex = i * FRAME_SIZE;
+                    output[byteIndex] = (byte) (sample & 0xFF);
+                    output[byteIndex + 1] = (byte) ((sample >> 8) & 0xFF);
+                    output[byteIndex + 2] = output[byteIndex];
+                    output[byteIndex + 3] = output[byteIndex + 1];
+                }
+                currentSink.write(output, 0, mixedFrames * FRAME_SIZE);
+                blocksMixed.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                System.err.println("Error en el bus de cue: " + e.getMessage());
+            }
+        }
+    }
+
+    private AudioSink ensureSink() {
+        AudioFormat format = ChannelResourcePool.formatFor(ConfigUtil.getSnapshot());
+        AudioSink current = sink;
+        if (current != null && current.isOpen() && current.matches(format)) {
+            return current;
+        }
+        releaseSink();
+        try {
+            sink = AudioSink.open(format, mixerName);
+            System.out.println("🎧 Bus de cue: línea abierta a " + format);
+        } catch (Exception e) {
+            openFailures.incrementAndGet();
+            System.err.println("❌ Bus de cue: no se pudo abrir la salida: " + e.getMessage());
+        }
+        return sink;
+    }
+
+    private void releaseSink() {
+        AudioSink current = sink;
+        sink = null;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * Tamaño máximo de bloque según la configuración actual (estéreo de 16 bits)
+     */
+    private static int maxBlockBytes() {
+        return Math.max(1024, ConfigUtil.getSnapshot().getChunkSize() * FRAME_SIZE);
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.config.VolumeWebSocketHandler;
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.model.ChannelStateSnapshot;
+import com.example.DanteClient.thread.model.Scene;
+import com.example.DanteClient.thread.model.WriteBehindFile;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Servicio de escenas: guarda el estado de mezcla con un nombre y lo recupera de forma atómica
+ * La recuperación es una sola escritura en {@link ChannelStateTable} (todos los canales cambian en la
+ * misma versión) y, con fundido, todas las rampas comparten inicio y fin.
+ * El archivo de escenas se escribe de forma diferida a través de {@link VolumeStateStore}.
+ */
+@Service
+public class SceneService {
+
+    @Autowired
+    private ChannelStateTable stateTable;
+
+    @Autowired
+    @Lazy
+    private VolumeWebSocketHandler volumeWebSocketHandler;
+
+    @Autowired
+    private VolumeStateStore stateStore;
+
+    // Archivo de escenas (separado de config_dante.json)
+    @Value("${dante.scenes.file:scenes_dante.json}")
+    private String scenesFile;
+
+    @Value("${dante.scenes.max-fade-ms:60000}")
+    private long maxFadeMs;
+
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<String, Scene> scenes = new ConcurrentHashMap<>();
+    private WriteBehindFile scenesWriter;
+
+    // Latencia de recuperación: desde la petición hasta que la tabla publica la nueva versión
+    private volatile long recallCount;
+    private volatile long lastRecallMicros;
+    private volatile long maxRecallMicros;
+    private volatile long totalRecallMicros;
+
+    public SceneService() {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @PostConstruct
+    public void init() {
+        Path path = Paths.get(scenesFile);
+        // Guardar escenas es poco frecuente: basta con una espera corta
+        scenesWriter = new WriteBehindFile(path, objectMapper, this::listScenes, 100, 1000);
+        stateStore.register(scenesWriter);
+        if (!Files.exists(path)) {
+            System.out.println("Archivo de escenas no encontrado: " + path + " (se creará al guardar la primera)");
+            return;
+        }
+        try {
+            List<Scene> loaded = objectMapper.readValue(path.toFile(), new TypeReference<List<Scene>>() {});
+            loaded.forEach(scene -> scenes.put(scene.getName(), scene));
+            System.out.println("✅ " + scenes.size() + " escenas cargadas desde " + path);
+        } catch (IOException e) {
+            System.err.println("❌ Error al leer escenas de " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Guarda el estado actual de todos los canales como escena (la reemplaza si ya existe)
+     */
+    public Scene saveScene(String name, String description) {
+        validateName(name);
+        ChannelStateSnapshot snapshot = stateTable.snapshot();
+
+        Scene scene = new Scene(name, description);
+        Scene existing = scenes.get(name);
+        if (existing != null) {
+            scene.setCreatedAt(existing.getCreatedAt());
+        }
+        for (int id = 0; id < snapshot.getCapacity(); id++) {
+            if (snapshot.isKnown(id)) {
+                scene.getChannels().add(new Scene.ChannelState(id, snapshot.getVolume(id),
+                        snapshot.isMuted(id), snapshot.isSolo(id)));
+            }
+        }
+        scenes.put(name, scene);
+        scenesWriter.markDirty();
+        System.out.println("💾 Escena '" + name + "' guardada con " + scene.getChannels().size() + " canales");
+        return scene;
+    }
+
+    /**
+     * Recupera una escena: todos los canales cambian en una sola actualización de la tabla
+     * @param fadeMs duración del fundido (0 = cambio inmediato)
+     */
+    public Map<String, Object> recallScene(String name, long fadeMs) {
+        long requestNanos = System.nanoTime();
+        Scene scene = getScene(name);
+        if (fadeMs < 0 || fadeMs > maxFadeMs) {
+            throw new ThreadExceptions.InvalidSceneException("el fundido debe estar entre 0 y " + maxFadeMs + " ms");
+        }
+
+        List<Scene.ChannelState> channels = new ArrayList<>();
+        for (Scene.ChannelState state : scene.getChannels()) {
+            if (state.getChannelId() >= 0 && state.getChannelId() < stateTable.getCapacity()) {
+                channels.add(state);
+            }
+        }
+        int count = channels.size();
+        int[] ids = new int[count];
+        int[] volumes = new int[count];
+        boolean[] muted = new boolean[count];
+        boolean[] solo = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            Scene.ChannelState state = channels.get(i);
+            ids[i] = state.getChannelId();
+            volumes[i] = Math.max(0, Math.min(100, state.getVolume()));
+            muted[i] = state.isMuted();
+            solo[i] = state.isSolo();
+        }
+
+        long version = stateTable.applyScene(ids, volumes, muted, solo, System.nanoTime(), fadeMs * 1_000_000L);
+        long latencyMicros = (System.nanoTime() - requestNanos) / 1_000;
+        recordRecall(latencyMicros);
+
+        // Los faders de la interfaz saltan al destino de la escena
+        Map<Integer, Integer> volumeMap = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            volumeMap.put(ids[i], volumes[i]);
+        }
+        volumeWebSocketHandler.broadcastVolumeBatch(volumeMap, version);
+        System.out.println("🎬 Escena '" + name + "' recuperada (" + count + " canales, fundido " + fadeMs
+                + " ms) en " + latencyMicros + " µs");
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("scene", name);
+        result.put("channels", count);
+        result.put("fadeMs", fadeMs);
+        result.put("stateVersion", version);
+        result.put("recallLatencyMicros", latencyMicros);
+        volumeWebSocketHandler.broadcastSceneRecalled(result);
+        return result;
+    }
+
+    public Scene getScene(String name) {
+        Scene scene = scenes.get(name);
+        if (scene == null) {
+            throw new ThreadExceptions.SceneNotFoundException(name);
+        }
+        return scene;
+    }
+
+    public List<Scene> listScenes() {
+        List<Scene> list = new ArrayList<>(scenes.values());
+        list.sort(Comparator.comparing(Scene::getName));
+        return list;
+    }
+
+    public void deleteScene(String name) {
+        if (scenes.remove(name) == null) {
+            throw new ThreadExceptions.SceneNotFoundException(name);
+        }
+        scenesWriter.markDirty();
+        System.out.println("🗑️ Escena '" + name + "' eliminada");
+    }
+
+    public Map<String, Object> getRecallStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long count = recallCount;
+        stats.put("recalls", count);
+        stats.put("lastRecallMicros", lastRecallMicros);
+        stats.put("maxRecallMicros", maxRecallMicros);
+        stats.put("avgRecallMicros", count > 0 ? totalRecallMicros / count : 0);
+        stats.put("scenes", scenes.size());
+        stats.put("persistence", scenesWriter.getStats());
+        return stats;
+    }
+
+    private synchronized void recordRecall(long micros) {
+        recallCount++;
+        lastRecallMicros = micros;
+        totalRecallMicros += micros;
+        if (micros > maxRecallMicros) {
+            maxRecallMicros = micros;
+        }
+    }
+
+    private void validateName(String name) {
+        if (name == null || name.isBlank() || name.length() > 64) {
+            throw new ThreadExceptions.InvalidSceneException("el nombre debe tener entre 1 y 64 caracteres");
+        }
+    }
+}
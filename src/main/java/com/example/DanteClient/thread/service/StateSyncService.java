@@ -0,0 +1,174 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.model.ChannelStateSnapshot;
+import com.example.DanteClient.thread.model.ChannelSyncState;
+import com.example.DanteClient.thread.model.ChannelThread;
+import com.example.DanteClient.thread.model.StateChangeLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado versionado para la sincronización de clientes WebSocket
+ * El hilo "state-sync" compara en cada ciclo la tabla de estado (sólo si cambió su versión) y el estado de
+ * los threads con lo último registrado, y añade al {@link StateChangeLog} un cambio por canal modificado.
+ * Un cliente que reconecta envía {"command":"resume","fromVersion":N,"epoch":".."} y recibe sólo los canales
+ * cambiados desde N; la instantánea completa queda para cuando N ya salió del registro o es de otro arranque.
+ */
+@Component
+public class StateSyncService {
+
+    public static final String STATUS_STOPPED = "STOPPED";
+
+    @Autowired
+    private ChannelStateTable stateTable;
+
+    @Autowired
+    @Lazy
+    private ChannelThreadService threadService;
+
+    @Value("${dante.sync.log-capacity:4096}")
+    private int logCapacity;
+
+    @Value("${dante.sync.poll-ms:50}")
+    private long pollMs;
+
+    // Identifica este arranque: las versiones de otro proceso no son comparables
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private StateChangeLog changeLog;
+    private final Map<Integer, ChannelSyncState> current = new TreeMap<>();
+    private long lastTableVersion = -1;
+    private ChannelStateSnapshot lastSnapshot;
+    private Map<Integer, String> lastStatuses = Map.of();
+    private ScheduledExecutorService poller;
+
+    private final AtomicLong deltaResumes = new AtomicLong();
+    private final AtomicLong snapshotResumes = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        changeLog = new StateChangeLog(logCapacity);
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollSafely, pollMs, pollMs, TimeUnit.MILLISECONDS);
+        System.out.println("StateSyncService iniciado (registro de " + changeLog.getCapacity() + " cambios, época " + epoch + ")");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Versión actual, incluyendo los cambios aún no recogidos por el hilo de sondeo
+     * Se lee antes de enviar el estado inicial: lo que cambie después queda en el registro.
+     */
+    public synchronized long getVersion() {
+        poll();
+        return changeLog.getVersion();
+    }
+
+    /**
+     * Cambios desde la versión del cliente, o instantánea si ya no se pueden reconstruir
+     * @param clientEpoch época que el cliente recibió junto a la versión (null = desconocida)
+     */
+    public synchronized Map<String, Object> resume(String clientEpoch, long fromVersion) {
+        poll(); // Incluir lo que cambió desde el último ciclo
+        Map<String, Object> response = new HashMap<>();
+        response.put("epoch", epoch);
+        response.put("version", changeLog.getVersion());
+        List<StateChangeLog.Change> changes = epoch.equals(clientEpoch) ? changeLog.since(fromVersion) : null;
+        if (changes != null) {
+            // Por canal basta con su último estado
+            Map<Integer, ChannelSyncState> latest = new LinkedHashMap<>();
+            for (StateChangeLog.Change change : changes) {
+                latest.remove(change.state().channelId());
+                latest.put(change.state().channelId(), change.state());
+            }
+            response.put("type", "state_delta");
+            response.put("fromVersion", fromVersion);
+            response.put("changes", new ArrayList<>(latest.values()));
+            deltaResumes.incrementAndGet();
+        } else {
+            response.put("type", "state_snapshot");
+            response.put("reason", epoch.equals(clientEpoch) ? "truncated" : "epoch");
+            response.put("channels", new ArrayList<>(current.values()));
+            snapshotResumes.incrementAndGet();
+        }
+        return response;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("epoch", epoch);
+        stats.put("version", changeLog.getVersion());
+        stats.put("oldestResumableVersion", changeLog.getOldestResumableVersion());
+        stats.put("logCapacity", changeLog.getCapacity());
+        stats.put("trackedChannels", current.size());
+        stats.put("deltaResumes", deltaResumes.get());
+        stats.put("snapshotResumes", snapshotResumes.get());
+        return stats;
+    }
+
+    private void pollSafely() {
+        try {
+            poll();
+        } catch (Exception e) {
+            System.err.println("Error en la sincronización de estado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registra un cambio por cada canal cuyo estado difiere del último registrado
+     */
+    private synchronized void poll() {
+        Map<Integer, String> statuses = new HashMap<>();
+        for (ChannelThread thread : threadService.getAllActiveThreads()) {
+            statuses.put(thread.getChannelId(), thread.getStatus());
+        }
+        long tableVersion = stateTable.getVersion();
+        if (tableVersion == lastTableVersion && statuses.equals(lastStatuses)) {
+            return; // Nada cambió desde el último ciclo
+        }
+        if (tableVersion != lastTableVersion) {
+            lastSnapshot = stateTable.snapshot();
+            lastTableVersion = lastSnapshot.getVersion();
+        }
+        lastStatuses = statuses;
+        ChannelStateSnapshot snapshot = lastSnapshot;
+        for (int id = 0; id < snapshot.getCapacity(); id++) {
+            if (!snapshot.isKnown(id) && !statuses.containsKey(id)) {
+                continue;
+            }
+            ChannelSyncState state = new ChannelSyncState(id, snapshot.getVolume(id), snapshot.isMuted(id),
+                    snapshot.isSolo(id), snapshot.isCue(id), snapshot.isPriority(id),
+                    statuses.getOrDefault(id, STATUS_STOPPED));
+            if (!state.equals(current.get(id))) {
+                current.put(id, state);
+                changeLog.append(state);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.data.util.ConfigUtil;
+import com.example.DanteClient.thread.model.ChannelStateSnapshot;
+import com.example.DanteClient.thread.model.WriteBehindFile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistencia del estado de mezcla (volumen, mute, solo, prioridad) con escritura diferida
+ * No hay E/S por cambio: el hilo "state-writer" compara la versión de {@link ChannelStateTable} en cada
+ * ciclo y el archivo se escribe cuando deja de cambiar durante el intervalo de espera, y al apagar.
+ * Otros archivos de estado (escenas) se registran aquí para compartir el mismo hilo y el vaciado final.
+ */
+@Component
+public class VolumeStateStore {
+
+    @Autowired
+    private ChannelStateTable stateTable;
+
+    @Value("${dante.state.persist.enabled:true}")
+    private boolean enabled;
+
+    @Value("${dante.state.persist.file:volume_state.json}")
+    private String stateFile;
+
+    // Tiempo sin cambios antes de escribir y espera máxima durante cambios continuos
+    @Value("${dante.state.persist.debounce-ms:500}")
+    private long debounceMs;
+
+    @Value("${dante.state.persist.max-delay-ms:5000}")
+    private long maxDelayMs;
+
+    private final ObjectMapper objectMapper;
+    private final List<WriteBehindFile> files = new CopyOnWriteArrayList<>();
+    private WriteBehindFile volumeFile;
+    private volatile long lastSeenVersion = -1;
+    private ScheduledExecutorService writer;
+
+    public VolumeStateStore() {
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @PostConstruct
+    public void init() {
+        volumeFile = new WriteBehindFile(Paths.get(stateFile), objectMapper, this::buildDocument, debounceMs, maxDelayMs);
+        if (enabled) {
+            files.add(volumeFile);
+        } else {
+            // El hilo sigue atendiendo los demás archivos registrados (escenas)
+            System.out.println("Persistencia de volúmenes deshabilitada (dante.state.persist.enabled=false)");
+        }
+        long tickMs = Math.max(10, debounceMs / 4);
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "state-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        System.out.println("VolumeStateStore iniciado (" + volumeFile.getPath() + ", espera " + debounceMs + " ms)");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+        flushAll();
+    }
+
+    /**
+     * Aplica el estado guardado a los canales de la configuración en una sola versión de la tabla
+     * @return canales restaurados
+     */
+    public int restore() {
+        if (!enabled) {
+            return 0;
+        }
+        Path path = volumeFile.getPath();
+        int restored = 0;
+        if (Files.exists(path)) {
+            try {
+                restored = apply(objectMapper.readTree(path.toFile()));
+                System.out.println("✅ Estado de " + restored + " canales restaurado desde " + path);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("❌ Error al leer el estado de volúmenes de " + path + ": " + e.getMessage());
+            }
+        }
+        // Lo restaurado (o el estado inicial) no cuenta como cambio pendiente
+        lastSeenVersion = stateTable.getVersion();
+        return restored;
+    }
+
+    /**
+     * Registra otro archivo con escritura diferida para que lo atienda el hilo de escritura
+     */
+    public void register(WriteBehindFile file) {
+        files.add(file);
+    }
+
+    /**
+     * Escribe ya todos los archivos con cambios pendientes
+     */
+    public void flushAll() {
+        checkVersion();
+        for (WriteBehindFile file : files) {
+            file.flush();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("debounceMs", debounceMs);
+        stats.put("maxDelayMs", maxDelayMs);
+        List<Map<String, Object>> fileStats = new ArrayList<>();
+        for (WriteBehindFile file : files) {
+            fileStats.add(file.getStats());
+        }
+        stats.put("files", fileStats);
+        return stats;
+    }
+
+    private void tick() {
+        try {
+            checkVersion();
+            long now = System.nanoTime();
+            for (WriteBehindFile file : files) {
+                file.flushIfDue(now);
+            }
+        } catch (Exception e) {
+            System.err.println("Error en la escritura diferida del estado: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cualquier escritura en la tabla cambia su versión: basta con compararla para saber si hay algo que guardar
+     */
+    private void checkVersion() {
+        if (!enabled) {
+            return;
+        }
+        long version = stateTable.getVersion();
+        if (version != lastSeenVersion && lastSeenVersion >= 0) {
+            lastSeenVersion = version;
+            volumeFile.markDirty();
+        }
+    }
+
+    private Map<String, Object> buildDocument() {
+        ChannelStateSnapshot snapshot = stateTable.snapshot();
+        List<Map<String, Object>> channels = new ArrayList<>();
+        for (int id = 0; id < snapshot.getCapacity(); id++) {
+            if (!snapshot.isKnown(id)) {
+                continue;
+            }
+            Map<String, Object> channel = new LinkedHashMap<>();
+            channel.put("channelId", id);
+            channel.put("volume", snapshot.getVolume(id));
+            channel.put("muted", snapshot.isMuted(id));
+            channel.put("solo", snapshot.isSolo(id));
+            channel.put("priority", snapshot.isPriority(id));
+            channels.add(channel);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("stateVersion", snapshot.getVersion());
+        document.put("savedAt", java.time.LocalDateTime.now().toString());
+        document.put("channels", channels);
+        return document;
+    }
+
+    private int apply(JsonNode document) {
+        List<JsonNode> entries = new ArrayList<>();
+        for (JsonNode channel : document.path("channels")) {
+            int id = channel.path("channelId").asInt(-1);
+            // Sólo canales que siguen en la configuración y caben en la tabla
+            if (id >= 0 && id < stateTable.getCapacity() && ConfigUtil.getChannelById(id) != null) {
+                entries.add(channel);
+            }
+        }
+        int count = entries.size();
+        int[] ids = new int[count];
+        int[] volumes = new int[count];
+        boolean[] muted = new boolean[count];
+        boolean[] solo = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            JsonNode channel = entries.get(i);
+            ids[i] = channel.path("channelId").asInt();
+            volumes[i] = Math.max(0, Math.min(100, channel.path("volume").asInt(0)));
+            muted[i] = channel.path("muted").asBoolean(false);
+            solo[i] = channel.path("solo").asBoolean(false);
+        }
+        stateTable.applyScene(ids, volumes, muted, solo, System.nanoTime(), 0);
+        for (JsonNode channel : entries) {
+            if (channel.path("priority").asBoolean(false)) {
+                stateTable.setPriority(channel.path("channelId").asInt(), true);
+            }
+        }
+        return count;
+    }
+}
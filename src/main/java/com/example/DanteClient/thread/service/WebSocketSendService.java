@@ -0,0 +1,233 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.model.SendOverflowPolicy;
+import com.example.DanteClient.thread.model.SessionSendQueue;
+import com.example.DanteClient.thread.model.StreamSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Envío asíncrono de mensajes WebSocket: cada sesión tiene una cola de salida acotada que drenan los
+ * hilos "ws-sender". Los handlers (y los hilos de audio que notifican a través de ellos) sólo encolan,
+ * así un navegador lento nunca bloquea a quien genera el mensaje.
+ */
+@Component
+public class WebSocketSendService {
+
+    // Mensajes enviados por sesión antes de ceder el hilo a otras sesiones
+    private static final int DRAIN_BATCH = 64;
+
+    @Value("${dante.ws.send.queue-capacity:256}")
+    private int queueCapacity;
+
+    // Políticas: DROP_OLDEST, COALESCE, DISCONNECT
+    @Value("${dante.ws.send.overflow-policy:COALESCE}")
+    private String overflowPolicy;
+
+    @Value("${dante.ws.send.threads:2}")
+    private int senderThreads;
+
+    private final ConcurrentHashMap<String, SessionSendQueue> queues = new ConcurrentHashMap<>();
+    private ExecutorService senders;
+    private SendOverflowPolicy policy;
+
+    // Totales (incluyen sesiones ya cerradas)
+    private final AtomicLong closedSessionsDropped = new AtomicLong();
+    private final AtomicLong closedSessionsCoalesced = new AtomicLong();
+    private final AtomicLong slowDisconnects = new AtomicLong();
+    private final AtomicLong sendErrors = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        SendOverflowPolicy parsed = SendOverflowPolicy.fromString(overflowPolicy);
+        policy = parsed != null ? parsed : SendOverflowPolicy.COALESCE;
+        AtomicInteger counter = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "ws-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        System.out.println("WebSocketSendService iniciado (cola " + queueCapacity + " mensajes por sesión, política "
+                + policy + ", " + senderThreads + " hilos)");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /**
+     * Crea la cola de salida de una sesión (al conectar)
+     * Los flujos del endpoint /ws no tienen cola propia: usan la de su conexión física.
+     */
+    public void register(WebSocketSession session, String endpoint) {
+        if (session instanceof StreamSession) {
+            return;
+        }
+        queues.putIfAbsent(session.getId(), new SessionSendQueue(session, endpoint, queueCapacity, policy));
+    }
+
+    /**
+     * Elimina la cola de una sesión (al desconectar) descartando lo pendiente
+     */
+    public void unregister(WebSocketSession session) {
+        if (session instanceof StreamSession) {
+            return;
+        }
+        SessionSendQueue queue = queues.remove(session.getId());
+        if (queue != null) {
+            closedSessionsDropped.addAndGet(queue.getDropped());
+            closedSessionsCoalesced.addAndGet(queue.getCoalesced());
+            queue.close();
+        }
+    }
+
+    /**
+     * Encola un mensaje para una sesión; nunca bloquea
+     * @param key clave de agrupación (p.ej. "volume:3"); null si el mensaje no se puede sustituir por otro
+     * @return false si la sesión no tiene cola (cerrada o no registrada)
+     */
+    public boolean send(WebSocketSession session, WebSocketMessage<?> message, String key) {
+        if (session instanceof StreamSession stream) {
+            return stream.offer(message, key); // Créditos del flujo y luego la cola de la conexión física
+        }
+        SessionSendQueue queue = queues.get(session.getId());
+        if (queue == null) {
+            return false;
+        }
+        switch (queue.offer(message, key)) {
+            case CLOSED -> {
+                return false;
+            }
+            case OVERFLOW -> {
+                disconnectSlow(queue);
+                return false;
+            }
+            default -> schedule(queue);
+        }
+        return true;
+    }
+
+    /**
+     * Encola el mismo mensaje para varias sesiones (la instancia se comparte)
+     * @return sesiones a las que se encoló
+     */
+    public int broadcast(Collection<WebSocketSession> sessions, WebSocketMessage<?> message, String key) {
+        int queued = 0;
+        for (WebSocketSession session : sessions) {
+            if (session.isOpen() && send(session, message, key)) {
+                queued++;
+            }
+        }
+        return queued;
+    }
+
+    public int getQueueDepth(String sessionId) {
+        SessionSendQueue queue = queues.get(sessionId);
+        return queue != null ? queue.depth() : 0;
+    }
+
+    /**
+     * Resumen global y métricas por sesión (profundidad, descartes, agrupados...)
+     */
+    public Map<String, Object> getStats() {
+        List<Map<String, Object>> sessions = new ArrayList<>();
+        long dropped = closedSessionsDropped.get();
+        long coalesced = closedSessionsCoalesced.get();
+        int totalDepth = 0;
+        for (SessionSendQueue queue : queues.values()) {
+            Map<String, Object> sessionStats = queue.getStats();
+            sessions.add(sessionStats);
+            dropped += (long) sessionStats.get("dropped");
+            coalesced += (long) sessionStats.get("coalesced");
+            totalDepth += (int) sessionStats.get("depth");
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("policy", policy.name());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("senderThreads", senderThreads);
+        stats.put("sessions", sessions);
+        stats.put("totalDepth", totalDepth);
+        stats.put("totalDropped", dropped);
+        stats.put("totalCoalesced", coalesced);
+        stats.put("slowDisconnects", slowDisconnects.get());
+        stats.put("sendErrors", sendErrors.get());
+        return stats;
+    }
+
+    private void schedule(SessionSendQueue queue) {
+        if (queue.tryStartDrain()) {
+            senders.execute(() -> drain(queue));
+        }
+    }
+
+    /**
+     * Envía lo pendiente de una sesión (un solo drenaje a la vez por sesión, así los envíos no se solapan)
+     */
+    private void drain(SessionSendQueue queue) {
+        WebSocketSession session = queue.getSession();
+        int sent = 0;
+        WebSocketMessage<?> message;
+        while (sent < DRAIN_BATCH && (message = queue.poll()) != null) {
+            if (!session.isOpen()) {
+                unregister(session);
+                return;
+            }
+            try {
+                long start = System.nanoTime();
+                if (message instanceof BinaryMessage binary) {
+                    // El buffer se comparte entre sesiones y el contenedor avanza su posición al enviarlo
+                    session.sendMessage(new BinaryMessage(binary.getPayload().duplicate(), binary.isLast()));
+                } else {
+                    session.sendMessage(message);
+                }
+                queue.recordSent(message.getPayloadLength(), (System.nanoTime() - start) / 1_000);
+                sent++;
+            } catch (Exception e) {
+                sendErrors.incrementAndGet();
+                System.err.println("Error al enviar a sesión " + session.getId() + " (" + queue.getEndpoint() + "): " + e.getMessage());
+                unregister(session);
+                closeQuietly(session, CloseStatus.SERVER_ERROR);
+                return;
+            }
+        }
+        if (sent >= DRAIN_BATCH && !queue.isEmpty()) {
+            senders.execute(() -> drain(queue)); // Sigue con el drenaje tomado, detrás de las demás sesiones
+        } else if (queue.finishDrain()) {
+            senders.execute(() -> drain(queue));
+        }
+    }
+
+    private void disconnectSlow(SessionSendQueue queue) {
+        WebSocketSession session = queue.getSession();
+        slowDisconnects.incrementAndGet();
+        System.err.println("⚠️ Sesión " + session.getId() + " (" + queue.getEndpoint() + ") desconectada: cola de salida llena");
+        unregister(session);
+        senders.execute(() -> closeQuietly(session, CloseStatus.SESSION_NOT_RELIABLE));
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            System.err.println("Error al cerrar sesión " + session.getId() + ": " + e.getMessage());
+        }
+    }
+}
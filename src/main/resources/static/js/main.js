@@ -1,123 +1,132 @@
-// Variables para las conexiones WebSocket
-let volumeSocket;
-let threadSocket;
+// Conexión WebSocket única: control, threads y medidas multiplexados en ws://localhost:8080/ws
+// Cada mensaje va en un sobre {"stream":"control|threads|meters|mux","data":{...}}
+let muxSocket;
 
-// Inicializar las conexiones WebSocket
+// Inicializar la conexión WebSocket multiplexada
 function initWebSockets() {
-    function setupWebSocket(url, type) {
-        const ws = new WebSocket(url);
-        
-        ws.onopen = () => {
-            console.log(`Conexión establecida - ${type}`);
-            updateConnectionStatus(`Conectado - ${type}`);
-        };
+    const type = 'Control y Monitoreo';
+    const ws = new WebSocket('ws://localhost:8080/ws');
 
-        ws.onclose = () => {
-            console.log(`Conexión perdida - ${type}`);
-            updateConnectionStatus(`Desconectado - ${type}`);
-            // Intentar reconexión después de 2 segundos
-            setTimeout(() => {
-                console.log(`Intentando reconectar - ${type}...`);
-                if (type === 'Control de Volumen') {
-                    volumeSocket = setupWebSocket('ws://localhost:8080/ws/volume', type);
-                } else {
-                    threadSocket = setupWebSocket('ws://localhost:8080/ws/thread', type);
-                }
-            }, 2000);
-        };
+    ws.onopen = () => {
+        console.log(`Conexión establecida - ${type}`);
+        updateConnectionStatus(`Conectado - ${type}`);
+    };
 
-        ws.onerror = (error) => {
-            console.error(`Error en la conexión de ${type}:`, error);
-            updateConnectionStatus(`Desconectado - ${type}`);
-        };
+    ws.onclose = () => {
+        console.log(`Conexión perdida - ${type}`);
+        updateConnectionStatus(`Desconectado - ${type}`);
+        // Intentar reconexión después de 2 segundos
+        setTimeout(() => {
+            console.log(`Intentando reconectar - ${type}...`);
+            initWebSockets();
+        }, 2000);
+    };
 
-        if (type === 'Monitoreo de Hilos') {
-            ws.onmessage = (event) => {
-                try {
-                    const data = JSON.parse(event.data);
-                    console.log('Thread WebSocket mensaje recibido:', data);
-
-                    // Manejar diferentes tipos de eventos
-                    switch (data.type) {
-                        
-                        case 'threadFinished':
-                            console.log(`Thread finalizado - Canal ${data.channelId} (${data.channelName}) - Razón: ${data.reason}`);
-                            updateChannelStatus(data.channelId, false);
-                            updateChannelStatusWithState(data.channelId, 'STOPPED');
-                            break;
-
-                        case 'thread_exception':
-                            console.error(`Error en thread - Canal ${data.channelId} (${data.channelName}): ${data.errorMessage}`);
-                            updateChannelStatus(data.channelId, false);
-                            updateChannelStatusWithState(data.channelId, 'ERROR');
-                            showThreadError(data.channelId, data.errorMessage);
-                            break;
-
-                        case 'thread_status_change':
-                            console.log(`Estado del thread cambiado - Canal ${data.channelId}: ${data.oldStatus} -> ${data.newStatus}`);
-                            if (data.newStatus) {
-                                updateChannelStatusWithState(data.channelId, data.newStatus);
-                            } else {
-                                console.warn('Estado nuevo no definido en thread_status_change');
-                            }
-                            break;
-
-                        case 'thread_finished':
-                            console.log(`Thread finalizado - Canal ${data.channelId}`);
-                            updateChannelStatus(data.channelId, false);
-                            updateChannelStatusWithState(data.channelId, 'STOPPED');
-                            break;
-
-                        case 'massVolumeUpdate':
-                            if (data.action === 'muteAllExcept') {
-                                console.log(`Silenciando todos los canales excepto ${data.exceptedChannelId}`);
-                                updateChannelsAfterMute(data.exceptedChannelId);
-                            } else if (data.action === 'unmuteChannels') {
-                                console.log('Restaurando volúmenes de canales');
-                                refreshChannelVolumes();
-                            }
-                            break;
-
-                        default:
-                            console.log('Mensaje de thread no manejado:', data);
-                            // Mantener el comportamiento anterior para mensajes desconocidos
-                            const threadStatus = document.getElementById('threadStatus');
-                            if (threadStatus) {
-                                threadStatus.innerHTML = `<pre>${JSON.stringify(data, null, 2)}</pre>`;
-                            }
-                    }
-                } catch (error) {
-                    console.error('Error al procesar mensaje del WebSocket de threads:', error);
-                }
-            };
-        } else if (type === 'Control de Volumen') {
-            ws.onmessage = (event) => {
-                console.log('Mensaje recibido en socket de volumen:', event.data);
-                try {
-                    const data = JSON.parse(event.data);
-                    if (data.type === 'volume' && data.channelId) {
-                        console.log(`Actualizando volumen en UI: Canal ${data.channelId}, Volumen ${data.volumeLevel}`);
-                        const volumeSlider = document.querySelector(`[data-channel-id="${data.channelId}"] input[type="range"]`);
-                        if (volumeSlider) {
-                            volumeSlider.value = data.volumeLevel;
-                        }
-                    }
-                } catch (error) {
-                    console.error('Error al procesar mensaje de volumen:', error);
-                }
-            };
+    ws.onerror = (error) => {
+        console.error(`Error en la conexión de ${type}:`, error);
+        updateConnectionStatus(`Desconectado - ${type}`);
+    };
+
+    ws.onmessage = (event) => {
+        try {
+            const envelope = JSON.parse(event.data);
+            switch (envelope.stream) {
+                case 'control':
+                    handleVolumeMessage(envelope.data);
+                    break;
+                case 'threads':
+                    handleThreadMessage(envelope.data);
+                    break;
+                case 'mux':
+                    console.log('Mensaje del multiplexor:', envelope.data);
+                    break;
+                default:
+                    console.log('Flujo no manejado:', envelope);
+            }
+        } catch (error) {
+            console.error('Error al procesar mensaje del WebSocket:', error);
         }
+    };
 
-        return ws;
+    muxSocket = ws;
+}
+
+// Mensajes del flujo "threads" (antes /ws/thread)
+function handleThreadMessage(data) {
+    console.log('Thread WebSocket mensaje recibido:', data);
+
+    // Manejar diferentes tipos de eventos
+    switch (data.type) {
+        
+        case 'threadFinished':
+            console.log(`Thread finalizado - Canal ${data.channelId} (${data.channelName}) - Razón: ${data.reason}`);
+            updateChannelStatus(data.channelId, false);
+            updateChannelStatusWithState(data.channelId, 'STOPPED');
+            break;
+
+        case 'thread_exception':
+            console.error(`Error en thread - Canal ${data.channelId} (${data.channelName}): ${data.errorMessage}`);
+            updateChannelStatus(data.channelId, false);
+            updateChannelStatusWithState(data.channelId, 'ERROR');
+            showThreadError(data.channelId, data.errorMessage);
+            break;
+
+        case 'thread_status_change':
+            console.log(`Estado del thread cambiado - Canal ${data.channelId}: ${data.oldStatus} -> ${data.newStatus}`);
+            if (data.newStatus) {
+                updateChannelStatusWithState(data.channelId, data.newStatus);
+            } else {
+                console.warn('Estado nuevo no definido en thread_status_change');
+            }
+            break;
+
+        case 'thread_finished':
+            console.log(`Thread finalizado - Canal ${data.channelId}`);
+            updateChannelStatus(data.channelId, false);
+            updateChannelStatusWithState(data.channelId, 'STOPPED');
+            break;
+
+        case 'massVolumeUpdate':
+            if (data.action === 'muteAllExcept') {
+                console.log(`Silenciando todos los canales excepto ${data.exceptedChannelId}`);
+                updateChannelsAfterMute(data.exceptedChannelId);
+            } else if (data.action === 'unmuteChannels') {
+                console.log('Restaurando volúmenes de canales');
+                refreshChannelVolumes();
+            }
+            break;
+
+        default:
+            console.log('Mensaje de thread no manejado:', data);
+            // Mantener el comportamiento anterior para mensajes desconocidos
+            const threadStatus = document.getElementById('threadStatus');
+            if (threadStatus) {
+                threadStatus.innerHTML = `<pre>${JSON.stringify(data, null, 2)}</pre>`;
+            }
     }
+}
 
-    // Inicializar ambos WebSockets
-    volumeSocket = setupWebSocket('ws://localhost:8080/ws/volume', 'Control de Volumen');
-    threadSocket = setupWebSocket('ws://localhost:8080/ws/thread', 'Monitoreo de Hilos');
+// Mensajes del flujo "control" (antes /ws/volume)
+function handleVolumeMessage(data) {
+    console.log('Mensaje recibido en flujo de control:', data);
+    if (data.type === 'volume' && data.channelId) {
+        updateVolumeSlider(data.channelId, data.volumeLevel);
+    } else if (data.type === 'volume_batch' && Array.isArray(data.volumes)) {
+        // Varios canales en un solo mensaje (lotes y faders agrupados por tick)
+        data.volumes.forEach(v => updateVolumeSlider(v.channelId, v.volumeLevel));
+    }
 }
 
 
 
+function updateVolumeSlider(channelId, volumeLevel) {
+    console.log(`Actualizando volumen en UI: Canal ${channelId}, Volumen ${volumeLevel}`);
+    const volumeSlider = document.querySelector(`[data-channel-id="${channelId}"] input[type="range"]`);
+    if (volumeSlider) {
+        volumeSlider.value = volumeLevel;
+    }
+}
+
 function updateConecionIndicator(status) 
 {
      
@@ -216,14 +225,14 @@ function handleVolumeChange(channelId, value) {
     }
 
     // Verificar estado del socket
-    if (!volumeSocket) {
+    if (!muxSocket) {
         console.error('Socket no inicializado');
         return;
     }
 
-    console.log('Estado del socket:', volumeSocket.readyState);
+    console.log('Estado del socket:', muxSocket.readyState);
     
-    if (volumeSocket.readyState !== WebSocket.OPEN) {
+    if (muxSocket.readyState !== WebSocket.OPEN) {
         console.error('Socket no está abierto');
         return;
     }
@@ -238,8 +247,8 @@ function handleVolumeChange(channelId, value) {
         // Debug del mensaje
         console.log('Mensaje a enviar:', JSON.stringify(message, null, 2));
         
-        // Enviar el mensaje
-        volumeSocket.send(JSON.stringify(message));
+        // Enviar el mensaje por el flujo de control
+        muxSocket.send(JSON.stringify({ stream: 'control', data: message }));
         console.log('Mensaje enviado correctamente');
         
         // Actualizar UI
@@ -0,0 +1,110 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AudioBlockQueueTest {
+
+    // Bloque de frames estéreo 16 bits little-endian con el mismo valor en ambos canales (como ChannelThread)
+    private static byte[] block(int... samples) {
+        byte[] data = new byte[samples.length * 4];
+        for (int i = 0; i < samples.length; i++) {
+            for (int c = 0; c < 2; c++) {
+                data[i * 4 + c * 2] = (byte) samples[i];
+                data[i * 4 + c * 2 + 1] = (byte) (samples[i] >> 8);
+            }
+        }
+        return data;
+    }
+
+    private static int[] frames(byte[] data, int length) {
+        int[] samples = new int[length / 4];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) ((data[i * 4 + 1] << 8) | (data[i * 4] & 0xFF));
+            assertEquals(samples[i], (short) ((data[i * 4 + 3] << 8) | (data[i * 4 + 2] & 0xFF)));
+        }
+        return samples;
+    }
+
+    private static int[] poll(AudioBlockQueue queue) throws InterruptedException {
+        byte[] target = new byte[queue.getMaxBlockBytes()];
+        int length = queue.poll(target, 0);
+        assertTrue(length > 0, "la cola debería tener un bloque");
+        return frames(target, length);
+    }
+
+    @Test
+    void testDropOldestKeepsTheNewestBlocks() throws Exception {
+        AudioBlockQueue queue = new AudioBlockQueue(2, 16, OverflowPolicy.DROP_OLDEST);
+        assertTrue(queue.offer(block(1), 4));
+        assertTrue(queue.offer(block(2), 4));
+        assertTrue(queue.offer(block(3), 4));
+
+        assertArrayEquals(new int[]{2}, poll(queue));
+        assertArrayEquals(new int[]{3}, poll(queue));
+        assertEquals(1, queue.getDroppedOldest());
+        assertEquals(1, queue.getBackpressureDrops());
+    }
+
+    @Test
+    void testDropNewestRejectsWhileFull() throws Exception {
+        AudioBlockQueue queue = new AudioBlockQueue(2, 16, OverflowPolicy.DROP_NEWEST);
+        queue.offer(block(1), 4);
+        queue.offer(block(2), 4);
+        assertFalse(queue.offer(block(3), 4));
+
+        assertArrayEquals(new int[]{1}, poll(queue));
+        assertArrayEquals(new int[]{2}, poll(queue));
+        assertEquals(1, queue.getDroppedNewest());
+        assertEquals(0, queue.poll(new byte[16], 0));
+    }
+
+    @Test
+    void testTimeCompressAveragesAdjacentFrames() throws Exception {
+        AudioBlockQueue queue = new AudioBlockQueue(2, 32, OverflowPolicy.TIME_COMPRESS);
+        queue.offer(block(100, 200, -300, -500), 16);
+        queue.offer(block(1000, 3000, 7), 12);
+        queue.offer(block(42), 4);
+
+        // Los dos más antiguos pasan a ocupar un bloque de la mitad de duración
+        assertArrayEquals(new int[]{150, -400, 2000, 7}, poll(queue));
+        assertArrayEquals(new int[]{42}, poll(queue));
+        assertEquals(1, queue.getCompressedBlocks());
+        assertEquals(0, queue.getDroppedOldest());
+    }
+
+    @Test
+    void testTimeCompressFallsBackToDropWhenTheMergeDoesNotFit() throws Exception {
+        AudioBlockQueue queue = new AudioBlockQueue(2, 8, OverflowPolicy.TIME_COMPRESS);
+        queue.offer(block(1, 1), 8);
+        queue.offer(block(2, 2), 8);
+        queue.offer(block(3, 3), 8);
+        assertEquals(2, queue.size()); // 1+1 frames caben: se fusiona
+        assertEquals(1, queue.getCompressedBlocks());
+
+        AudioBlockQueue single = new AudioBlockQueue(1, 8, OverflowPolicy.TIME_COMPRESS);
+        single.offer(block(1), 4);
+        single.offer(block(2), 4);
+        assertArrayEquals(new int[]{2}, poll(single));
+        assertEquals(1, single.getDroppedOldest());
+    }
+
+    @Test
+    void testClosedQueueDrainsBeforeEndAndReplacementKeepsCounters() throws Exception {
+        AudioBlockQueue queue = new AudioBlockQueue(1, 8, OverflowPolicy.DROP_NEWEST);
+        queue.offer(block(5), 4);
+        queue.offer(block(6), 4);
+
+        AudioBlockQueue larger = new AudioBlockQueue(queue, 32);
+        queue.close();
+        assertFalse(queue.offer(block(7), 4));
+        assertArrayEquals(new int[]{5}, poll(queue));
+        assertEquals(-1, queue.poll(new byte[8], 0));
+
+        assertEquals(32, larger.getMaxBlockBytes());
+        assertEquals(1, larger.getCapacity());
+        assertEquals(OverflowPolicy.DROP_NEWEST, larger.getPolicy());
+        assertEquals(1, larger.getBackpressureDrops());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryFramesTest {
+
+    @Test
+    void testVolumeBatchRoundTrip() {
+        WebSocketEvents.VolumeBatch batch = new WebSocketEvents.VolumeBatch(List.of(
+                new WebSocketEvents.VolumeLevel(3, 60), new WebSocketEvents.VolumeLevel(200, 100)), 42, "t");
+        BinaryMessage message = BinaryFrames.toMessage(batch);
+        assertEquals(BinaryFrames.HEADER_BYTES + 2 * BinaryFrames.VOLUME_ENTRY_BYTES, message.getPayloadLength());
+
+        ByteBuffer frame = message.getPayload().duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(BinaryFrames.VOLUME_SET, frame.get(0));
+        assertEquals(42L, frame.getLong(4));
+
+        List<int[]> decoded = new ArrayList<>();
+        assertEquals(2, BinaryFrames.decodeVolumeSet(frame, (channelId, volume) -> decoded.add(new int[]{channelId, volume})));
+        assertArrayEquals(new int[]{200, 100}, decoded.get(1));
+        assertEquals(0, frame.position()); // La lectura no mueve el buffer
+    }
+
+    @Test
+    void testStateSnapshotLayout() {
+        ByteBuffer out = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        int bytes = BinaryFrames.encodeStates(true, 7, List.of(
+                new ChannelSyncState(5, 80, true, false, true, false, "PARKED")), out);
+
+        assertEquals(BinaryFrames.HEADER_BYTES + BinaryFrames.STATE_ENTRY_BYTES, bytes);
+        assertEquals(BinaryFrames.STATE_SNAPSHOT, out.get(0));
+        assertEquals(5, out.getShort(12));
+        assertEquals(80, out.get(15));
+        assertEquals(0b101, out.get(16)); // mute + cue
+        assertEquals("PARKED", BinaryFrames.statusName(out.get(17)));
+    }
+
+    @Test
+    void testMalformedFrameIsRejected() {
+        ByteBuffer truncated = ByteBuffer.allocate(BinaryFrames.HEADER_BYTES + 2).order(ByteOrder.LITTLE_ENDIAN);
+        truncated.put(0, (byte) BinaryFrames.VOLUME_SET).put(1, (byte) BinaryFrames.VERSION).putShort(2, (short) 1);
+        assertThrows(IllegalArgumentException.class, () -> BinaryFrames.decodeVolumeSet(truncated, (channelId, volume) -> { }));
+    }
+}
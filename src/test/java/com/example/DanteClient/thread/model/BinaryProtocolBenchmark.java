@@ -0,0 +1,125 @@
+package com.example.DanteClient.thread.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación y lectura de un lote de 32 volúmenes: JSON (WebSocketEvents / ObjectMapper) frente al
+ * frame VOLUME_SET del subprotocolo binario
+ * main imprime antes los bytes en el cable de cada formato (volumen, lote, estado, aviso de plazo).
+ * Ejecutar: mvn test-compile y luego la clase main con el classpath de test (-prof gc para ver asignaciones)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+
+    private static final int CHANNELS = 32;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private WebSocketEvents.VolumeBatch batch;
+    private ByteBuffer scratch;
+    private String jsonCommand;
+    private ByteBuffer binaryCommand;
+    private int checksum;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        batch = volumeBatch();
+        scratch = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+        StringBuilder json = new StringBuilder("{\"volumes\":[");
+        for (int id = 0; id < CHANNELS; id++) {
+            json.append(id == 0 ? "" : ",").append("{\"channelId\":").append(id).append(",\"volume\":").append(50 + id).append('}');
+        }
+        jsonCommand = json.append("]}").toString();
+        binaryCommand = ByteBuffer.wrap(BinaryFrames.toMessage(batch).getPayload().array());
+    }
+
+    @Benchmark
+    public int encodeJson() throws Exception {
+        return WebSocketEvents.encode(batch).getPayloadLength();
+    }
+
+    /**
+     * Sólo la codificación sobre un buffer reutilizado (sin asignaciones)
+     */
+    @Benchmark
+    public int encodeBinaryInPlace() {
+        scratch.clear();
+        return BinaryFrames.encode(batch, scratch);
+    }
+
+    /**
+     * Codificación con buffer del pool más la copia del mensaje que se comparte entre sesiones
+     */
+    @Benchmark
+    public int encodeBinaryMessage() {
+        return BinaryFrames.toMessage(batch).getPayloadLength();
+    }
+
+    @Benchmark
+    public int decodeJson() throws Exception {
+        int sum = 0;
+        for (JsonNode entry : objectMapper.readTree(jsonCommand).get("volumes")) {
+            sum += entry.get("channelId").asInt() + entry.get("volume").asInt();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int decodeBinary() {
+        checksum = 0;
+        BinaryFrames.decodeVolumeSet(binaryCommand, this::accumulate);
+        return checksum;
+    }
+
+    private void accumulate(int channelId, int volume) {
+        checksum += channelId + volume;
+    }
+
+    private static WebSocketEvents.VolumeBatch volumeBatch() {
+        List<WebSocketEvents.VolumeLevel> volumes = new ArrayList<>(CHANNELS);
+        for (int id = 0; id < CHANNELS; id++) {
+            volumes.add(new WebSocketEvents.VolumeLevel(id, 50 + id));
+        }
+        return new WebSocketEvents.VolumeBatch(volumes, 1234, WebSocketEvents.timestamp());
+    }
+
+    private static void printWireSize(String name, WebSocketEvents.Event event) throws Exception {
+        System.out.printf("%-28s JSON %5d bytes   binario %4d bytes%n", name,
+                WebSocketEvents.encode(event).getPayloadLength(), BinaryFrames.toMessage(event).getPayloadLength());
+    }
+
+    public static void main(String[] args) throws Exception {
+        String timestamp = WebSocketEvents.timestamp();
+        printWireSize("volume", new WebSocketEvents.VolumeUpdate(7, 60, timestamp));
+        printWireSize("volume_batch (32 canales)", volumeBatch());
+        printWireSize("thread_status_change", new WebSocketEvents.ThreadStatusChange("300", 7, "Canal 7", "RUNNING",
+                "PARKED", "Estado del thread 7 cambió de RUNNING a PARKED", timestamp));
+        printWireSize("channel_deadline_miss", new WebSocketEvents.ChannelDeadlineMiss("300", 7, "Canal 7", 3, 41, 7200,
+                5333, "Canal 7 superó el plazo de bloque 3 veces", timestamp));
+        new Runner(new OptionsBuilder().include(BinaryProtocolBenchmark.class.getSimpleName()).build()).run();
+    }
+}
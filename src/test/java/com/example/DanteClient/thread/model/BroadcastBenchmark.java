@@ -0,0 +1,102 @@
+package com.example.DanteClient.thread.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste por broadcast de una notificación de cambio de estado de thread:
+ * HashMap + ObjectMapper + un TextMessage por sesión (antes) frente a record tipado serializado una vez
+ * con el ObjectWriter preconstruido y un único TextMessage compartido (ahora)
+ * Ejecutar: mvn test-compile y luego la clase main con el classpath de test
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BroadcastBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int sessions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SessionSendQueue[] queues;
+    private int channelId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        queues = new SessionSendQueue[sessions];
+        for (int i = 0; i < sessions; i++) {
+            queues[i] = new SessionSendQueue(null, "thread", 4, SendOverflowPolicy.COALESCE);
+        }
+    }
+
+    /**
+     * Camino anterior de ThreadWebSocketHandler.notifyThreadStatusChange
+     */
+    @Benchmark
+    public int mapPerSession() throws Exception {
+        int id = nextChannel();
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "thread_status_change");
+        notification.put("status", "300");
+        notification.put("channelId", id);
+        notification.put("channelName", "Canal " + id);
+        notification.put("oldStatus", "RUNNING");
+        notification.put("newStatus", "PARKED");
+        notification.put("message", "Estado del thread " + id + " cambió de RUNNING a PARKED");
+        notification.put("timestamp", java.time.LocalDateTime.now().toString());
+        String json = objectMapper.writeValueAsString(notification);
+        int bytes = 0;
+        for (SessionSendQueue queue : queues) {
+            queue.offer(new TextMessage(json), null);
+            bytes += queue.poll().getPayloadLength();
+        }
+        return bytes;
+    }
+
+    /**
+     * Record tipado, serializado una vez y compartido por todas las sesiones
+     */
+    @Benchmark
+    public int typedShared() throws Exception {
+        int id = nextChannel();
+        TextMessage message = WebSocketEvents.encode(new WebSocketEvents.ThreadStatusChange("300", id, "Canal " + id,
+                "RUNNING", "PARKED", "Estado del thread " + id + " cambió de RUNNING a PARKED",
+                WebSocketEvents.timestamp()));
+        int bytes = 0;
+        for (SessionSendQueue queue : queues) {
+            queue.offer(message, null);
+            bytes += queue.poll().getPayloadLength();
+        }
+        return bytes;
+    }
+
+    private int nextChannel() {
+        channelId = (channelId + 1) & 63;
+        return channelId;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(BroadcastBenchmark.class.getSimpleName()).build()).run();
+    }
+}
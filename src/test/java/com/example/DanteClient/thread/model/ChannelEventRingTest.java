@@ -0,0 +1,70 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelEventRingTest {
+
+    @Test
+    void testFullRingRejectsWithoutBlocking() {
+        ChannelEventRing ring = new ChannelEventRing(4);
+        assertEquals(4, ring.getCapacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.publish(ChannelEventRing.STATUS_CHANGED, i, "Canal " + i, "RUNNING", "PARKED", 0, 0, 0, 0));
+        }
+        assertFalse(ring.publish(ChannelEventRing.STATUS_CHANGED, 9, "Canal 9", "RUNNING", "PARKED", 0, 0, 0, 0));
+
+        ChannelEventRing.Slot slot = ring.peek();
+        assertEquals(0, slot.channelId);
+        assertEquals("PARKED", slot.text2);
+        ring.release();
+
+        // La ranura liberada vuelve a estar disponible
+        assertTrue(ring.publish(ChannelEventRing.DEADLINE_MISS, 5, "Canal 5", null, null, 3, 10, 7000, 5000));
+        for (int expected : new int[]{1, 2, 3, 5}) {
+            assertEquals(expected, ring.peek().channelId);
+            ring.release();
+        }
+        assertNull(ring.peek());
+    }
+
+    @Test
+    void testConcurrentProducersKeepPerProducerOrder() throws Exception {
+        ChannelEventRing ring = new ChannelEventRing(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int channelId = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; ) {
+                    if (ring.publish(ChannelEventRing.STATUS_CHANGED, channelId, null, null, null, i, 0, 0, 0)) {
+                        i++;
+                    } else {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        long[] next = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            ChannelEventRing.Slot slot = ring.peek();
+            if (slot == null) {
+                Thread.yield();
+                continue;
+            }
+            assertEquals(next[slot.channelId]++, slot.value1);
+            ring.release();
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(ring.peek());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.DanteClient.thread.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBatcherTest {
+
+    private static WebSocketSession newSession() {
+        return new StandardWebSocketSession(null, null, null, null);
+    }
+
+    @Test
+    void testOneFramePerSessionGroupWithLastValuePerKey() throws Exception {
+        TopicSubscriptions subscriptions = new TopicSubscriptions();
+        WebSocketSession console = newSession();
+        WebSocketSession tablet = newSession();
+        List<WebSocketSession> sessions = List.of(console, tablet);
+        sessions.forEach(subscriptions::addSession);
+        subscriptions.subscribe(tablet, EnumSet.of(EventTopic.VOLUME), Set.of(2));
+
+        EventBatcher batcher = new EventBatcher();
+        for (int volume = 10; volume <= 50; volume += 10) {
+            batcher.add(new WebSocketEvents.VolumeUpdate(2, volume, "t"), "volume:2", EventTopic.VOLUME, 2);
+        }
+        batcher.add(new WebSocketEvents.ThreadStarted(1, "Canal 1", "", "t"), null, EventTopic.STATUS, 1);
+        batcher.add(new WebSocketEvents.Stats(2, "t"), null, null, TopicSubscriptions.ALL_CHANNELS);
+
+        List<EventBatcher.Frame> frames = batcher.flush(sessions, subscriptions);
+        assertEquals(2, frames.size());
+        assertTrue(batcher.flush(sessions, subscriptions).isEmpty());
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (EventBatcher.Frame frame : frames) {
+            JsonNode json = mapper.readTree(frame.message().getPayload());
+            assertEquals("batch", json.get("type").asText());
+            assertEquals(1, frame.sessions().size());
+            JsonNode events = json.get("events");
+            if (frame.sessions().get(0) == console) {
+                assertEquals(3, events.size());
+                assertEquals("volume", events.get(0).get("type").asText());
+                assertEquals(50, events.get(0).get("volumeLevel").asInt());
+                assertEquals("stats", events.get(2).get("type").asText());
+            } else {
+                // Sólo el volumen del canal 2 y los mensajes generales
+                assertEquals(2, events.size());
+                assertEquals(50, events.get(0).get("volumeLevel").asInt());
+            }
+        }
+        assertEquals(4L, batcher.getStats().get("eventsCoalesced"));
+    }
+}
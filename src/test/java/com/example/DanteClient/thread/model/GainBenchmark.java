@@ -0,0 +1,96 @@
+package com.example.DanteClient.thread.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara la ganancia por sample en double (volume / 100.0) con la tabla Q15 + rampa
+ * Ejecutar: mvn test-compile y luego la clase main con el classpath de test
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GainBenchmark {
+
+    @Param({"64", "256"})
+    private int blockSamples;
+
+    private short[] source;
+    private short[] samples;
+    private GainRamp steadyRamp;
+    private GainRamp movingRamp;
+    private int volume = 73;
+    private int toggle;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        Random random = new Random(42);
+        source = new short[blockSamples];
+        for (int i = 0; i < blockSamples; i++) {
+            source[i] = (short) random.nextInt();
+        }
+        samples = new short[blockSamples];
+        steadyRamp = new GainRamp(240);
+        steadyRamp.reset(GainTable.gainQ15(volume));
+        movingRamp = new GainRamp(240);
+    }
+
+    @Setup(Level.Invocation)
+    public void copySamples() {
+        System.arraycopy(source, 0, samples, 0, blockSamples);
+    }
+
+    /**
+     * Cálculo anterior de convertirMonoABytes
+     */
+    @Benchmark
+    public short[] doublePerSample() {
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (samples[i] * volume / 100.0);
+        }
+        return samples;
+    }
+
+    /**
+     * Tabla Q15 sin cambio de volumen (caso habitual)
+     */
+    @Benchmark
+    public short[] fixedPointSteady() {
+        steadyRamp.setTarget(GainTable.gainQ15(volume));
+        steadyRamp.apply(samples, 0, samples.length);
+        return samples;
+    }
+
+    /**
+     * Tabla Q15 con el volumen cambiando en cada bloque (fader en movimiento)
+     */
+    @Benchmark
+    public short[] fixedPointRamping() {
+        toggle ^= 1;
+        movingRamp.setTarget(GainTable.gainQ15(toggle == 0 ? 40 : 90));
+        movingRamp.apply(samples, 0, samples.length);
+        return samples;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(GainBenchmark.class.getSimpleName()).build()).run();
+    }
+}
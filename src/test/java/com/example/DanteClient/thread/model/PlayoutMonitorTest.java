@@ -0,0 +1,111 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sound.sampled.AudioFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class PlayoutMonitorTest {
+
+    // 64 frames estéreo de 16 bits little-endian por bloque (el orden en que escribe ChannelThread)
+    private static final int BLOCK = 256;
+    private static final int LINE_BUFFER = 16 * BLOCK;
+
+    private AudioSink sink;
+    private PlayoutMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        sink = mock(AudioSink.class);
+        when(sink.getFormat()).thenReturn(new AudioFormat(48000, 16, 2, true, false));
+        when(sink.getBufferSize()).thenReturn(LINE_BUFFER);
+        monitor = new PlayoutMonitor(2, 8, 1000);
+    }
+
+    private int write(int fillBytes) {
+        when(sink.available()).thenReturn(LINE_BUFFER - fillBytes);
+        int toWrite = monitor.beforeWrite(sink, new byte[BLOCK], BLOCK);
+        if (toWrite > 0) {
+            monitor.afterWrite(toWrite / 4);
+        }
+        return toWrite;
+    }
+
+    @Test
+    void testNewLineIsPrebufferedUpToTheTarget() {
+        assertEquals(BLOCK, write(0));
+        assertEquals(BLOCK, monitor.getPrebufferBytes()); // Objetivo 2: un bloque de silencio + el bloque
+
+        assertEquals(BLOCK, write(2 * BLOCK));
+        assertEquals(0, monitor.getPrebufferBytes());
+        assertEquals(0, monitor.getUnderruns());
+    }
+
+    @Test
+    void testAboveTargetIsCorrectedGraduallyInsteadOfDropped() {
+        write(0);
+        // Entre objetivo+1 y el máximo: el bloque se acorta 1 frame de cada 32, nunca se descarta
+        for (int i = 0; i < 10; i++) {
+            assertEquals(BLOCK - 2 * 4, write(6 * BLOCK));
+        }
+        assertEquals(10, monitor.getCorrectedBlocks());
+        assertEquals(0, monitor.getTrimmedBlocks());
+        assertEquals(2, monitor.getTargetFillBlocks());
+
+        assertEquals(BLOCK, write(3 * BLOCK)); // Dentro del margen: intacto
+    }
+
+    @Test
+    void testOnlyAboveTheMaximumBlocksAreTrimmed() {
+        write(0);
+        assertEquals(0, write(9 * BLOCK));
+        assertEquals(1, monitor.getTrimmedBlocks());
+        assertEquals(8, monitor.getCeilingFillBlocks());
+    }
+
+    @Test
+    void testMaximumIsBoundedByTheLineBuffer() {
+        when(sink.getBufferSize()).thenReturn(4 * BLOCK);
+        when(sink.available()).thenReturn(4 * BLOCK);
+        monitor.beforeWrite(sink, new byte[BLOCK], BLOCK);
+        monitor.afterWrite(BLOCK / 4);
+        assertEquals(3, monitor.getCeilingFillBlocks());
+
+        when(sink.available()).thenReturn(0);
+        assertEquals(0, monitor.beforeWrite(sink, new byte[BLOCK], BLOCK));
+        assertEquals(1, monitor.getOverruns());
+    }
+
+    @Test
+    void testUnderrunRaisesTheTargetAndPrebuffersAgain() {
+        write(0);
+        write(2 * BLOCK);
+        assertEquals(BLOCK, write(0));
+        assertEquals(1, monitor.getUnderruns());
+        assertEquals(3, monitor.getTargetFillBlocks());
+        assertEquals(2 * BLOCK, monitor.getPrebufferBytes());
+    }
+
+    @Test
+    void testCorrectionAveragesTheMergedFrames() {
+        write(0);
+        byte[] audio = new byte[BLOCK];
+        for (int frame = 0; frame < BLOCK / 4; frame++) {
+            short value = (short) (frame * 100);
+            for (int c = 0; c < 2; c++) {
+                audio[frame * 4 + c * 2] = (byte) value;
+                audio[frame * 4 + c * 2 + 1] = (byte) (value >> 8);
+            }
+        }
+        when(sink.available()).thenReturn(LINE_BUFFER - 6 * BLOCK);
+        int length = monitor.beforeWrite(sink, audio, BLOCK);
+        assertEquals(62 * 4, length);
+        // Frames 30 y 31 (3000 y 3100) pasan a ser uno solo con su media; el siguiente es el 32
+        assertEquals(2900, (short) ((audio[29 * 4 + 1] << 8) | (audio[29 * 4] & 0xFF)));
+        assertEquals(3050, (short) ((audio[30 * 4 + 1] << 8) | (audio[30 * 4] & 0xFF)));
+        assertEquals(3200, (short) ((audio[31 * 4 + 1] << 8) | (audio[31 * 4] & 0xFF)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionSendQueueTest {
+
+    @Test
+    void testCoalesceReplacesPendingInPlace() {
+        SessionSendQueue queue = new SessionSendQueue(null, "volume", 8, SendOverflowPolicy.COALESCE);
+
+        assertEquals(SessionSendQueue.OfferResult.QUEUED, queue.offer(new TextMessage("v1=10"), "volume:1"));
+        assertEquals(SessionSendQueue.OfferResult.QUEUED, queue.offer(new TextMessage("info"), null));
+        assertEquals(SessionSendQueue.OfferResult.COALESCED, queue.offer(new TextMessage("v1=30"), "volume:1"));
+
+        // El último valor conserva el turno del primero
+        assertEquals(2, queue.depth());
+        assertEquals("v1=30", queue.poll().getPayload());
+        assertEquals("info", queue.poll().getPayload());
+        assertNull(queue.poll());
+
+        // Ya enviado: un nuevo valor vuelve a encolarse
+        assertEquals(SessionSendQueue.OfferResult.QUEUED, queue.offer(new TextMessage("v1=40"), "volume:1"));
+        assertEquals(1, queue.getCoalesced());
+    }
+
+    @Test
+    void testOverflowPolicies() {
+        SessionSendQueue dropOldest = new SessionSendQueue(null, "thread", 2, SendOverflowPolicy.DROP_OLDEST);
+        dropOldest.offer(new TextMessage("a"), null);
+        dropOldest.offer(new TextMessage("b"), null);
+        assertEquals(SessionSendQueue.OfferResult.DROPPED_OLDEST, dropOldest.offer(new TextMessage("c"), null));
+        assertEquals("b", dropOldest.poll().getPayload());
+        assertEquals(1, dropOldest.getDropped());
+
+        SessionSendQueue disconnect = new SessionSendQueue(null, "thread", 1, SendOverflowPolicy.DISCONNECT);
+        disconnect.offer(new TextMessage("a"), null);
+        assertEquals(SessionSendQueue.OfferResult.OVERFLOW, disconnect.offer(new TextMessage("b"), null));
+
+        disconnect.close();
+        assertEquals(SessionSendQueue.OfferResult.CLOSED, disconnect.offer(new TextMessage("c"), null));
+        assertTrue(disconnect.isEmpty());
+    }
+
+    @Test
+    void testSingleDrainer() {
+        SessionSendQueue queue = new SessionSendQueue(null, "volume", 4, SendOverflowPolicy.COALESCE);
+
+        assertTrue(queue.tryStartDrain());
+        assertFalse(queue.tryStartDrain());
+
+        // Llega un mensaje mientras se drena: quien drena lo vuelve a tomar al soltar
+        queue.offer(new TextMessage("late"), null);
+        assertTrue(queue.finishDrain());
+        queue.poll();
+        assertFalse(queue.finishDrain());
+        assertTrue(queue.tryStartDrain());
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateChangeLogTest {
+
+    private static ChannelSyncState state(int channelId, int volume) {
+        return new ChannelSyncState(channelId, volume, false, false, false, false, "RUNNING");
+    }
+
+    @Test
+    void testResumeReturnsOnlyLaterChanges() {
+        StateChangeLog log = new StateChangeLog(8);
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i, log.append(state(i, i * 10)));
+        }
+
+        List<StateChangeLog.Change> changes = log.since(3);
+        assertEquals(List.of(4L, 5L), changes.stream().map(StateChangeLog.Change::version).toList());
+        assertEquals(50, changes.get(1).state().volume());
+        assertTrue(log.since(5).isEmpty());
+        assertNull(log.since(6)); // Versión del futuro
+    }
+
+    @Test
+    void testTruncatedLogRequiresSnapshot() {
+        StateChangeLog log = new StateChangeLog(4);
+        for (int i = 1; i <= 10; i++) {
+            log.append(state(1, i));
+        }
+
+        assertEquals(6, log.getOldestResumableVersion());
+        assertNull(log.since(5));
+        assertEquals(4, log.since(6).size());
+        assertEquals(10, log.since(6).get(3).state().volume());
+    }
+}
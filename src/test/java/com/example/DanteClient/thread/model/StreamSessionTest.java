@@ -0,0 +1,74 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamSessionTest {
+
+    private static WebSocketSession openSession() {
+        return new StandardWebSocketSession(null, null, null, null) {
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    void testCreditsHoldAndReleaseWithLastValuePerKey() {
+        WebSocketSession physical = openSession();
+        List<String> wire = new ArrayList<>();
+        List<String> keys = new ArrayList<>();
+        StreamSession.Sink sink = (session, message, key) -> {
+            assertSame(physical, session);
+            wire.add(((TextMessage) message).getPayload());
+            keys.add(key);
+            return true;
+        };
+        StreamSession meters = new StreamSession(physical, MuxStream.METERS, new StreamSession.StreamEnvelope(MuxStream.METERS),
+                sink, stream -> { }, 1, 2);
+        assertEquals(physical.getId() + "/meters", meters.getId());
+
+        assertTrue(meters.offer(new TextMessage("{\"v\":1}"), "deadline:1"));
+        for (int v = 2; v <= 5; v++) {
+            meters.offer(new TextMessage("{\"v\":" + v + "}"), "deadline:1"); // Sin crédito: queda sólo el último
+        }
+        meters.offer(new TextMessage("{\"v\":6}"), "deadline:2");
+        meters.offer(new TextMessage("{\"v\":7}"), "deadline:3"); // Retenidos llenos: se descarta el más antiguo
+        assertEquals(List.of("{\"stream\":\"meters\",\"data\":{\"v\":1}}"), wire);
+        assertEquals("meters:deadline:1", keys.get(0));
+
+        meters.grant(StreamSession.UNLIMITED);
+        assertEquals(List.of("{\"stream\":\"meters\",\"data\":{\"v\":1}}",
+                "{\"stream\":\"meters\",\"data\":{\"v\":6}}",
+                "{\"stream\":\"meters\",\"data\":{\"v\":7}}"), wire);
+        assertEquals(3L, meters.getStats().get("coalesced"));
+        assertEquals(1L, meters.getStats().get("dropped"));
+
+        meters.close();
+        assertFalse(meters.offer(new TextMessage("{}"), null));
+    }
+
+    @Test
+    void testBroadcastIsWrappedOncePerStream() {
+        StreamSession.StreamEnvelope envelope = new StreamSession.StreamEnvelope(MuxStream.THREADS);
+        List<WebSocketMessage<?>> wire = new ArrayList<>();
+        StreamSession first = new StreamSession(openSession(), MuxStream.THREADS, envelope,
+                (session, message, key) -> wire.add(message), stream -> { }, StreamSession.UNLIMITED, 8);
+        StreamSession second = new StreamSession(openSession(), MuxStream.THREADS, envelope,
+                (session, message, key) -> wire.add(message), stream -> { }, StreamSession.UNLIMITED, 8);
+
+        TextMessage event = new TextMessage("{\"type\":\"thread_started\"}");
+        first.sendMessage(event);
+        second.sendMessage(event);
+        assertSame(wire.get(0), wire.get(1));
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.DanteClient.thread.model;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ráfaga de arranque de 32 canales (inicio + dos cambios de estado + volumen por canal) difundida a N sesiones:
+ * un mensaje por evento (envío inmediato) frente a un frame "batch" por sesión y tick
+ * Los contadores frames y bytes dan el tráfico por segundo de cada modo; frames/op es lo que recibe
+ * el navegador por ráfaga.
+ * Ejecutar: mvn test-compile y luego la clase main con el classpath de test
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBatchBenchmark {
+
+    private static final int CHANNELS = 32;
+
+    @Param({"1", "10", "100"})
+    private int sessions;
+
+    private List<WebSocketSession> sessionList;
+    private SessionSendQueue[] queues;
+    private TopicSubscriptions subscriptions;
+    private EventBatcher batcher;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Traffic {
+        public long frames;
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionList = new ArrayList<>(sessions);
+        queues = new SessionSendQueue[sessions];
+        subscriptions = new TopicSubscriptions();
+        batcher = new EventBatcher();
+        for (int i = 0; i < sessions; i++) {
+            WebSocketSession session = new StandardWebSocketSession(null, null, null, null);
+            sessionList.add(session);
+            subscriptions.addSession(session);
+            queues[i] = new SessionSendQueue(null, "thread", 4 * CHANNELS, SendOverflowPolicy.COALESCE);
+        }
+    }
+
+    /**
+     * Camino actual: cada evento se serializa y se encola en todas las sesiones
+     */
+    @Benchmark
+    public void immediate(Traffic traffic) throws Exception {
+        for (int id = 0; id < CHANNELS; id++) {
+            for (WebSocketEvents.Event event : burst(id)) {
+                send(WebSocketEvents.encode(event), traffic);
+            }
+        }
+    }
+
+    /**
+     * Modo agrupado: los eventos se acumulan y un tick envía un frame por grupo de sesiones
+     */
+    @Benchmark
+    public void batched(Traffic traffic) throws Exception {
+        for (int id = 0; id < CHANNELS; id++) {
+            List<WebSocketEvents.Event> events = burst(id);
+            batcher.add(events.get(0), null, EventTopic.STATUS, id);
+            batcher.add(events.get(1), "thread_status:" + id, EventTopic.STATUS, id);
+            batcher.add(events.get(2), "thread_status:" + id, EventTopic.STATUS, id);
+            batcher.add(events.get(3), "volume:" + id, EventTopic.VOLUME, id);
+        }
+        for (EventBatcher.Frame frame : batcher.flush(sessionList, subscriptions)) {
+            send(frame.message(), traffic);
+        }
+    }
+
+    private void send(TextMessage message, Traffic traffic) {
+        for (SessionSendQueue queue : queues) {
+            queue.offer(message, null);
+            traffic.bytes += queue.poll().getPayloadLength();
+            traffic.frames++;
+        }
+    }
+
+    private static List<WebSocketEvents.Event> burst(int id) {
+        String name = "Canal " + id;
+        String timestamp = WebSocketEvents.timestamp();
+        return List.of(
+                new WebSocketEvents.ThreadStarted(id, name, "Thread para canal " + id + " iniciado", timestamp),
+                new WebSocketEvents.ThreadStatusChange("300", id, name, "STARTING", "BUFFERING",
+                        "Estado del thread " + id + " cambió de STARTING a BUFFERING", timestamp),
+                new WebSocketEvents.ThreadStatusChange("300", id, name, "BUFFERING", "RUNNING",
+                        "Estado del thread " + id + " cambió de BUFFERING a RUNNING", timestamp),
+                new WebSocketEvents.VolumeUpdate(id, 75, timestamp));
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TickBatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimerWheelTest {
+
+    // 8 ranuras de 10 ms: una vuelta son 80 ms
+    private final TimerWheel<String> wheel = new TimerWheel<>(8, 10, 0);
+    private final List<String> fired = new ArrayList<>();
+
+    @Test
+    void testEntriesMoreThanOneLapAheadWaitForTheirTick() {
+        wheel.schedule("tres vueltas", 250);
+        wheel.schedule("misma ranura", 90); // Tick 9: comparte ranura con el tick 25
+
+        for (long now = 10; now <= 240; now += 10) {
+            wheel.advance(now, fired::add);
+        }
+        assertEquals(List.of("misma ranura"), fired);
+        assertEquals(1, wheel.size());
+
+        assertEquals(1, wheel.advance(250, fired::add));
+        assertEquals(List.of("misma ranura", "tres vueltas"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancelledEntriesNeverFire() {
+        TimerWheel.Entry<String> cancelled = wheel.schedule("cancelado", 30);
+        TimerWheel.Entry<String> kept = wheel.schedule("mantenido", 30);
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertTrue(cancelled.isCancelled());
+        assertEquals(1, wheel.size());
+
+        wheel.advance(100, fired::add);
+        assertEquals(List.of("mantenido"), fired);
+        // Ya disparado: no se puede cancelar
+        assertFalse(wheel.cancel(kept));
+        assertFalse(wheel.cancel(null));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCatchUpAfterALongPauseFiresEverythingOnceInOrder() {
+        wheel.schedule("c", 500);
+        wheel.schedule("a", 15);
+        wheel.schedule("b", 75);
+        wheel.schedule("futuro", 20_000);
+
+        // Un solo avance de muchas vueltas revisa cada ranura una vez contra el tick destino
+        assertEquals(3, wheel.advance(10_000, fired::add));
+        assertEquals(List.of("a", "b", "c"), fired);
+        assertEquals(0, wheel.advance(10_000, fired::add));
+        assertEquals(1, wheel.size());
+
+        assertEquals(1, wheel.advance(20_000, fired::add));
+        assertEquals("futuro", fired.get(3));
+    }
+
+    @Test
+    void testPastDeadlinesFireOnTheNextTickAndFiringCanReschedule() {
+        wheel.advance(100, fired::add);
+        wheel.schedule("atrasado", 20);
+        assertEquals(0, wheel.advance(105, fired::add)); // Mismo tick: todavía no
+        assertEquals(1, wheel.advance(110, task -> {
+            fired.add(task);
+            wheel.schedule("siguiente", 130);
+        }));
+        assertEquals(1, wheel.advance(130, fired::add));
+        assertEquals(List.of("atrasado", "siguiente"), fired);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.standard.StandardWebSocketSession;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopicSubscriptionsTest {
+
+    private static WebSocketSession newSession() {
+        return new StandardWebSocketSession(null, null, null, null);
+    }
+
+    @Test
+    void testUnfilteredSessionsReceiveEverything() {
+        TopicSubscriptions subscriptions = new TopicSubscriptions();
+        WebSocketSession session = newSession();
+        subscriptions.addSession(session);
+
+        assertTrue(subscriptions.recipients(EventTopic.VOLUME, 7, 1).contains(session));
+        assertTrue(subscriptions.recipients(EventTopic.ERRORS, 40, 1).contains(session));
+    }
+
+    @Test
+    void testSubscribedSessionOnlyReceivesItsTopics() {
+        TopicSubscriptions subscriptions = new TopicSubscriptions();
+        WebSocketSession tablet = newSession();
+        WebSocketSession console = newSession();
+        subscriptions.addSession(tablet);
+        subscriptions.addSession(console);
+
+        subscriptions.subscribe(tablet, EnumSet.of(EventTopic.VOLUME, EventTopic.STATUS), Set.of(1, 2));
+
+        assertEquals(2, subscriptions.recipients(EventTopic.VOLUME, 1, 2).size());
+        assertEquals(List.of(console), List.copyOf(subscriptions.recipients(EventTopic.VOLUME, 3, 2)));
+        assertEquals(List.of(console), List.copyOf(subscriptions.recipients(EventTopic.ERRORS, 1, 2)));
+
+        // Un lote llega una sola vez aunque incluya varios canales seguidos
+        assertEquals(2, subscriptions.recipients(EventTopic.VOLUME, List.of(1, 2, 3), 2).size());
+
+        // El comodín sustituye a los canales concretos sin duplicar la entrega
+        subscriptions.subscribe(tablet, EnumSet.of(EventTopic.VOLUME), Set.of());
+        assertEquals(2, subscriptions.recipients(EventTopic.VOLUME, 1, 2).size());
+        assertEquals(2, subscriptions.recipients(EventTopic.VOLUME, 30, 2).size());
+
+        subscriptions.unsubscribe(tablet, EnumSet.of(EventTopic.VOLUME), Set.of());
+        assertFalse(subscriptions.recipients(EventTopic.VOLUME, 1, 2).contains(tablet));
+        assertTrue(subscriptions.recipients(EventTopic.STATUS, 2, 2).contains(tablet));
+
+        subscriptions.removeSession(tablet);
+        assertFalse(subscriptions.recipients(EventTopic.STATUS, 2, 1).contains(tablet));
+        assertEquals(0, subscriptions.getStats().get("activeTopics"));
+    }
+
+    @Test
+    void testSwitchingToFilteredIsAtomicForConcurrentBroadcasts() throws Exception {
+        TopicSubscriptions subscriptions = new TopicSubscriptions();
+        AtomicReference<WebSocketSession> latest = new AtomicReference<>();
+
+        // Cada sesión quiere el volumen del canal 1 sin filtro, por canal y con comodín:
+        // mientras cambia de una forma a otra debe recibirlo siempre exactamente una vez
+        Thread switcher = new Thread(() -> {
+            for (int i = 0; i < 500; i++) {
+                WebSocketSession session = newSession();
+                subscriptions.addSession(session);
+                latest.set(session);
+                subscriptions.subscribe(session, EnumSet.of(EventTopic.VOLUME), Set.of(1));
+                subscriptions.subscribe(session, EnumSet.of(EventTopic.VOLUME), Set.of());
+            }
+        });
+        switcher.start();
+        while (switcher.isAlive()) {
+            WebSocketSession session = latest.get();
+            Collection<WebSocketSession> recipients = subscriptions.recipients(EventTopic.VOLUME, 1, 1);
+            assertEquals(recipients.size(), Set.copyOf(recipients).size());
+            if (session != null) {
+                assertTrue(recipients.contains(session));
+            }
+        }
+        switcher.join();
+        assertEquals(500, subscriptions.recipients(EventTopic.VOLUME, 1, 500).size());
+    }
+}
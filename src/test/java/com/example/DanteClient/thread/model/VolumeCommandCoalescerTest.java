@@ -0,0 +1,97 @@
+package com.example.DanteClient.thread.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VolumeCommandCoalescerTest {
+
+    @Test
+    void testLatestWinsPerChannel() {
+        VolumeCommandCoalescer coalescer = new VolumeCommandCoalescer(16);
+
+        assertFalse(coalescer.offer(1, 10));
+        assertTrue(coalescer.offer(1, 20));
+        assertTrue(coalescer.offer(1, 30));
+        assertFalse(coalescer.offer(2, 70));
+
+        Map<Integer, Integer> drained = new HashMap<>();
+        assertEquals(2, coalescer.drain(drained));
+        assertEquals(30, drained.get(1));
+        assertEquals(70, drained.get(2));
+        assertFalse(coalescer.hasPending());
+
+        // Tras drenar el canal vuelve a estar vacío
+        drained.clear();
+        assertEquals(0, coalescer.drain(drained));
+        assertEquals(4, coalescer.getReceived());
+        assertEquals(2, coalescer.getCoalesced());
+        assertEquals(2, coalescer.getApplied());
+    }
+
+    @Test
+    void testRejectsInvalidCommands() {
+        VolumeCommandCoalescer coalescer = new VolumeCommandCoalescer(4);
+
+        assertThrows(IllegalArgumentException.class, () -> coalescer.offer(4, 50));
+        assertThrows(IllegalArgumentException.class, () -> coalescer.offer(-1, 50));
+        assertThrows(IllegalArgumentException.class, () -> coalescer.offer(0, 101));
+        assertEquals(0, coalescer.getReceived());
+    }
+
+    @Test
+    void testFaderSpamIsBoundedByTicks() throws Exception {
+        // Cliente sintético: varios faders enviando miles de valores mientras un tick drena
+        int channels = 8;
+        int messagesPerChannel = 5000;
+        VolumeCommandCoalescer coalescer = new VolumeCommandCoalescer(channels);
+        Map<Integer, Integer> applied = new HashMap<>();
+        AtomicBoolean producing = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(channels);
+
+        for (int channel = 0; channel < channels; channel++) {
+            int channelId = channel;
+            Thread fader = new Thread(() -> {
+                for (int i = 0; i < messagesPerChannel; i++) {
+                    coalescer.offer(channelId, i % 101);
+                }
+                coalescer.offer(channelId, channelId * 10); // Posición final del fader
+                done.countDown();
+            });
+            fader.start();
+        }
+
+        Thread ticker = new Thread(() -> {
+            while (producing.get() || coalescer.hasPending()) {
+                Map<Integer, Integer> tick = new HashMap<>();
+                coalescer.drain(tick);
+                synchronized (applied) {
+                    applied.putAll(tick);
+                }
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        ticker.start();
+        done.await();
+        producing.set(false);
+        ticker.join();
+
+        long received = coalescer.getReceived();
+        assertEquals((long) channels * (messagesPerChannel + 1), received);
+        assertEquals(received, coalescer.getApplied() + coalescer.getCoalesced());
+        // Cada canal termina con el último valor enviado
+        for (int channel = 0; channel < channels; channel++) {
+            assertEquals(channel * 10, applied.get(channel));
+        }
+        System.out.println("Fader spam: " + received + " comandos -> " + coalescer.getApplied() + " cambios aplicados");
+    }
+}
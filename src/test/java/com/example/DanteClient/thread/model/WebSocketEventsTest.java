@@ -0,0 +1,36 @@
+package com.example.DanteClient.thread.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketEventsTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testTypeFieldMatchesPreviousFormat() throws Exception {
+        JsonNode volume = objectMapper.readTree(WebSocketEvents.encode(
+                new WebSocketEvents.VolumeUpdate(3, 75, WebSocketEvents.timestamp())).getPayload());
+        assertEquals("volume", volume.get("type").asText());
+        assertEquals(3, volume.get("channelId").asInt());
+        assertEquals(75, volume.get("volumeLevel").asInt());
+        assertTrue(volume.hasNonNull("timestamp"));
+
+        JsonNode batch = objectMapper.readTree(WebSocketEvents.encode(new WebSocketEvents.VolumeBatch(
+                List.of(new WebSocketEvents.VolumeLevel(1, 10)), 42, WebSocketEvents.timestamp())).getPayload());
+        assertEquals("volume_batch", batch.get("type").asText());
+        assertEquals(10, batch.get("volumes").get(0).get("volumeLevel").asInt());
+        assertEquals(42, batch.get("stateVersion").asLong());
+
+        JsonNode failed = objectMapper.readTree(WebSocketEvents.encode(new WebSocketEvents.ThreadFailed(
+                "500", 2, "Canal 2", "IOException", "sin red", "Excepción", WebSocketEvents.timestamp())).getPayload());
+        assertEquals("thread_exception", failed.get("type").asText());
+        assertEquals("500", failed.get("status").asText());
+        assertEquals("sin red", failed.get("errorMessage").asText());
+    }
+}
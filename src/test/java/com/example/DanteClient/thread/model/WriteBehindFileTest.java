@@ -0,0 +1,88 @@
+package com.example.DanteClient.thread.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindFileTest {
+
+    private static final long MS = 1_000_000L;
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger value = new AtomicInteger();
+
+    private WriteBehindFile file(long debounceMs, long maxDelayMs) {
+        return new WriteBehindFile(dir.resolve("state.json"), objectMapper, () -> Map.of("value", value.get()),
+                debounceMs, maxDelayMs);
+    }
+
+    private int written() throws Exception {
+        return objectMapper.readTree(dir.resolve("state.json").toFile()).get("value").asInt();
+    }
+
+    @Test
+    void testBurstIsWrittenOnceAfterTheDebounce() throws Exception {
+        WriteBehindFile file = file(200, 5000);
+        long start = System.nanoTime();
+        for (int i = 1; i <= 50; i++) {
+            value.set(i);
+            file.markDirty();
+        }
+        assertFalse(file.flushIfDue(start + 100 * MS)); // Todavía dentro de la espera
+        assertFalse(Files.exists(file.getPath()));
+
+        assertTrue(file.flushIfDue(System.nanoTime() + 200 * MS));
+        assertEquals(50, written());
+        assertFalse(file.isDirty());
+        assertFalse(file.flushIfDue(System.nanoTime() + 10_000 * MS)); // Limpio: no vuelve a escribir
+        assertEquals(50L, file.getStats().get("changes"));
+        assertEquals(1L, file.getStats().get("writes"));
+        assertFalse(Files.exists(dir.resolve("state.json.tmp")));
+    }
+
+    @Test
+    void testContinuousChangesAreWrittenAfterTheMaxDelay() throws Exception {
+        WriteBehindFile file = file(200, 300);
+        long start = System.nanoTime();
+        file.markDirty();
+        Thread.sleep(150);
+        value.set(7);
+        file.markDirty(); // Cambios seguidos: la espera sin cambios nunca se cumple
+
+        assertFalse(file.flushIfDue(start + 250 * MS));
+        // 310 ms desde el primer cambio pero menos de 200 ms desde el último: vence por espera máxima
+        assertTrue(file.flushIfDue(start + 310 * MS));
+        assertEquals(7, written());
+    }
+
+    @Test
+    void testFailedWriteStaysDirtyAndIsRetried() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        WriteBehindFile file = new WriteBehindFile(dir.resolve("state.json"), objectMapper, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("estado no disponible");
+            }
+            return Map.of("value", 3);
+        }, 0, 0);
+
+        file.markDirty();
+        assertFalse(file.flush());
+        assertTrue(file.isDirty());
+        assertEquals(1L, file.getStats().get("failures"));
+        assertEquals("estado no disponible", file.getStats().get("lastError"));
+
+        assertTrue(file.flush());
+        assertEquals(3, written());
+        assertNull(file.getStats().get("lastError"));
+    }
+}
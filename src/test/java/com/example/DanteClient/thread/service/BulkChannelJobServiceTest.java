@@ -0,0 +1,124 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.config.ThreadWebSocketHandler;
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.model.BulkChannelJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BulkChannelJobServiceTest {
+
+    private static final int PARALLELISM = 8;
+
+    private BulkChannelJobService service;
+    private ChannelThreadService threadService;
+    private ThreadWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        threadService = mock(ChannelThreadService.class);
+        handler = mock(ThreadWebSocketHandler.class);
+        service = new BulkChannelJobService();
+        ReflectionTestUtils.setField(service, "threadService", threadService);
+        ReflectionTestUtils.setField(service, "threadWebSocketHandler", handler);
+        ReflectionTestUtils.setField(service, "parallelism", PARALLELISM);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    private static BulkChannelJob await(BulkChannelJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(job.isFinished(), "el trabajo no terminó a tiempo");
+        return job;
+    }
+
+    @Test
+    void testResultsPerChannelWithDuplicatesAndFailures() throws Exception {
+        when(threadService.startChannelThread(anyInt())).thenReturn(true);
+        when(threadService.startChannelThread(3)).thenThrow(new ThreadExceptions.ChannelDisabledException(3));
+
+        BulkChannelJob job = await(service.submitStart(List.of(1, 2, 3, 2, 4)));
+
+        // Los duplicados se procesan una sola vez, en el orden recibido
+        assertEquals(List.of(1, 2, 3, 4), job.getChannelIds());
+        assertEquals(3, job.getSuccessCount());
+        assertEquals(1, job.getFailCount());
+        List<BulkChannelJob.ChannelResult> results = job.getResults();
+        assertEquals(4, results.size());
+        assertFalse(results.get(2).isSuccess());
+        verify(threadService, times(1)).startChannelThread(2);
+        verify(handler, times(4)).notifyBulkChannelResult(eq(job), anyInt(), anyBoolean(), any(), anyLong(), anyInt());
+        verify(handler, timeout(1000)).notifyBulkJobCompleted(job); // Se notifica justo después de marcarlo terminado
+        assertSame(job, service.getJob(job.getJobId()));
+    }
+
+    @Test
+    void testStopUsesStopAndInvalidRequestsAreRejected() throws Exception {
+        when(threadService.stopChannelThread(anyInt())).thenReturn(true);
+        BulkChannelJob job = await(service.submitStop(List.of(5, 6)));
+        assertEquals(BulkChannelJob.ACTION_STOP, job.getAction());
+        assertEquals(2, job.getSuccessCount());
+        verify(threadService, never()).startChannelThread(anyInt());
+
+        assertThrows(ThreadExceptions.InvalidBulkRequestException.class, () -> service.submitStart(List.of()));
+        assertThrows(ThreadExceptions.InvalidBulkRequestException.class, () -> service.submitStart(null));
+        assertThrows(ThreadExceptions.BulkJobNotFoundException.class, () -> service.getJob("no-existe"));
+    }
+
+    @Test
+    void testChannelsStartInParallelUpToTheConfiguredLimit() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(threadService.startChannelThread(anyInt())).thenAnswer(invocation -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(20); // Preparación de un canal (línea + suscripción)
+            running.decrementAndGet();
+            return true;
+        });
+        List<Integer> ids = new ArrayList<>();
+        for (int id = 1; id <= 32; id++) {
+            ids.add(id);
+        }
+
+        BulkChannelJob job = await(service.submitStart(ids));
+
+        assertEquals(32, job.getSuccessCount());
+        assertEquals(PARALLELISM, peak.get());
+        // 32 canales de 20 ms en 8 hilos: ~4 rondas en lugar de 640 ms en serie
+        assertTrue(job.getElapsedMs() < 32 * 20 / 2, "tardó " + job.getElapsedMs() + " ms");
+    }
+
+    @Test
+    void testOnlyFinishedJobsAreEvicted() throws Exception {
+        when(threadService.startChannelThread(anyInt())).thenReturn(true);
+        BulkChannelJob first = await(service.submitStart(List.of(1)));
+        for (int i = 0; i < 50; i++) {
+            await(service.submitStart(List.of(1)));
+        }
+        assertEquals(50, service.getRecentJobs().size());
+        assertThrows(ThreadExceptions.BulkJobNotFoundException.class, () -> service.getJob(first.getJobId()));
+        verify(handler, atLeastOnce()).notifyBulkChannelResult(any(), anyInt(), anyBoolean(), anyString(), anyLong(), anyInt());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.DanteClient.thread.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelConsumerRegistryTest {
+
+    private ChannelConsumerRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new ChannelConsumerRegistry();
+        ReflectionTestUtils.setField(registry, "maxChannels", 8);
+        registry.init();
+    }
+
+    @Test
+    void testReferencesAreCountedPerConsumer() {
+        assertFalse(registry.hasConsumers(3));
+        assertEquals(1, registry.acquire(3, ChannelConsumerRegistry.CONSUMER_SPEAKER));
+        assertEquals(2, registry.acquire(3, "meters"));
+        assertEquals(3, registry.acquire(3, "meters"));
+        assertEquals(Map.of("speaker", 1, "meters", 2), registry.getConsumers(3));
+
+        assertEquals(2, registry.release(3, "meters"));
+        assertEquals(1, registry.release(3, ChannelConsumerRegistry.CONSUMER_SPEAKER));
+        assertTrue(registry.hasConsumers(3));
+        assertEquals(0, registry.release(3, "meters"));
+        assertFalse(registry.hasConsumers(3));
+        assertEquals(List.of(), registry.getConsumedChannels());
+    }
+
+    @Test
+    void testReleaseNeverGoesBelowZeroNorStealsOtherReferences() {
+        registry.acquire(2, ChannelConsumerRegistry.CONSUMER_SPEAKER);
+
+        // Liberar un consumidor que no estaba registrado no toca el total
+        assertEquals(1, registry.release(2, "recorder"));
+        registry.acquire(2, "recorder");
+        registry.release(2, "recorder");
+        assertEquals(1, registry.release(2, "recorder"));
+        assertEquals(Map.of("speaker", 1), registry.getConsumers(2));
+
+        registry.release(2, ChannelConsumerRegistry.CONSUMER_SPEAKER);
+        assertEquals(0, registry.release(2, ChannelConsumerRegistry.CONSUMER_SPEAKER));
+        assertEquals(1, registry.acquire(2, ChannelConsumerRegistry.CONSUMER_SPEAKER));
+    }
+
+    @Test
+    void testOutOfRangeChannelsAreAlwaysDecoded() {
+        assertEquals(0, registry.acquire(8, "meters"));
+        assertEquals(0, registry.release(-1, "meters"));
+        assertTrue(registry.hasConsumers(8));
+        assertTrue(registry.hasConsumers(-1));
+        assertEquals(0, registry.getConsumerCount(8));
+        assertTrue(registry.getConsumers(8).isEmpty());
+    }
+
+    @Test
+    void testConcurrentAcquireAndReleaseBalance() throws Exception {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String consumer = "stream-" + (t % 2);
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    registry.acquire(5, consumer);
+                    registry.release(5, consumer);
+                }
+                registry.acquire(5, consumer);
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8, registry.getConsumerCount(5));
+        assertEquals(Map.of("stream-0", 4, "stream-1", 4), registry.getConsumers(5));
+        assertEquals(List.of(5), registry.getConsumedChannels());
+    }
+}
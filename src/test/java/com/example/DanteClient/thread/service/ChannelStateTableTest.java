@@ -0,0 +1,191 @@
+package com.example.DanteClient.thread.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChannelStateTableTest {
+
+    private ChannelStateTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new ChannelStateTable();
+        ReflectionTestUtils.setField(table, "capacity", 16);
+        ReflectionTestUtils.setField(table, "duckDepthDb", 15.0);
+        table.init();
+        for (int id = 1; id <= 4; id++) {
+            table.setVolume(id, 80);
+        }
+    }
+
+    @Test
+    void testMultipleSolosKeepVolumes() {
+        table.setSolo(1, true);
+        table.setSolo(3, true);
+
+        assertEquals(80, table.getGain(1));
+        assertEquals(0, table.getGain(2));
+        assertEquals(80, table.getGain(3));
+        assertEquals(0, table.getGain(4));
+        // El solo no toca el volumen de ningún canal
+        assertEquals(80, table.getVolume(2));
+
+        table.setSolo(1, false);
+        table.setSolo(3, false);
+        assertEquals(80, table.getGain(2));
+        assertEquals(0, table.clearSolos());
+    }
+
+    @Test
+    void testSoloExclusiveAndClear() {
+        table.setSolo(2, true);
+        table.soloExclusive(4);
+
+        assertFalse(table.isSolo(2));
+        assertTrue(table.isSoloExclusive(4));
+        assertFalse(table.isSoloExclusive(2));
+        assertEquals(0, table.getGain(1));
+        assertEquals(80, table.getGain(4));
+
+        // La marca de solo exclusivo no es la de thread vivo
+        table.setActive(1, true);
+        table.soloExclusive(3);
+        assertTrue(table.isActive(1));
+        assertFalse(table.isSoloExclusive(4));
+        assertTrue(table.isSoloExclusive(3));
+
+        assertEquals(1, table.clearSolos());
+        assertFalse(table.isSoloExclusive(3));
+        assertTrue(table.isActive(1));
+        assertEquals(80, table.getGain(1));
+
+        // Quitar a mano el solo del canal exclusivo también quita la marca
+        table.soloExclusive(2);
+        table.setSolo(2, false);
+        assertFalse(table.isSoloExclusive(2));
+    }
+
+    @Test
+    void testPriorityChannelDucksTheRest() {
+        table.setPriority(1, true);
+
+        // 15 dB con la tabla de 60 dB = 25 pasos de volumen
+        assertTrue(table.isDucking());
+        assertEquals(80, table.getGain(1));
+        assertEquals(55, table.getGain(2));
+        assertEquals(55, table.snapshot().getGain(3));
+
+        // Un canal con prioridad muteado no atenúa al resto
+        table.setMuted(1, true);
+        assertFalse(table.isDucking());
+        assertEquals(80, table.getGain(2));
+
+        table.setMuted(1, false);
+        table.setVolume(1, 0);
+        assertFalse(table.isDucking());
+        table.setVolume(1, 50);
+        assertTrue(table.isDucking());
+        table.setPriority(1, false);
+        assertFalse(table.isDucking());
+    }
+
+    @Test
+    void testDuckingFollowsWhatIsActuallyAudible() {
+        table.setPriority(1, true);
+        assertTrue(table.isDucking());
+
+        // En solo otro canal, el prioritario no suena y no atenúa
+        table.setSolo(2, true);
+        assertFalse(table.isDucking());
+        assertEquals(80, table.getGain(2));
+        table.setSolo(1, true);
+        assertTrue(table.isDucking());
+        assertEquals(55, table.getGain(2));
+        table.clearSolos();
+
+        // Fundido de salida: el destino 0 se fija al empezar, pero atenúa hasta el final de la rampa
+        long now = System.nanoTime();
+        long end = table.startRamps(new int[]{1}, new int[]{0}, now, 60_000_000_000L);
+        assertTrue(table.isDucking());
+        assertEquals(55, table.getGain(3, now + 30_000_000_000L));
+        assertEquals(80, table.getGain(3, end));
+
+        // Cortado en seco: deja de atenuar al instante
+        table.setVolume(1, 0);
+        assertFalse(table.isDucking());
+        assertEquals(80, table.getGain(3));
+    }
+
+    @Test
+    void testRampReadsAreValidatedAgainstTheVersion() {
+        long start = 1_000_000_000L;
+        table.startRamps(new int[]{1}, new int[]{20}, start, 1_000_000_000L);
+        long middle = start + 500_000_000L;
+        assertEquals(50, table.getGain(1, middle));
+        assertEquals(50, table.getVolumeAt(1, middle));
+
+        // Escritura en curso (versión impar): no se mezclan origen y destino de rampas distintas
+        AtomicLong version = (AtomicLong) ReflectionTestUtils.getField(table, "version");
+        version.incrementAndGet();
+        assertEquals(20, table.getGain(1, middle));
+        assertEquals(20, table.getVolumeAt(1, middle));
+        version.incrementAndGet();
+        assertEquals(50, table.getGain(1, middle));
+
+        // Una rampa interrumpida continúa desde donde sonaba
+        table.startRamps(new int[]{1}, new int[]{80}, middle, 1_000_000_000L);
+        assertEquals(50, table.getVolumeAt(1, middle));
+        assertEquals(65, table.getVolumeAt(1, middle + 500_000_000L));
+    }
+
+    @Test
+    void testCueDoesNotAffectMainMix() {
+        table.setCue(2, true);
+        table.setVolume(2, 0);
+
+        assertTrue(table.isCue(2));
+        assertTrue(table.hasCue());
+        assertEquals(0, table.getGain(2));
+        assertEquals(80, table.getGain(1));
+
+        table.removeChannel(2);
+        assertFalse(table.hasCue());
+    }
+
+    @Test
+    void testBlockStatePacksGainAndFlagsInOneWord() {
+        table.setCue(2, true);
+        table.setSolo(2, true);
+        int state = table.getBlockState(2, System.nanoTime());
+        assertEquals(80, ChannelStateTable.gainOf(state));
+        assertTrue(ChannelStateTable.cueOf(state));
+        assertNotEquals(0, state & ChannelStateTable.STATE_SOLO);
+        // El solo ajeno ya va aplicado en la ganancia publicada
+        assertEquals(0, ChannelStateTable.gainOf(table.getBlockState(1, System.nanoTime())));
+
+        table.setMuted(2, true);
+        state = table.getBlockState(2, System.nanoTime());
+        assertEquals(0, ChannelStateTable.gainOf(state));
+        assertNotEquals(0, state & ChannelStateTable.STATE_MUTED);
+    }
+
+    @Test
+    void testRampMarkIsClearedOnceTheRampEnds() {
+        long start = 1_000_000_000L;
+        long end = table.startRamps(new int[]{1}, new int[]{20}, start, 1_000_000_000L);
+        assertEquals(50, table.getGain(1, start + 500_000_000L));
+
+        // Tras la rampa la palabra publicada ya tiene el destino y deja de calcularse al leer
+        assertEquals(20, table.getGain(1, end));
+        assertEquals(20, table.getGain(1, start + 500_000_000L));
+
+        // Una rampa nueva publica otra palabra: el CAS de un lector anterior no la pisa
+        table.startRamps(new int[]{1}, new int[]{80}, end, 1_000_000_000L);
+        assertEquals(50, table.getGain(1, end + 500_000_000L));
+    }
+}
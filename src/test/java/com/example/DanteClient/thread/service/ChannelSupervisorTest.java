@@ -0,0 +1,192 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.thread.config.ThreadWebSocketHandler;
+import com.example.DanteClient.thread.exception.ThreadExceptions;
+import com.example.DanteClient.thread.model.ChannelSupervisionState;
+import com.example.DanteClient.thread.model.RestartPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ChannelSupervisorTest {
+
+    private ChannelSupervisor supervisor;
+    private ChannelThreadService threadService;
+    private ThreadWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        threadService = mock(ChannelThreadService.class);
+        handler = mock(ThreadWebSocketHandler.class);
+        supervisor = new ChannelSupervisor();
+        ReflectionTestUtils.setField(supervisor, "threadService", threadService);
+        ReflectionTestUtils.setField(supervisor, "threadWebSocketHandler", handler);
+        ReflectionTestUtils.setField(supervisor, "defaultPolicyName", "ON_FAILURE");
+        // Reinicios lejanos: los tests comprueban la planificación sin que llegue a ejecutarse
+        configure(60_000, 600_000, 100, 60_000, 3_600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        supervisor.shutdown();
+    }
+
+    private void configure(long initialBackoffMs, long maxBackoffMs, int budget, long windowMs, long stableAfterMs) {
+        ReflectionTestUtils.setField(supervisor, "initialBackoffMs", initialBackoffMs);
+        ReflectionTestUtils.setField(supervisor, "maxBackoffMs", maxBackoffMs);
+        ReflectionTestUtils.setField(supervisor, "restartBudget", budget);
+        ReflectionTestUtils.setField(supervisor, "budgetWindowMs", windowMs);
+        ReflectionTestUtils.setField(supervisor, "stableAfterMs", stableAfterMs);
+    }
+
+    private List<Long> scheduledDelays(int times) {
+        ArgumentCaptor<Long> delays = ArgumentCaptor.forClass(Long.class);
+        verify(handler, times(times)).notifyChannelRestartScheduled(eq(1), anyInt(), delays.capture(), anyString());
+        return delays.getAllValues();
+    }
+
+    @Test
+    void testBackoffDoublesUpToTheMaximum() {
+        configure(60_000, 500_000, 100, 60_000, 3_600_000);
+        supervisor.onChannelStarted(1);
+        for (int i = 0; i < 5; i++) {
+            supervisor.onChannelExit(1, true, "fallo " + i);
+        }
+        assertEquals(List.of(60_000L, 120_000L, 240_000L, 480_000L, 500_000L), scheduledDelays(5));
+        assertEquals(ChannelSupervisionState.ACTUAL_BACKOFF, supervisor.getChannelInfo(1).get("actualState"));
+        assertEquals(5, supervisor.getChannelInfo(1).get("consecutiveFailures"));
+        assertNotNull(supervisor.getChannelInfo(1).get("nextRestartTime"));
+    }
+
+    @Test
+    void testShiftIsCappedForLongFailureStreaks() {
+        configure(1, Long.MAX_VALUE, 100, 60_000, 3_600_000);
+        supervisor.onChannelStarted(1);
+        for (int i = 0; i < 40; i++) {
+            supervisor.onChannelExit(1, true, "fallo");
+        }
+        // A partir del intento 21 el desplazamiento se queda en 20 bits (sin desbordar a negativo)
+        List<Long> delays = scheduledDelays(40);
+        assertEquals(1L << 20, delays.get(20));
+        assertEquals(1L << 20, delays.get(39));
+    }
+
+    @Test
+    void testStableRunResetsTheBackoff() {
+        configure(60_000, 600_000, 100, 60_000, 0);
+        for (int i = 0; i < 3; i++) {
+            supervisor.onChannelStarted(1);
+            supervisor.onChannelExit(1, true, "fallo");
+        }
+        assertEquals(List.of(60_000L, 60_000L, 60_000L), scheduledDelays(3));
+    }
+
+    @Test
+    void testPolicyDecidesWhichExitsRestart() {
+        supervisor.onChannelStarted(1);
+        supervisor.onChannelExit(1, false, "fin normal");
+        assertEquals(ChannelSupervisionState.ACTUAL_STOPPED, supervisor.getChannelInfo(1).get("actualState"));
+
+        supervisor.setPolicy(1, RestartPolicy.NEVER);
+        supervisor.onChannelStarted(1);
+        supervisor.onChannelExit(1, true, "fallo");
+        assertEquals(ChannelSupervisionState.ACTUAL_FAILED, supervisor.getChannelInfo(1).get("actualState"));
+
+        // Detenido a petición: nunca se reinicia, sea cual sea la política
+        supervisor.setPolicy(1, RestartPolicy.ALWAYS);
+        supervisor.onChannelStarted(1);
+        supervisor.onChannelStopRequested(1);
+        supervisor.onChannelExit(1, true, "fallo al parar");
+        verify(handler, never()).notifyChannelRestartScheduled(anyInt(), anyInt(), anyLong(), anyString());
+
+        supervisor.onChannelStarted(1);
+        supervisor.onChannelExit(1, false, "fin normal");
+        scheduledDelays(1);
+    }
+
+    @Test
+    void testBudgetExhaustionGivesUpUntilReset() {
+        configure(60_000, 600_000, 3, 60_000, 3_600_000);
+        supervisor.onChannelStarted(1);
+        for (int i = 0; i < 4; i++) {
+            supervisor.onChannelExit(1, true, "fallo " + i);
+        }
+        scheduledDelays(3);
+        verify(handler).notifyChannelRestartExhausted(1, 3, 60_000, "fallo 3");
+        assertEquals(ChannelSupervisionState.ACTUAL_GAVE_UP, supervisor.getChannelInfo(1).get("actualState"));
+        assertEquals(3, supervisor.getChannelInfo(1).get("restartsInWindow"));
+
+        // El reset vacía el presupuesto y vuelve a programar desde el primer intento
+        supervisor.resetChannel(1);
+        verify(handler, times(4)).notifyChannelRestartScheduled(eq(1), anyInt(), anyLong(), anyString());
+        verify(handler).notifyChannelRestartScheduled(1, 1, 60_000, "fallo 3");
+    }
+
+    @Test
+    void testScheduledRestartStartsTheChannelAndFailedAttemptsCount() {
+        configure(10, 1_000, 100, 60_000, 3_600_000);
+        when(threadService.startChannelThread(1))
+                .thenThrow(new ThreadExceptions.ThreadCreationException(1, new IllegalStateException("sin línea")))
+                .thenReturn(true);
+
+        supervisor.onChannelStarted(1);
+        supervisor.onChannelExit(1, true, "fallo");
+
+        // El primer intento falla (cuenta como otra salida con error) y el segundo arranca el canal
+        verify(threadService, timeout(2000).times(2)).startChannelThread(1);
+        verify(handler, timeout(2000)).notifyChannelRestartScheduled(eq(1), eq(2), eq(20L), anyString());
+    }
+
+    @Test
+    void testStopDuringBackoffCancelsThePendingRestart() throws Exception {
+        configure(200, 1_000, 100, 60_000, 3_600_000);
+        supervisor.onChannelStarted(1);
+        supervisor.onChannelStarted(2);
+        supervisor.onChannelExit(1, true, "fallo");
+        supervisor.onChannelExit(2, true, "fallo");
+        assertEquals(ChannelSupervisionState.ACTUAL_BACKOFF, supervisor.getChannelInfo(1).get("actualState"));
+
+        // Sin thread vivo: la parada cancela el reinicio programado
+        assertTrue(supervisor.onChannelStopRequested(1));
+        assertFalse(supervisor.onChannelStopRequested(1));
+        assertEquals(ChannelSupervisionState.DESIRED_STOPPED, supervisor.getChannelInfo(1).get("desiredState"));
+        assertNull(supervisor.getChannelInfo(1).get("nextRestartTime"));
+
+        // Parar todo también alcanza a los canales en backoff
+        assertEquals(List.of(2), supervisor.onAllStopRequested());
+        assertEquals(ChannelSupervisionState.DESIRED_STOPPED, supervisor.getChannelInfo(2).get("desiredState"));
+
+        Thread.sleep(500);
+        verify(threadService, never()).startChannelThread(anyInt());
+    }
+
+    @Test
+    void testServiceStopDuringBackoffSucceedsInsteadOfNotFound() throws Exception {
+        configure(200, 1_000, 100, 60_000, 3_600_000);
+        ChannelThreadService service = new ChannelThreadService();
+        ReflectionTestUtils.setField(service, "supervisor", supervisor);
+        ReflectionTestUtils.setField(supervisor, "threadService", service);
+        supervisor.onChannelStarted(3);
+        supervisor.onChannelExit(3, true, "fallo");
+
+        // DELETE sobre un canal en backoff: no es 404 y el canal no vuelve a arrancar
+        assertTrue(service.stopChannelThread(3));
+        assertThrows(ThreadExceptions.ThreadNotFoundException.class, () -> service.stopChannelThread(3));
+        assertEquals(ChannelSupervisionState.DESIRED_STOPPED, supervisor.getChannelInfo(3).get("desiredState"));
+
+        Thread.sleep(500);
+        assertFalse(service.isThreadActive(3));
+        assertEquals(ChannelSupervisionState.ACTUAL_STOPPED, supervisor.getChannelInfo(3).get("actualState"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.DanteClient.thread.service;
+
+import com.example.DanteClient.data.model.Channel;
+import com.example.DanteClient.data.model.DanteConfig;
+import com.example.DanteClient.data.singleton.ConfigSingleton;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VolumeStateStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private ChannelStateTable table;
+    private VolumeStateStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Configuración en RAM con los canales 1 a 3
+        DanteConfig config = new DanteConfig("127.0.0.1", "8080", "224.0.0.3", "5001", "64", "5000", 64, 48000);
+        for (int id = 1; id <= 3; id++) {
+            config.getChannels().add(new Channel(id, "Canal " + id, true));
+        }
+        new ConfigSingleton().updateConfigInMemory(config);
+
+        table = new ChannelStateTable();
+        ReflectionTestUtils.setField(table, "capacity", 16);
+        ReflectionTestUtils.setField(table, "duckDepthDb", 15.0);
+        table.init();
+        store = newStore();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    private VolumeStateStore newStore() {
+        VolumeStateStore volumeStateStore = new VolumeStateStore();
+        ReflectionTestUtils.setField(volumeStateStore, "stateTable", table);
+        ReflectionTestUtils.setField(volumeStateStore, "enabled", true);
+        ReflectionTestUtils.setField(volumeStateStore, "stateFile", dir.resolve("volume_state.json").toString());
+        ReflectionTestUtils.setField(volumeStateStore, "debounceMs", 60_000L);
+        ReflectionTestUtils.setField(volumeStateStore, "maxDelayMs", 60_000L);
+        volumeStateStore.init();
+        return volumeStateStore;
+    }
+
+    @Test
+    void testSavedStateIsRestoredForConfiguredChannels() throws Exception {
+        assertEquals(0, store.restore()); // Sin archivo todavía
+        table.setVolume(1, 40);
+        table.setMuted(2, true);
+        table.setVolume(2, 70);
+        table.setSolo(3, true);
+        table.setPriority(3, true);
+        store.flushAll();
+        assertTrue(Files.exists(dir.resolve("volume_state.json")));
+
+        // Arranque nuevo: tabla vacía y el archivo como única fuente
+        store.shutdown();
+        table.init();
+        store = newStore();
+        assertEquals(3, store.restore());
+        assertEquals(40, table.getVolume(1));
+        assertTrue(table.isMuted(2));
+        assertEquals(70, table.getVolume(2));
+        assertTrue(table.isSolo(3));
+        assertTrue(table.isPriority(3));
+
+        // Lo restaurado no cuenta como cambio pendiente
+        store.flushAll();
+        List<?> files = (List<?>) store.getStats().get("files");
+        assertEquals(0L, ((Map<?, ?>) files.get(0)).get("writes"));
+    }
+
+    @Test
+    void testUnknownChannelsAndCorruptFilesAreIgnored() throws Exception {
+        Files.writeString(dir.resolve("volume_state.json"),
+                "{\"channels\":[{\"channelId\":2,\"volume\":150},{\"channelId\":9,\"volume\":50},{\"channelId\":99}]}");
+        assertEquals(1, store.restore());
+        assertEquals(100, table.getVolume(2)); // Fuera de rango: se recorta
+        assertFalse(table.isKnown(9));
+
+        Files.writeString(dir.resolve("volume_state.json"), "{no es json");
+        assertEquals(0, store.restore());
+        assertEquals(100, table.getVolume(2));
+    }
+}